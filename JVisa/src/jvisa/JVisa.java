@@ -20,13 +20,8 @@ limitations under the License.
  */
 package jvisa;
 
-import com.sun.jna.Memory;
 import com.sun.jna.Native;
 import com.sun.jna.NativeLong;
-import com.sun.jna.Pointer;
-import com.sun.jna.ptr.ByteByReference;
-import com.sun.jna.ptr.IntByReference;
-import com.sun.jna.ptr.LongByReference;
 import com.sun.jna.ptr.NativeLongByReference;
 
 import java.io.IOException;
@@ -90,6 +85,23 @@ public class JVisa {
 
   /** default size for input buffer */
   protected int bufferSizeDefault = 1024;
+  /** VISA default for the communication timeout in ms */
+  public static final int TIMEOUT_DEFAULT = 2000;
+  /** communication timeout in ms as last set by setTimeout */
+  protected int timeout = TIMEOUT_DEFAULT;
+  /** cached attributes of the instrument session, null if no session is open */
+  protected JVisaAttributes instrumentAttributes;
+  /** 
+   * cached attributes of the last other session (usually the resource 
+   * manager) whose attributes were read, null if there is none 
+   */
+  protected JVisaAttributes sessionAttributes;
+  /**
+   * A deadline sets VI_ATTR_TMO_VALUE to the remaining budget. The attribute 
+   * is not set again as long as it exceeds the remaining budget by at most
+   * this fraction of the remaining budget.
+   */
+  protected double deadlineTolerance = 0.1;
   /** encoding of response when it is a string */
   protected String responseEncoding = "UTF8";
   /** the name of this class used by its logger */
@@ -237,6 +249,7 @@ public class JVisa {
       NativeLong visaStatus = visaLib.viClose(new NativeLong(visaResourceManagerHandle));
       statusObject.setStatus(visaStatus);
       statusObject.resourceManagerHandle = visaResourceManagerHandle = 0;
+      sessionAttributes = null;
     } catch (Exception e) {
       LOGGER.log(Level.SEVERE, e.getMessage(), e);
       return VISA_JAVA_ERROR;
@@ -265,7 +278,30 @@ public class JVisa {
   }
 
   /**
-   * This method gets an attribute of type byte (native ViUInt8).
+   * This method gets the attribute cache of a session.
+   * 
+   * @param sessionHandle
+   *          handle of resource manager or instrument
+   * @return cache of the instrument session, or of the last other session 
+   *         read
+   */
+  protected JVisaAttributes getSessionAttributes(long sessionHandle) {
+    if (instrumentAttributes != null && sessionHandle == instrumentAttributes.getSessionHandle()) {
+      return instrumentAttributes;
+    }
+    JVisaAttributes attributes = sessionAttributes;
+    if (attributes == null || attributes.getSessionHandle() != sessionHandle) {
+      attributes = new JVisaAttributes(this, sessionHandle);
+      sessionAttributes = attributes;
+    }
+    return attributes;
+  }
+
+  /**
+   * This method gets a numeric attribute. The type of the number in value
+   * selects the native type: Short for ViUInt8 and ViUInt16, Integer for 
+   * ViUInt32 and Long for 64 bit attributes. Attributes that cannot change
+   * during a session are read from the instrument only once.
    * 
    * @param attribute
    *          which attribute to get
@@ -276,41 +312,14 @@ public class JVisa {
    * @return status of the operation
    */
   public long getAttribute(int attribute, JVisaReturnNumber value, long sessionHandle) {
-    try {
-      NativeLong visaStatus;
-      String formatString = "Attribute value = 0x";
-      LOGGER.info(String.format("Get attribute 0x%08X.", attribute));
-      NativeLong attributeNative = new NativeLong(attribute);
-      NativeLong sessionNative = new NativeLong(sessionHandle);
-      if (value.returnNumber instanceof Short) {
-        ByteByReference pByte = new ByteByReference();
-        visaStatus = visaLib.viGetAttribute(sessionNative, attributeNative, pByte.getPointer());
-        value.returnNumber = pByte.getValue();
-        formatString += "%02X";
-      } else if (value.returnNumber instanceof Integer) {
-        IntByReference pInt = new IntByReference();
-        visaStatus = visaLib.viGetAttribute(sessionNative, attributeNative, pInt.getPointer());
-        value.returnNumber = pInt.getValue();
-        formatString += "%04X";
-      } else if (value.returnNumber instanceof Long) {
-        LongByReference pLong = new LongByReference();
-        visaStatus = visaLib.viGetAttribute(sessionNative, attributeNative, pLong.getPointer());
-        value.returnNumber = pLong.getValue();
-        formatString += "%08X";
-      } else {
-        return VISA_JAVA_ERROR;
-      }
-      statusObject.setStatus(visaStatus);
-      LOGGER.info(String.format(formatString, value.returnNumber));
-    } catch (Exception e) {
-      LOGGER.log(Level.SEVERE, e.getMessage(), e);
-      return VISA_JAVA_ERROR;
-    }
-    return statusObject.visaStatusLong;
+    LOGGER.info(String.format("Get attribute 0x%08X.", attribute));
+    return getSessionAttributes(sessionHandle).get(attribute, value);
   }
 
   /**
    * This method gets an attribute of type String (native ViPChar).
+   * Attributes that cannot change during a session are read from the 
+   * instrument only once.
    * 
    * @param attribute
    *          which attribute to get
@@ -321,21 +330,8 @@ public class JVisa {
    * @return status of the operation
    */
   public long getAttribute(int attribute, JVisaReturnString value, long sessionHandle) {
-    try {
-      LOGGER.info(String.format("Get attribute 0x%08X.", attribute));
-      Memory responseBuffer = new Memory(bufferSizeDefault);
-      NativeLong visaStatus = visaLib.viGetAttribute(new NativeLong(visaResourceManagerHandle),
-          new NativeLong(attribute), (Pointer) responseBuffer);
-      statusObject.setStatus(visaStatus);
-      if (statusObject.visaStatusLong == VisatypeLibrary.VI_SUCCESS) {
-        value.returnString = responseBuffer.getString(0, responseEncoding).trim();
-        LOGGER.info(String.format("Attribute value = %s", value.returnString));
-      }
-    } catch (Exception e) {
-      LOGGER.log(Level.SEVERE, e.getMessage(), e);
-      return VISA_JAVA_ERROR;
-    }
-    return statusObject.visaStatusLong;
+    LOGGER.info(String.format("Get attribute 0x%08X.", attribute));
+    return getSessionAttributes(sessionHandle).get(attribute, value);
   }
 
   /**
@@ -351,6 +347,10 @@ public class JVisa {
    */
   public long setAttribute(int attribute, int value, long sessionHandle) {
     try {
+      if (instrumentAttributes != null && sessionHandle == instrumentAttributes.getSessionHandle()) {
+        // Skip the native call if the attribute already has this value.
+        return instrumentAttributes.set(attribute, value);
+      }
       LOGGER.info(String.format("Set attribute 0x%08X to 0x%08X.", attribute, value));
       NativeLong visaStatus = visaLib.viSetAttribute(new NativeLong(sessionHandle), new NativeLong(attribute),
           new NativeLong(value));
@@ -383,19 +383,101 @@ public class JVisa {
    * @return status of the operation
    */
   public long setTimeout(int timeout) {
+    long visaStatus = applyTimeout(timeout);
+    if (visaStatus == VisatypeLibrary.VI_SUCCESS) {
+      this.timeout = timeout;
+    }
+    return visaStatus;
+  }
+
+  /**
+   * This method sets the VI_ATTR_TMO_VALUE attribute of the instrument session
+   * unless it already has the requested value.
+   * 
+   * @param timeout
+   *          in ms
+   * @return status of the operation
+   */
+  protected long applyTimeout(int timeout) {
     try {
       if (isLibreVisa) {
         LOGGER.info("Set timeout is not implemented.");
         return VisatypeLibrary.VI_SUCCESS;
       }
-      LOGGER.info("Set timeout.");
-      return setAttribute(JVisaInterface.VI_ATTR_TMO_VALUE, timeout, getInstrumentHandle());
+      if (instrumentAttributes == null) {
+        LOGGER.severe("Cannot set timeout without instrument session.");
+        return VISA_JAVA_ERROR;
+      }
+      return instrumentAttributes.set(JVisaInterface.VI_ATTR_TMO_VALUE, timeout);
     } catch (Exception e) {
       LOGGER.log(Level.SEVERE, e.getMessage(), e);
       return VISA_JAVA_ERROR;
     }
   }
 
+  /**
+   * This method sets the VI_ATTR_TMO_VALUE attribute of the instrument session
+   * to the time left until a deadline. Without a deadline, it restores the
+   * timeout set by setTimeout. The attribute is only set when the cached value
+   * would let the next operation time out before the deadline, or overrun it
+   * by more than the tolerance.
+   * 
+   * @param deadline
+   *          deadline of the operation or null
+   * @return status of the operation, VISA_JAVA_ERROR if the deadline has
+   *         passed
+   */
+  protected long applyDeadline(JVisaDeadline deadline) {
+    if (deadline == null) {
+      return applyTimeout(timeout);
+    }
+    long remaining = deadline.getRemaining();
+    if (remaining == 0) {
+      LOGGER.severe(String.format("Deadline of %d ms has passed.", deadline.getBudget()));
+      statusObject.setStatus(new NativeLong(JVisaInterface.VI_ERROR_TMO));
+      return VISA_JAVA_ERROR;
+    }
+    if (remaining > Integer.MAX_VALUE) {
+      remaining = Integer.MAX_VALUE;
+    }
+    Long timeoutAttribute = instrumentAttributes == null ? null
+            : instrumentAttributes.getSetValue(JVisaInterface.VI_ATTR_TMO_VALUE);
+    if (timeoutAttribute != null && timeoutAttribute >= remaining 
+            && timeoutAttribute <= remaining * (1.0 + deadlineTolerance)) {
+      return VisatypeLibrary.VI_SUCCESS;
+    }
+    return applyTimeout((int) remaining);
+  }
+
+  /**
+   * This method gets the cached attributes of the instrument session.
+   * 
+   * @return attribute cache, null if no instrument session is open
+   */
+  public JVisaAttributes getInstrumentAttributes() {
+    return instrumentAttributes;
+  }
+
+  /**
+   * This method gets the immutable attributes of the instrument session
+   * (manufacturer, model, interface type, serial number, ...) in one call.
+   * They are read from the instrument only the first time.
+   * 
+   * @return attribute snapshot, null if no instrument session is open
+   */
+  public JVisaAttributeSnapshot getInstrumentSnapshot() {
+    return instrumentAttributes == null ? null : instrumentAttributes.getSnapshot();
+  }
+
+  /**
+   * This method gets the communication timeout last set by setTimeout.
+   * 
+   * @return timeout in ms
+   */
+  public int getTimeout() {
+    return timeout;
+  }
+
   /**
    * This method gets the version of the resource (for example the version of
    * tkVisa64.dll).
@@ -463,6 +545,9 @@ public class JVisa {
       statusObject.setStatus(visaStatus);
       if (statusObject.visaStatusLong == VisatypeLibrary.VI_SUCCESS) {
         visaInstrumentHandle = pViInstrument.getValue();
+        instrumentAttributes = new JVisaAttributes(this, visaInstrumentHandle.longValue());
+        // A new session starts with the VISA default timeout.
+        instrumentAttributes.assume(JVisaInterface.VI_ATTR_TMO_VALUE, TIMEOUT_DEFAULT);
         LOGGER.info(String.format("viInstrument = 0x%08X.", visaInstrumentHandle.longValue()));
       } else {
         LOGGER.log(Level.SEVERE, String.format("Could not open session for %s.", instrument), (Throwable) null);
@@ -486,6 +571,7 @@ public class JVisa {
       LOGGER.info("Close instrument.");
       visaStatus = visaLib.viClose(visaInstrumentHandle);
       statusObject.setStatus(visaStatus);
+      instrumentAttributes = null;
       if (statusObject.visaStatusLong != VisatypeLibrary.VI_SUCCESS) {
         LOGGER.severe("Could not close session.");
         return VISA_JAVA_ERROR;
@@ -517,8 +603,27 @@ public class JVisa {
    *           if viWrite does not succeed
    */
   public long write(String command) throws JVisaException {
+    return write(command, null);
+  }
+
+  /**
+   * This method sends buffer content (usually a command) to the instrument
+   * within the time left until a deadline.
+   * 
+   * @param command
+   *          command or other ASCII data
+   * @param deadline
+   *          deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException
+   *           if viWrite does not succeed or the deadline has passed
+   */
+  public long write(String command, JVisaDeadline deadline) throws JVisaException {
     NativeLong visaStatus;
     try {
+      if (applyDeadline(deadline) != VisatypeLibrary.VI_SUCCESS) {
+        throw new JVisaException(statusObject.getVisaStatus());
+      }
       LOGGER.info(String.format("Write command \"%s\".", command));
       ByteBuffer pBuffer = stringToByteBuffer(command);
       if (pBuffer == null) {
@@ -557,8 +662,30 @@ public class JVisa {
    *           if viRead does not succeed
    */
   protected long read(ByteBuffer response, int bufferSize) throws JVisaException {
+    return read(response, bufferSize, (JVisaDeadline) null);
+  }
+
+  /**
+   * This method reads data from the instrument within the time left until a
+   * deadline.
+   * 
+   * @param response
+   *          response buffer
+   * @param bufferSize
+   *          size of response buffer in bytes
+   * @param deadline
+   *          deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException
+   *           if viRead does not succeed
+   */
+  protected long read(ByteBuffer response, int bufferSize, JVisaDeadline deadline) throws JVisaException {
     NativeLong visaStatus;
     try {
+      if (applyDeadline(deadline) != VisatypeLibrary.VI_SUCCESS) {
+        readCount = 0;
+        return VISA_JAVA_ERROR;
+      }
       LOGGER.info("Read response.");
       NativeLongByReference returnCount = new NativeLongByReference();
       visaStatus = visaLib.viRead(visaInstrumentHandle, response, new NativeLong(bufferSize), returnCount);
@@ -589,10 +716,28 @@ public class JVisa {
    *           if viRead does not succeed
    */
   public long read(JVisaReturnString response, int bufferSize) throws JVisaException {
+    return read(response, bufferSize, (JVisaDeadline) null);
+  }
+
+  /**
+   * This method reads a string from the instrument within the time left until
+   * a deadline.
+   * 
+   * @param response
+   *          response string
+   * @param bufferSize
+   *          size of response buffer in bytes
+   * @param deadline
+   *          deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException
+   *           if viRead does not succeed
+   */
+  public long read(JVisaReturnString response, int bufferSize, JVisaDeadline deadline) throws JVisaException {
     long visaStatus;
     try {
       ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
-      visaStatus = read(buffer, bufferSize);
+      visaStatus = read(buffer, bufferSize, deadline);
       if (visaStatus == VISA_JAVA_ERROR) {
         return visaStatus;
       }
@@ -634,11 +779,33 @@ public class JVisa {
    *           if viRead does not succeed
    */
   public long read(JVisaReturnBytes response, int bufferSize, int expectedCount) throws JVisaException {
+    return read(response, bufferSize, expectedCount, null);
+  }
+
+  /**
+   * This method reads a byte array from the instrument within the time left
+   * until a deadline.
+   * 
+   * @param response
+   *          response byte array
+   * @param bufferSize
+   *          size of response buffer in bytes
+   * @param expectedCount
+   *          expected number of bytes in response This parameter is only used
+   *          under Linux / libreVisa.
+   * @param deadline
+   *          deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException
+   *           if viRead does not succeed
+   */
+  public long read(JVisaReturnBytes response, int bufferSize, int expectedCount, 
+          JVisaDeadline deadline) throws JVisaException {
     long visaStatus;
     try {
       readCount = 0;
       ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
-      visaStatus = read(buffer, bufferSize);
+      visaStatus = read(buffer, bufferSize, deadline);
       if (visaStatus == VISA_JAVA_ERROR)
         return visaStatus;
       if (isLibreVisa == false || expectedCount == 0) {
@@ -655,7 +822,7 @@ public class JVisa {
       System.arraycopy(buffer.array(), 0, response.returnBytes, index, (int) readCount);
       while (bytesLeft > 0) {
         index += readCount;
-        visaStatus = read(buffer, bufferSize);
+        visaStatus = read(buffer, bufferSize, deadline);
         if (visaStatus == VISA_JAVA_ERROR)
           return visaStatus;
         System.arraycopy(buffer.array(), 0, response.returnBytes, index, (int) readCount);
@@ -0,0 +1,94 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package jvisa;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class holds the immutable attributes of a VISA session as read at
+ * one point in time.
+ * @author agent (agent@local)
+ */
+public class JVisaAttributeSnapshot {
+  /** handle of the session the attributes belong to */
+  public final long sessionHandle;
+  /** resource name, for example TCPIP::192.168.1.103::INSTR */
+  public final String resourceName;
+  /** manufacturer name */
+  public final String manufacturer;
+  /** model name */
+  public final String model;
+  /** serial number, empty if the interface does not report one */
+  public final String serialNumber;
+  /** interface type (VI_INTF_GPIB, VI_INTF_TCPIP, ...), -1 if unknown */
+  public final int interfaceType;
+  /** board number of the interface, -1 if unknown */
+  public final int interfaceNumber;
+  /** all attributes of the snapshot by attribute id */
+  private final Map<Integer, Object> values;
+
+
+  /**
+   * constructor
+   * @param sessionHandle handle of the session the attributes belong to
+   * @param values attribute values by attribute id
+   */
+  public JVisaAttributeSnapshot(long sessionHandle, Map<Integer, Object> values) {
+    this.sessionHandle = sessionHandle;
+    this.values = Collections.unmodifiableMap(new HashMap<>(values));
+    resourceName = getString(JVisaInterface.VI_ATTR_RSRC_NAME);
+    manufacturer = getString(JVisaInterface.VI_ATTR_MANF_NAME);
+    model = getString(JVisaInterface.VI_ATTR_MODEL_NAME);
+    serialNumber = getString(JVisaInterface.VI_ATTR_USB_SERIAL_NUM);
+    interfaceType = getUnsignedShort(JVisaInterface.VI_ATTR_INTF_TYPE);
+    interfaceNumber = getUnsignedShort(JVisaInterface.VI_ATTR_INTF_NUM);
+  }
+
+
+  /**
+   * This method gets a String attribute of the snapshot.
+   * @param attribute attribute id
+   * @return attribute value, empty if not in the snapshot
+   */
+  public final String getString(int attribute) {
+    Object value = values.get(attribute);
+    return value instanceof String ? (String) value : "";
+  }
+
+
+  /**
+   * This method gets a ViUInt16 attribute of the snapshot.
+   * @param attribute attribute id
+   * @return attribute value, -1 if not in the snapshot
+   */
+  public final int getUnsignedShort(int attribute) {
+    Object value = values.get(attribute);
+    return value instanceof Number ? ((Number) value).intValue() & 0xFFFF : -1;
+  }
+
+
+  /**
+   * This method gets all attributes of the snapshot.
+   * @return unmodifiable map of attribute values by attribute id
+   */
+  public Map<Integer, Object> getValues() {
+    return values;
+  }
+}
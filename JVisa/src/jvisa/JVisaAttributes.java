@@ -0,0 +1,302 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package jvisa;
+
+import com.sun.jna.Memory;
+import com.sun.jna.NativeLong;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import visatype.VisatypeLibrary;
+
+/**
+ * This class provides cached attribute access for one VISA session.
+ * Attributes that cannot change during a session (manufacturer, model,
+ * interface type, serial number, ...) are read from the instrument once.
+ * Setting an attribute to the value it already has is skipped. The native
+ * buffers are allocated once per session and reused for every call.
+ * @author agent (agent@local)
+ */
+public class JVisaAttributes {
+  /** attributes of type String that do not change during a session */
+  public static final int[] IMMUTABLE_STRING_ATTRIBUTES = {
+    JVisaInterface.VI_ATTR_RSRC_NAME,
+    JVisaInterface.VI_ATTR_MANF_NAME,
+    JVisaInterface.VI_ATTR_MODEL_NAME,
+    JVisaInterface.VI_ATTR_USB_SERIAL_NUM
+  };
+  /** attributes of type ViUInt16 that do not change during a session */
+  public static final int[] IMMUTABLE_SHORT_ATTRIBUTES = {
+    JVisaInterface.VI_ATTR_INTF_TYPE,
+    JVisaInterface.VI_ATTR_INTF_NUM,
+    JVisaInterface.VI_ATTR_MANF_ID,
+    JVisaInterface.VI_ATTR_MODEL_CODE
+  };
+  /** size of the buffer for String attributes (VI_FIND_BUFLEN) */
+  protected static final int STRING_BUFFER_SIZE = 256;
+  /** JVisa object owning the session */
+  protected final JVisa visa;
+  /** session handle */
+  protected final NativeLong sessionNative;
+  /** attribute id, reused for every call */
+  private final NativeLong attributeNative = new NativeLong();
+  /** attribute value to set, reused for every call */
+  private final NativeLong valueNative = new NativeLong();
+  /** buffer for numeric attributes, reused for every call */
+  private final Memory numberBuffer = new Memory(8);
+  /** buffer for String attributes, reused for every call */
+  private final Memory stringBuffer = new Memory(STRING_BUFFER_SIZE);
+  /** values of immutable attributes read so far */
+  protected final Map<Integer, Object> immutableValues = new HashMap<>();
+  /** immutable attributes the session does not support */
+  protected final Set<Integer> unsupported = new HashSet<>();
+  /** last value set for each attribute */
+  protected final Map<Integer, Long> setValues = new HashMap<>();
+
+
+  /**
+   * constructor
+   * @param visa JVisa object owning the session
+   * @param sessionHandle handle of resource manager or instrument
+   */
+  public JVisaAttributes(JVisa visa, long sessionHandle) {
+    this.visa = visa;
+    this.sessionNative = new NativeLong(sessionHandle);
+  }
+
+
+  /**
+   * This method gets the session handle.
+   * @return handle of resource manager or instrument
+   */
+  public long getSessionHandle() {
+    return sessionNative.longValue();
+  }
+
+
+  /**
+   * This method checks whether an attribute cannot change during a session.
+   * @param attribute attribute id
+   * @return true if the attribute value can be cached
+   */
+  public static boolean isImmutable(int attribute) {
+    for (int immutable : IMMUTABLE_STRING_ATTRIBUTES) {
+      if (immutable == attribute) {
+        return true;
+      }
+    }
+    for (int immutable : IMMUTABLE_SHORT_ATTRIBUTES) {
+      if (immutable == attribute) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * This method reads the attribute in attributeNative into a buffer.
+   * Only VI_ERROR_NSUP_ATTR marks an immutable attribute as unsupported;
+   * other errors (a timeout, a lost connection) may not happen again.
+   * @param buffer receives the attribute value
+   * @return VISA status, negative for an error, positive for a warning
+   */
+  private long getAttribute(Memory buffer) {
+    visa.statusObject.setStatus(JVisa.visaLib.viGetAttribute(sessionNative, attributeNative, buffer));
+    long visaStatus = visa.statusObject.visaStatusLong;
+    int attribute = attributeNative.intValue();
+    if (visaStatus == JVisaInterface.VI_ERROR_NSUP_ATTR && isImmutable(attribute)) {
+      unsupported.add(attribute);
+    }
+    return visaStatus;
+  }
+
+
+  /**
+   * This method gets an attribute of type String (native ViPChar).
+   * @param attribute which attribute to get
+   * @param value contains an attribute of type String
+   * @return status of the operation, VI_ERROR_NSUP_ATTR without native call
+   *         if the session is known not to support the attribute
+   */
+  public synchronized long get(int attribute, JVisaReturnString value) {
+    try {
+      Object cached = immutableValues.get(attribute);
+      if (cached instanceof String) {
+        value.returnString = (String) cached;
+        return VisatypeLibrary.VI_SUCCESS;
+      }
+      if (unsupported.contains(attribute)) {
+        return JVisaInterface.VI_ERROR_NSUP_ATTR;
+      }
+      stringBuffer.clear();
+      attributeNative.setValue(attribute);
+      long visaStatus = getAttribute(stringBuffer);
+      if (visaStatus < VisatypeLibrary.VI_SUCCESS) {
+        return visaStatus;
+      }
+      value.returnString = stringBuffer.getString(0, visa.responseEncoding).trim();
+      if (isImmutable(attribute)) {
+        immutableValues.put(attribute, value.returnString);
+      }
+      return visaStatus;
+    }
+    catch (Error | Exception e) {
+      JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return JVisa.VISA_JAVA_ERROR;
+    }
+  }
+
+
+  /**
+   * This method gets a numeric attribute. The type of the number in value
+   * selects the native type: Short for ViUInt16 (and ViUInt8, which fills
+   * the low byte), Integer for ViUInt32 and Long for 64 bit attributes.
+   * @param attribute which attribute to get
+   * @param value contains an attribute
+   * @return status of the operation, VI_ERROR_NSUP_ATTR without native call
+   *         if the session is known not to support the attribute
+   */
+  public synchronized long get(int attribute, JVisaReturnNumber value) {
+    try {
+      Object cached = immutableValues.get(attribute);
+      if (cached instanceof Number) {
+        value.returnNumber = (Number) cached;
+        return VisatypeLibrary.VI_SUCCESS;
+      }
+      if (unsupported.contains(attribute)) {
+        return JVisaInterface.VI_ERROR_NSUP_ATTR;
+      }
+      numberBuffer.setLong(0, 0);
+      attributeNative.setValue(attribute);
+      long visaStatus = getAttribute(numberBuffer);
+      if (visaStatus < VisatypeLibrary.VI_SUCCESS) {
+        return visaStatus;
+      }
+      if (value.returnNumber instanceof Short) {
+        value.returnNumber = numberBuffer.getShort(0);
+      }
+      else if (value.returnNumber instanceof Long) {
+        value.returnNumber = numberBuffer.getLong(0);
+      }
+      else {
+        value.returnNumber = numberBuffer.getInt(0);
+      }
+      if (isImmutable(attribute)) {
+        immutableValues.put(attribute, value.returnNumber);
+      }
+      return visaStatus;
+    }
+    catch (Error | Exception e) {
+      JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return JVisa.VISA_JAVA_ERROR;
+    }
+  }
+
+
+  /**
+   * This method sets an attribute unless the last value set is the same.
+   * @param attribute which attribute to set
+   * @param value attribute value
+   * @return status of the operation
+   */
+  public synchronized long set(int attribute, long value) {
+    try {
+      Long previous = setValues.get(attribute);
+      if (previous != null && previous == value) {
+        return VisatypeLibrary.VI_SUCCESS;
+      }
+      JVisa.LOGGER.info(String.format("Set attribute 0x%08X to 0x%08X.", attribute, value));
+      attributeNative.setValue(attribute);
+      valueNative.setValue(value);
+      long visaStatus = visa.statusObject.setStatus(
+              JVisa.visaLib.viSetAttribute(sessionNative, attributeNative, valueNative));
+      if (visaStatus == VisatypeLibrary.VI_SUCCESS) {
+        setValues.put(attribute, value);
+      }
+      else {
+        setValues.remove(attribute);
+      }
+      return visaStatus;
+    }
+    catch (Error | Exception e) {
+      JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      setValues.remove(attribute);
+      return JVisa.VISA_JAVA_ERROR;
+    }
+  }
+
+
+  /**
+   * This method records the value an attribute is known to have without
+   * setting it, for example the default value of a new session.
+   * @param attribute attribute id
+   * @param value known attribute value
+   */
+  public synchronized void assume(int attribute, long value) {
+    setValues.put(attribute, value);
+  }
+
+
+  /**
+   * This method gets the last value set for an attribute.
+   * @param attribute attribute id
+   * @return attribute value or null if it is unknown
+   */
+  public synchronized Long getSetValue(int attribute) {
+    return setValues.get(attribute);
+  }
+
+
+  /**
+   * This method forgets all cached values, for example after the instrument
+   * has been replaced behind the same resource name.
+   */
+  public synchronized void invalidate() {
+    immutableValues.clear();
+    unsupported.clear();
+    setValues.clear();
+  }
+
+
+  /**
+   * This method gets all immutable attributes in one call. Attributes the
+   * session does not support (for example the USB serial number of a TCPIP
+   * instrument) are left out of the snapshot.
+   * @return snapshot of the immutable attributes, keyed by attribute id
+   */
+  public synchronized JVisaAttributeSnapshot getSnapshot() {
+    Map<Integer, Object> values = new HashMap<>();
+    JVisaReturnString stringValue = new JVisaReturnString();
+    for (int attribute : IMMUTABLE_STRING_ATTRIBUTES) {
+      if (get(attribute, stringValue) >= VisatypeLibrary.VI_SUCCESS) {
+        values.put(attribute, stringValue.returnString);
+      }
+    }
+    JVisaReturnNumber numberValue = new JVisaReturnNumber((short) 0);
+    for (int attribute : IMMUTABLE_SHORT_ATTRIBUTES) {
+      numberValue.returnNumber = (short) 0;
+      if (get(attribute, numberValue) >= VisatypeLibrary.VI_SUCCESS) {
+        values.put(attribute, numberValue.returnNumber);
+      }
+    }
+    return new JVisaAttributeSnapshot(getSessionHandle(), values);
+  }
+}
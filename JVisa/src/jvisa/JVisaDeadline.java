@@ -0,0 +1,77 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package jvisa;
+
+/**
+ * This class holds the time budget of an operation that may consist of
+ * several writes and reads. Each write and read that gets a deadline sets
+ * the VISA timeout to the remaining budget.
+ * @author agent (agent@local)
+ */
+public class JVisaDeadline {
+  /** start of the operation in ns (System.nanoTime) */
+  private final long start;
+  /** time budget of the operation in ms */
+  private final long budget;
+
+
+  /**
+   * The constructor starts the clock.
+   * @param budget time budget of the operation in ms
+   */
+  public JVisaDeadline(long budget) {
+    this.start = System.nanoTime();
+    this.budget = Math.max(0, budget);
+  }
+
+
+  /**
+   * This method gets the time budget.
+   * @return budget in ms
+   */
+  public long getBudget() {
+    return budget;
+  }
+
+
+  /**
+   * This method gets the time passed since the operation started.
+   * @return elapsed time in ms
+   */
+  public long getElapsed() {
+    return (System.nanoTime() - start) / 1000000L;
+  }
+
+
+  /**
+   * This method gets the time left until the deadline.
+   * @return remaining time in ms, 0 if the deadline has passed
+   */
+  public long getRemaining() {
+    return Math.max(0, budget - getElapsed());
+  }
+
+
+  /**
+   * This method checks whether the deadline has passed.
+   * @return true if no time is left
+   */
+  public boolean isExpired() {
+    return getRemaining() == 0;
+  }
+}
@@ -17,6 +17,8 @@ limitations under the License.
  */
 package jvisa;
 
+import com.sun.jna.NativeLong;
+import java.nio.ShortBuffer;
 import java.util.logging.Level;
 import visatype.VisatypeLibrary;
 
@@ -48,6 +50,18 @@ public class JVisaInstrument extends JVisa {
   public String getId() {
     return instrumentId;
   }
+  /** query that returns "1" when all pending operations have finished */
+  public static final String OPERATION_COMPLETE_QUERY = "*OPC?";
+  /** status byte bit MAV: message available in output queue */
+  public static final int STATUS_BYTE_MAV = 0x10;
+  /** status byte bit ESB: event status bit, set by an enabled standard event */
+  public static final int STATUS_BYTE_ESB = 0x20;
+  /** status byte bit RQS: request service */
+  public static final int STATUS_BYTE_RQS = 0x40;
+  /** default time in ms between two serial polls */
+  public static final long STATUS_BYTE_POLL_INTERVAL = 2;
+  /** buffer receiving the status byte, reused for every serial poll */
+  private final ShortBuffer statusByteBuffer = ShortBuffer.allocate(1);
   /** logger of this class */
 //  private static final Logger LOGGER_INSTRUMENT = Logger.getLogger(JVisaInstrument.className);
 
@@ -64,13 +78,29 @@ public class JVisaInstrument extends JVisa {
    */
   public long sendAndReceive(String command, JVisaReturnString response, int bufferSize) 
           throws JVisaException {
+    return sendAndReceive(command, response, bufferSize, (JVisaDeadline) null);
+  }
+
+
+  /**
+   * This method sends a command and receives its response string within the
+   * time left until a deadline.
+   * @param command string to send
+   * @param response string received
+   * @param bufferSize size of string (C string) buffer
+   * @param deadline deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException if viWrite or viRead does not succeed
+   */
+  public long sendAndReceive(String command, JVisaReturnString response, int bufferSize,
+          JVisaDeadline deadline) throws JVisaException {
     visaStatus = VISA_JAVA_ERROR;
     try {
-      visaStatus = write(command);
+      visaStatus = write(command, deadline);
       if (visaStatus != VisatypeLibrary.VI_SUCCESS) {
         return visaStatus;
       }
-      return read(response, bufferSize);
+      return read(response, bufferSize, deadline);
     }
     catch (JVisaException e) {
       LOGGER.log(Level.SEVERE, e.getMessage(), e);
@@ -94,6 +124,21 @@ public class JVisaInstrument extends JVisa {
   }
 
 
+  /**
+   * This method sends a command and receives its response string within the
+   * time left until a deadline.
+   * @param command string to send
+   * @param response string received
+   * @param deadline deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException if viWrite or viRead does not succeed
+   */
+  public long sendAndReceive(String command, JVisaReturnString response, 
+          JVisaDeadline deadline) throws JVisaException {
+    return sendAndReceive(command, response, bufferSizeDefault, deadline);
+  }
+
+
   /**
    * This method sends a command and receives its response. 
    * It insists in receiving at least a given number of bytes.
@@ -106,13 +151,31 @@ public class JVisaInstrument extends JVisa {
    */
   public long sendAndReceive(String command, JVisaReturnBytes response, 
           int bufferSize, int expectedCount) {
+    return sendAndReceive(command, response, bufferSize, expectedCount, null);
+  }
+
+
+  /**
+   * This method sends a command and receives its response within the time
+   * left until a deadline. It insists in receiving at least a given number 
+   * of bytes.
+   * @param command string to send
+   * @param response bytes received
+   * @param bufferSize size of buffer to allocate. The size can be set smaller 
+   *                   since it gets allocated with readCount.
+   * @param expectedCount expected number of bytes in response
+   * @param deadline deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   */
+  public long sendAndReceive(String command, JVisaReturnBytes response, 
+          int bufferSize, int expectedCount, JVisaDeadline deadline) {
     visaStatus = VISA_JAVA_ERROR;
     try {
-      visaStatus = write(command);
+      visaStatus = write(command, deadline);
       if (visaStatus != VisatypeLibrary.VI_SUCCESS) {
         return visaStatus;
       }
-      return read(response, bufferSize, expectedCount);
+      return read(response, bufferSize, expectedCount, deadline);
     }
     catch (JVisaException e) {
       LOGGER.log(Level.SEVERE, e.getMessage(), e);
@@ -161,4 +224,178 @@ public class JVisaInstrument extends JVisa {
       return VISA_JAVA_ERROR;
     }
   }
+
+
+  /**
+   * This method sends a command followed by "*OPC?" and blocks on a single
+   * read until the instrument reports that the operation has finished.
+   * Instead of polling the instrument, the VISA timeout is set to the time 
+   * budget for the duration of this read.
+   * @param command command that starts the operation, for example "*RST". 
+   *                If empty, only "*OPC?" is sent.
+   * @param timeout wait at most this many milliseconds
+   * @param elapsedTime number of milliseconds until the instrument answered
+   *                    or the timeout expired
+   * @return status of the operation, VI_ERROR_TMO if the operation did not
+   *         finish within the timeout
+   */
+  public long sendAndWaitForCompletion(String command, int timeout, 
+          JVisaReturnNumber elapsedTime) {
+    return sendAndWaitForCompletion(command, new JVisaDeadline(timeout), elapsedTime);
+  }
+
+
+  /**
+   * This method sends a command followed by "*OPC?" and blocks on a single
+   * read until the instrument reports that the operation has finished or the
+   * deadline has passed.
+   * @param command command that starts the operation, for example "*RST". 
+   *                If empty, only "*OPC?" is sent.
+   * @param deadline deadline of the operation
+   * @param elapsedTime number of milliseconds until the instrument answered
+   *                    or the deadline passed
+   * @return status of the operation, VI_ERROR_TMO if the operation did not
+   *         finish before the deadline
+   */
+  public long sendAndWaitForCompletion(String command, JVisaDeadline deadline, 
+          JVisaReturnNumber elapsedTime) {
+    visaStatus = VISA_JAVA_ERROR;
+    long start = System.nanoTime();
+    String query = command == null || command.isEmpty() ? OPERATION_COMPLETE_QUERY 
+            : String.format("%s;%s", command, OPERATION_COMPLETE_QUERY);
+    try {
+      JVisaReturnString response = new JVisaReturnString();
+      visaStatus = sendAndReceive(query, response, deadline);
+      if (visaStatus != VisatypeLibrary.VI_SUCCESS) {
+        if ((int) statusObject.visaStatusLong == JVisaInterface.VI_ERROR_TMO) {
+          LOGGER.warning(String.format("%s did not complete within %d ms.", 
+                  query, deadline.getBudget()));
+          visaStatus = JVisaInterface.VI_ERROR_TMO;
+        }
+        return visaStatus;
+      }
+      if (response.returnString.endsWith("1") == false) {
+        LOGGER.severe(String.format("Unexpected response \"%s\" to %s.", 
+                response.returnString, query));
+        visaStatus = VISA_JAVA_ERROR;
+      }
+      return visaStatus;
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      visaStatus = (int) statusObject.visaStatusLong == JVisaInterface.VI_ERROR_TMO 
+              ? JVisaInterface.VI_ERROR_TMO : VISA_JAVA_ERROR;
+      return visaStatus;
+    }
+    finally {
+      elapsedTime.returnNumber = (System.nanoTime() - start) / 1000000L;
+    }
+  }
+
+
+  /**
+   * This method blocks until the instrument reports that all pending 
+   * operations have finished.
+   * @param timeout wait at most this many milliseconds
+   * @param elapsedTime number of milliseconds until the instrument answered
+   * @return status of the operation, VI_ERROR_TMO if the operation did not
+   *         finish within the timeout
+   */
+  public long waitForCompletion(int timeout, JVisaReturnNumber elapsedTime) {
+    return sendAndWaitForCompletion("", timeout, elapsedTime);
+  }
+
+
+  /**
+   * This method reads the status byte by a serial poll (viReadSTB). 
+   * Unlike a status query, a serial poll does not go through the command 
+   * parser of the instrument and does not disturb its output queue.
+   * @param statusByte status byte, for example with bits STATUS_BYTE_MAV,
+   *                   STATUS_BYTE_ESB and STATUS_BYTE_RQS
+   * @return status of the operation
+   */
+  public long readStatusByte(JVisaReturnNumber statusByte) {
+    visaStatus = VISA_JAVA_ERROR;
+    try {
+      NativeLong status = visaLib.viReadSTB(visaInstrumentHandle, statusByteBuffer);
+      visaStatus = statusObject.setStatus(status);
+      if (visaStatus == VisatypeLibrary.VI_SUCCESS) {
+        statusByte.returnNumber = statusByteBuffer.get(0) & 0xFF;
+      }
+      return visaStatus;
+    }
+    catch (Error | Exception e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return VISA_JAVA_ERROR;
+    }
+  }
+
+
+  /**
+   * This method polls the status byte until one of the bits in a mask is set
+   * or the timeout is reached.
+   * @param mask status byte bits to wait for
+   * @param timeout stop waiting after this many milliseconds
+   * @param pollInterval time in ms between two serial polls
+   * @return status of the operation, VI_ERROR_TMO if no bit was set in time
+   */
+  public long waitForStatusByte(int mask, long timeout, long pollInterval) {
+    JVisaReturnNumber statusByte = new JVisaReturnNumber(0);
+    long pollingStart = System.currentTimeMillis();
+    try {
+      while (true) {
+        visaStatus = readStatusByte(statusByte);
+        if (visaStatus != VisatypeLibrary.VI_SUCCESS) {
+          return visaStatus;
+        }
+        if ((statusByte.returnNumber.intValue() & mask) != 0) {
+          return visaStatus;
+        }
+        if (System.currentTimeMillis() - pollingStart >= timeout) {
+          visaStatus = JVisaInterface.VI_ERROR_TMO;
+          return visaStatus;
+        }
+        if (pollInterval > 0) {
+          Thread.sleep(pollInterval);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      visaStatus = VISA_JAVA_ERROR;
+      return visaStatus;
+    }
+  }
+
+
+  /**
+   * This method waits until the instrument has a message in its output queue.
+   * @param timeout stop waiting after this many milliseconds
+   * @return status of the operation, VI_ERROR_TMO if no message is available
+   */
+  public long waitForMessageAvailable(long timeout) {
+    return waitForStatusByte(STATUS_BYTE_MAV, timeout, STATUS_BYTE_POLL_INTERVAL);
+  }
+
+
+  /**
+   * This method waits until an event enabled with "*ESE" has occurred, for 
+   * example operation complete after "*ESE 1" and "*OPC".
+   * @param timeout stop waiting after this many milliseconds
+   * @return status of the operation, VI_ERROR_TMO if no event occurred
+   */
+  public long waitForEventStatus(long timeout) {
+    return waitForStatusByte(STATUS_BYTE_ESB, timeout, STATUS_BYTE_POLL_INTERVAL);
+  }
+
+
+  /**
+   * This method waits until the instrument requests service.
+   * @param timeout stop waiting after this many milliseconds
+   * @return status of the operation, VI_ERROR_TMO if no service was requested
+   */
+  public long waitForServiceRequest(long timeout) {
+    return waitForStatusByte(STATUS_BYTE_RQS, timeout, STATUS_BYTE_POLL_INTERVAL);
+  }
 }
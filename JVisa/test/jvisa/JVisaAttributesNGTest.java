@@ -0,0 +1,162 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package jvisa;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import visatype.VisatypeLibrary;
+
+/**
+ * This class provides TestNG functions for testing the JVisaAttributes class
+ * and the attribute access of the JVisa class. The VISA library is replaced
+ * by a proxy, so no instrument and no VISA library are needed.
+ * @author agent (agent@local)
+ */
+public class JVisaAttributesNGTest {
+  /** VISA library replaced during the test */
+  private static JVisaInterface savedVisaLib;
+  /** status the proxy returns from viGetAttribute */
+  private static int getStatus;
+  /** number of viGetAttribute calls */
+  private static int getCount;
+  /** proxy for the VISA library */
+  private static final JVisaInterface FAKE_VISA_LIB = (JVisaInterface) Proxy.newProxyInstance(
+          JVisaInterface.class.getClassLoader(), new Class<?>[] {JVisaInterface.class}, 
+          new InvocationHandler() {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (method.getName().equals("toString")) {
+        return "no VISA library";
+      }
+      if (method.getName().equals("viGetAttribute")) {
+        getCount++;
+        Pointer buffer = (Pointer) args[2];
+        if (((NativeLong) args[1]).intValue() == JVisaInterface.VI_ATTR_MANF_NAME) {
+          buffer.setString(0, "TEKTRONIX");
+        }
+        else {
+          buffer.setShort(0, (short) 7);
+        }
+        return new NativeLong(getStatus);
+      }
+      return null;
+    }
+  });
+
+
+  /**
+   * This method replaces the VISA library by the proxy.
+   */
+  @BeforeClass
+  public static void setUpClass() {
+    savedVisaLib = JVisa.visaLib;
+    JVisa.visaLib = FAKE_VISA_LIB;
+  }
+
+
+  /**
+   * This method restores the VISA library.
+   */
+  @AfterClass
+  public static void tearDownClass() {
+    JVisa.visaLib = savedVisaLib;
+  }
+
+
+  /**
+   * This method creates a JVisa object with an instrument session that does
+   * not need the native library.
+   * @return JVisa object
+   */
+  private static JVisa createVisa() {
+    JVisa visa = new JVisa();
+    visa.statusObject = new JVisaStatus(1024, "UTF8", FAKE_VISA_LIB);
+    visa.instrumentAttributes = new JVisaAttributes(visa, 1);
+    return visa;
+  }
+
+
+  /**
+   * Test of get with errors and warnings, of class JVisaAttributes.
+   */
+  @Test
+  public void testGetStatus() {
+    System.out.println("get status");
+    JVisaAttributes attributes = createVisa().instrumentAttributes;
+    JVisaReturnNumber value = new JVisaReturnNumber((short) 0);
+    getCount = 0;
+    // A timeout is not remembered.
+    getStatus = JVisaInterface.VI_ERROR_TMO;
+    assertEquals(attributes.get(JVisaInterface.VI_ATTR_INTF_TYPE, value), JVisaInterface.VI_ERROR_TMO);
+    getStatus = VisatypeLibrary.VI_SUCCESS;
+    assertEquals(attributes.get(JVisaInterface.VI_ATTR_INTF_TYPE, value), VisatypeLibrary.VI_SUCCESS);
+    assertEquals(value.returnNumber.intValue(), 7);
+    assertEquals(getCount, 2);
+    // The immutable value is cached.
+    assertEquals(attributes.get(JVisaInterface.VI_ATTR_INTF_TYPE, value), VisatypeLibrary.VI_SUCCESS);
+    assertEquals(getCount, 2);
+    // An unsupported immutable attribute is not read again.
+    getStatus = JVisaInterface.VI_ERROR_NSUP_ATTR;
+    assertEquals(attributes.get(JVisaInterface.VI_ATTR_MODEL_CODE, value), 
+            JVisaInterface.VI_ERROR_NSUP_ATTR);
+    assertEquals(attributes.get(JVisaInterface.VI_ATTR_MODEL_CODE, value), 
+            JVisaInterface.VI_ERROR_NSUP_ATTR);
+    assertEquals(getCount, 3);
+    // A warning delivers the value.
+    getStatus = JVisaInterface.VI_WARN_NSUP_ATTR_STATE;
+    JVisaReturnString name = new JVisaReturnString();
+    assertEquals(attributes.get(JVisaInterface.VI_ATTR_MANF_NAME, name), 
+            JVisaInterface.VI_WARN_NSUP_ATTR_STATE);
+    assertEquals(name.returnString, "TEKTRONIX");
+    assertEquals(attributes.getSnapshot().manufacturer, "TEKTRONIX");
+  }
+
+
+  /**
+   * Test of getAttribute, of class JVisa.
+   */
+  @Test
+  public void testGetAttribute() {
+    System.out.println("getAttribute");
+    JVisa visa = createVisa();
+    getStatus = VisatypeLibrary.VI_SUCCESS;
+    getCount = 0;
+    JVisaReturnString name = new JVisaReturnString();
+    assertEquals(visa.getAttribute(JVisaInterface.VI_ATTR_MANF_NAME, name, 1), 
+            VisatypeLibrary.VI_SUCCESS);
+    assertEquals(visa.getAttribute(JVisaInterface.VI_ATTR_MANF_NAME, name, 1), 
+            VisatypeLibrary.VI_SUCCESS);
+    assertEquals(name.returnString, "TEKTRONIX");
+    assertEquals(getCount, 1);
+    assertSame(visa.getSessionAttributes(1), visa.instrumentAttributes);
+    // Another session gets its own cache, reused for the next call.
+    JVisaReturnNumber value = new JVisaReturnNumber(0);
+    assertEquals(visa.getAttribute(JVisaInterface.VI_ATTR_TMO_VALUE, value, 2), 
+            VisatypeLibrary.VI_SUCCESS);
+    assertEquals(value.returnNumber.intValue(), 7);
+    assertSame(visa.getSessionAttributes(2), visa.getSessionAttributes(2));
+    assertNotSame(visa.getSessionAttributes(2), visa.instrumentAttributes);
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package jvisa;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import visatype.VisatypeLibrary;
+
+/**
+ * This class provides TestNG functions for testing the JVisaDeadline class
+ * and the deadline handling of the JVisa class. No instrument and no VISA
+ * library are needed.
+ * @author agent (agent@local)
+ */
+public class JVisaDeadlineNGTest {
+
+  /**
+   * This class records the timeouts applyDeadline sets instead of setting
+   * the VISA attribute.
+   */
+  static class DeadlineVisa extends JVisa {
+    /** timeouts set by applyDeadline */
+    final List<Integer> timeouts = new ArrayList<>();
+
+
+    /**
+     * constructor
+     * @param timeoutAttribute cached value of VI_ATTR_TMO_VALUE, null if not set yet
+     */
+    DeadlineVisa(Long timeoutAttribute) {
+      // A status object that does not need the native library.
+      statusObject = new JVisaStatus(bufferSizeDefault, responseEncoding, 
+              (JVisaInterface) Proxy.newProxyInstance(JVisaInterface.class.getClassLoader(), 
+                      new Class<?>[] {JVisaInterface.class}, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          return method.getName().equals("toString") ? "no VISA library" : null;
+        }
+      }));
+      instrumentAttributes = new JVisaAttributes(this, 1);
+      if (timeoutAttribute != null) {
+        instrumentAttributes.setValues.put(JVisaInterface.VI_ATTR_TMO_VALUE, timeoutAttribute);
+      }
+    }
+
+
+    @Override
+    protected long applyTimeout(int timeout) {
+      timeouts.add(timeout);
+      instrumentAttributes.setValues.put(JVisaInterface.VI_ATTR_TMO_VALUE, (long) timeout);
+      return VisatypeLibrary.VI_SUCCESS;
+    }
+  }
+
+
+  /**
+   * Test of getRemaining and isExpired, of class JVisaDeadline.
+   * @throws InterruptedException if the test is interrupted
+   */
+  @Test
+  public void testGetRemaining() throws InterruptedException {
+    System.out.println("getRemaining");
+    JVisaDeadline deadline = new JVisaDeadline(10000);
+    assertEquals(deadline.getBudget(), 10000);
+    assertTrue(deadline.getRemaining() <= 10000 && deadline.getRemaining() > 9000);
+    assertFalse(deadline.isExpired());
+    // A negative budget is clamped to 0.
+    JVisaDeadline negative = new JVisaDeadline(-5);
+    assertEquals(negative.getBudget(), 0);
+    assertEquals(negative.getRemaining(), 0);
+    assertTrue(negative.isExpired());
+    // The remaining time does not become negative after the deadline.
+    JVisaDeadline late = new JVisaDeadline(5);
+    Thread.sleep(20);
+    assertTrue(late.getElapsed() >= 20);
+    assertEquals(late.getRemaining(), 0);
+    assertTrue(late.isExpired());
+  }
+
+
+  /**
+   * Test of applyDeadline with an expired deadline, of class JVisa.
+   */
+  @Test
+  public void testApplyDeadlineExpired() {
+    System.out.println("applyDeadline expired");
+    DeadlineVisa visa = new DeadlineVisa(1000L);
+    assertEquals(visa.applyDeadline(new JVisaDeadline(0)), JVisa.VISA_JAVA_ERROR);
+    assertEquals(visa.statusObject.visaStatusLong, JVisaInterface.VI_ERROR_TMO);
+    assertTrue(visa.timeouts.isEmpty());
+  }
+
+
+  /**
+   * Test of the tolerance rule of applyDeadline, of class JVisa.
+   */
+  @Test
+  public void testApplyDeadlineTolerance() {
+    System.out.println("applyDeadline tolerance");
+    // Not set yet: the timeout is set.
+    DeadlineVisa visa = new DeadlineVisa(null);
+    assertEquals(visa.applyDeadline(new JVisaDeadline(5000)), VisatypeLibrary.VI_SUCCESS);
+    assertEquals(visa.timeouts.size(), 1);
+    assertTrue(visa.timeouts.get(0) > 4900 && visa.timeouts.get(0) <= 5000);
+    // The cached timeout overruns the deadline by less than 10 %: kept.
+    visa = new DeadlineVisa(5200L);
+    visa.applyDeadline(new JVisaDeadline(5000));
+    assertTrue(visa.timeouts.isEmpty());
+    // The cached timeout overruns the deadline by more than 10 %: set.
+    visa = new DeadlineVisa(6000L);
+    visa.applyDeadline(new JVisaDeadline(5000));
+    assertEquals(visa.timeouts.size(), 1);
+    assertTrue(visa.timeouts.get(0) <= 5000);
+    // The cached timeout would expire before the deadline: set.
+    visa = new DeadlineVisa(4000L);
+    visa.applyDeadline(new JVisaDeadline(5000));
+    assertEquals(visa.timeouts.size(), 1);
+    // A tolerance of 0 only keeps a timeout that does not overrun the 
+    // deadline by a whole ms.
+    visa = new DeadlineVisa(5200L);
+    visa.deadlineTolerance = 0;
+    visa.applyDeadline(new JVisaDeadline(5000));
+    assertEquals(visa.timeouts.size(), 1);
+    // Budgets beyond the range of the VISA attribute are clamped.
+    visa = new DeadlineVisa(null);
+    visa.applyDeadline(new JVisaDeadline(Long.MAX_VALUE));
+    assertEquals((int) visa.timeouts.get(0), Integer.MAX_VALUE);
+  }
+
+
+  /**
+   * Test of applyDeadline without a deadline, of class JVisa.
+   */
+  @Test
+  public void testApplyDeadlineNone() {
+    System.out.println("applyDeadline null");
+    DeadlineVisa visa = new DeadlineVisa(100L);
+    visa.timeout = 3000;
+    assertEquals(visa.applyDeadline(null), VisatypeLibrary.VI_SUCCESS);
+    assertEquals(visa.timeouts.size(), 1);
+    assertEquals((int) visa.timeouts.get(0), 3000);
+  }
+}
@@ -289,6 +289,24 @@ public class JVisaNGTest {
   }
 
   
+  /**
+   * Test of getInstrumentSnapshot method, of class JVisa.
+   * The second snapshot has to come from the attribute cache.
+   */
+  @Test(dependsOnMethods = {"testOpenInstrument"}, groups = {"test-group-instrument-windows"})
+  public void testGetInstrumentSnapshot() {
+    System.out.println("getInstrumentSnapshot");
+    JVisaAttributeSnapshot snapshot = instance.getInstrumentSnapshot();
+    assertNotNull(snapshot);
+    assertEquals(snapshot.sessionHandle, viInstrument);
+    assertTrue(snapshot.manufacturer.length() > 0, "Manufacturer name is empty.");
+    assertTrue(snapshot.interfaceType >= 0);
+    JVisaAttributeSnapshot cachedSnapshot = instance.getInstrumentSnapshot();
+    assertEquals(cachedSnapshot.getValues(), snapshot.getValues());
+    System.out.println(String.format("Instrument is %s %s.", snapshot.manufacturer, snapshot.model));
+  }
+
+  
   /**
    * Test of getAttribute method that retrieves a value of type short, of class JVisa.
    * It uses the attribute VI_ATTR_TERMCHAR.
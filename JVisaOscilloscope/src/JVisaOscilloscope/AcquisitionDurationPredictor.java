@@ -0,0 +1,95 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class predicts the duration of an acquisition from the durations of
+ * past acquisitions with the same average count and number of channels.
+ * Each prediction is an exponentially smoothed mean of the measured durations.
+ * @author agent (agent@local)
+ */
+public class AcquisitionDurationPredictor {
+  /** weight of a new measurement in the smoothed mean */
+  protected final double weight;
+  /** smoothed durations in ms by average count and channel count */
+  protected final Map<Long, Double> durations = new HashMap<>();
+
+
+  /**
+   * constructor
+   * @param weight weight of a new measurement in the smoothed mean (0 to 1)
+   */
+  public AcquisitionDurationPredictor(double weight) {
+    this.weight = Math.min(1.0, Math.max(0.0, weight));
+  }
+
+
+  /** constructor with a default weight of 0.25 */
+  public AcquisitionDurationPredictor() {
+    this(0.25);
+  }
+
+
+  /**
+   * This method combines average count and channel count to a map key.
+   * @param averageCount number of acquisitions to average
+   * @param channelCount number of acquired channels
+   * @return map key
+   */
+  protected static long key(int averageCount, int channelCount) {
+    return ((long) averageCount << 32) | (channelCount & 0xFFFFFFFFL);
+  }
+
+
+  /**
+   * This method records the measured duration of an acquisition.
+   * @param averageCount number of acquisitions to average
+   * @param channelCount number of acquired channels
+   * @param duration measured duration in ms
+   */
+  public synchronized void record(int averageCount, int channelCount, long duration) {
+    Long key = key(averageCount, channelCount);
+    Double previous = durations.get(key);
+    durations.put(key, previous == null ? duration
+            : previous + weight * ((double) duration - previous));
+  }
+
+
+  /**
+   * This method predicts the duration of an acquisition.
+   * @param averageCount number of acquisitions to average
+   * @param channelCount number of acquired channels
+   * @return predicted duration in ms, 0 if nothing has been recorded yet
+   */
+  public synchronized long predict(int averageCount, int channelCount) {
+    Double duration = durations.get(key(averageCount, channelCount));
+    return duration == null ? 0 : Math.round(duration);
+  }
+
+
+  /**
+   * This method forgets all recorded durations, for example after the
+   * horizontal scale or trigger settings have changed.
+   */
+  public synchronized void clear() {
+    durations.clear();
+  }
+}
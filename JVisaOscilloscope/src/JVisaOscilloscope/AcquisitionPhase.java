@@ -0,0 +1,52 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This enumeration lists the phases of an acquisition cycle whose latency
+ * the instrument driver records (see LatencyStatistics).
+ * @author agent (agent@local)
+ */
+public enum AcquisitionPhase {
+  /** 
+   * waiting for the instrument to be ready and setting the acquisition 
+   * parameters; for a reset, the reset and all settings
+   */
+  CONFIGURE,
+  /** 
+   * for a reset, waiting for the instrument to settle after the acquisition
+   * mode has been set 
+   */
+  SETTLE,
+  /** 
+   * sending the command that starts the acquisition; included in 
+   * WAIT_FOR_TRIGGER if the end of the acquisition is awaited with "*OPC?"
+   */
+  ARM,
+  /** waiting for the acquisition sequence to finish */
+  WAIT_FOR_TRIGGER,
+  /** querying the waveform preambles (nearly zero if they are cached) */
+  PREAMBLE,
+  /** selecting the data sources and transferring the curves */
+  TRANSFER,
+  /** 
+   * decoding the raw samples, summed over the channels; decoding overlaps
+   * the transfer of the next channel
+   */
+  DECODE;
+}
@@ -0,0 +1,122 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import JVisaOscilloscope.OscilloscopeInterface.StatusCode;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import jvisa.JVisaDeadline;
+
+/**
+ * This class is an acquisition submitted to an AcquisitionScheduler. The 
+ * submitter waits for it with await.
+ * @author agent (agent@local)
+ */
+public class AcquisitionRequest {
+  /** instrument */
+  public final OscilloscopeInterface instrument;
+  /** waveforms, indexed by channel - 1 */
+  public final JWaveForm[] waveForms;
+  /** number of acquisitions to average */
+  public final int averageCount;
+  /** channels to acquire */
+  public final int[] channels;
+  /** priority, higher runs first */
+  public final int priority;
+  /** deadline of the acquisition, started when the request is submitted */
+  public final JVisaDeadline deadline;
+  /** submission order, breaks ties first come first served */
+  protected final long sequence;
+  /** submission time in ns (System.nanoTime) */
+  protected final long submitTime;
+  /** signals completion */
+  protected final CountDownLatch done = new CountDownLatch(1);
+  /** status, null while the request is pending */
+  protected volatile StatusCode status;
+
+
+  /**
+   * constructor
+   * @param instrument instrument
+   * @param waveForms waveforms, indexed by channel - 1
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire
+   * @param priority priority, higher runs first
+   * @param budget time budget in ms from submission to the last transfer
+   * @param sequence submission order
+   */
+  protected AcquisitionRequest(OscilloscopeInterface instrument, JWaveForm[] waveForms, 
+          int averageCount, int[] channels, int priority, long budget, long sequence) {
+    this.instrument = instrument;
+    this.waveForms = waveForms;
+    this.averageCount = averageCount;
+    this.channels = channels;
+    this.priority = priority;
+    this.sequence = sequence;
+    deadline = new JVisaDeadline(budget);
+    submitTime = System.nanoTime();
+  }
+
+
+  /**
+   * This method gets the time of the deadline.
+   * @return deadline in ns (System.nanoTime)
+   */
+  protected long getDeadlineTime() {
+    return submitTime + TimeUnit.MILLISECONDS.toNanos(deadline.getBudget());
+  }
+
+
+  /**
+   * This method completes the request.
+   * @param status status of the acquisition
+   */
+  protected void complete(StatusCode status) {
+    this.status = status;
+    done.countDown();
+  }
+
+
+  /**
+   * This method checks whether the request has completed.
+   * @return true if the status is available
+   */
+  public boolean isDone() {
+    return done.getCount() == 0;
+  }
+
+
+  /**
+   * This method gets the status.
+   * @return status, null while the request is pending
+   */
+  public StatusCode getStatus() {
+    return status;
+  }
+
+
+  /**
+   * This method waits until the request has completed.
+   * @return status of the acquisition
+   * @throws InterruptedException if the thread was interrupted
+   */
+  public StatusCode await() throws InterruptedException {
+    done.await();
+    return status;
+  }
+}
@@ -0,0 +1,417 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import JVisaOscilloscope.OscilloscopeInterface.StatusCode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import jvisa.JVisa;
+
+/**
+ * This class runs acquisitions of many instruments on a pool of worker 
+ * threads, so that one instrument waits for its trigger while others 
+ * transfer.
+ * <ul>
+ * <li>An instrument runs one acquisition at a time; its session is not 
+ * shared by two workers.</li>
+ * <li>Of the requests whose instrument is idle, urgent requests run first, 
+ * earliest deadline first. A request is urgent when the time left until its
+ * deadline is shorter than the expected duration of an acquisition of its 
+ * instrument, the average of its past acquisitions.</li>
+ * <li>Otherwise the request with the highest priority runs next. A request 
+ * gains one priority level for every agingTime ms it waits, so low 
+ * priorities are not starved. Equal priorities run by earliest deadline, 
+ * then in submission order.</li>
+ * <li>Instruments are assigned to buses. Each bus has a limit of 
+ * concurrent transfers; for instruments that implement PhasedAcquisition 
+ * only the transfer phase holds a bus permit, the arm and wait phase runs 
+ * without one. Other instruments hold the permit for the whole acquire. 
+ * Changing the limit of a bus takes effect for transfers that start 
+ * afterwards; running transfers keep their permits.</li>
+ * <li>A request whose deadline has passed before it starts completes with
+ * BUSY without touching the instrument.</li>
+ * </ul>
+ * @author agent (agent@local)
+ */
+public class AcquisitionScheduler {
+  /** bus of instruments that were not assigned one */
+  public static final String DEFAULT_BUS = "default";
+  /** time in ms after which a waiting request gains one priority level */
+  public volatile long agingTime = 1000;
+  /** pending requests, guarded by this */
+  protected final List<AcquisitionRequest> queue = new ArrayList<>();
+  /** instruments with a running acquisition, guarded by this */
+  protected final Set<OscilloscopeInterface> activeInstruments = new HashSet<>();
+  /** bus of each instrument, guarded by this */
+  protected final Map<OscilloscopeInterface, String> buses = new HashMap<>();
+  /** transfer permits of each bus, guarded by this */
+  protected final Map<String, BusPermits> busPermits = new HashMap<>();
+  /** average duration in ns of the acquisitions of each instrument, guarded by this */
+  protected final Map<OscilloscopeInterface, Long> expectedDurations = new HashMap<>();
+  /** worker threads */
+  protected final Thread[] workers;
+  /** number of submitted requests */
+  protected long sequence = 0;
+  /** false after shutdown */
+  protected boolean isRunning = true;
+
+
+  /**
+   * This class holds the transfer permits of a bus. Its limit can be 
+   * lowered while permits are held; the permits are then taken out of 
+   * circulation as they are returned.
+   */
+  protected static class BusPermits extends Semaphore {
+    /** serialization version */
+    private static final long serialVersionUID = 1L;
+    /** number of concurrent transfers, guarded by the scheduler */
+    int limit;
+
+
+    /**
+     * constructor
+     * @param limit number of concurrent transfers
+     */
+    BusPermits(int limit) {
+      super(limit, true);
+      this.limit = limit;
+    }
+
+
+    /**
+     * This method changes the number of concurrent transfers.
+     * @param newLimit number of concurrent transfers
+     */
+    void setLimit(int newLimit) {
+      if (newLimit > limit) {
+        release(newLimit - limit);
+      }
+      else if (newLimit < limit) {
+        reducePermits(limit - newLimit);
+      }
+      limit = newLimit;
+    }
+  }
+
+
+  /**
+   * constructor, starts the worker threads
+   * @param workerCount number of acquisitions that may run at the same 
+   *                    time, usually the number of instruments
+   */
+  public AcquisitionScheduler(int workerCount) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("There has to be at least one worker.");
+    }
+    workers = new Thread[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      workers[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          work();
+        }
+      }, "AcquisitionScheduler-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+
+  /**
+   * This method sets the number of concurrent transfers of a bus. If the 
+   * bus already has a limit, its permits are adjusted, so transfers that 
+   * hold a permit count against the new limit.
+   * @param bus bus name, for example "GPIB0" or "TCPIP"
+   * @param maxTransfers number of instruments that may transfer at the same time
+   */
+  public synchronized void setBusLimit(String bus, int maxTransfers) {
+    if (maxTransfers < 1) {
+      throw new IllegalArgumentException("A bus needs at least one transfer.");
+    }
+    BusPermits permits = busPermits.get(bus);
+    if (permits == null) {
+      busPermits.put(bus, new BusPermits(maxTransfers));
+    }
+    else {
+      permits.setLimit(maxTransfers);
+    }
+  }
+
+
+  /**
+   * This method assigns an instrument to a bus. Instruments without a bus 
+   * belong to DEFAULT_BUS; instruments of a bus without a limit are not 
+   * limited.
+   * @param instrument instrument
+   * @param bus bus name
+   */
+  public synchronized void setBus(OscilloscopeInterface instrument, String bus) {
+    buses.put(instrument, bus);
+  }
+
+
+  /**
+   * This method submits an acquisition.
+   * @param instrument instrument
+   * @param waveForms waveforms, indexed by channel - 1
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire
+   * @param priority priority, higher runs first
+   * @param budget time budget in ms from now to the last transfer
+   * @return request to wait for
+   */
+  public synchronized AcquisitionRequest submit(OscilloscopeInterface instrument, 
+          JWaveForm[] waveForms, int averageCount, int[] channels, int priority, long budget) {
+    if (!isRunning) {
+      throw new IllegalStateException("The scheduler has been shut down.");
+    }
+    AcquisitionRequest request = new AcquisitionRequest(instrument, waveForms, averageCount, 
+            channels, priority, budget, sequence++);
+    queue.add(request);
+    notifyAll();
+    return request;
+  }
+
+
+  /**
+   * This method compares two requests.
+   * @param a request
+   * @param b request
+   * @param now current time in ns
+   * @return true if a runs before b
+   */
+  protected boolean isBefore(AcquisitionRequest a, AcquisitionRequest b, long now) {
+    boolean isUrgentA = isUrgent(a, now);
+    if (isUrgentA != isUrgent(b, now)) {
+      return isUrgentA;
+    }
+    if (isUrgentA && a.getDeadlineTime() != b.getDeadlineTime()) {
+      return a.getDeadlineTime() < b.getDeadlineTime();
+    }
+    long aging = Math.max(TimeUnit.MILLISECONDS.toNanos(agingTime), 1);
+    long priorityA = a.priority + (now - a.submitTime) / aging;
+    long priorityB = b.priority + (now - b.submitTime) / aging;
+    if (priorityA != priorityB) {
+      return priorityA > priorityB;
+    }
+    if (a.getDeadlineTime() != b.getDeadlineTime()) {
+      return a.getDeadlineTime() < b.getDeadlineTime();
+    }
+    return a.sequence < b.sequence;
+  }
+
+
+  /**
+   * This method checks whether a request has to run now to meet its 
+   * deadline.
+   * @param request request
+   * @param now current time in ns
+   * @return true if the time left is shorter than the expected duration 
+   *         of an acquisition of its instrument
+   */
+  protected boolean isUrgent(AcquisitionRequest request, long now) {
+    Long expected = expectedDurations.get(request.instrument);
+    return expected != null && request.getDeadlineTime() - now < expected;
+  }
+
+
+  /**
+   * This method records the duration of an acquisition in the expected 
+   * duration of its instrument.
+   * @param instrument instrument
+   * @param duration duration in ns
+   */
+  protected synchronized void recordDuration(OscilloscopeInterface instrument, long duration) {
+    Long expected = expectedDurations.get(instrument);
+    // moving average over about the last 4 acquisitions
+    expectedDurations.put(instrument, expected == null ? duration : (3 * expected + duration) / 4);
+  }
+
+
+  /**
+   * This method waits for the next request whose instrument is idle and 
+   * marks the instrument active.
+   * @return request, null after shutdown
+   * @throws InterruptedException if the thread was interrupted
+   */
+  protected synchronized AcquisitionRequest take() throws InterruptedException {
+    while (true) {
+      if (!isRunning) {
+        return null;
+      }
+      long now = System.nanoTime();
+      int next = -1;
+      for (int i = 0; i < queue.size(); i++) {
+        AcquisitionRequest request = queue.get(i);
+        if (!activeInstruments.contains(request.instrument) 
+                && (next < 0 || isBefore(request, queue.get(next), now))) {
+          next = i;
+        }
+      }
+      if (next >= 0) {
+        AcquisitionRequest request = queue.remove(next);
+        activeInstruments.add(request.instrument);
+        return request;
+      }
+      wait();
+    }
+  }
+
+
+  /**
+   * This method marks an instrument idle.
+   * @param instrument instrument
+   */
+  protected synchronized void release(OscilloscopeInterface instrument) {
+    activeInstruments.remove(instrument);
+    notifyAll();
+  }
+
+
+  /**
+   * This method gets the transfer permits of an instrument's bus.
+   * @param instrument instrument
+   * @return permits, null if the bus is not limited
+   */
+  protected synchronized BusPermits getBusPermits(OscilloscopeInterface instrument) {
+    String bus = buses.get(instrument);
+    return busPermits.get(bus == null ? DEFAULT_BUS : bus);
+  }
+
+
+  /**
+   * This method runs requests until the scheduler is shut down.
+   */
+  protected void work() {
+    try {
+      AcquisitionRequest request;
+      while ((request = take()) != null) {
+        StatusCode status = StatusCode.EXCEPTION;
+        long start = System.nanoTime();
+        try {
+          status = run(request);
+          if (status == StatusCode.SUCCESS) {
+            recordDuration(request.instrument, System.nanoTime() - start);
+          }
+        }
+        catch (RuntimeException e) {
+          JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+        }
+        finally {
+          release(request.instrument);
+          request.complete(status);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+
+  /**
+   * This method runs an acquisition.
+   * @param request request
+   * @return status of the acquisition
+   * @throws InterruptedException if the thread was interrupted while 
+   * waiting for a bus permit
+   */
+  protected StatusCode run(AcquisitionRequest request) throws InterruptedException {
+    if (request.deadline.isExpired()) {
+      JVisa.LOGGER.severe("Acquisition deadline passed before it started.");
+      return StatusCode.BUSY;
+    }
+    Semaphore permits = getBusPermits(request.instrument);
+    if (request.instrument instanceof PhasedAcquisition) {
+      PhasedAcquisition phased = (PhasedAcquisition) request.instrument;
+      StatusCode status = phased.arm(request.waveForms, request.averageCount, request.channels, 
+              request.deadline);
+      if (status != StatusCode.SUCCESS) {
+        return status;
+      }
+      if (!acquirePermit(permits, request)) {
+        return StatusCode.BUSY;
+      }
+      try {
+        return phased.transfer(request.waveForms, request.channels, request.deadline);
+      }
+      finally {
+        releasePermit(permits);
+      }
+    }
+    if (!acquirePermit(permits, request)) {
+      return StatusCode.BUSY;
+    }
+    try {
+      return request.instrument.acquire(request.waveForms, request.averageCount, request.channels);
+    }
+    finally {
+      releasePermit(permits);
+    }
+  }
+
+
+  /**
+   * This method waits for a bus permit until the deadline of a request.
+   * @param permits bus permits, null if the bus is not limited
+   * @param request request
+   * @return false if the deadline passed
+   * @throws InterruptedException if the thread was interrupted
+   */
+  protected boolean acquirePermit(Semaphore permits, AcquisitionRequest request) 
+          throws InterruptedException {
+    return permits == null 
+            || permits.tryAcquire(request.deadline.getRemaining(), TimeUnit.MILLISECONDS);
+  }
+
+
+  /**
+   * This method returns a bus permit.
+   * @param permits bus permits, null if the bus is not limited
+   */
+  protected void releasePermit(Semaphore permits) {
+    if (permits != null) {
+      permits.release();
+    }
+  }
+
+
+  /**
+   * This method stops the workers after their current acquisition. Pending 
+   * requests complete with EXCEPTION.
+   */
+  public void shutdown() {
+    List<AcquisitionRequest> pending;
+    synchronized (this) {
+      isRunning = false;
+      pending = new ArrayList<>(queue);
+      queue.clear();
+      notifyAll();
+    }
+    for (AcquisitionRequest request : pending) {
+      request.complete(StatusCode.EXCEPTION);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class parses the response to "CURVE?" in ASCII encoding 
+ * (DATA:ENCDG ASCII) straight from the received bytes: comma separated 
+ * signed integers, optionally preceded by the header ":CURVE " and followed
+ * by a line feed. No String is created per value.
+ * @author agent (agent@local)
+ */
+public final class AsciiCurveParser {
+
+  /** This class only has static methods. */
+  private AsciiCurveParser() {
+  }
+
+
+  /**
+   * This method checks whether a byte separates two values.
+   * @param c byte
+   * @return true for comma and white space
+   */
+  private static boolean isSeparator(byte c) {
+    return c == ',' || c == ' ' || c == '\n' || c == '\r' || c == '\t';
+  }
+
+
+  /**
+   * This method parses comma separated integers into raw samples.
+   * @param source response bytes
+   * @param offset index of the first byte to parse
+   * @param length number of bytes to parse
+   * @param destination raw samples, starting at index 0
+   * @return number of values parsed, at most the length of destination
+   * @throws NumberFormatException if the bytes are not comma separated 
+   *         integers in the range of a short
+   */
+  public static int parse(byte[] source, int offset, int length, short[] destination) {
+    int end = offset + length, i = offset, count = 0;
+    while (i < end && isSeparator(source[i])) {
+      i++;
+    }
+    // Skip a header like ":CURVE ".
+    if (i < end && source[i] == ':') {
+      while (i < end && source[i] != ' ') {
+        i++;
+      }
+    }
+    while (i < end && count < destination.length) {
+      byte c = source[i];
+      if (isSeparator(c)) {
+        i++;
+        continue;
+      }
+      boolean isNegative = c == '-';
+      if (c == '-' || c == '+') {
+        i++;
+      }
+      int value = 0, start = i;
+      while (i < end) {
+        int digit = source[i] - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        value = value * 10 + digit;
+        if (value > Short.MAX_VALUE + 1) {
+          throw new NumberFormatException(String.format(
+                  "Curve value %d at byte %d is out of range.", count, i - offset));
+        }
+        i++;
+      }
+      if (i == start || (i < end && !isSeparator(source[i]))) {
+        throw new NumberFormatException(String.format(
+                "Invalid curve value %d at byte %d.", count, i - offset));
+      }
+      value = isNegative ? -value : value;
+      if (value > Short.MAX_VALUE) {
+        throw new NumberFormatException(String.format(
+                "Curve value %d at byte %d is out of range.", count, i - offset));
+      }
+      destination[count++] = (short) value;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class polls the busy status with exponentially growing intervals
+ * up to a maximum interval.
+ * @author agent (agent@local)
+ */
+public class BackoffPollStrategy implements PollStrategy {
+  /** delay before the second poll in ms */
+  protected final long initialInterval;
+  /** factor by which the interval grows with each poll */
+  protected final double factor;
+  /** maximum interval in ms */
+  protected final long maxInterval;
+
+
+  /**
+   * constructor
+   * @param initialInterval delay before the second poll in ms
+   * @param factor factor by which the interval grows with each poll (&gt;= 1)
+   * @param maxInterval maximum interval in ms
+   */
+  public BackoffPollStrategy(long initialInterval, double factor, long maxInterval) {
+    this.initialInterval = Math.max(1, initialInterval);
+    this.factor = Math.max(1.0, factor);
+    this.maxInterval = Math.max(this.initialInterval, maxInterval);
+  }
+
+
+  /**
+   * This method does nothing since the intervals do not depend on the
+   * expected duration.
+   * @param expectedDuration predicted duration of the operation in ms
+   */
+  @Override
+  public void start(long expectedDuration) {
+  }
+
+
+  /**
+   * This method returns initialInterval * factor^(pollCount - 1), limited
+   * to maxInterval.
+   * @param pollCount number of polls done so far in this wait
+   * @param elapsedTime milliseconds since the wait began
+   * @return delay in ms
+   */
+  @Override
+  public long getDelay(int pollCount, long elapsedTime) {
+    if (pollCount == 0) {
+      return 0;
+    }
+    double delay = initialInterval * Math.pow(factor, pollCount - 1);
+    return delay >= maxInterval ? maxInterval : (long) delay;
+  }
+}
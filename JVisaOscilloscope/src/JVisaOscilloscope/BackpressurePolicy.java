@@ -0,0 +1,32 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This enumeration describes what a streaming acquisition does when the 
+ * slowest consumer has not read the oldest frame of a full ring.
+ * @author agent (agent@local)
+ */
+public enum BackpressurePolicy {
+  /** wait until the slowest consumer has read the oldest frame */
+  BLOCK,
+  /** overwrite the oldest frame; consumers that have not read it skip it */
+  DROP_OLDEST,
+  /** acquire the new frame but discard it */
+  DROP_NEWEST;
+}
@@ -0,0 +1,194 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import jvisa.JVisa;
+
+/**
+ * This class decodes the raw waveforms of an acquisition on a worker thread
+ * so that decoding channel N overlaps the bus transfer of channel N + 1.
+ * Waveforms are decoded in the order they are submitted. Every raw waveform
+ * has to stay untouched until await has returned.
+ * @author agent (agent@local)
+ */
+public class DecodePipeline {
+  /** worker thread, created on first use */
+  protected ExecutorService executor;
+  /** decodes submitted since the last await */
+  protected final List<Future<?>> pending = new ArrayList<>();
+  /** If false, submit decodes on the calling thread. */
+  public boolean isPipelined = true;
+  /** time in ns spent decoding since the last call of takeDecodeTime */
+  protected final AtomicLong decodeTime = new AtomicLong();
+
+
+  /**
+   * This method decodes a raw waveform, publishes the result and adds the 
+   * time it took to decodeTime. The listener is not timed.
+   * @param channel channel of the waveform
+   * @param raw raw waveform
+   * @param waveForm waveform to fill
+   * @param listener receives the waveform, or null
+   */
+  protected void decode(int channel, JCompactWaveForm raw, JWaveForm waveForm, 
+          WaveformListener listener) {
+    long start = System.nanoTime();
+    raw.toJWaveForm(waveForm);
+    decodeTime.addAndGet(System.nanoTime() - start);
+    if (listener != null) {
+      listener.waveformReady(channel, waveForm);
+    }
+  }
+
+
+  /**
+   * This method gets the time spent decoding since the last call and 
+   * starts a new sum. Call it after await to get the decode time of an 
+   * acquisition.
+   * @return time in ns
+   */
+  public long takeDecodeTime() {
+    return decodeTime.getAndSet(0);
+  }
+
+
+  /**
+   * This method gets the worker thread, creating it if necessary.
+   * The thread is a daemon so that it does not keep the application alive.
+   * @return executor
+   */
+  protected synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "JVisa waveform decoder");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return executor;
+  }
+
+
+  /**
+   * This method queues a raw waveform for decoding.
+   * @param channel channel of the waveform
+   * @param raw raw waveform
+   * @param waveForm waveform to fill
+   * @param listener receives the waveform when it is ready, or null
+   */
+  public synchronized void submit(final int channel, final JCompactWaveForm raw, 
+          final JWaveForm waveForm, final WaveformListener listener) {
+    if (!isPipelined) {
+      decode(channel, raw, waveForm, listener);
+      return;
+    }
+    pending.add(getExecutor().submit(new Runnable() {
+      @Override
+      public void run() {
+        decode(channel, raw, waveForm, listener);
+      }
+    }));
+  }
+
+
+  /**
+   * This method waits until all submitted waveforms have been decoded.
+   * @return success, or exception if a decode or listener failed or the 
+   *         wait was interrupted
+   */
+  public synchronized OscilloscopeInterface.StatusCode await() {
+    OscilloscopeInterface.StatusCode status = OscilloscopeInterface.StatusCode.SUCCESS;
+    try {
+      for (Future<?> future : pending) {
+        try {
+          future.get();
+        }
+        catch (ExecutionException e) {
+          JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e.getCause());
+          status = OscilloscopeInterface.StatusCode.EXCEPTION;
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      for (Future<?> future : pending) {
+        future.cancel(false);
+      }
+      // A decode that is already running is not stopped by cancel. Wait for
+      // it, since the caller reuses the raw waveforms when this returns.
+      awaitIdle();
+      Thread.currentThread().interrupt();
+      status = OscilloscopeInterface.StatusCode.EXCEPTION;
+    }
+    pending.clear();
+    return status;
+  }
+
+
+  /**
+   * This method waits until the worker thread has finished the task it is 
+   * running. Interrupts are ignored while waiting, since a decode takes 
+   * milliseconds at most; the interrupt status is restored afterwards.
+   */
+  protected void awaitIdle() {
+    Future<?> marker = getExecutor().submit(new Runnable() {
+      @Override
+      public void run() {
+      }
+    });
+    boolean isInterrupted = false;
+    while (true) {
+      try {
+        marker.get();
+        break;
+      }
+      catch (InterruptedException e) {
+        isInterrupted = true;
+      }
+      catch (ExecutionException e) {
+        break;
+      }
+    }
+    if (isInterrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+
+  /**
+   * This method stops the worker thread. A later submit starts a new one.
+   */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This enumeration describes how the instrument driver trades vertical 
+ * precision for transfer time when it chooses the curve sample width.
+ * @author agent (agent@local)
+ */
+public enum EncodingPolicy {
+  /** always transfer 2 byte samples */
+  PRECISION,
+  /** 
+   * transfer 1 byte samples when they hold all the bits the acquisition 
+   * delivers or the application needs, otherwise 2 byte samples. With an 
+   * 8 bit digitizer, single acquisitions (average count 1) are transferred 
+   * with 1 byte samples.
+   */
+  AUTO,
+  /** always transfer 1 byte samples, halving the bytes on the wire */
+  THROUGHPUT;
+}
@@ -0,0 +1,71 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class sleeps through most of the expected duration of an operation
+ * and then polls the busy status in short intervals.
+ * If the expected duration is unknown, it polls in short intervals right away.
+ * @author agent (agent@local)
+ */
+public class ExpectedDurationPollStrategy implements PollStrategy {
+  /** fraction of the expected duration to sleep before the first poll */
+  protected final double sleepFraction;
+  /** time between two polls in ms once the first poll was done */
+  protected final long pollInterval;
+  /** expected duration of the current wait in ms */
+  protected long expectedDuration;
+
+
+  /**
+   * constructor
+   * @param sleepFraction fraction of the expected duration to sleep before
+   *                      the first poll, for example 0.9
+   * @param pollInterval time between two polls in ms once the first poll was done
+   */
+  public ExpectedDurationPollStrategy(double sleepFraction, long pollInterval) {
+    this.sleepFraction = Math.min(1.0, Math.max(0.0, sleepFraction));
+    this.pollInterval = Math.max(0, pollInterval);
+  }
+
+
+  /**
+   * This method stores the expected duration of the wait that begins.
+   * @param expectedDuration predicted duration of the operation in ms
+   */
+  @Override
+  public void start(long expectedDuration) {
+    this.expectedDuration = Math.max(0, expectedDuration);
+  }
+
+
+  /**
+   * This method returns the sleep time before the first poll and the short
+   * poll interval afterwards.
+   * @param pollCount number of polls done so far in this wait
+   * @param elapsedTime milliseconds since the wait began
+   * @return delay in ms
+   */
+  @Override
+  public long getDelay(int pollCount, long elapsedTime) {
+    if (pollCount == 0) {
+      return Math.max(0, (long) (expectedDuration * sleepFraction) - elapsedTime);
+    }
+    return pollInterval;
+  }
+}
@@ -0,0 +1,58 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class polls the busy status in fixed intervals.
+ * @author agent (agent@local)
+ */
+public class FixedIntervalPollStrategy implements PollStrategy {
+  /** time between two polls in ms */
+  protected final long interval;
+
+
+  /**
+   * constructor
+   * @param interval time between two polls in ms
+   */
+  public FixedIntervalPollStrategy(long interval) {
+    this.interval = Math.max(0, interval);
+  }
+
+
+  /**
+   * This method does nothing since the interval does not depend on the
+   * expected duration.
+   * @param expectedDuration predicted duration of the operation in ms
+   */
+  @Override
+  public void start(long expectedDuration) {
+  }
+
+
+  /**
+   * This method returns the fixed interval, except for the first poll.
+   * @param pollCount number of polls done so far in this wait
+   * @param elapsedTime milliseconds since the wait began
+   * @return delay in ms
+   */
+  @Override
+  public long getDelay(int pollCount, long elapsedTime) {
+    return pollCount == 0 ? 0 : interval;
+  }
+}
@@ -0,0 +1,371 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class holds a waveform as the raw 1 or 2 byte samples received from
+ * the instrument plus the parameters to scale them. Amplitudes are computed
+ * on demand, which takes a quarter (2 byte samples) or an eighth (1 byte
+ * samples) of the memory of a JWaveForm.
+ * The amplitude of sample i is (raw[i] - yOff) * yMult + yZero.
+ * @author agent (agent@local)
+ */
+public class JCompactWaveForm {
+  /** raw samples if the sample width is 1 byte */
+  protected byte[] byteSamples;
+  /** raw samples if the sample width is 2 bytes */
+  protected short[] shortSamples;
+  /** number of valid samples */
+  protected int dataSize;
+  /** vertical scale factor (WFMPRE:YMULT) */
+  public double yMult = 1.0;
+  /** vertical offset in digitizing levels (WFMPRE:YOFF) */
+  public double yOff;
+  /** vertical offset in units (WFMPRE:YZERO) */
+  public double yZero;
+  /** delta t (WFMPRE:XINCR) */
+  public double xIncr = 1.0;
+  /** oscilloscope trigger delay, NaN if not set */
+  public double triggerDelay = Double.NaN;
+  /** oscilloscope gain, NaN if not set */
+  public double gain = Double.NaN;
+  /** 
+   * index of the first sample in the instrument record, 0 unless only a 
+   * window of the record was transferred 
+   */
+  public int firstIndex = 0;
+
+
+  /**
+   * This method gets the number of samples.
+   * @return number of samples
+   */
+  public int getDataSize() {
+    return dataSize;
+  }
+
+
+  /**
+   * This method gets the sample width.
+   * @return 1 or 2 bytes, 0 if there are no samples
+   */
+  public int getSampleWidth() {
+    if (byteSamples != null) {
+      return 1;
+    }
+    return shortSamples != null ? 2 : 0;
+  }
+
+
+  /**
+   * This method gets the raw 1 byte samples.
+   * @return raw samples, null if the sample width is not 1 byte
+   */
+  public byte[] getByteSamples() {
+    return byteSamples;
+  }
+
+
+  /**
+   * This method gets the raw 2 byte samples.
+   * @return raw samples, null if the sample width is not 2 bytes
+   */
+  public short[] getShortSamples() {
+    return shortSamples;
+  }
+
+
+  /**
+   * This method sets the scale parameters.
+   * @param yMult vertical scale factor
+   * @param yOff vertical offset in digitizing levels
+   * @param yZero vertical offset in units
+   * @param xIncr delta t
+   */
+  public void setScale(double yMult, double yOff, double yZero, double xIncr) {
+    this.yMult = yMult;
+    this.yOff = yOff;
+    this.yZero = yZero;
+    this.xIncr = xIncr;
+  }
+
+
+  /**
+   * This method prepares the sample array for a number of samples of a
+   * given width. The array of the previous waveform is reused if it is
+   * large enough.
+   * @param count number of samples
+   * @param width 1 or 2 bytes
+   */
+  public void allocate(int count, int width) {
+    if (width == 1) {
+      if (byteSamples == null || byteSamples.length < count) {
+        byteSamples = new byte[count];
+      }
+      shortSamples = null;
+    }
+    else {
+      if (shortSamples == null || shortSamples.length < count) {
+        shortSamples = new short[count];
+      }
+      byteSamples = null;
+    }
+    dataSize = count;
+  }
+
+
+  /**
+   * This method copies raw samples from a binary curve block.
+   * @param block bytes received from the instrument
+   * @param offset index of the first sample byte in block
+   * @param count number of samples
+   * @param width 1 or 2 bytes
+   * @param isBigEndian true for RIBINARY, false for SRIBINARY
+   */
+  public void setSamples(byte[] block, int offset, int count, int width, boolean isBigEndian) {
+    allocate(count, width);
+    if (width == 1) {
+      System.arraycopy(block, offset, byteSamples, 0, count);
+      return;
+    }
+    // A bulk get in native byte order is a plain memory copy.
+    ByteBuffer.wrap(block, offset, 2 * count)
+            .order(isBigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN)
+            .asShortBuffer().get(shortSamples, 0, count);
+  }
+
+
+  /**
+   * This method copies a range of the samples of another waveform and its
+   * scale parameters, for example one frame of a segmented record.
+   * @param source waveform to copy from
+   * @param first index of the first sample in source
+   * @param count number of samples
+   */
+  public void setSamples(JCompactWaveForm source, int first, int count) {
+    int width = source.getSampleWidth();
+    allocate(count, width);
+    if (width == 1) {
+      System.arraycopy(source.byteSamples, first, byteSamples, 0, count);
+    }
+    else {
+      System.arraycopy(source.shortSamples, first, shortSamples, 0, count);
+    }
+    setScale(source.yMult, source.yOff, source.yZero, source.xIncr);
+    triggerDelay = source.triggerDelay;
+    gain = source.gain;
+    firstIndex = source.firstIndex;
+  }
+
+
+  /**
+   * This method exports the waveform: the sample width and count, the scale 
+   * parameters and the samples packed by SampleCodec. The samples are 
+   * encoded and written one block at a time.
+   * @param output stream receiving the waveform
+   * @throws IOException if the stream could not be written
+   */
+  public void write(DataOutput output) throws IOException {
+    int width = getSampleWidth();
+    output.writeByte(width);
+    output.writeInt(width == 0 ? 0 : dataSize);
+    output.writeDouble(yMult);
+    output.writeDouble(yOff);
+    output.writeDouble(yZero);
+    output.writeDouble(xIncr);
+    output.writeDouble(triggerDelay);
+    output.writeDouble(gain);
+    output.writeInt(firstIndex);
+    if (width == 0) {
+      return;
+    }
+    ByteBuffer block = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(SampleCodec.BLOCK_SIZE, width));
+    int previous = 0;
+    for (int blockStart = 0; blockStart < dataSize; blockStart += SampleCodec.BLOCK_SIZE) {
+      int count = Math.min(SampleCodec.BLOCK_SIZE, dataSize - blockStart);
+      block.clear();
+      previous = width == 1 
+              ? SampleCodec.encodeBlock(byteSamples, blockStart, count, previous, block)
+              : SampleCodec.encodeBlock(shortSamples, blockStart, count, previous, block);
+      output.write(block.array(), 0, block.position());
+    }
+  }
+
+
+  /**
+   * This method imports a waveform exported by write. The samples are read 
+   * and decoded one block at a time.
+   * @param input stream holding the waveform
+   * @param waveForm waveform to fill, its sample array is reused, or null 
+   *                 to allocate a new one
+   * @return waveForm
+   * @throws IOException if the stream could not be read or does not hold 
+   * a valid waveform
+   */
+  public static JCompactWaveForm read(DataInput input, JCompactWaveForm waveForm) 
+          throws IOException {
+    int width = input.readUnsignedByte();
+    int count = input.readInt();
+    if (width > 2 || count < 0 || width == 0 && count > 0) {
+      throw new IOException("Invalid waveform header.");
+    }
+    if (waveForm == null) {
+      waveForm = new JCompactWaveForm();
+    }
+    waveForm.setScale(input.readDouble(), input.readDouble(), input.readDouble(), input.readDouble());
+    waveForm.triggerDelay = input.readDouble();
+    waveForm.gain = input.readDouble();
+    waveForm.firstIndex = input.readInt();
+    if (width == 0) {
+      waveForm.byteSamples = null;
+      waveForm.shortSamples = null;
+      waveForm.dataSize = 0;
+      return waveForm;
+    }
+    waveForm.allocate(count, width);
+    ByteBuffer block = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(SampleCodec.BLOCK_SIZE, width));
+    int previous = 0;
+    for (int blockStart = 0; blockStart < count; blockStart += SampleCodec.BLOCK_SIZE) {
+      int blockCount = Math.min(SampleCodec.BLOCK_SIZE, count - blockStart);
+      // The block header has one byte per sample byte, the first is the bit width.
+      input.readFully(block.array(), 0, width);
+      int length = width + SampleCodec.getBlockLength(blockCount, block.get(0) & 0xFF);
+      if (length > block.capacity()) {
+        throw new IOException("Invalid sample block.");
+      }
+      input.readFully(block.array(), width, length - width);
+      block.clear();
+      block.limit(length);
+      try {
+        previous = width == 1 
+                ? SampleCodec.decodeBlock(block, blockCount, previous, waveForm.byteSamples, blockStart)
+                : SampleCodec.decodeBlock(block, blockCount, previous, waveForm.shortSamples, blockStart);
+      }
+      catch (IllegalArgumentException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    }
+    return waveForm;
+  }
+
+
+  /**
+   * This method gets a raw sample.
+   * @param index sample index
+   * @return sample in digitizing levels
+   */
+  public int getRawValue(int index) {
+    return byteSamples != null ? byteSamples[index] : shortSamples[index];
+  }
+
+
+  /**
+   * This method gets a scaled sample.
+   * @param index sample index
+   * @return amplitude
+   */
+  public double getValue(int index) {
+    return (getRawValue(index) - yOff) * yMult + yZero;
+  }
+
+
+  /**
+   * This method scales all samples into an array. The statistics computed 
+   * in the same pass are discarded.
+   * @param destination array to fill, or null or too short to allocate a new one
+   * @return destination
+   */
+  public double[] toArray(double[] destination) {
+    return toArray(destination, new WaveformStatistics());
+  }
+
+
+  /**
+   * This method scales all samples into an array of floats.
+   * @param destination array to fill, or null or too short to allocate a new one
+   * @return destination
+   */
+  public float[] toArray(float[] destination) {
+    if (destination == null || destination.length < dataSize) {
+      destination = new float[dataSize];
+    }
+    double shift = SampleDecoder.getShift(yMult, yOff, yZero);
+    if (byteSamples != null) {
+      SampleDecoder.decodeInt8(byteSamples, 0, dataSize, yMult, shift, destination);
+    }
+    else if (shortSamples != null) {
+      SampleDecoder.decodeInt16(shortSamples, dataSize, yMult, shift, destination);
+    }
+    return destination;
+  }
+
+
+  /**
+   * This method scales all samples into an array and computes their 
+   * statistics in the same pass.
+   * @param destination array to fill, or null or too short to allocate a new one
+   * @param statistics receives the statistics
+   * @return destination
+   */
+  public double[] toArray(double[] destination, WaveformStatistics statistics) {
+    if (destination == null || destination.length < dataSize) {
+      destination = new double[dataSize];
+    }
+    double shift = SampleDecoder.getShift(yMult, yOff, yZero);
+    if (byteSamples != null) {
+      SampleDecoder.decodeInt8(byteSamples, 0, dataSize, yMult, shift, destination, statistics);
+    }
+    else if (shortSamples != null) {
+      SampleDecoder.decodeInt16(shortSamples, dataSize, yMult, shift, destination, statistics);
+    }
+    else {
+      statistics.setRaw(0, 0, 0, 0, -1, 0, -1, yMult, shift);
+    }
+    return destination;
+  }
+
+
+  /**
+   * This method scales the samples into a JWaveForm and sets its parameters,
+   * including minimum and maximum amplitude and the statistics, all in one
+   * pass over the samples. The data array and the statistics object of the
+   * JWaveForm are only reused if its isReused flag is set.
+   * @param waveForm waveform to fill
+   * @return waveForm
+   */
+  public JWaveForm toJWaveForm(JWaveForm waveForm) {
+    waveForm.allocate(dataSize);
+    toArray(waveForm.data, waveForm.statistics);
+    waveForm.dataSize = dataSize;
+    waveForm.rate = xIncr;
+    waveForm.gain = Double.isNaN(gain) ? null : gain;
+    waveForm.triggerDelay = Double.isNaN(triggerDelay) ? null : triggerDelay;
+    if (dataSize == 0) {
+      return waveForm;
+    }
+    waveForm.min = waveForm.statistics.min;
+    waveForm.max = waveForm.statistics.max;
+    return waveForm;
+  }
+}
@@ -17,48 +17,108 @@ limitations under the License.
  */
 package JVisaOscilloscope;
 
-import java.nio.ByteBuffer;
-import java.nio.ShortBuffer;
-import java.util.Arrays;
-import java.util.StringTokenizer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import jvisa.*;
 
 /**
  * VISA instrument driver for the Tektronix TDS3000 oscilloscope series.
+ * Model dependent commands and limits are taken from a ScopeModel, so the 
+ * driver also serves models with a similar command set (see 
+ * ScopeModelRegistry).
  * @author Günter Fuchs (gfuchs@acousticmicroscopy.com)
  * @todo If we have to send a REBOOT command, would we not have to re-open
  *       the instrument session?
  */
-public class JInstrument_TDS3000 extends JVisaInstrument implements OscilloscopeInterface {
+public class JInstrument_TDS3000 extends JVisaInstrument implements OscilloscopeInterface, 
+        PhasedAcquisition {
   /** number of acquisitions to average */
   public int averageCount = 64;
-  /** command string that requests the busy flag */
-  protected final String IS_BUSY = "BUSY?";
-  /** command string for acquisition mode */
-  protected final String ACQUIRE_MODE = 
-          String.format("ACQUIRE:MODE AVERAGE;STOPAFTER SEQUENCE;NUMAVG %d; STATE STOP", averageCount);
-  /** command string for encoding of waveform data */
-  protected final String CURVE_ENCODING = "DATA:ENCDG RIBINARY;WIDTH 2";
+  /** command table of the instrument model */
+  protected ScopeModel model;
   /** info string when instrument has finished resetting */
   protected final String RESETTING_FINISHED = "Finished resetting instrument.";
   //protected final String responseEncoding = "DATA:ENCDG ASCII";
-  /** 
-   * valid values for number of acquisitions to average. 512 might only work for certain models. 
-   * @todo Change the type from int to enum.
-   */
-  protected final int[] VALID_COUNT = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512};
   /** minimum channel value */
   protected final int CHANNEL_MIN = 1;
-  /** maximum channel value */
+  /** maximum channel value of any model, the size of the per channel arrays */
   protected final int CHANNEL_MAX = 4;
   /** default channel */
   protected final int CHANNEL_DEFAULT = CHANNEL_MIN;
+  /** waveform preamble of each channel, valid until a setting changes */
+  public final WaveformPreambleCache preambleCache = new WaveformPreambleCache(CHANNEL_MAX);
   /** size of receive buffer */
   // libreVisa supports only a buffer size of 12 kB.
   public final int BUFFER_SIZE = 0x20000;
   /** default timeout */
   public final int TIMEOUT = 5000;
+  /** time in ms the instrument may take to complete "*RST" */
+  public final int RESET_TIMEOUT = 6000;
+  /** time in ms the instrument may take to settle after setting the acquisition mode */
+  public final int SETTLE_TIMEOUT = 10000;
+  /** time in ms one acquisition of one channel may take */
+  public final int ACQUISITION_TIMEOUT = 1200;
+  /** milliseconds the last operation took to complete */
+  protected JVisaReturnNumber completionTime = new JVisaReturnNumber(0L);
+  /** 
+   * If true, wait for an acquisition with "*OPC?". Otherwise, or if the VISA
+   * timeout cannot be set (libreVisa), poll the busy status.
+   */
+  public boolean isOperationCompleteWait = true;
+  /** strategy for polling the busy status */
+  public PollStrategy pollStrategy = new ExpectedDurationPollStrategy(0.9, 10);
+  /** number of polls and overshoot of waitForReady */
+  public final PollStatistics pollStatistics = new PollStatistics();
+  /** 
+   * If true, getBusyStatus reads the status byte by a serial poll instead of
+   * querying "BUSY?" while an operation armed by armOperationComplete is pending.
+   */
+  public boolean isStatusBytePolling = false;
+  /** true while an operation armed by armOperationComplete is pending */
+  protected boolean isOperationArmed = false;
+  /** status byte read by the last serial poll */
+  protected JVisaReturnNumber statusByte = new JVisaReturnNumber(0);
+  /** 
+   * raw waveform of each channel, indexed by channel - 1, reused for every 
+   * acquisition 
+   */
+  protected final JCompactWaveForm[] transferWaveForms = {
+    new JCompactWaveForm(), new JCompactWaveForm(), new JCompactWaveForm(), new JCompactWaveForm()
+  };
+  /** 
+   * raw waveforms of segmented acquisitions, indexed by [frame][channel - 1], 
+   * grown as needed, reused and trimmed to the frame count of the last 
+   * segmented acquisition
+   */
+  protected final List<JCompactWaveForm[]> segmentWaveForms = new ArrayList<>();
+  /** decodes a channel while the next one is transferred */
+  public final DecodePipeline decodePipeline = new DecodePipeline();
+  /** predicts the duration of an acquisition from past acquisitions */
+  public final AcquisitionDurationPredictor durationPredictor = new AcquisitionDurationPredictor();
+  /** 
+   * latency of each phase of successful acquisitions and resets, by channel 
+   * count 
+   */
+  public final LatencyStatistics latencyStatistics = new LatencyStatistics(CHANNEL_MAX);
+  /** times the phases of the current acquisition or reset */
+  protected final PhaseTimer phaseTimer = new PhaseTimer();
+  /** trade-off between vertical precision and transfer time */
+  public EncodingPolicy encodingPolicy = EncodingPolicy.AUTO;
+  /** 
+   * vertical precision in bits the application needs, 0 for all the 
+   * acquisition delivers; used by EncodingPolicy.AUTO 
+   */
+  public int requiredBits = 0;
+  /** 
+   * If true, 2 byte samples are requested least significant byte first 
+   * (SRIBINARY), which needs no byte swapping on little endian hosts. The 
+   * byte order of the transfer is taken from the preamble, so an instrument
+   * that ignores the request is still decoded correctly.
+   */
+  public boolean isLittleEndianTransfer = true;
+  /** encoding selected by the last reset or acquisition */
+  protected TransferEncoding transferEncoding = TransferEncoding.RIBINARY_2;
   /** ordinal of enumerated status code */
   public final long SUCCESS = OscilloscopeInterface.StatusCode.SUCCESS.ordinal();
   /** number of data points / amplitude values in waveform */
@@ -66,33 +126,88 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
   /** return status of VISA function */ 
   protected long visaStatus;
   /**
-   * If resolution is set to low, the number of acquired data points is 500,
-   * otherwise it is 10,000.
+   * If resolution is set to low, the number of acquired data points is 
+   * the low resolution record length of the model (500 for the TDS3000),
+   * otherwise it is the high resolution one (10,000).
    */
   public boolean isHighResolution = true;
 
+
+  /**
+   * constructor for the TDS3000 series
+   */
+  public JInstrument_TDS3000() {
+    this(ScopeModel.createTds3000());
+  }
+
+
+  /**
+   * constructor
+   * @param model command table of the instrument model
+   */
+  public JInstrument_TDS3000(ScopeModel model) {
+    setModel(model);
+  }
+
+
+  /**
+   * This method gets the command table of the instrument model.
+   * @return table
+   */
+  public ScopeModel getModel() {
+    return model;
+  }
+
+
+  /**
+   * This method sets the command table of the instrument model, for example
+   * the one ScopeModelRegistry found for the instrument. Cached preambles 
+   * are discarded.
+   * @param model table
+   */
+  public void setModel(ScopeModel model) {
+    if (model.channelCount > CHANNEL_MAX) {
+      throw new IllegalArgumentException(
+              String.format("At most %d channels are supported.", CHANNEL_MAX));
+    }
+    this.model = model;
+    preambleCache.invalidate();
+  }
+
   
   /**
    * This method validates the average count.
-   * The number of acquisitions to average has to be a power of 2.
+   * The number of acquisitions to average has to be one the model supports.
    * @param count average count
-   * @return success if count is a power of 2, otherwise error 
+   * @return success if the model supports count, otherwise error 
    */
   @Override
   public StatusCode validateAverageCount(int count) {
-    return (Arrays.binarySearch(VALID_COUNT, count) < 0 
-            ? StatusCode.PARAMETER_INVALID : StatusCode.SUCCESS);
+    return (model.isValidAverageCount(count) ? StatusCode.SUCCESS : StatusCode.PARAMETER_INVALID);
   }
   
   /**
    * This method reads the busy status from the instrument.
+   * If status byte polling is on and an operation has been armed with 
+   * armOperationComplete, a serial poll of the ESB bit replaces "BUSY?".
    * @return busy status
    */
   @Override
   public StatusCode getBusyStatus() {
     try {
+      if (isStatusBytePolling && isOperationArmed) {
+        visaStatus = readStatusByte(statusByte);
+        if (visaStatus != SUCCESS) {
+          return StatusCode.VISA_ERROR;
+        }
+        if ((statusByte.returnNumber.intValue() & STATUS_BYTE_ESB) == 0) {
+          return StatusCode.BUSY;
+        }
+        isOperationArmed = false;
+        return StatusCode.SUCCESS;
+      }
       JVisaReturnString response = new JVisaReturnString();
-      sendAndReceive(IS_BUSY, response);
+      sendAndReceive(model.busyQuery, response);
       return (Integer.parseInt(response.returnString) == 0 ? StatusCode.SUCCESS : StatusCode.BUSY);
     }
     catch (JVisaException e) {
@@ -102,6 +217,25 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
   }
   
   
+  /**
+   * This method sends a command that starts an operation such that the end of 
+   * the operation sets the ESB bit in the status byte. 
+   * "*ESE 1" enables the operation complete event, "*CLS" clears the event 
+   * status register, and "*OPC" sets the operation complete event when all 
+   * pending operations have finished.
+   * @param command command that starts the operation
+   * @param deadline deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException if viWrite does not succeed
+   */
+  protected long armOperationComplete(String command, JVisaDeadline deadline) 
+          throws JVisaException {
+    visaStatus = write(String.format("*ESE 1;*CLS;%s;*OPC", command), deadline);
+    isOperationArmed = visaStatus == SUCCESS;
+    return visaStatus;
+  }
+  
+  
   /**
    * This method polls the busy status until the instrument indicates that it is
    * ready or the timeout value is reached.
@@ -110,17 +244,48 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
    */
   @Override
   public StatusCode waitForReady(long timeout) {
+    return waitForReady(timeout, 0);
+  }
+  
+  
+  /**
+   * This method polls the busy status until the instrument indicates that it is
+   * ready or the timeout value is reached. The poll strategy decides how long
+   * to sleep between two polls.
+   * @param timeout stop waiting after this many milliseconds
+   * @param expectedDuration predicted duration of the operation in ms, 
+   *                         0 if unknown
+   * @return busy status
+   */
+  public StatusCode waitForReady(long timeout, long expectedDuration) {
     StatusCode status = StatusCode.BUSY;
+    int pollCount = 0;
+    long elapsedTime = 0, lastBusyTime = 0;
     try {
       long pollingStart = System.currentTimeMillis();
+      pollStrategy.start(expectedDuration);
       do {
+        long delay = Math.min(pollStrategy.getDelay(pollCount, elapsedTime), timeout - elapsedTime);
+        if (delay > 0) {
+          Thread.sleep(delay);
+        }
         status = getBusyStatus();
+        pollCount++;
+        elapsedTime = System.currentTimeMillis() - pollingStart;
         if (status != StatusCode.BUSY) {
+          pollStatistics.record(pollCount, elapsedTime, elapsedTime - lastBusyTime);
           return status;
         }
-      } while(System.currentTimeMillis() - pollingStart < timeout);
+        lastBusyTime = elapsedTime;
+      } while(elapsedTime < timeout);
+      pollStatistics.record(pollCount, elapsedTime, 0);
       return status;
     }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.EXCEPTION;
+    }
     catch (Exception e) {
       LOGGER.log(Level.SEVERE, e.getMessage(), e);
       status = StatusCode.EXCEPTION;
@@ -144,13 +309,13 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
       return status;
     }
     LOGGER.severe("Resetting instrument...");
+    phaseTimer.start();
     try {
-      write("*RST");
-      // The command above should have reset the busy status.
+      // "*OPC?" returns as soon as the instrument has finished resetting.
       // The timeout used here is not the communication timeout handed to this
       // function in a parameter, but hard-coded here.
-      status = waitForReady(6000);
-      if (status != StatusCode.SUCCESS) {
+      visaStatus = sendAndWaitForCompletion("*RST", RESET_TIMEOUT, completionTime);
+      if (visaStatus != SUCCESS) {
         throw new JVisaException(statusObject.getVisaStatus());
       }
 //      write("*CLS");
@@ -162,29 +327,43 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
       if (visaStatus != SUCCESS) {
         throw new JVisaException(statusObject.getVisaStatus());
       }
-      write(CURVE_ENCODING);
-      write("HORIZONTAL:TRIGGER:POSITION 0");
-      write("TRIGGER:A:SETLEVEL");
+      write(selectTransferEncoding(averageCount));
+      for (String command : model.resetCommands) {
+        write(command);
+      }
       this.averageCount = averageCount;
+      phaseTimer.lap(AcquisitionPhase.CONFIGURE);
       
-      write(ACQUIRE_MODE);
-      status = waitForReady(10000);
-      if (status != StatusCode.BUSY) {
+      visaStatus = sendAndWaitForCompletion(String.format(model.acquireModeCommand, averageCount), 
+              SETTLE_TIMEOUT, completionTime);
+      if (visaStatus == SUCCESS) {
+        phaseTimer.lap(AcquisitionPhase.SETTLE);
+        phaseTimer.record(latencyStatistics, LatencyStatistics.RESET_CHANNEL_COUNT);
         LOGGER.severe(RESETTING_FINISHED);
-        return status;
+        return StatusCode.SUCCESS;
+      }
+      if (visaStatus != JVisaInterface.VI_ERROR_TMO) {
+        throw new JVisaException(statusObject.getVisaStatus());
       }
+      // Discard the pending response to "*OPC?".
+      clear();
       // Instrument polling timed out.
-      write("*OPC");
-      write("ACQUIRE:STATE STOP");
+      write(model.operationCompleteCommand);
+      write(model.stopCommand);
       status = getBusyStatus();
       if (status == StatusCode.SUCCESS) {
+        phaseTimer.lap(AcquisitionPhase.SETTLE);
+        phaseTimer.record(latencyStatistics, LatencyStatistics.RESET_CHANNEL_COUNT);
         LOGGER.severe(RESETTING_FINISHED);
         return status;
       }
       // Instrument is still not happy.
       LOGGER.severe(RESETTING_FINISHED);
+      if (model.rebootCommand == null) {
+        return StatusCode.BUSY;
+      }
       LOGGER.severe("Rebooting instrument...");
-      write("REBOOT");
+      write(model.rebootCommand);
       return StatusCode.REBOOTED;
     }
     catch (JVisaException e) {
@@ -206,7 +385,47 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
   
   
   /**
-   * This method acquires a waveform.
+   * This method chooses the curve encoding of an acquisition by 
+   * encodingPolicy.
+   * @param averageCount number of acquisitions to average
+   * @return command that selects the encoding
+   */
+  protected String selectTransferEncoding(int averageCount) {
+    transferEncoding = TransferEncoding.choose(encodingPolicy, averageCount, model.digitizerBits, 
+            requiredBits, isLittleEndianTransfer && model.isLittleEndianSupported);
+    return transferEncoding.getCommand();
+  }
+  
+  
+  /**
+   * This method gets the curve encoding selected by the last reset or 
+   * acquisition.
+   * @return encoding
+   */
+  public TransferEncoding getTransferEncoding() {
+    return transferEncoding;
+  }
+  
+  
+  /**
+   * This method computes the default time budget of an acquisition: 
+   * TIMEOUT ms for waiting until ready, TIMEOUT ms per channel transfer, and
+   * ACQUISITION_TIMEOUT ms per acquisition and channel.
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire
+   * @return budget in ms
+   */
+  protected long getAcquisitionBudget(int averageCount, int channels[]) {
+    int channelCount = channels == null ? 1 : channels.length;
+    return (long) (channelCount + 1) * TIMEOUT 
+            + (long) channelCount * ACQUISITION_TIMEOUT * averageCount;
+  }
+  
+  
+  /**
+   * This method acquires a waveform. The whole acquisition, from waiting for
+   * the instrument to be ready to the transfer of the last channel, has one 
+   * time budget (see getAcquisitionBudget).
    * @param waveForms waveform data received from the instrument and its 
    *                 parameters
    * @param averageCount number of acquisitions to average
@@ -215,6 +434,194 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
    */
   @Override
   public StatusCode acquire(JWaveForm waveForms[], int averageCount, int channels[]) {
+    return acquire(waveForms, averageCount, channels, 
+            new JVisaDeadline(getAcquisitionBudget(averageCount, channels)));
+  }
+  
+  
+  /**
+   * This method acquires a waveform within one end-to-end time budget.
+   * Every command, query and wait of the acquisition gets at most the time
+   * left until the deadline.
+   * @param waveForms waveform data received from the instrument and its 
+   *                 parameters
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation, BUSY if the deadline passed while
+   *         waiting for the acquisition
+   */
+  public StatusCode acquire(JWaveForm waveForms[], int averageCount, int channels[], 
+          JVisaDeadline deadline) {
+    return acquire(waveForms, averageCount, channels, deadline, null);
+  }
+  
+  
+  /**
+   * This method acquires a waveform within one end-to-end time budget and
+   * publishes each channel as soon as it is ready. Channel N is decoded on 
+   * the worker thread of decodePipeline while channel N + 1 is transferred.
+   * All waveforms are complete when this method returns.
+   * @param waveForms waveform data received from the instrument and its 
+   *                 parameters
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @param listener receives each waveform on the decoding thread, or null
+   * @return status of the operation, BUSY if the deadline passed while
+   *         waiting for the acquisition
+   */
+  public StatusCode acquire(JWaveForm waveForms[], int averageCount, int channels[], 
+          JVisaDeadline deadline, WaveformListener listener) {
+    StatusCode status = arm(waveForms, averageCount, channels, deadline);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    return transfer(waveForms, channels, deadline, listener);
+  }
+  
+  
+  /**
+   * This method configures the instrument, starts an acquisition and waits
+   * for it to finish.
+   * @param waveForms waveforms, indexed by channel - 1; the trigger delay of
+   *                  the first one is set if it is not null
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation, BUSY if the acquisition did not finish
+   */
+  @Override
+  public StatusCode arm(JWaveForm waveForms[], int averageCount, int channels[], 
+          JVisaDeadline deadline) {
+    return startAcquisition(averageCount, channels, waveForms[0].triggerDelay, deadline);
+  }
+  
+  
+  /**
+   * This method transfers and decodes the waveforms of the last acquisition.
+   * @param waveForms receive the waveforms, indexed by channel - 1
+   * @param channels channels to transfer (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation
+   */
+  @Override
+  public StatusCode transfer(JWaveForm waveForms[], int channels[], JVisaDeadline deadline) {
+    return transfer(waveForms, channels, deadline, null);
+  }
+  
+  
+  /**
+   * This method transfers the waveforms of the last acquisition and 
+   * publishes each channel as soon as it is decoded. Channel N is decoded
+   * on the worker thread of decodePipeline while channel N + 1 is 
+   * transferred. All waveforms are complete when this method returns.
+   * @param waveForms receive the waveforms, indexed by channel - 1
+   * @param channels channels to transfer (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @param listener receives each waveform on the decoding thread, or null
+   * @return status of the operation
+   */
+  public StatusCode transfer(JWaveForm waveForms[], int channels[], JVisaDeadline deadline,
+          WaveformListener listener) {
+    StatusCode status = StatusCode.SUCCESS;
+    // Do not count the time between arm and transfer.
+    phaseTimer.mark();
+    try {
+      for (int channel: channels) {
+        JCompactWaveForm raw = transferWaveForms[channel - 1];
+        status = transferWaveform(channel, raw, deadline);
+        if (status != StatusCode.SUCCESS) {
+          break;
+        }
+        decodePipeline.submit(channel, raw, waveForms[channel - 1], listener);
+        // A decode on this thread is counted by the pipeline.
+        phaseTimer.mark();
+      }
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      status = StatusCode.VISA_ERROR;
+    }
+    catch (NumberFormatException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      status = StatusCode.EXCEPTION;
+    }
+    // Do not return while a decode still writes into waveForms.
+    StatusCode decodeStatus = decodePipeline.await();
+    phaseTimer.add(AcquisitionPhase.DECODE, decodePipeline.takeDecodeTime());
+    if (status == StatusCode.SUCCESS && decodeStatus == StatusCode.SUCCESS) {
+      phaseTimer.record(latencyStatistics, channels.length);
+    }
+    return status == StatusCode.SUCCESS ? decodeStatus : status;
+  }
+  
+  
+  /**
+   * This method acquires waveforms and keeps their raw samples.
+   * @param waveForms waveform data received from the instrument and its 
+   *                 parameters, indexed by channel - 1
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire (1 to 4)
+   * @return status of the operation
+   */
+  public StatusCode acquire(JCompactWaveForm waveForms[], int averageCount, int channels[]) {
+    JVisaDeadline deadline = new JVisaDeadline(getAcquisitionBudget(averageCount, channels));
+    Double triggerDelay = Double.isNaN(waveForms[0].triggerDelay) ? null : waveForms[0].triggerDelay;
+    StatusCode status = startAcquisition(averageCount, channels, triggerDelay, deadline);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    try {
+      for (int channel: channels) {
+        status = transferWaveform(channel, waveForms[channel - 1], deadline);
+        if (status != StatusCode.SUCCESS) {
+          return status;
+        }
+      }
+      phaseTimer.record(latencyStatistics, channels.length);
+      return StatusCode.SUCCESS;
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.VISA_ERROR;
+    }
+    catch (NumberFormatException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.EXCEPTION;
+    }
+  }
+  
+  
+  /**
+   * This method configures the instrument, starts an acquisition and waits
+   * for it to finish.
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire (1 to 4)
+   * @param triggerDelay trigger delay to set, null to keep the current one
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation, BUSY if the acquisition did not finish
+   */
+  protected StatusCode startAcquisition(int averageCount, int channels[], Double triggerDelay,
+          JVisaDeadline deadline) {
+    return startAcquisition(averageCount, channels, triggerDelay, 0, deadline);
+  }
+  
+  
+  /**
+   * This method configures the instrument, starts an acquisition and waits
+   * for it to finish. With a frame count, segmented memory is turned on and
+   * the acquisition captures one frame per trigger.
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire (1 to 4)
+   * @param triggerDelay trigger delay to set, null to keep the current one
+   * @param frameCount number of frames to capture in segmented memory, 0 
+   *                   for a normal acquisition
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation, BUSY if the acquisition did not finish
+   */
+  protected StatusCode startAcquisition(int averageCount, int channels[], Double triggerDelay,
+          int frameCount, JVisaDeadline deadline) {
     StatusCode status = validateAverageCount(averageCount);
     if (status != StatusCode.SUCCESS) {
       return status;
@@ -222,18 +629,18 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
     if (channels == null)
       return StatusCode.PARAMETER_INVALID;
     for (int channel : channels) {
-      if (channel < CHANNEL_MIN || channel > CHANNEL_MAX) {
+      if (channel < CHANNEL_MIN || channel > model.channelCount) {
         return StatusCode.PARAMETER_INVALID;
       }
     }
     this.averageCount = averageCount;
     visaStatus = VISA_JAVA_ERROR;
-    JVisaReturnString response = new JVisaReturnString();
-    String responseString;
-    JWaveForm waveForm = waveForms[0];
+    phaseTimer.start();
+    // Discard the decode time of acquisitions that were not recorded.
+    decodePipeline.takeDecodeTime();
     try {
       // ------- Set the acquisition parameters. ---------------  
-      status = waitForReady(TIMEOUT);
+      status = waitForReady(Math.min(TIMEOUT, deadline.getRemaining()));
       if (status != StatusCode.SUCCESS) {
         if (status == StatusCode.BUSY) {
           LOGGER.severe("Instrument is busy.");
@@ -241,182 +648,348 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
         }
         throw new JVisaException(statusObject.getVisaStatus());
       }
-      write(ACQUIRE_MODE);
-      write(CURVE_ENCODING);
-      write(String.format("ACQUIRE:NUMAVG %d", averageCount));
-      String resolution;
-      if (isHighResolution) {
-        resolution = "HIGH";
-        dataPointCount = 10000;
+      write(String.format(model.acquireModeCommand, averageCount), deadline);
+      write(selectTransferEncoding(averageCount), deadline);
+      if (averageCount == 1) {
+        // A single-shot frame, for example for averaging on the host.
+        write(model.sampleModeCommand, deadline);
       }
-      else {
-        resolution = "LOW";
-        dataPointCount = 500;
+      dataPointCount = model.getPointCount(isHighResolution);
+      String resolution = model.getResolutionCommand(isHighResolution);
+      if (resolution != null) {
+        write(resolution, deadline);
       }
-      write(String.format("HORIZONTAL:RESOLUTION %s", resolution));
-      if (waveForm.triggerDelay != null) {
-        write(String.format("HORIZONTAL:DELAY:TIME %E", waveForm.triggerDelay));
-        write("HORIZONTAL:DELAY:STATE ON");
+      if (triggerDelay != null) {
+        write(String.format(model.triggerDelayCommand, triggerDelay), deadline);
       }
-      write(String.format("DATA:START 1;STOP %d", dataPointCount));
-      write("HEADER OFF");
-
-      // ------- Start the acquisition. ------------------------------
-      write("ACQUIRE:STATE RUN");
-      LOGGER.info("Acquiring waveform...");
-      
-      // ------- Wait for acquisition(s) to finish. ----------------------
-//      long timeout = 300 * averageCount * channels.length; // in ms
-      long timeout = 1200 * averageCount * channels.length; // in ms
-      status = waitForReady(timeout);
+      write(String.format(model.dataRangeCommand, 1, dataPointCount), deadline);
+      write(model.headerOffCommand, deadline);
+      if (frameCount > 0) {
+        write(String.format(model.segmentedOnCommand, frameCount), deadline);
+      }
+      phaseTimer.lap(AcquisitionPhase.CONFIGURE);
+      // A sequence of frames takes as long as as many averaged acquisitions.
+      return runAcquisition(averageCount * Math.max(frameCount, 1), channels.length, deadline);
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.VISA_ERROR;
+    }
+  }
+  
+  
+  /**
+   * This method starts an acquisition with the current settings and waits 
+   * for it to finish. Because ACQUIRE:STOPAFTER is SEQUENCE, this re-arms 
+   * the trigger for exactly one acquisition sequence.
+   * @param averageCount number of acquisitions to average
+   * @param channelCount number of channels acquired
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation, BUSY if the acquisition did not finish
+   * @throws jvisa.JVisaException if a command or query does not succeed
+   */
+  protected StatusCode runAcquisition(int averageCount, int channelCount, JVisaDeadline deadline)
+          throws JVisaException {
+    // ------- Start the acquisition. ------------------------------
+    LOGGER.info("Acquiring waveform...");
+    
+    // ------- Wait for acquisition(s) to finish. ----------------------
+    long timeout = Math.min(ACQUISITION_TIMEOUT * averageCount * channelCount, 
+            deadline.getRemaining()); // in ms
+    if (isOperationCompleteWait && model.isOperationCompleteSupported && isLibreVisa == false) {
+      // "*OPC?" returns as soon as the acquisition sequence has finished.
+      visaStatus = sendAndWaitForCompletion(model.armCommand, 
+              new JVisaDeadline(timeout), completionTime);
+      // Arming is not separable from the wait here.
+      phaseTimer.lap(AcquisitionPhase.WAIT_FOR_TRIGGER);
+      if (visaStatus == JVisaInterface.VI_ERROR_TMO) {
+        // This usually happens if "Single Seq" is on or there is no trigger.
+        // Discard the pending response to "*OPC?".
+        clear();
+        return StatusCode.BUSY;
+      }
+      if (visaStatus != SUCCESS) {
+        throw new JVisaException(statusObject.getVisaStatus());
+      }
+    }
+    else {
+      if (isStatusBytePolling) {
+        armOperationComplete(model.armCommand, deadline);
+      }
+      else {
+        write(model.armCommand, deadline);
+      }
+      phaseTimer.lap(AcquisitionPhase.ARM);
+      StatusCode status = waitForReady(timeout, durationPredictor.predict(averageCount, channelCount));
+      phaseTimer.lap(AcquisitionPhase.WAIT_FOR_TRIGGER);
       if (status == StatusCode.BUSY) {
         // This usually happens if "Single Seq" is on or there is no trigger.
         return status;
       }
-      
-      // ------- Obtain settings for waveforms. ----------------------
-      for (int channel: channels) {
-        write(String.format("DATA:SOURCE CH%d", channel));
-        write(String.format("SAVE:WAVEFORM CH%d,REF%d", channel, channel));
-        write(String.format("SELECT:REF%d ON", channel));
-        write(String.format("DATA:SOURCE REF%d", channel));
-        sendAndReceive("DATA:WIDTH?", response);
-        int dataWidth = Integer.parseInt(response.returnString);
-
-        sendAndReceive(String.format("CH%d:SCALE?", channel), response);
-        waveForm = waveForms[channel - 1];
-        waveForm.gain = Double.parseDouble(response.returnString);
-
-        sendAndReceive("HORIZONTAL:SCALE?", response);
-        //double mainScale = Double.parseDouble(response.getReturnString());
+      if (status != StatusCode.SUCCESS) {
+        throw new JVisaException(statusObject.getVisaStatus());
+      }
+      completionTime.returnNumber = pollStatistics.waitTime;
+    }
+    durationPredictor.record(averageCount, channelCount, completionTime.returnNumber.longValue());
+    LOGGER.info(String.format("Acquisition took %d ms.", completionTime.returnNumber.longValue()));
+    return StatusCode.SUCCESS;
+  }
+  
+  
+  /**
+   * This method acquires a number of triggers into segmented memory 
+   * (FastFrame), one frame per trigger. The instrument is armed once and 
+   * captures all frames; then each channel is transferred with one CURVE? 
+   * of all frames, which is split into the frames and decoded on the thread 
+   * of decodePipeline while the next channel is transferred. Segmented 
+   * memory is turned off again afterwards.
+   * @param frames receives the waveforms, indexed by [frame][channel - 1]; 
+   *               the number of frames is frames.length
+   * @param timestamps receives the trigger time of each frame in s, 
+   *                   relative to the first frame, NaN if the instrument 
+   *                   cannot report it
+   * @param channels channels to acquire (1 to 4)
+   * @return status of the operation, UNSUPPORTED if the instrument has no 
+   *         segmented memory (model.segmentedOnCommand is null)
+   */
+  @Override
+  public StatusCode acquireSegmented(JWaveForm frames[][], double timestamps[], int channels[]) {
+    if (!model.isSegmentedSupported()) {
+      LOGGER.severe("The instrument has no segmented memory.");
+      return StatusCode.UNSUPPORTED;
+    }
+    if (frames.length == 0) {
+      return StatusCode.PARAMETER_INVALID;
+    }
+    JVisaDeadline deadline = new JVisaDeadline(getAcquisitionBudget(frames.length, channels));
+    StatusCode status = startAcquisition(1, channels, null, frames.length, deadline);
+    try {
+      if (status == StatusCode.SUCCESS) {
+        status = transferSegments(frames, timestamps, channels, deadline);
+      }
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      status = StatusCode.VISA_ERROR;
+    }
+    catch (NumberFormatException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      status = StatusCode.EXCEPTION;
+    }
+    // Do not return while a decode still writes into frames.
+    StatusCode decodeStatus = decodePipeline.await();
+    phaseTimer.add(AcquisitionPhase.DECODE, decodePipeline.takeDecodeTime());
+    phaseTimer.mark();
+    try {
+      write(model.segmentedOffCommand, deadline);
+      phaseTimer.lap(AcquisitionPhase.CONFIGURE);
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      if (status == StatusCode.SUCCESS) {
+        status = StatusCode.VISA_ERROR;
+      }
+    }
+    if (status == StatusCode.SUCCESS && decodeStatus == StatusCode.SUCCESS) {
+      phaseTimer.record(latencyStatistics, channels.length);
+    }
+    return status == StatusCode.SUCCESS ? decodeStatus : status;
+  }
 
-        sendAndReceive("WFMPRE:XINCR?", response);
-        waveForm.rate = Double.parseDouble(response.returnString);
 
-        sendAndReceive("WFMPRE:NR_PT?", response);
-        waveForm.dataSize = Integer.parseInt(response.returnString);
-        if (waveForm.dataSize != dataPointCount) {
-          return StatusCode.WAVEFORM_ERROR;
+  /**
+   * This method transfers the frames captured in segmented memory, one 
+   * block of all frames per channel, and hands each frame to decodePipeline.
+   * @param frames receives the waveforms, indexed by [frame][channel - 1]
+   * @param timestamps receives the trigger time of each frame in s
+   * @param channels channels to transfer (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation
+   * @throws jvisa.JVisaException if a command or query does not succeed
+   * @throws NumberFormatException if a response is not valid
+   */
+  protected StatusCode transferSegments(JWaveForm frames[][], double timestamps[], int channels[],
+          JVisaDeadline deadline) throws JVisaException {
+    while (segmentWaveForms.size() < frames.length) {
+      segmentWaveForms.add(new JCompactWaveForm[CHANNEL_MAX]);
+    }
+    if (segmentWaveForms.size() > frames.length) {
+      segmentWaveForms.subList(frames.length, segmentWaveForms.size()).clear();
+    }
+    write(String.format(model.frameRangeCommand, 1, frames.length), deadline);
+    for (int channel : channels) {
+      write(String.format(model.channelSourceCommand, channel), deadline);
+      phaseTimer.lap(AcquisitionPhase.TRANSFER);
+      WaveformPreamble preamble = getPreamble(channel, deadline);
+      phaseTimer.lap(AcquisitionPhase.PREAMBLE);
+      if (preamble.pointCount != dataPointCount) {
+        return StatusCode.WAVEFORM_ERROR;
+      }
+      // One block holds the frames one after the other.
+      JCompactWaveForm block = transferWaveForms[channel - 1];
+      preamble.applyTo(block);
+      StatusCode status = transferCurve(preamble, dataPointCount * frames.length, block, deadline);
+      phaseTimer.lap(AcquisitionPhase.TRANSFER);
+      if (status != StatusCode.SUCCESS) {
+        return status;
+      }
+      for (int frame = 0; frame < frames.length; frame++) {
+        JCompactWaveForm raws[] = segmentWaveForms.get(frame);
+        if (raws[channel - 1] == null) {
+          raws[channel - 1] = new JCompactWaveForm();
         }
+        raws[channel - 1].setSamples(block, frame * dataPointCount, dataPointCount);
+        decodePipeline.submit(channel, raws[channel - 1], frames[frame][channel - 1], null);
+      }
+      // A decode on this thread is counted by the pipeline.
+      phaseTimer.mark();
+    }
+    JVisaReturnString response = new JVisaReturnString();
+    for (int frame = 0; frame < frames.length; frame++) {
+      if (model.frameTimeQuery == null) {
+        timestamps[frame] = Double.NaN;
+      }
+      else {
+        sendAndReceive(String.format(model.frameTimeQuery, channels[0], frame + 1), response, 
+                deadline);
+        timestamps[frame] = Double.parseDouble(response.returnString.trim());
+      }
+    }
+    phaseTimer.lap(AcquisitionPhase.TRANSFER);
+    return StatusCode.SUCCESS;
+  }
 
-        sendAndReceive("HORIZONTAL:DELAY:TIME?", response);
-        //responseString = response.returnString;
-        // DELAY:TIME is the time the trigger is off the center of the screen
-        // which is on the time scale half the total time of the acquisition trace.
-        // Therefore, the absolute trigger point in time = total delay time / 2.
-        waveForm.triggerDelay = Double.parseDouble(response.returnString) 
-                - waveForm.dataSize.doubleValue() * waveForm.rate / 2.0;
-
-        sendAndReceive("WFMPRE:YMULT?", response);
-        responseString = response.returnString;
-        double yScale = Double.parseDouble(responseString);
-
-        sendAndReceive("WFMPRE:YZERO?", response);
-        double yZero = Double.parseDouble(response.returnString);
-
-        sendAndReceive("WFMPRE:YOFF?", response);
-        double yOffset = Double.parseDouble(response.returnString);
-
-        sendAndReceive("DATA:ENCDG?", response);
-        responseString = response.returnString;
-        boolean isAsciiEncoding;
-        isAsciiEncoding = responseString.startsWith("ASCI");
-
-        // This command is necessary. Otherwise "CURVE?" returns an unknown
-        // system error.
-        // todo 2016/04/13: not found to be needed (TDS3014B)
-        //write("*OPC");
 
-        int i = 0;
-        int expectedResponseCount;
-        if (isAsciiEncoding) {
-          sendAndReceive("CURVE?", response, BUFFER_SIZE);
-          LOGGER.info("Acquisition finished successfully.");
-          // Values are comma separated. Not used.
-          String dataPoint;
-          waveForm.data = new double[waveForm.dataSize];
-          StringTokenizer st = new StringTokenizer(response.returnString, ",");
-          dataPoint = (String) st.nextElement();
-          waveForm.data[i++] = (Double.parseDouble(dataPoint) - yOffset) * yScale + yZero;
-          waveForm.min = waveForm.data[0];
-          waveForm.max = waveForm.min;
-          while (st.hasMoreElements()) {
-            dataPoint = (String) st.nextElement();
-            waveForm.data[i] = (Double.parseDouble(dataPoint) - yOffset) * yScale + yZero;
-            if (waveForm.data[i] < waveForm.min) {
-              waveForm.min = waveForm.data[i];
-            }
-            else if (waveForm.data[i] > waveForm.max) {
-              waveForm.max = waveForm.data[i];
-            }
-            i++;
-          }
+  /**
+   * This method emulates a segmented acquisition on an instrument without 
+   * segmented memory: every frame is a single-shot acquisition that is 
+   * armed, waited for and transferred on its own, so the dead time between 
+   * frames is a full transfer rather than the re-arm time of segmented 
+   * memory. The instrument is configured once, then every frame only 
+   * re-arms the trigger and transfers the channels with the cached 
+   * preamble. Frames are decoded on the thread of decodePipeline while the 
+   * next trigger is acquired. Each frame is timestamped when its 
+   * acquisition has finished.
+   * @param frames receives the waveforms, indexed by [frame][channel - 1]; 
+   *               the number of frames is frames.length
+   * @param timestamps receives the time of each frame in s, relative to the 
+   *                   first frame
+   * @param channels channels to acquire (1 to 4)
+   * @return status of the operation
+   */
+  @Override
+  public StatusCode acquireSingleShots(JWaveForm frames[][], double timestamps[], int channels[]) {
+    StatusCode status = StatusCode.SUCCESS;
+    long start = 0;
+    try {
+      for (int frame = 0; frame < frames.length; frame++) {
+        JVisaDeadline deadline = new JVisaDeadline(getAcquisitionBudget(1, channels));
+        status = frame == 0 
+                ? startAcquisition(1, channels, null, deadline) 
+                : runAcquisition(1, channels.length, deadline);
+        if (status != StatusCode.SUCCESS) {
+          break;
         }
-        else {
-          // The Tektronix scope returns the data in the following format:
-          // #<x><yy..><block of bytes or integers><termination character>
-          // <x> indicates in ASCII the number of y's
-          // <yy..> indicates in ASCII the number of data bytes
-          JVisaReturnBytes buffer = new JVisaReturnBytes();
-          if (dataWidth == 1)
-            expectedResponseCount = isHighResolution ? 10008 : 5006;
-          else
-            expectedResponseCount = isHighResolution ? 20008 : 1007;
-          sendAndReceive("CURVE?", buffer, BUFFER_SIZE, expectedResponseCount);
-
-          // Check validity of first byte.
-          if (buffer.returnBytes[0] != '#') {
-            return StatusCode.WAVEFORM_ERROR;
+        long now = System.nanoTime();
+        if (frame == 0) {
+          start = now;
+        }
+        timestamps[frame] = (now - start) * 1e-9;
+        if (segmentWaveForms.size() == frame) {
+          segmentWaveForms.add(new JCompactWaveForm[CHANNEL_MAX]);
+        }
+        JCompactWaveForm raws[] = segmentWaveForms.get(frame);
+        for (int channel : channels) {
+          if (raws[channel - 1] == null) {
+            raws[channel - 1] = new JCompactWaveForm();
           }
-          // Check validity of <yy..>. It has to match dataSize.
-          int yLength = buffer.returnBytes[1] & 0x0F;
-          byte[] y = new byte[yLength];
-          System.arraycopy(buffer.returnBytes, 2, y, 0, yLength);
-          String countString = new String(y);
-          int count = Integer.parseInt(countString);
-          if (count != waveForm.dataSize * dataWidth) {
-            return StatusCode.WAVEFORM_ERROR;
+          status = transferWaveform(channel, raws[channel - 1], deadline);
+          if (status != StatusCode.SUCCESS) {
+            break;
           }
-          // Now it should be safe to convert the byte data into the double array.
-          waveForm.data = new double[waveForm.dataSize];
-          // 2: '#' + <x>
-          int sourceIndex = 2 + yLength, destinationIndex;
-          if (dataWidth == 1) {
-            waveForm.data[0] = (((double) buffer.returnBytes[sourceIndex++]) - yOffset) * yScale + yZero;
-            waveForm.min = waveForm.data[0];
-            waveForm.max = waveForm.min;
-            for (destinationIndex = 1; destinationIndex < waveForm.dataSize; destinationIndex++) {
-              waveForm.data[destinationIndex] = (((double) buffer.returnBytes[sourceIndex++]) - yOffset) * yScale + yZero;
-              if (waveForm.data[destinationIndex] < waveForm.min) {
-                waveForm.min = waveForm.data[destinationIndex];
-              }
-              if (waveForm.data[destinationIndex] > waveForm.max) {
-                waveForm.max = waveForm.data[destinationIndex];
-              }
-            }
+          decodePipeline.submit(channel, raws[channel - 1], frames[frame][channel - 1], null);
+          phaseTimer.mark();
+        }
+        if (status != StatusCode.SUCCESS) {
+          break;
+        }
+        // Decoding overlaps the next frame, so a frame is recorded with the
+        // decode time finished so far.
+        phaseTimer.add(AcquisitionPhase.DECODE, decodePipeline.takeDecodeTime());
+        phaseTimer.record(latencyStatistics, channels.length);
+      }
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      status = StatusCode.VISA_ERROR;
+    }
+    catch (NumberFormatException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      status = StatusCode.EXCEPTION;
+    }
+    // Do not return while a decode still writes into frames.
+    StatusCode decodeStatus = decodePipeline.await();
+    if (segmentWaveForms.size() > frames.length) {
+      segmentWaveForms.subList(frames.length, segmentWaveForms.size()).clear();
+    }
+    return status == StatusCode.SUCCESS ? decodeStatus : status;
+  }
+  
+  
+  /**
+   * This method acquires single-shot frames and averages them on the host
+   * instead of in the instrument. After every frame, the average so far is 
+   * stored in waveForms and handed to the listener. The acquisition stops
+   * after frameCount frames or as soon as the last frame has changed no 
+   * sample of any channel's average by more than maxChange. The instrument
+   * is configured for the first frame only; later frames re-arm the trigger.
+   * @param waveForms average so far, indexed by channel - 1
+   * @param frameCount maximum number of frames
+   * @param channels channels to acquire (1 to 4)
+   * @param averagers averager of each channel, indexed by channel - 1; 
+   *                  they are reset before the first frame
+   * @param maxChange stop when no sample of the average changes by more 
+   *                  than this many digitizing levels, 0 or less to acquire 
+   *                  all frames
+   * @param listener receives the average so far of each channel after every
+   *                 frame, or null
+   * @return status of the operation
+   */
+  public StatusCode acquireHostAveraged(JWaveForm waveForms[], int frameCount, int channels[],
+          WaveformAverager averagers[], double maxChange, WaveformListener listener) {
+    for (int channel : channels) {
+      averagers[channel - 1].reset();
+    }
+    try {
+      for (int frame = 0; frame < frameCount; frame++) {
+        JVisaDeadline deadline = new JVisaDeadline(getAcquisitionBudget(1, channels));
+        // The instrument is configured once; later frames only re-arm it.
+        StatusCode status = frame == 0 
+                ? startAcquisition(1, channels, null, deadline) 
+                : runAcquisition(1, channels.length, deadline);
+        if (status != StatusCode.SUCCESS) {
+          return status;
+        }
+        boolean isConverged = frame > 0 && maxChange > 0;
+        for (int channel : channels) {
+          JCompactWaveForm raw = transferWaveForms[channel - 1];
+          status = transferWaveform(channel, raw, deadline);
+          if (status != StatusCode.SUCCESS) {
+            return status;
           }
-          else {
-            // dataWidth == 2
-            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer.returnBytes, sourceIndex, waveForm.dataSize * 2);
-            ShortBuffer shortBuffer = byteBuffer.asShortBuffer();
-            int dataPoint = (int) shortBuffer.get(0);
-            waveForm.data[0] = ((double) dataPoint - yOffset) * yScale + yZero;
-            waveForm.min = waveForm.data[0];
-            waveForm.max = waveForm.min;
-
-            for (destinationIndex = 1; destinationIndex < waveForm.dataSize; destinationIndex++) {
-              dataPoint = (int) shortBuffer.get(destinationIndex);
-              waveForm.data[destinationIndex] = ((double) dataPoint - yOffset) * yScale + yZero;
-              if (waveForm.data[destinationIndex] < waveForm.min) {
-                waveForm.min = waveForm.data[destinationIndex];
-              }
-              if (waveForm.data[destinationIndex] > waveForm.max) {
-                waveForm.max = waveForm.data[destinationIndex];
-              }
-            }
+          WaveformAverager averager = averagers[channel - 1];
+          averager.add(raw);
+          averager.toJWaveForm(waveForms[channel - 1]);
+          isConverged &= averager.getLastChange() <= maxChange;
+          if (listener != null) {
+            listener.waveformReady(channel, waveForms[channel - 1]);
           }
         }
-        write(String.format("SELECT:REF%d OFF", channel));
+        if (isConverged) {
+          LOGGER.info(String.format("Host average converged after %d frames.", frame + 1));
+          break;
+        }
       }
       return StatusCode.SUCCESS;
     }
@@ -431,6 +1004,289 @@ public class JInstrument_TDS3000 extends JVisaInstrument implements Oscilloscope
   }
   
   
+  /**
+   * This method stops the decoding thread and closes the instrument session.
+   * @return status of the operation
+   */
+  @Override
+  public long closeInstrument() {
+    decodePipeline.shutdown();
+    return super.closeInstrument();
+  }
+  
+  
+  /**
+   * This method sends a command to the instrument and discards the cached
+   * waveform preambles if the command changes a setting they depend on.
+   * @param command command or other ASCII data
+   * @param deadline deadline of the operation, null for the timeout set by setTimeout
+   * @return status of the operation
+   * @throws jvisa.JVisaException if viWrite does not succeed or the deadline has passed
+   */
+  @Override
+  public long write(String command, JVisaDeadline deadline) throws JVisaException {
+    preambleCache.commandWritten(command);
+    return super.write(command, deadline);
+  }
+  
+  
+  /**
+   * This method discards the cached waveform preambles, for example after
+   * settings have been changed at the front panel.
+   */
+  public void invalidatePreamble() {
+    preambleCache.invalidate();
+  }
+  
+  
+  /**
+   * This method gets the preamble of a channel from the cache or, if it is
+   * not cached, with one query. DATA:SOURCE has to select the channel or its
+   * reference waveform.
+   * @param channel channel (1 to 4)
+   * @param deadline deadline of the operation
+   * @return preamble
+   * @throws jvisa.JVisaException if the query does not succeed
+   * @throws NumberFormatException if the response is not a valid preamble
+   */
+  protected WaveformPreamble getPreamble(int channel, JVisaDeadline deadline) 
+          throws JVisaException {
+    WaveformPreamble preamble = preambleCache.get(channel);
+    if (preamble != null) {
+      return preamble;
+    }
+    JVisaReturnString response = new JVisaReturnString();
+    sendAndReceive(String.format(model.preambleQuery, channel), response, deadline);
+    preamble = WaveformPreamble.parse(response.returnString);
+    preambleCache.put(channel, preamble);
+    return preamble;
+  }
+  
+  
+  /**
+   * This method copies the waveform of a channel into a reference waveform
+   * and transfers it with its scale parameters.
+   * @param channel channel to transfer (1 to 4)
+   * @param waveForm receives the raw samples and scale parameters
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation
+   * @throws jvisa.JVisaException if a command or query does not succeed
+   */
+  protected StatusCode transferWaveform(int channel, JCompactWaveForm waveForm, 
+          JVisaDeadline deadline) throws JVisaException {
+    saveReference(channel, deadline);
+    phaseTimer.lap(AcquisitionPhase.TRANSFER);
+    WaveformPreamble preamble = getPreamble(channel, deadline);
+    phaseTimer.lap(AcquisitionPhase.PREAMBLE);
+    if (preamble.pointCount != dataPointCount) {
+      return StatusCode.WAVEFORM_ERROR;
+    }
+    preamble.applyTo(waveForm);
+    StatusCode status = transferCurve(preamble, dataPointCount, waveForm, deadline);
+    releaseReference(channel, deadline);
+    phaseTimer.lap(AcquisitionPhase.TRANSFER);
+    return status;
+  }
+  
+  
+  /**
+   * This method copies the waveform of a channel into a reference waveform
+   * and selects the reference waveform as data source. The copy keeps the 
+   * acquired waveform while partial transfers change the data range.
+   * If the model cannot copy a channel, the channel itself is selected.
+   * @param channel channel (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @throws jvisa.JVisaException if the command does not succeed
+   */
+  protected void saveReference(int channel, JVisaDeadline deadline) throws JVisaException {
+    if (model.isReferenceCopied()) {
+      write(String.format(model.saveReferenceCommand, channel), deadline);
+    }
+    else {
+      write(String.format(model.channelSourceCommand, channel), deadline);
+    }
+  }
+
+
+  /**
+   * This method removes the reference waveform written by saveReference
+   * from the display.
+   * @param channel channel (1 to 4)
+   * @param deadline deadline of the whole acquisition
+   * @throws jvisa.JVisaException if the command does not succeed
+   */
+  protected void releaseReference(int channel, JVisaDeadline deadline) throws JVisaException {
+    if (model.isReferenceCopied() && model.releaseReferenceCommand != null) {
+      write(String.format(model.releaseReferenceCommand, channel), deadline);
+    }
+  }
+  
+  
+  /**
+   * This method gets the length of a binary curve block:
+   * #&lt;x&gt;&lt;yy..&gt;&lt;data bytes&gt;&lt;termination character&gt;.
+   * @param byteCount number of data bytes
+   * @return block length in bytes
+   */
+  protected static int getCurveBlockLength(int byteCount) {
+    return 2 + Integer.toString(byteCount).length() + byteCount + 1;
+  }
+  
+  
+  /**
+   * This method transfers the samples in the current data range 
+   * (DATA:START to DATA:STOP) of the data source.
+   * @param preamble preamble of the data source
+   * @param dataSize number of samples in the data range
+   * @param waveForm receives the raw samples
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation
+   * @throws jvisa.JVisaException if the query does not succeed
+   */
+  protected StatusCode transferCurve(WaveformPreamble preamble, int dataSize, 
+          JCompactWaveForm waveForm, JVisaDeadline deadline) throws JVisaException {
+    int dataWidth = preamble.byteCount;
+
+    // This command is necessary. Otherwise "CURVE?" returns an unknown
+    // system error.
+    // todo 2016/04/13: not found to be needed (TDS3014B)
+    //write("*OPC");
+
+    JVisaReturnBytes buffer = new JVisaReturnBytes();
+    if (preamble.isAscii()) {
+      // Values are comma separated. They are parsed straight from the bytes.
+      visaStatus = sendAndReceive(model.curveQuery, buffer, BUFFER_SIZE, 0, deadline);
+      if (visaStatus != SUCCESS) {
+        throw new JVisaException(statusObject.getVisaStatus());
+      }
+      LOGGER.info("Acquisition finished successfully.");
+      waveForm.allocate(dataSize, 2);
+      int count = AsciiCurveParser.parse(buffer.returnBytes, 0, buffer.returnBytes.length, 
+              waveForm.getShortSamples());
+      return count == dataSize ? StatusCode.SUCCESS : StatusCode.WAVEFORM_ERROR;
+    }
+    // The Tektronix scope returns the data in the following format:
+    // #<x><yy..><block of bytes or integers><termination character>
+    // <x> indicates in ASCII the number of y's
+    // <yy..> indicates in ASCII the number of data bytes
+    sendAndReceive(model.curveQuery, buffer, BUFFER_SIZE, getCurveBlockLength(dataSize * dataWidth), 
+            deadline);
+
+    // Check validity of first byte.
+    if (buffer.returnBytes[0] != '#') {
+      return StatusCode.WAVEFORM_ERROR;
+    }
+    // Check validity of <yy..>. It has to match dataSize.
+    int yLength = buffer.returnBytes[1] & 0x0F;
+    byte[] y = new byte[yLength];
+    System.arraycopy(buffer.returnBytes, 2, y, 0, yLength);
+    String countString = new String(y);
+    int count = Integer.parseInt(countString);
+    if (count != dataSize * dataWidth) {
+      return StatusCode.WAVEFORM_ERROR;
+    }
+    // Now it should be safe to copy the samples.
+    // 2: '#' + <x>
+    waveForm.setSamples(buffer.returnBytes, 2 + yLength, dataSize, dataWidth, 
+            preamble.isBigEndian());
+    return StatusCode.SUCCESS;
+  }
+  
+  
+  /**
+   * This method acquires a channel and transfers only some windows of its 
+   * record. Each window is transferred with its own DATA:START and 
+   * DATA:STOP; the trigger delay of each waveform is the time of its first 
+   * sample and firstIndex is the index of that sample in the whole record.
+   * @param waveForms receive one waveform per window
+   * @param averageCount number of acquisitions to average
+   * @param channel channel to acquire (1 to 4)
+   * @param windows windows to transfer, by index or by time relative to the
+   *                trigger; windows are clipped to the record
+   * @return status of the operation, PARAMETER_INVALID if a window lies 
+   *         outside the record
+   */
+  public StatusCode acquireWindows(JCompactWaveForm waveForms[], int averageCount, int channel,
+          WaveformWindow windows[]) {
+    int channels[] = {channel};
+    JVisaDeadline deadline = new JVisaDeadline(getAcquisitionBudget(averageCount, channels));
+    StatusCode status = startAcquisition(averageCount, channels, null, deadline);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    try {
+      saveReference(channel, deadline);
+      phaseTimer.lap(AcquisitionPhase.TRANSFER);
+      // The preamble of the whole record supplies scale and time base.
+      WaveformPreamble preamble = getPreamble(channel, deadline);
+      phaseTimer.lap(AcquisitionPhase.PREAMBLE);
+      double recordStartTime = preamble.getTriggerDelay(dataPointCount, 0);
+      for (int i = 0; i < windows.length && status == StatusCode.SUCCESS; i++) {
+        WaveformWindow window = windows[i].resolve(recordStartTime, preamble.xIncr, dataPointCount);
+        if (window == null) {
+          status = StatusCode.PARAMETER_INVALID;
+          break;
+        }
+        // Scale and time base do not depend on the data range, so the range
+        // is set without discarding the cached preamble.
+        super.write(String.format(model.dataRangeCommand, window.start + 1, window.getEnd()), 
+                deadline);
+        preamble.applyTo(waveForms[i]);
+        waveForms[i].triggerDelay = preamble.getTriggerDelay(dataPointCount, window.start);
+        waveForms[i].firstIndex = window.start;
+        status = transferCurve(preamble, window.count, waveForms[i], deadline);
+      }
+      // Restore the range the cached preamble was queried with.
+      super.write(String.format(model.dataRangeCommand, 1, dataPointCount), deadline);
+      releaseReference(channel, deadline);
+      phaseTimer.lap(AcquisitionPhase.TRANSFER);
+      if (status == StatusCode.SUCCESS) {
+        phaseTimer.record(latencyStatistics, channels.length);
+      }
+      return status;
+    }
+    catch (JVisaException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.VISA_ERROR;
+    }
+    catch (NumberFormatException e) {
+      LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.EXCEPTION;
+    }
+  }
+  
+  
+  /**
+   * This method acquires a channel, transfers only some windows of its 
+   * record and scales them.
+   * @param waveForms receive one waveform per window; triggerDelay is the 
+   *                  time of the first sample of the window
+   * @param averageCount number of acquisitions to average
+   * @param channel channel to acquire (1 to 4)
+   * @param windows windows to transfer, by index or by time relative to the
+   *                trigger; windows are clipped to the record
+   * @return status of the operation, PARAMETER_INVALID if a window lies 
+   *         outside the record
+   */
+  public StatusCode acquireWindows(JWaveForm waveForms[], int averageCount, int channel,
+          WaveformWindow windows[]) {
+    JCompactWaveForm raws[] = new JCompactWaveForm[windows.length];
+    for (int i = 0; i < raws.length; i++) {
+      raws[i] = new JCompactWaveForm();
+    }
+    StatusCode status = acquireWindows(raws, averageCount, channel, windows);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < raws.length; i++) {
+      raws[i].toJWaveForm(waveForms[i]);
+    }
+    latencyStatistics.record(AcquisitionPhase.DECODE, 1, System.nanoTime() - start);
+    return StatusCode.SUCCESS;
+  }
+  
+  
   /**
    * This method acquires a waveform.
    * @param waveForm data for one wave form received from the instrument and its 
@@ -37,4 +37,30 @@ public class JWaveForm {
   public Double min;
   /** maximum amplitude */
   public Double max;
+  /** 
+   * mean, RMS, standard deviation, peak-to-peak and extremes with their 
+   * indices, computed while decoding; null if not computed 
+   */
+  public WaveformStatistics statistics;
+  /** 
+   * If true, a driver fills the existing data array and statistics object 
+   * when they have the right size. If false (default), every acquisition 
+   * stores new ones, so references to the previous data remain valid.
+   */
+  public boolean isReused = false;
+
+
+  /**
+   * This method provides the data array and the statistics object a driver 
+   * fills. New ones are allocated unless isReused is set and they fit.
+   * @param size number of amplitudes
+   */
+  public void allocate(int size) {
+    if (!isReused || data == null || data.length != size) {
+      data = new double[size];
+    }
+    if (!isReused || statistics == null) {
+      statistics = new WaveformStatistics();
+    }
+  }
 }
@@ -0,0 +1,184 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class counts latencies in buckets of microseconds. Below 4 µs every 
+ * value has its own bucket; above, every power of 2 is split into 4 
+ * buckets, so a percentile is off by at most 25 %. Recording takes a few 
+ * atomic increments and no lock, so it can stay on in production; queries
+ * may run on any thread while latencies are recorded.
+ * @author agent (agent@local)
+ */
+public class LatencyHistogram {
+  /** number of buckets per power of 2 */
+  protected static final int SUB_BUCKET_COUNT = 4;
+  /** number of buckets, enough for any positive long */
+  protected static final int BUCKET_COUNT = SUB_BUCKET_COUNT * 62;
+  /** number of latencies in each bucket */
+  protected final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  /** number of latencies */
+  protected final AtomicLong count = new AtomicLong();
+  /** sum of the latencies in µs */
+  protected final AtomicLong sum = new AtomicLong();
+  /** largest latency in µs */
+  protected final AtomicLong max = new AtomicLong();
+
+
+  /**
+   * This method gets the bucket of a latency.
+   * @param micros latency in µs, not negative
+   * @return bucket index
+   */
+  protected static int getBucket(long micros) {
+    if (micros < SUB_BUCKET_COUNT) {
+      return (int) micros;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (exponent - 2)) - SUB_BUCKET_COUNT;
+    return SUB_BUCKET_COUNT * (exponent - 1) + subBucket;
+  }
+
+
+  /**
+   * This method gets the largest latency of a bucket.
+   * @param bucket bucket index
+   * @return latency in µs
+   */
+  protected static long getBucketLimit(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKET_COUNT + 1;
+    long top = SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT + 1;
+    return (top << (exponent - 2)) - 1;
+  }
+
+
+  /**
+   * This method records a latency.
+   * @param nanos latency in ns, negative values are counted as 0
+   */
+  public void record(long nanos) {
+    long micros = Math.max(nanos, 0) / 1000;
+    counts.incrementAndGet(getBucket(micros));
+    count.incrementAndGet();
+    sum.addAndGet(micros);
+    long previous = max.get();
+    while (micros > previous && !max.compareAndSet(previous, micros)) {
+      previous = max.get();
+    }
+  }
+
+
+  /**
+   * This method adds the latencies of another histogram, for example to 
+   * combine the histograms of several channel counts.
+   * @param histogram histogram to add
+   */
+  public void add(LatencyHistogram histogram) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long bucketCount = histogram.counts.get(i);
+      if (bucketCount != 0) {
+        counts.addAndGet(i, bucketCount);
+      }
+    }
+    count.addAndGet(histogram.count.get());
+    sum.addAndGet(histogram.sum.get());
+    long histogramMax = histogram.max.get();
+    long previous = max.get();
+    while (histogramMax > previous && !max.compareAndSet(previous, histogramMax)) {
+      previous = max.get();
+    }
+  }
+
+
+  /**
+   * This method discards all recorded latencies.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+
+  /**
+   * This method gets the number of recorded latencies.
+   * @return count
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+
+  /**
+   * This method gets the mean latency.
+   * @return latency in ms, 0 if nothing has been recorded
+   */
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0.0 : sum.get() / 1000.0 / n;
+  }
+
+
+  /**
+   * This method gets the largest latency.
+   * @return latency in ms
+   */
+  public double getMax() {
+    return max.get() / 1000.0;
+  }
+
+
+  /**
+   * This method gets a percentile of the latencies. It is the upper limit 
+   * of the bucket that holds the percentile, but not more than the largest 
+   * latency.
+   * @param percentile percentile (0 to 100)
+   * @return latency in ms, 0 if nothing has been recorded
+   */
+  public double getPercentile(double percentile) {
+    long n = count.get();
+    if (n == 0) {
+      return 0.0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(getBucketLimit(i), max.get()) / 1000.0;
+      }
+    }
+    return getMax();
+  }
+
+
+  @Override
+  public String toString() {
+    return String.format("n %d, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms", 
+            getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class keeps a latency histogram for every acquisition phase and 
+ * channel count of one instrument. Together they show whether a slow 
+ * acquisition cycle is spent on the bus (TRANSFER, PREAMBLE), in the 
+ * instrument (WAIT_FOR_TRIGGER, CONFIGURE) or in decoding (DECODE).
+ * Resets are recorded with the channel count RESET_CHANNEL_COUNT, the wait
+ * for the instrument to settle as SETTLE.
+ * @author agent (agent@local)
+ */
+public class LatencyStatistics {
+  /** channel count under which resets are recorded */
+  public static final int RESET_CHANNEL_COUNT = 0;
+  /** histograms, indexed by [channel count][phase] */
+  protected final LatencyHistogram[][] histograms;
+
+
+  /**
+   * constructor
+   * @param channelCount largest channel count of an acquisition
+   */
+  public LatencyStatistics(int channelCount) {
+    AcquisitionPhase[] phases = AcquisitionPhase.values();
+    histograms = new LatencyHistogram[channelCount + 1][phases.length];
+    for (LatencyHistogram[] histogramsOfCount : histograms) {
+      for (int i = 0; i < phases.length; i++) {
+        histogramsOfCount[i] = new LatencyHistogram();
+      }
+    }
+  }
+
+
+  /**
+   * This method records the latency of a phase.
+   * @param phase phase
+   * @param channelCount number of channels acquired, RESET_CHANNEL_COUNT for a reset
+   * @param nanos latency in ns
+   */
+  public void record(AcquisitionPhase phase, int channelCount, long nanos) {
+    histograms[channelCount][phase.ordinal()].record(nanos);
+  }
+
+
+  /**
+   * This method gets the histogram of a phase and channel count.
+   * @param phase phase
+   * @param channelCount number of channels acquired, RESET_CHANNEL_COUNT for resets
+   * @return histogram, updated while latencies are recorded
+   */
+  public LatencyHistogram getHistogram(AcquisitionPhase phase, int channelCount) {
+    return histograms[channelCount][phase.ordinal()];
+  }
+
+
+  /**
+   * This method combines the histograms of a phase of all acquisitions, 
+   * whatever their channel count. Resets are not included.
+   * @param phase phase
+   * @return new histogram
+   */
+  public LatencyHistogram getHistogram(AcquisitionPhase phase) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int channelCount = 1; channelCount < histograms.length; channelCount++) {
+      histogram.add(histograms[channelCount][phase.ordinal()]);
+    }
+    return histogram;
+  }
+
+
+  /**
+   * This method discards all recorded latencies.
+   */
+  public void reset() {
+    for (LatencyHistogram[] histogramsOfCount : histograms) {
+      for (LatencyHistogram histogram : histogramsOfCount) {
+        histogram.reset();
+      }
+    }
+  }
+
+
+  /**
+   * This method lists the histograms that hold latencies, one per line.
+   * @return report
+   */
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder();
+    for (int channelCount = 0; channelCount < histograms.length; channelCount++) {
+      for (AcquisitionPhase phase : AcquisitionPhase.values()) {
+        LatencyHistogram histogram = histograms[channelCount][phase.ordinal()];
+        if (histogram.getCount() > 0) {
+          report.append(channelCount == RESET_CHANNEL_COUNT 
+                  ? "reset" : String.format("%d channel(s)", channelCount))
+                  .append(String.format(" %s: %s%n", phase, histogram));
+        }
+      }
+    }
+    return report.toString();
+  }
+}
@@ -0,0 +1,189 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class holds a multi-resolution min/max envelope of a waveform for 
+ * display. Level 0 is the waveform itself; level k stores minimum and 
+ * maximum of the blocks of 2^k samples. Minimum and maximum of any sample
+ * range are found in O(log(samples)) by combining whole blocks of the 
+ * coarsest fitting levels, so drawing a waveform or a zoomed part of it 
+ * costs O(pixels log(samples)) instead of O(samples), and every peak stays
+ * visible however many samples fall on one pixel.
+ * The pyramid takes about twice the memory of the waveform. It is built 
+ * once per waveform and the arrays are reused by the next build.
+ * @author agent (agent@local)
+ */
+public class MinMaxPyramid {
+  /** waveform, level 0 */
+  protected double[] data;
+  /** number of samples */
+  protected int count;
+  /** block minimums by level, index 0 unused */
+  protected double[][] mins = new double[0][];
+  /** block maximums by level, index 0 unused */
+  protected double[][] maxs = new double[0][];
+  /** number of levels including level 0 */
+  protected int levelCount;
+
+
+  /**
+   * constructor for an empty pyramid
+   */
+  public MinMaxPyramid() {
+  }
+
+
+  /**
+   * constructor
+   * @param data amplitudes; the array is referenced, not copied
+   * @param count number of amplitudes
+   */
+  public MinMaxPyramid(double[] data, int count) {
+    build(data, count);
+  }
+
+
+  /**
+   * This method builds the pyramid of a waveform.
+   * @param data amplitudes; the array is referenced, not copied, and must
+   *             not change while the pyramid is used
+   * @param count number of amplitudes
+   */
+  public void build(double[] data, int count) {
+    this.data = data;
+    this.count = count;
+    int levels = 1;
+    for (int size = count; size > 1; size = (size + 1) / 2) {
+      levels++;
+    }
+    if (mins.length < levels) {
+      double[][] newMins = new double[levels][], newMaxs = new double[levels][];
+      System.arraycopy(mins, 0, newMins, 0, mins.length);
+      System.arraycopy(maxs, 0, newMaxs, 0, maxs.length);
+      mins = newMins;
+      maxs = newMaxs;
+    }
+    levelCount = levels;
+    int size = count;
+    double[] lowerMins = data, lowerMaxs = data;
+    for (int level = 1; level < levels; level++) {
+      int lowerSize = size;
+      size = (size + 1) / 2;
+      if (mins[level] == null || mins[level].length < size) {
+        mins[level] = new double[size];
+        maxs[level] = new double[size];
+      }
+      double[] levelMins = mins[level], levelMaxs = maxs[level];
+      int pairs = lowerSize / 2;
+      for (int j = 0; j < pairs; j++) {
+        levelMins[j] = Math.min(lowerMins[2 * j], lowerMins[2 * j + 1]);
+        levelMaxs[j] = Math.max(lowerMaxs[2 * j], lowerMaxs[2 * j + 1]);
+      }
+      if (pairs < size) {
+        // The last block holds one element of the level below.
+        levelMins[pairs] = lowerMins[2 * pairs];
+        levelMaxs[pairs] = lowerMaxs[2 * pairs];
+      }
+      lowerMins = levelMins;
+      lowerMaxs = levelMaxs;
+    }
+  }
+
+
+  /**
+   * This method gets the number of samples.
+   * @return number of samples
+   */
+  public int getCount() {
+    return count;
+  }
+
+
+  /**
+   * This method finds minimum and maximum of a sample range.
+   * @param start index of the first sample
+   * @param end index after the last sample
+   * @param range receives minimum (index 0) and maximum (index 1)
+   * @return false if the range is empty
+   */
+  public boolean getRange(int start, int end, double[] range) {
+    start = Math.max(start, 0);
+    end = Math.min(end, count);
+    if (start >= end) {
+      return false;
+    }
+    double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+    double[] levelMins = data, levelMaxs = data;
+    // Take the odd elements at both ends from the current level and go up
+    // one level with the rest, as in a bottom-up segment tree query.
+    for (int level = 0; start < end; level++) {
+      if (level > 0) {
+        levelMins = mins[level];
+        levelMaxs = maxs[level];
+      }
+      if ((start & 1) != 0) {
+        min = Math.min(min, levelMins[start]);
+        max = Math.max(max, levelMaxs[start]);
+        start++;
+      }
+      if ((end & 1) != 0) {
+        end--;
+        min = Math.min(min, levelMins[end]);
+        max = Math.max(max, levelMaxs[end]);
+      }
+      start >>= 1;
+      end >>= 1;
+    }
+    range[0] = min;
+    range[1] = max;
+    return true;
+  }
+
+
+  /**
+   * This method computes the envelope of a sample range for a number of 
+   * display columns: minimum and maximum of the samples falling on each
+   * column. If there are fewer samples than columns, a column gets the 
+   * sample it falls on.
+   * @param start index of the first sample
+   * @param end index after the last sample
+   * @param columns number of columns
+   * @param columnMins receives the minimum of each column
+   * @param columnMaxs receives the maximum of each column
+   * @return number of columns filled
+   */
+  public int getEnvelope(int start, int end, int columns, double[] columnMins, 
+          double[] columnMaxs) {
+    start = Math.max(start, 0);
+    end = Math.min(end, count);
+    if (start >= end || columns <= 0) {
+      return 0;
+    }
+    long length = end - start;
+    double[] range = new double[2];
+    for (int column = 0; column < columns; column++) {
+      int first = start + (int) (length * column / columns);
+      int last = start + (int) (length * (column + 1) / columns);
+      getRange(first, Math.max(last, first + 1), range);
+      columnMins[column] = range[0];
+      columnMaxs[column] = range[1];
+    }
+    return columns;
+  }
+}
@@ -0,0 +1,36 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This interface creates the driver of an oscilloscope model. Each 
+ * ScopeModel has one, so ScopeModelRegistry can return a driver for an 
+ * identified instrument, also for a model that needs its own implementation
+ * of OscilloscopeInterface.
+ * @author agent (agent@local)
+ */
+public interface OscilloscopeFactory {
+
+  /**
+   * This method creates a driver. A VISA driver is returned without an open
+   * instrument session.
+   * @param model command table of the instrument
+   * @return driver
+   */
+  OscilloscopeInterface create(ScopeModel model);
+}
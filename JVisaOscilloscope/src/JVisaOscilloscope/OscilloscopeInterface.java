@@ -38,11 +38,15 @@ public interface OscilloscopeInterface {
     /** status when input parameter is invalid */
     PARAMETER_INVALID,
     /** status when trying to receive a waveform generated an error */
-    WAVEFORM_ERROR;
+    WAVEFORM_ERROR,
+    /** status when the instrument does not support the operation */
+    UNSUPPORTED;
   }
   
   /**
-   * This method acquires a waveform.
+   * This method acquires a waveform. A new data array is stored in waveForm 
+   * unless its isReused flag is set, in which case the existing array is 
+   * overwritten if it has the right size.
    * @param waveForm waveform data and its parameters received from the instrument
    * @param averageCount number of acquisitions to average
    * @param channel channel to acquire
@@ -74,8 +78,58 @@ public interface OscilloscopeInterface {
    */
   StatusCode acquire(JWaveForm waveform);
 
+  /**
+   * This method acquires a number of triggers into the segmented memory of 
+   * the instrument (FastFrame) and transfers all frames in one block per 
+   * channel. This default implementation returns UNSUPPORTED; drivers of 
+   * instruments with segmented memory override it.
+   * @param frames receives the waveforms, indexed by [frame][channel - 1]; 
+   *               the number of frames is frames.length
+   * @param timestamps receives the trigger time of each frame in s, 
+   *                   relative to the first frame
+   * @param channels channels to acquire
+   * @return status of the operation, UNSUPPORTED if the instrument has no 
+   *         segmented memory
+   */
+  default StatusCode acquireSegmented(JWaveForm frames[][], double timestamps[], int channels[]) {
+    return StatusCode.UNSUPPORTED;
+  }
+
+  /**
+   * This method emulates a segmented acquisition with a number of 
+   * single-shot acquisitions of some channels, one frame per trigger. 
+   * Unlike acquireSegmented, every frame is armed and transferred on its 
+   * own, so triggers that come during a transfer are missed. This default 
+   * implementation calls acquire for every frame; drivers override it to 
+   * re-arm faster. Each frame is timestamped when its acquisition has 
+   * finished.
+   * @param frames receives the waveforms, indexed by [frame][channel - 1]; 
+   *               the number of frames is frames.length
+   * @param timestamps receives the time of each frame in s, relative to the 
+   *                   first frame
+   * @param channels channels to acquire
+   * @return status of the operation
+   */
+  default StatusCode acquireSingleShots(JWaveForm frames[][], double timestamps[], int channels[]) {
+    long start = 0;
+    for (int frame = 0; frame < frames.length; frame++) {
+      StatusCode status = acquire(frames[frame], 1, channels);
+      if (status != StatusCode.SUCCESS) {
+        return status;
+      }
+      long now = System.nanoTime();
+      if (frame == 0) {
+        start = now;
+      }
+      timestamps[frame] = (now - start) * 1e-9;
+    }
+    return StatusCode.SUCCESS;
+  }
+
   /**
    * This method reads the busy status from the instrument.
+   * Implementations may read the status byte by a serial poll instead of 
+   * sending a query.
    * @return busy status
    */
   StatusCode getBusyStatus();
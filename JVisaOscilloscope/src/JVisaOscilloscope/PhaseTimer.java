@@ -0,0 +1,104 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class times the phases of one acquisition cycle. Each lap adds the 
+ * time since the previous mark to a phase; when the cycle has finished, 
+ * the phases that were timed are recorded in a LatencyStatistics. A timer
+ * is used by one thread at a time.
+ * @author agent (agent@local)
+ */
+public class PhaseTimer {
+  /** time in ns spent in each phase, indexed by ordinal */
+  protected final long[] elapsed = new long[AcquisitionPhase.values().length];
+  /** true for each phase that has been timed */
+  protected final boolean[] isTimed = new boolean[elapsed.length];
+  /** time of the last mark in ns (System.nanoTime) */
+  protected long mark;
+
+
+  /**
+   * This method discards the phases timed so far and sets the mark.
+   */
+  public void start() {
+    for (int i = 0; i < elapsed.length; i++) {
+      elapsed[i] = 0;
+      isTimed[i] = false;
+    }
+    mark = System.nanoTime();
+  }
+
+
+  /**
+   * This method sets the mark without timing a phase, for example to 
+   * exclude the time between arming and transferring.
+   */
+  public void mark() {
+    mark = System.nanoTime();
+  }
+
+
+  /**
+   * This method adds the time since the last mark to a phase and sets the
+   * mark.
+   * @param phase phase that has just ended
+   */
+  public void lap(AcquisitionPhase phase) {
+    long now = System.nanoTime();
+    add(phase, now - mark);
+    mark = now;
+  }
+
+
+  /**
+   * This method adds a time measured elsewhere to a phase.
+   * @param phase phase
+   * @param nanos time in ns
+   */
+  public void add(AcquisitionPhase phase, long nanos) {
+    elapsed[phase.ordinal()] += nanos;
+    isTimed[phase.ordinal()] = true;
+  }
+
+
+  /**
+   * This method gets the time spent in a phase so far.
+   * @param phase phase
+   * @return time in ns
+   */
+  public long getElapsed(AcquisitionPhase phase) {
+    return elapsed[phase.ordinal()];
+  }
+
+
+  /**
+   * This method records the timed phases and starts a new cycle.
+   * @param statistics receives the phase latencies
+   * @param channelCount number of channels acquired, 
+   *                     LatencyStatistics.RESET_CHANNEL_COUNT for a reset
+   */
+  public void record(LatencyStatistics statistics, int channelCount) {
+    for (AcquisitionPhase phase : AcquisitionPhase.values()) {
+      if (isTimed[phase.ordinal()]) {
+        statistics.record(phase, channelCount, elapsed[phase.ordinal()]);
+      }
+    }
+    start();
+  }
+}
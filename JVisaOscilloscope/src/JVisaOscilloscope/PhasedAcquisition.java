@@ -0,0 +1,53 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import JVisaOscilloscope.OscilloscopeInterface.StatusCode;
+import jvisa.JVisaDeadline;
+
+/**
+ * This interface splits an acquisition into the phase that waits for the 
+ * instrument and the phase that uses the bus, so that a scheduler can let 
+ * other instruments transfer while this one waits for its trigger.
+ * arm followed by transfer does the same as acquire.
+ * @author agent (agent@local)
+ */
+public interface PhasedAcquisition {
+
+  /**
+   * This method configures the instrument, starts an acquisition and waits 
+   * for it to finish. The bus is only used for short commands and status 
+   * polls.
+   * @param waveForms waveforms, indexed by channel - 1; the trigger delay of
+   *                  the first one is set if it is not null
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation, BUSY if the acquisition did not finish
+   */
+  StatusCode arm(JWaveForm waveForms[], int averageCount, int channels[], JVisaDeadline deadline);
+
+  /**
+   * This method transfers and decodes the waveforms of the last acquisition.
+   * @param waveForms receive the waveforms, indexed by channel - 1
+   * @param channels channels to transfer
+   * @param deadline deadline of the whole acquisition
+   * @return status of the operation
+   */
+  StatusCode transfer(JWaveForm waveForms[], int channels[], JVisaDeadline deadline);
+}
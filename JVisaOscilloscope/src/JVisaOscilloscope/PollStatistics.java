@@ -0,0 +1,76 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class records how many polls a wait for the instrument took and how
+ * late the end of the operation was detected.
+ * @author agent (agent@local)
+ */
+public class PollStatistics {
+  /** number of polls of the last wait */
+  public int pollCount;
+  /** duration of the last wait in ms */
+  public long waitTime;
+  /**
+   * Overshoot of the last wait in ms. This is the time between the last poll
+   * that found the instrument busy (or the begin of the wait) and the poll that
+   * found it ready. The operation finished somewhere in this time span.
+   */
+  public long overshoot;
+  /** number of waits recorded */
+  public long waitCount;
+  /** number of polls of all waits */
+  public long totalPollCount;
+  /** overshoot of all waits in ms */
+  public long totalOvershoot;
+
+
+  /**
+   * This method records the result of one wait.
+   * @param pollCount number of polls
+   * @param waitTime duration of the wait in ms
+   * @param overshoot overshoot in ms
+   */
+  public synchronized void record(int pollCount, long waitTime, long overshoot) {
+    this.pollCount = pollCount;
+    this.waitTime = waitTime;
+    this.overshoot = overshoot;
+    waitCount++;
+    totalPollCount += pollCount;
+    totalOvershoot += overshoot;
+  }
+
+
+  /**
+   * This method returns the mean number of polls per wait.
+   * @return polls per wait
+   */
+  public synchronized double getMeanPollCount() {
+    return waitCount == 0 ? 0.0 : (double) totalPollCount / waitCount;
+  }
+
+
+  /**
+   * This method returns the mean overshoot.
+   * @return overshoot in ms
+   */
+  public synchronized double getMeanOvershoot() {
+    return waitCount == 0 ? 0.0 : (double) totalOvershoot / waitCount;
+  }
+}
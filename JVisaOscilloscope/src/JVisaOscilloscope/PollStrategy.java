@@ -0,0 +1,41 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This interface describes how long to wait between two polls of the busy
+ * status while waiting for the instrument.
+ * @author agent (agent@local)
+ */
+public interface PollStrategy {
+
+  /**
+   * This method is called once when a wait begins.
+   * @param expectedDuration predicted duration of the operation in ms,
+   *                         0 if unknown
+   */
+  void start(long expectedDuration);
+
+  /**
+   * This method returns the time to sleep before the next poll.
+   * @param pollCount number of polls done so far in this wait
+   * @param elapsedTime milliseconds since the wait began
+   * @return delay in ms, 0 to poll immediately
+   */
+  long getDelay(int pollCount, long elapsedTime);
+}
@@ -0,0 +1,172 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class computes the discrete Fourier transform of real samples. A 
+ * transform of n samples is computed as a complex transform of n / 2 
+ * points (even samples as real parts, odd samples as imaginary parts), 
+ * which is then split into the spectrum of the real input. The twiddle 
+ * factors and the bit reversal permutation are computed once per size and 
+ * shared by all threads; instances are immutable.
+ * <p>
+ * The transform is not normalized: X[k] = sum of x[j] exp(-2 pi i j k / n).
+ * @author agent (agent@local)
+ */
+public class RealFft {
+  /** transforms by size */
+  protected static final ConcurrentHashMap<Integer, RealFft> CACHE = new ConcurrentHashMap<>();
+  /** number of real samples, a power of 2 */
+  public final int size;
+  /** cos(2 pi k / size) for k < size / 2 */
+  protected final double[] cosine;
+  /** sin(2 pi k / size) for k < size / 2 */
+  protected final double[] sine;
+  /** bit reversal permutation of size / 2 points */
+  protected final int[] reversed;
+
+
+  /**
+   * constructor
+   * @param size number of real samples, a power of 2 of at least 4
+   */
+  protected RealFft(int size) {
+    this.size = size;
+    int half = size / 2;
+    cosine = new double[half];
+    sine = new double[half];
+    for (int k = 0; k < half; k++) {
+      cosine[k] = Math.cos(2.0 * Math.PI * k / size);
+      sine[k] = Math.sin(2.0 * Math.PI * k / size);
+    }
+    reversed = new int[half];
+    int bits = Integer.numberOfTrailingZeros(half);
+    for (int k = 0; k < half; k++) {
+      reversed[k] = bits == 0 ? 0 : Integer.reverse(k) >>> (32 - bits);
+    }
+  }
+
+
+  /**
+   * This method gets the transform of a size from the cache.
+   * @param size number of real samples, a power of 2 of at least 4
+   * @return transform
+   */
+  public static RealFft getInstance(int size) {
+    if (size < 4 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("The size has to be a power of 2 of at least 4.");
+    }
+    RealFft fft = CACHE.get(size);
+    if (fft == null) {
+      fft = new RealFft(size);
+      RealFft previous = CACHE.putIfAbsent(size, fft);
+      if (previous != null) {
+        fft = previous;
+      }
+    }
+    return fft;
+  }
+
+
+  /**
+   * This method gets the smallest transform size that holds a number of 
+   * samples.
+   * @param count number of samples
+   * @return power of 2, at least 4
+   */
+  public static int getSize(int count) {
+    return Math.max(4, Integer.highestOneBit(Math.max(count - 1, 1)) << 1);
+  }
+
+
+  /**
+   * This method transforms real samples.
+   * @param input size samples
+   * @param real receives the real parts of bins 0 to size / 2, at least 
+   *             size / 2 + 1 long
+   * @param imaginary receives the imaginary parts of bins 0 to size / 2, at 
+   *                  least size / 2 + 1 long
+   */
+  public void transform(double[] input, double[] real, double[] imaginary) {
+    int half = size / 2;
+    for (int k = 0; k < half; k++) {
+      int j = reversed[k];
+      real[j] = input[2 * k];
+      imaginary[j] = input[2 * k + 1];
+    }
+    transformComplex(real, imaginary);
+    split(real, imaginary);
+  }
+
+
+  /**
+   * This method transforms size / 2 complex points in bit reversed order 
+   * in place (radix 2, decimation in time).
+   * @param real real parts
+   * @param imaginary imaginary parts
+   */
+  protected void transformComplex(double[] real, double[] imaginary) {
+    int half = size / 2;
+    for (int length = 2; length <= half; length <<= 1) {
+      int span = length / 2, stride = size / length;
+      for (int start = 0; start < half; start += length) {
+        for (int j = 0, t = 0; j < span; j++, t += stride) {
+          // exp(-2 pi i j / length) = cosine[t] - i sine[t]
+          int a = start + j, b = a + span;
+          double c = cosine[t], s = sine[t];
+          double br = real[b] * c + imaginary[b] * s;
+          double bi = imaginary[b] * c - real[b] * s;
+          real[b] = real[a] - br;
+          imaginary[b] = imaginary[a] - bi;
+          real[a] += br;
+          imaginary[a] += bi;
+        }
+      }
+    }
+  }
+
+
+  /**
+   * This method splits the complex transform Z of the packed samples into 
+   * the spectrum X of the real samples, in place: with E = (Z[k] + 
+   * conj(Z[n/2 - k])) / 2 and O = (Z[k] - conj(Z[n/2 - k])) / 2i, 
+   * X[k] = E + W^k O and X[n/2 - k] = conj(E - W^k O), W = exp(-2 pi i / n).
+   * @param real real parts
+   * @param imaginary imaginary parts
+   */
+  protected void split(double[] real, double[] imaginary) {
+    int half = size / 2;
+    double r0 = real[0], i0 = imaginary[0];
+    real[0] = r0 + i0;
+    imaginary[0] = 0.0;
+    real[half] = r0 - i0;
+    imaginary[half] = 0.0;
+    for (int k = 1, l = half - 1; k <= l; k++, l--) {
+      double er = 0.5 * (real[k] + real[l]), ei = 0.5 * (imaginary[k] - imaginary[l]);
+      double or = 0.5 * (imaginary[k] + imaginary[l]), oi = -0.5 * (real[k] - real[l]);
+      double c = cosine[k], s = sine[k];
+      double wr = c * or + s * oi, wi = c * oi - s * or;
+      real[k] = er + wr;
+      imaginary[k] = ei + wi;
+      real[l] = er - wr;
+      imaginary[l] = wi - ei;
+    }
+  }
+}
@@ -0,0 +1,455 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import jvisa.JVisa;
+
+/**
+ * This class is an oscilloscope that serves acquisitions from a waveform 
+ * archive instead of an instrument, so analysis code can be tested and 
+ * rerun offline. The recorded waveforms are grouped into captures by their 
+ * timestamp: the channels of one recorded acquisition share a timestamp. 
+ * Each acquisition replays the next capture, in timestamp order, that holds 
+ * all requested channels, so the waveforms of a multi-channel acquisition 
+ * always come from the same recorded trigger. Captures that lack a 
+ * requested channel are skipped. The waveforms are scaled straight from 
+ * the memory mapped archive.
+ * <p>
+ * By default waveforms are served as fast as they are requested. With 
+ * isRealTime set, each acquisition waits until the time between recorded 
+ * timestamps, divided by speed, has passed since the replay started. The 
+ * wait happens outside the lock of the replay, so a paced acquisition does 
+ * not block reset or other callers.
+ * @author agent (agent@local)
+ */
+public class ReplayOscilloscope implements OscilloscopeInterface {
+  /** valid average counts, the same as for the TDS3000 */
+  protected static final int[] VALID_COUNT = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512};
+  /** channel acquired if none is given */
+  protected static final int CHANNEL_DEFAULT = 1;
+  /** recorded captures in timestamp order */
+  protected final List<Capture> captures = new ArrayList<>();
+  /** index of the next capture */
+  protected int position = 0;
+  /** number of times the replay has started over */
+  protected int lap = 0;
+  /** earliest recorded timestamp */
+  protected final long firstTimestamp;
+  /** time in ms from the first recorded waveform to one after the last */
+  protected final long span;
+  /** true to pace acquisitions by the recorded timestamps */
+  public volatile boolean isRealTime = false;
+  /** replay speed relative to the recording if isRealTime is set */
+  public volatile double speed = 1.0;
+  /** true to start over after the last capture */
+  public volatile boolean isLooping = true;
+  /** number of acquisitions to average, only validated */
+  protected int averageCount = 1;
+  /** start of the replay in ns (System.nanoTime), 0 if not started */
+  protected long startTime = 0;
+  /** waveform receiving expanded packed samples, reused */
+  protected final JCompactWaveForm scratch = new JCompactWaveForm();
+
+
+  /**
+   * This class holds the waveforms of one recorded acquisition.
+   */
+  protected static class Capture {
+    /** recorded timestamp in ms since the epoch */
+    final long timestamp;
+    /** waveforms by channel */
+    final Map<Integer, WaveformRecord> records = new HashMap<>();
+
+
+    /**
+     * constructor
+     * @param timestamp recorded timestamp in ms since the epoch
+     */
+    Capture(long timestamp) {
+      this.timestamp = timestamp;
+    }
+
+
+    /**
+     * This method checks if the capture holds some channels.
+     * @param channels channels
+     * @return true if there is a waveform for every channel
+     */
+    boolean contains(int channels[]) {
+      for (int channel : channels) {
+        if (!records.containsKey(channel)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+
+  /**
+   * constructor, replays all waveforms of an instrument
+   * @param archive archive holding the recording
+   * @param instrument instrument name, null for all instruments
+   * @throws IOException if the archive could not be read
+   */
+  public ReplayOscilloscope(WaveformArchive archive, String instrument) throws IOException {
+    this(archive, instrument, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+
+  /**
+   * constructor, replays the waveforms of an instrument recorded in a time span
+   * @param archive archive holding the recording
+   * @param instrument instrument name, null for all instruments
+   * @param from earliest timestamp in ms since the epoch
+   * @param to latest timestamp in ms since the epoch
+   * @throws IOException if the archive could not be read
+   */
+  public ReplayOscilloscope(WaveformArchive archive, String instrument, long from, long to) 
+          throws IOException {
+    Capture capture = null;
+    for (WaveformRecord record : archive.find(instrument, 0, from, to)) {
+      // The channels of an acquisition are appended one after the other 
+      // with the same timestamp; a repeated channel starts a new capture.
+      if (capture == null || capture.timestamp != record.timestamp 
+              || capture.records.containsKey(record.channel)) {
+        capture = new Capture(record.timestamp);
+        captures.add(capture);
+      }
+      capture.records.put(record.channel, record);
+    }
+    Collections.sort(captures, new Comparator<Capture>() {
+      @Override
+      public int compare(Capture a, Capture b) {
+        return Long.compare(a.timestamp, b.timestamp);
+      }
+    });
+    firstTimestamp = captures.isEmpty() ? 0 : captures.get(0).timestamp;
+    span = captures.isEmpty() ? 0 
+            : captures.get(captures.size() - 1).timestamp - firstTimestamp + 1;
+  }
+
+
+  /**
+   * This method gets the number of recorded waveforms of a channel.
+   * @param channel channel
+   * @return number of waveforms
+   */
+  public int getRecordCount(int channel) {
+    int count = 0;
+    for (Capture capture : captures) {
+      if (capture.records.containsKey(channel)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * This method gets the next capture holding all of some channels and 
+   * advances past it. Nothing is advanced if there is none.
+   * @param channels channels to acquire
+   * @return capture, null if no capture holding the channels is left
+   */
+  protected synchronized Capture next(int channels[]) {
+    int index = position, laps = lap;
+    for (int i = 0; i <= captures.size(); i++, index++) {
+      if (index >= captures.size()) {
+        if (!isLooping) {
+          break;
+        }
+        index = 0;
+        laps++;
+      }
+      Capture capture = captures.get(index);
+      if (capture.contains(channels)) {
+        position = index + 1;
+        lap = laps;
+        return capture;
+      }
+    }
+    JVisa.LOGGER.severe("No recorded waveform left for channels " + Arrays.toString(channels) + ".");
+    return null;
+  }
+
+
+  /**
+   * This method gets the time of a capture relative to the first recorded 
+   * timestamp. After the replay has started over, the recording is 
+   * continued as if it repeated.
+   * @param capture capture returned by next
+   * @return time in ms
+   */
+  protected synchronized long getTime(Capture capture) {
+    return capture.timestamp - firstTimestamp + span * lap;
+  }
+
+
+  /**
+   * This method gets the time when a capture is due and starts the replay 
+   * clock on the first acquisition.
+   * @param capture capture returned by next
+   * @return due time in ns (System.nanoTime), 0 if isRealTime is not set
+   */
+  protected synchronized long getDueTime(Capture capture) {
+    if (startTime == 0) {
+      startTime = System.nanoTime();
+    }
+    if (!isRealTime) {
+      return 0;
+    }
+    return startTime + (long) (TimeUnit.MILLISECONDS.toNanos(getTime(capture)) / speed);
+  }
+
+
+  /**
+   * This method waits until a due time. It must be called without holding 
+   * the lock of the replay.
+   * @param due due time in ns (System.nanoTime), 0 to return at once
+   * @return SUCCESS, EXCEPTION if the thread was interrupted
+   */
+  protected StatusCode pace(long due) {
+    long delay = due == 0 ? 0 : due - System.nanoTime();
+    try {
+      if (delay > 0) {
+        TimeUnit.NANOSECONDS.sleep(delay);
+      }
+      return StatusCode.SUCCESS;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+      return StatusCode.EXCEPTION;
+    }
+  }
+
+
+  /**
+   * This method replays a waveform for each channel.
+   * @param waveForms waveforms, indexed by channel - 1
+   * @param averageCount number of acquisitions to average, only validated
+   * @param channels channels to acquire
+   * @return status of the operation, WAVEFORM_ERROR if no capture holding 
+   *         the channels is left
+   */
+  @Override
+  public StatusCode acquire(JWaveForm waveForms[], int averageCount, int channels[]) {
+    StatusCode status = validateAverageCount(averageCount);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    long due;
+    synchronized (this) {
+      Capture capture = next(channels);
+      if (capture == null) {
+        return StatusCode.WAVEFORM_ERROR;
+      }
+      for (int channel : channels) {
+        capture.records.get(channel).toJWaveForm(waveForms[channel - 1], scratch);
+      }
+      due = getDueTime(capture);
+    }
+    return pace(due);
+  }
+
+
+  /**
+   * This method replays the raw samples of a waveform for each channel.
+   * @param waveForms waveforms, indexed by channel - 1
+   * @param averageCount number of acquisitions to average, only validated
+   * @param channels channels to acquire
+   * @return status of the operation, WAVEFORM_ERROR if no capture holding 
+   *         the channels is left
+   */
+  public StatusCode acquire(JCompactWaveForm waveForms[], int averageCount, int channels[]) {
+    StatusCode status = validateAverageCount(averageCount);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    long due;
+    synchronized (this) {
+      Capture capture = next(channels);
+      if (capture == null) {
+        return StatusCode.WAVEFORM_ERROR;
+      }
+      for (int channel : channels) {
+        waveForms[channel - 1] = capture.records.get(channel).toCompactWaveForm(waveForms[channel - 1]);
+      }
+      due = getDueTime(capture);
+    }
+    return pace(due);
+  }
+
+
+  /**
+   * This method replays frames of some channels with their recorded 
+   * timestamps. With isRealTime set, it returns when the last frame is due.
+   * @param frames receives the waveforms, indexed by [frame][channel - 1]
+   * @param timestamps receives the recorded time of each frame in s, 
+   *                   relative to the first frame
+   * @param channels channels to acquire
+   * @return status of the operation, WAVEFORM_ERROR if no capture holding 
+   *         the channels is left
+   */
+  @Override
+  public StatusCode acquireSegmented(JWaveForm frames[][], double timestamps[], int channels[]) {
+    long due = 0;
+    synchronized (this) {
+      long start = 0;
+      for (int frame = 0; frame < frames.length; frame++) {
+        Capture capture = next(channels);
+        if (capture == null) {
+          return StatusCode.WAVEFORM_ERROR;
+        }
+        for (int channel : channels) {
+          capture.records.get(channel).toJWaveForm(frames[frame][channel - 1], scratch);
+        }
+        long time = getTime(capture);
+        if (frame == 0) {
+          start = time;
+        }
+        timestamps[frame] = (time - start) * 1e-3;
+        due = getDueTime(capture);
+      }
+    }
+    return pace(due);
+  }
+
+
+  /**
+   * This method replays a waveform.
+   * @param waveForm waveform to fill
+   * @param averageCount number of acquisitions to average, only validated
+   * @param channel channel to acquire
+   * @return status of the operation
+   */
+  @Override
+  public StatusCode acquire(JWaveForm waveForm, int averageCount, int channel) {
+    StatusCode status = validateAverageCount(averageCount);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    long due;
+    synchronized (this) {
+      Capture capture = next(new int[] {channel});
+      if (capture == null) {
+        return StatusCode.WAVEFORM_ERROR;
+      }
+      capture.records.get(channel).toJWaveForm(waveForm, scratch);
+      due = getDueTime(capture);
+    }
+    return pace(due);
+  }
+
+
+  /**
+   * This method replays a waveform of the default channel.
+   * @param waveform waveform to fill
+   * @param averageCount number of acquisitions to average, only validated
+   * @return status of the operation
+   */
+  @Override
+  public StatusCode acquire(JWaveForm waveform, int averageCount) {
+    return acquire(waveform, averageCount, CHANNEL_DEFAULT);
+  }
+
+
+  /**
+   * This method replays a waveform of the default channel.
+   * @param waveform waveform to fill
+   * @return status of the operation
+   */
+  @Override
+  public StatusCode acquire(JWaveForm waveform) {
+    return acquire(waveform, averageCount, CHANNEL_DEFAULT);
+  }
+
+
+  /**
+   * This method gets the busy status. A replay is never busy.
+   * @return SUCCESS
+   */
+  @Override
+  public StatusCode getBusyStatus() {
+    return StatusCode.SUCCESS;
+  }
+
+
+  /**
+   * This method rewinds the replay to the first capture.
+   * @param averageCount number of acquisitions to average
+   * @param timeout not used
+   * @return status of the operation
+   */
+  @Override
+  public synchronized StatusCode reset(int averageCount, int timeout) {
+    StatusCode status = validateAverageCount(averageCount);
+    if (status != StatusCode.SUCCESS) {
+      return status;
+    }
+    this.averageCount = averageCount;
+    position = 0;
+    lap = 0;
+    startTime = 0;
+    return StatusCode.SUCCESS;
+  }
+
+
+  /**
+   * This method rewinds the replay to the first capture.
+   * @return status of the operation
+   */
+  @Override
+  public StatusCode reset() {
+    return reset(averageCount, 0);
+  }
+
+
+  /**
+   * This method validates the average count.
+   * @param count average count
+   * @return success if count is a power of 2 up to 512, otherwise error
+   */
+  @Override
+  public StatusCode validateAverageCount(int count) {
+    return (Arrays.binarySearch(VALID_COUNT, count) < 0 
+            ? StatusCode.PARAMETER_INVALID : StatusCode.SUCCESS);
+  }
+
+
+  /**
+   * This method waits until the instrument is ready. A replay is always ready.
+   * @param timeout not used
+   * @return SUCCESS
+   */
+  @Override
+  public StatusCode waitForReady(long timeout) {
+    return StatusCode.SUCCESS;
+  }
+}
@@ -0,0 +1,323 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class compresses raw samples without loss. Each sample is predicted 
+ * by its predecessor (the first one by 0), the difference is zigzag encoded 
+ * so that small negative and positive differences both become small 
+ * numbers, and the differences of each block of BLOCK_SIZE samples are 
+ * packed with the bit width of the largest one. 2 byte samples are shifted 
+ * right by the number of trailing zero bits all samples of the block have 
+ * in common before they are predicted, so an 8 bit digitizer read with 2 
+ * byte samples packs as tightly as with 1 byte samples.
+ * <p>
+ * Encoded block: one byte holding the bit width, for 2 byte samples one 
+ * byte holding the shift, followed by the packed differences, least 
+ * significant bits first, padded to a full byte. A block of a flat trace 
+ * takes one or two bytes; a block of a noisy trace takes a few bits per 
+ * sample instead of 8 or 16.
+ * <p>
+ * encode and decode process a whole waveform. To write or read a stream, 
+ * encodeBlock and decodeBlock process one block at a time; the caller 
+ * passes the last sample of the previous block, 0 for the first block, and 
+ * getBlockLength tells how many bytes follow the block header.
+ * @author agent (agent@local)
+ */
+public final class SampleCodec {
+  /** number of samples per block */
+  public static final int BLOCK_SIZE = 128;
+  /** largest bit width of a block of 1 byte samples */
+  protected static final int MAX_BITS_1 = 9;
+  /** largest bit width of a block of 2 byte samples */
+  protected static final int MAX_BITS_2 = 17;
+  /** largest shift of a block of 2 byte samples */
+  protected static final int MAX_SHIFT = 15;
+
+
+  /** This class only has static methods. */
+  private SampleCodec() {
+  }
+
+
+  /**
+   * This method gets the largest possible encoded length.
+   * @param count number of samples
+   * @param width sample width, 1 or 2 bytes
+   * @return length in bytes
+   */
+  public static int getMaxEncodedLength(int count, int width) {
+    int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    // A difference of two n bit samples has n + 1 bits. Each block has a 
+    // header of 1 byte per sample byte and at most one byte of padding.
+    return (width + 1) * blocks + (int) (((long) count * (8 * width + 1) + 7) / 8);
+  }
+
+
+  /**
+   * This method gets the length of the packed differences of a block.
+   * @param count number of samples in the block
+   * @param bits bit width from the block header
+   * @return length in bytes after the block header
+   */
+  public static int getBlockLength(int count, int bits) {
+    return (count * bits + 7) / 8;
+  }
+
+
+  /**
+   * This method zigzag encodes a difference.
+   * @param delta difference
+   * @return 0, -1, 1, -2, 2, ... mapped to 0, 1, 2, 3, 4, ...
+   */
+  static int zigzag(int delta) {
+    return (delta << 1) ^ (delta >> 31);
+  }
+
+
+  /**
+   * This method encodes a block of 1 byte samples.
+   * @param source raw samples
+   * @param offset index of the first sample
+   * @param count number of samples, at most BLOCK_SIZE
+   * @param previous last sample of the previous block, 0 for the first
+   * @param destination buffer receiving the block, with at least 
+   *                    getMaxEncodedLength(count, 1) bytes remaining
+   * @return last sample of the block
+   */
+  public static int encodeBlock(byte[] source, int offset, int count, int previous, 
+          ByteBuffer destination) {
+    int bitsUsed = 0, last = previous;
+    for (int i = offset; i < offset + count; i++) {
+      bitsUsed |= zigzag(source[i] - last);
+      last = source[i];
+    }
+    int bits = 32 - Integer.numberOfLeadingZeros(bitsUsed);
+    destination.put((byte) bits);
+    if (bits == 0) {
+      return last;
+    }
+    long accumulator = 0;
+    int filled = 0;
+    for (int i = offset; i < offset + count; i++) {
+      accumulator |= (long) zigzag(source[i] - previous) << filled;
+      previous = source[i];
+      filled += bits;
+      while (filled >= 8) {
+        destination.put((byte) accumulator);
+        accumulator >>>= 8;
+        filled -= 8;
+      }
+    }
+    if (filled > 0) {
+      destination.put((byte) accumulator);
+    }
+    return last;
+  }
+
+
+  /**
+   * This method encodes a block of 2 byte samples.
+   * @param source raw samples
+   * @param offset index of the first sample
+   * @param count number of samples, at most BLOCK_SIZE
+   * @param previous last sample of the previous block, 0 for the first
+   * @param destination buffer receiving the block, with at least 
+   *                    getMaxEncodedLength(count, 2) bytes remaining
+   * @return last sample of the block
+   */
+  public static int encodeBlock(short[] source, int offset, int count, int previous, 
+          ByteBuffer destination) {
+    int ones = 0;
+    for (int i = offset; i < offset + count; i++) {
+      ones |= source[i];
+    }
+    int shift = ones == 0 ? 0 : Math.min(Integer.numberOfTrailingZeros(ones), MAX_SHIFT);
+    int bitsUsed = 0, last = previous >> shift;
+    for (int i = offset; i < offset + count; i++) {
+      int value = source[i] >> shift;
+      bitsUsed |= zigzag(value - last);
+      last = value;
+    }
+    int bits = 32 - Integer.numberOfLeadingZeros(bitsUsed);
+    destination.put((byte) bits);
+    destination.put((byte) shift);
+    if (bits > 0) {
+      long accumulator = 0;
+      int filled = 0;
+      previous >>= shift;
+      for (int i = offset; i < offset + count; i++) {
+        int value = source[i] >> shift;
+        accumulator |= (long) zigzag(value - previous) << filled;
+        previous = value;
+        filled += bits;
+        while (filled >= 8) {
+          destination.put((byte) accumulator);
+          accumulator >>>= 8;
+          filled -= 8;
+        }
+      }
+      if (filled > 0) {
+        destination.put((byte) accumulator);
+      }
+    }
+    return last << shift;
+  }
+
+
+  /**
+   * This method decodes a block of 1 byte samples.
+   * @param source buffer positioned at the block; on return it is 
+   *               positioned after it
+   * @param count number of samples in the block
+   * @param previous last sample of the previous block, 0 for the first
+   * @param destination receives the samples
+   * @param offset index of the first sample in destination
+   * @return last sample of the block
+   */
+  public static int decodeBlock(ByteBuffer source, int count, int previous, byte[] destination, 
+          int offset) {
+    int bits = source.get() & 0xFF;
+    if (bits > MAX_BITS_1) {
+      throw new IllegalArgumentException("Invalid bit width " + bits + ".");
+    }
+    long accumulator = 0, mask = (1L << bits) - 1;
+    int available = 0;
+    for (int i = offset; i < offset + count; i++) {
+      while (available < bits) {
+        accumulator |= (long) (source.get() & 0xFF) << available;
+        available += 8;
+      }
+      int zigzag = (int) (accumulator & mask);
+      accumulator >>>= bits;
+      available -= bits;
+      previous += (zigzag >>> 1) ^ -(zigzag & 1);
+      destination[i] = (byte) previous;
+    }
+    return previous;
+  }
+
+
+  /**
+   * This method decodes a block of 2 byte samples.
+   * @param source buffer positioned at the block; on return it is 
+   *               positioned after it
+   * @param count number of samples in the block
+   * @param previous last sample of the previous block, 0 for the first
+   * @param destination receives the samples
+   * @param offset index of the first sample in destination
+   * @return last sample of the block
+   */
+  public static int decodeBlock(ByteBuffer source, int count, int previous, short[] destination, 
+          int offset) {
+    int bits = source.get() & 0xFF;
+    int shift = source.get() & 0xFF;
+    if (bits > MAX_BITS_2 || shift > MAX_SHIFT) {
+      throw new IllegalArgumentException("Invalid bit width " + bits + " or shift " + shift + ".");
+    }
+    long accumulator = 0, mask = (1L << bits) - 1;
+    int available = 0;
+    previous >>= shift;
+    for (int i = offset; i < offset + count; i++) {
+      while (available < bits) {
+        accumulator |= (long) (source.get() & 0xFF) << available;
+        available += 8;
+      }
+      int zigzag = (int) (accumulator & mask);
+      accumulator >>>= bits;
+      available -= bits;
+      previous += (zigzag >>> 1) ^ -(zigzag & 1);
+      destination[i] = (short) (previous << shift);
+    }
+    return previous << shift;
+  }
+
+
+  /**
+   * This method encodes 1 byte samples.
+   * @param source raw samples
+   * @param offset index of the first sample
+   * @param count number of samples
+   * @param destination buffer receiving the encoded samples, with at least 
+   *                    getMaxEncodedLength(count, 1) bytes remaining
+   * @return number of bytes written
+   */
+  public static int encode(byte[] source, int offset, int count, ByteBuffer destination) {
+    int start = destination.position();
+    int previous = 0;
+    for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+      previous = encodeBlock(source, offset + blockStart, Math.min(BLOCK_SIZE, count - blockStart), 
+              previous, destination);
+    }
+    return destination.position() - start;
+  }
+
+
+  /**
+   * This method encodes 2 byte samples.
+   * @param source raw samples
+   * @param offset index of the first sample
+   * @param count number of samples
+   * @param destination buffer receiving the encoded samples, with at least 
+   *                    getMaxEncodedLength(count, 2) bytes remaining
+   * @return number of bytes written
+   */
+  public static int encode(short[] source, int offset, int count, ByteBuffer destination) {
+    int start = destination.position();
+    int previous = 0;
+    for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+      previous = encodeBlock(source, offset + blockStart, Math.min(BLOCK_SIZE, count - blockStart), 
+              previous, destination);
+    }
+    return destination.position() - start;
+  }
+
+
+  /**
+   * This method decodes 1 byte samples.
+   * @param source buffer positioned at the encoded samples; on return it is
+   *               positioned after them
+   * @param count number of samples
+   * @param destination receives the samples, starting at index 0
+   */
+  public static void decode(ByteBuffer source, int count, byte[] destination) {
+    int previous = 0;
+    for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+      previous = decodeBlock(source, Math.min(BLOCK_SIZE, count - blockStart), previous, 
+              destination, blockStart);
+    }
+  }
+
+
+  /**
+   * This method decodes 2 byte samples.
+   * @param source buffer positioned at the encoded samples; on return it is
+   *               positioned after them
+   * @param count number of samples
+   * @param destination receives the samples, starting at index 0
+   */
+  public static void decode(ByteBuffer source, int count, short[] destination) {
+    int previous = 0;
+    for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+      previous = decodeBlock(source, Math.min(BLOCK_SIZE, count - blockStart), previous, 
+              destination, blockStart);
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class converts raw samples into amplitudes:
+ * amplitude = raw * scale + shift, with scale = YMULT and
+ * shift = YZERO - YOFF * YMULT. The conversions into doubles compute the 
+ * statistics of the amplitudes (WaveformStatistics) in the same pass; they 
+ * are the kernels JCompactWaveForm.toJWaveForm and WaveformRecord run.
+ * The loops have one multiply-add per sample and keep the running sums in 
+ * local variables so that the JIT compiler can unroll them.
+ * @author agent (agent@local)
+ */
+public final class SampleDecoder {
+
+  /** This class only has static methods. */
+  private SampleDecoder() {
+  }
+
+
+  /**
+   * This method computes the shift of the linear conversion.
+   * @param yMult vertical scale factor (WFMPRE:YMULT)
+   * @param yOff vertical offset in digitizing levels (WFMPRE:YOFF)
+   * @param yZero vertical offset in units (WFMPRE:YZERO)
+   * @return shift
+   */
+  public static double getShift(double yMult, double yOff, double yZero) {
+    return yZero - yOff * yMult;
+  }
+
+
+  /**
+   * This method converts 1 byte samples into floats.
+   * @param source raw samples
+   * @param offset index of the first sample in source
+   * @param count number of samples
+   * @param scale scale factor
+   * @param shift shift
+   * @param destination amplitudes, starting at index 0
+   */
+  public static void decodeInt8(byte[] source, int offset, int count, double scale, double shift,
+          float[] destination) {
+    float scaleFloat = (float) scale, shiftFloat = (float) shift;
+    for (int i = 0; i < count; i++) {
+      destination[i] = source[offset + i] * scaleFloat + shiftFloat;
+    }
+  }
+
+
+  /**
+   * This method converts 2 byte samples already stored as shorts into floats.
+   * @param source raw samples
+   * @param count number of samples
+   * @param scale scale factor
+   * @param shift shift
+   * @param destination amplitudes, starting at index 0
+   */
+  public static void decodeInt16(short[] source, int count, double scale, double shift,
+          float[] destination) {
+    float scaleFloat = (float) scale, shiftFloat = (float) shift;
+    for (int i = 0; i < count; i++) {
+      destination[i] = source[i] * scaleFloat + shiftFloat;
+    }
+  }
+
+
+  /**
+   * This method converts 1 byte samples into doubles and computes the 
+   * statistics of the amplitudes in the same pass.
+   * @param source raw samples
+   * @param offset index of the first sample in source
+   * @param count number of samples
+   * @param scale scale factor
+   * @param shift shift
+   * @param destination amplitudes, starting at index 0
+   * @param statistics receives the statistics
+   */
+  public static void decodeInt8(byte[] source, int offset, int count, double scale, double shift,
+          double[] destination, WaveformStatistics statistics) {
+    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE, minIndex = -1, maxIndex = -1;
+    long sum = 0, sumOfSquares = 0;
+    for (int i = 0; i < count; i++) {
+      int raw = source[offset + i];
+      sum += raw;
+      sumOfSquares += raw * raw;
+      if (raw < min) {
+        min = raw;
+        minIndex = i;
+      }
+      if (raw > max) {
+        max = raw;
+        maxIndex = i;
+      }
+      destination[i] = raw * scale + shift;
+    }
+    statistics.setRaw(count, sum, sumOfSquares, min, minIndex, max, maxIndex, scale, shift);
+  }
+
+
+  /**
+   * This method converts 2 byte samples already stored as shorts into 
+   * doubles and computes the statistics of the amplitudes in the same pass.
+   * @param source raw samples
+   * @param count number of samples
+   * @param scale scale factor
+   * @param shift shift
+   * @param destination amplitudes, starting at index 0
+   * @param statistics receives the statistics
+   */
+  public static void decodeInt16(short[] source, int count, double scale, double shift,
+          double[] destination, WaveformStatistics statistics) {
+    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE, minIndex = -1, maxIndex = -1;
+    long sum = 0, sumOfSquares = 0;
+    for (int i = 0; i < count; i++) {
+      int raw = source[i];
+      sum += raw;
+      // raw * raw is at most 2^30 and fits into an int.
+      sumOfSquares += raw * raw;
+      if (raw < min) {
+        min = raw;
+        minIndex = i;
+      }
+      if (raw > max) {
+        max = raw;
+        maxIndex = i;
+      }
+      destination[i] = raw * scale + shift;
+    }
+    statistics.setRaw(count, sum, sumOfSquares, min, minIndex, max, maxIndex, scale, shift);
+  }
+
+
+  /**
+   * This method converts 1 byte samples held in a buffer, for example a 
+   * memory mapped file, into doubles and computes the statistics of the 
+   * amplitudes in the same pass.
+   * @param source raw samples, starting at index 0; the position is not used
+   * @param count number of samples
+   * @param scale scale factor
+   * @param shift shift
+   * @param destination amplitudes, starting at index 0
+   * @param statistics receives the statistics
+   */
+  public static void decodeInt8(ByteBuffer source, int count, double scale, double shift,
+          double[] destination, WaveformStatistics statistics) {
+    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE, minIndex = -1, maxIndex = -1;
+    long sum = 0, sumOfSquares = 0;
+    for (int i = 0; i < count; i++) {
+      int raw = source.get(i);
+      sum += raw;
+      sumOfSquares += raw * raw;
+      if (raw < min) {
+        min = raw;
+        minIndex = i;
+      }
+      if (raw > max) {
+        max = raw;
+        maxIndex = i;
+      }
+      destination[i] = raw * scale + shift;
+    }
+    statistics.setRaw(count, sum, sumOfSquares, min, minIndex, max, maxIndex, scale, shift);
+  }
+
+
+  /**
+   * This method converts 2 byte samples held in a buffer, for example a 
+   * memory mapped file, into doubles and computes the statistics of the 
+   * amplitudes in the same pass. The byte order of the buffer is used.
+   * @param source raw samples, starting at index 0; the position is not used
+   * @param count number of samples
+   * @param scale scale factor
+   * @param shift shift
+   * @param destination amplitudes, starting at index 0
+   * @param statistics receives the statistics
+   */
+  public static void decodeInt16(ByteBuffer source, int count, double scale, double shift,
+          double[] destination, WaveformStatistics statistics) {
+    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE, minIndex = -1, maxIndex = -1;
+    long sum = 0, sumOfSquares = 0;
+    for (int i = 0; i < count; i++) {
+      int raw = source.getShort(2 * i);
+      sum += raw;
+      sumOfSquares += raw * raw;
+      if (raw < min) {
+        min = raw;
+        minIndex = i;
+      }
+      if (raw > max) {
+        max = raw;
+        maxIndex = i;
+      }
+      destination[i] = raw * scale + shift;
+    }
+    statistics.setRaw(count, sum, sumOfSquares, min, minIndex, max, maxIndex, scale, shift);
+  }
+}
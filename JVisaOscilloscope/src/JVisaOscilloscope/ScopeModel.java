@@ -0,0 +1,500 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class is the command table of an oscilloscope model. JInstrument_TDS3000
+ * takes every model dependent command, limit and transfer optimization from
+ * a table, so that a model speaking a similar SCPI dialect needs a new table 
+ * instead of a new driver. Format strings take the arguments listed in the 
+ * field comments; a null command means the model has no such command.
+ * ScopeModelRegistry selects the table from the response to "*IDN?".
+ * <p>
+ * The tables only cover models of the Tektronix TDS dialect. The sequence 
+ * of the driver stays the same for all of them: "*OPC?" or a busy query to
+ * wait for the acquisition, a preamble in the HEADER ON and VERBOSE ON 
+ * format parsed by WaveformPreamble, and a binary block response to the 
+ * curve query. A model that differs in this sequence needs its own 
+ * implementation of OscilloscopeInterface, created by the factory of its
+ * table.
+ * <p>
+ * Tables are immutable, so drivers and registries share them. A table is 
+ * made with a Builder, which may start from an existing table.
+ * @author agent (agent@local)
+ */
+public class ScopeModel {
+  /** factory that creates a JInstrument_TDS3000 for a table */
+  public static final OscilloscopeFactory DRIVER_FACTORY = new OscilloscopeFactory() {
+    @Override
+    public OscilloscopeInterface create(ScopeModel model) {
+      return new JInstrument_TDS3000(model);
+    }
+  };
+  /** model name */
+  public final String name;
+  /** pattern the response to "*IDN?" of the model matches */
+  public final Pattern idPattern;
+  /** number of channels */
+  public final int channelCount;
+  /** valid numbers of acquisitions to average, sorted, unmodifiable */
+  public final List<Integer> validAverageCounts;
+  /** commands sent by reset before the acquisition mode is set, unmodifiable */
+  public final List<String> resetCommands;
+  /** command that sets averaging and single sequence mode, argument: average count */
+  public final String acquireModeCommand;
+  /** command that sets sample mode for single-shot frames */
+  public final String sampleModeCommand;
+  /** command that arms the trigger for one acquisition sequence */
+  public final String armCommand;
+  /** command that stops the acquisition */
+  public final String stopCommand;
+  /** query that returns 0 if the instrument is not busy */
+  public final String busyQuery;
+  /** 
+   * command that sets the operation complete bit of the event status 
+   * register when all pending operations have finished 
+   */
+  public final String operationCompleteCommand;
+  /** command that reboots the instrument, null if the model cannot reboot */
+  public final String rebootCommand;
+  /** 
+   * query for the waveform preamble and, optionally, the vertical scale and
+   * the horizontal delay in one round trip, argument: channel; the response
+   * has to be in the format WaveformPreamble.parse expects
+   */
+  public final String preambleQuery;
+  /** command that omits the headers from query responses before the transfer */
+  public final String headerOffCommand;
+  /** query for the samples in the data range of the data source */
+  public final String curveQuery;
+  /** command that sets the data range, arguments: first and last point (1 based) */
+  public final String dataRangeCommand;
+  /** command that sets the trigger delay, argument: delay in s */
+  public final String triggerDelayCommand;
+  /** command that selects the high resolution record, null if there is only one record length */
+  public final String highResolutionCommand;
+  /** command that selects the low resolution record, null if there is only one record length */
+  public final String lowResolutionCommand;
+  /** record length of the high resolution record */
+  public final int highResolutionPointCount;
+  /** record length of the low resolution record */
+  public final int lowResolutionPointCount;
+  /** 
+   * command that selects a channel as data source, argument: channel; used 
+   * if the model cannot copy a channel into a reference waveform
+   */
+  public final String channelSourceCommand;
+  /** 
+   * command that copies a channel into a reference waveform and selects the
+   * copy as data source, argument: channel; null to transfer the channel 
+   * itself. The copy keeps the acquired waveform while partial transfers 
+   * change the data range.
+   */
+  public final String saveReferenceCommand;
+  /** command that removes a reference waveform from the display, argument: channel */
+  public final String releaseReferenceCommand;
+  /** true if the model transfers 2 byte samples least significant byte first (SRIBINARY) */
+  public final boolean isLittleEndianSupported;
+  /** true if the model reports the end of an acquisition sequence with "*OPC?" */
+  public final boolean isOperationCompleteSupported;
+  /** 
+   * command that turns segmented memory (FastFrame) on for a number of 
+   * frames, argument: frame count; null if the model has none, as the 
+   * TDS3000 and TDS2000 series
+   */
+  public final String segmentedOnCommand;
+  /** command that turns segmented memory off */
+  public final String segmentedOffCommand;
+  /** 
+   * command that selects the frames transferred by the curve query, 
+   * arguments: first and last frame
+   */
+  public final String frameRangeCommand;
+  /** 
+   * query for the trigger time of a frame in s relative to the first frame,
+   * arguments: channel and frame; null if the model cannot report it
+   */
+  public final String frameTimeQuery;
+  /** resolution of the digitizer in bits, used by EncodingPolicy.AUTO */
+  public final int digitizerBits;
+  /** creates the driver of the model */
+  public final OscilloscopeFactory factory;
+
+
+  /**
+   * This class collects the entries of a table. The fields start with the 
+   * values of the TDS3000 series.
+   */
+  public static class Builder {
+    /** model name */
+    public String name;
+    /** regular expression the response to "*IDN?" matches */
+    public String idPattern;
+    /** number of channels */
+    public int channelCount = 4;
+    /** valid numbers of acquisitions to average, sorted */
+    public int[] validAverageCounts = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512};
+    /** commands sent by reset before the acquisition mode is set */
+    public String[] resetCommands = {"HORIZONTAL:TRIGGER:POSITION 0", "TRIGGER:A:SETLEVEL"};
+    /** command that sets averaging and single sequence mode, argument: average count */
+    public String acquireModeCommand = 
+            "ACQUIRE:MODE AVERAGE;STOPAFTER SEQUENCE;NUMAVG %d;STATE STOP";
+    /** command that sets sample mode for single-shot frames */
+    public String sampleModeCommand = "ACQUIRE:MODE SAMPLE";
+    /** command that arms the trigger for one acquisition sequence */
+    public String armCommand = "ACQUIRE:STATE RUN";
+    /** command that stops the acquisition */
+    public String stopCommand = "ACQUIRE:STATE STOP";
+    /** query that returns 0 if the instrument is not busy */
+    public String busyQuery = "BUSY?";
+    /** 
+     * command that sets the operation complete bit of the event status 
+     * register when all pending operations have finished 
+     */
+    public String operationCompleteCommand = "*OPC";
+    /** command that reboots the instrument, null if the model cannot reboot */
+    public String rebootCommand = "REBOOT";
+    /** 
+     * query for the waveform preamble and, optionally, the vertical scale and
+     * the horizontal delay in one round trip, argument: channel; the response
+     * has to be in the format WaveformPreamble.parse expects
+     */
+    public String preambleQuery = 
+            "HEADER ON;VERBOSE ON;:WFMPRE?;:CH%d:SCALE?;:HORIZONTAL:DELAY:TIME?;:HEADER OFF";
+    /** command that omits the headers from query responses before the transfer */
+    public String headerOffCommand = "HEADER OFF";
+    /** query for the samples in the data range of the data source */
+    public String curveQuery = "CURVE?";
+    /** command that sets the data range, arguments: first and last point (1 based) */
+    public String dataRangeCommand = "DATA:START %d;STOP %d";
+    /** command that sets the trigger delay, argument: delay in s */
+    public String triggerDelayCommand = "HORIZONTAL:DELAY:TIME %E;STATE ON";
+    /** command that selects the high resolution record, null if there is one record length */
+    public String highResolutionCommand = "HORIZONTAL:RESOLUTION HIGH";
+    /** command that selects the low resolution record, null if there is one record length */
+    public String lowResolutionCommand = "HORIZONTAL:RESOLUTION LOW";
+    /** record length of the high resolution record */
+    public int highResolutionPointCount = 10000;
+    /** record length of the low resolution record */
+    public int lowResolutionPointCount = 500;
+    /** 
+     * command that selects a channel as data source, argument: channel; used 
+     * if the model cannot copy a channel into a reference waveform
+     */
+    public String channelSourceCommand = "DATA:SOURCE CH%d";
+    /** 
+     * command that copies a channel into a reference waveform and selects the
+     * copy as data source, argument: channel; null to transfer the channel 
+     * itself. The copy keeps the acquired waveform while partial transfers 
+     * change the data range.
+     */
+    public String saveReferenceCommand = "DATA:SOURCE CH%1$d;:SAVE:WAVEFORM CH%1$d,REF%1$d;"
+            + ":SELECT:REF%1$d ON;:DATA:SOURCE REF%1$d";
+    /** command that removes a reference waveform from the display, argument: channel */
+    public String releaseReferenceCommand = "SELECT:REF%d OFF";
+    /** true if the model transfers 2 byte samples least significant byte first (SRIBINARY) */
+    public boolean isLittleEndianSupported = true;
+    /** true if the model reports the end of an acquisition sequence with "*OPC?" */
+    public boolean isOperationCompleteSupported = true;
+    /** 
+     * command that turns segmented memory (FastFrame) on for a number of 
+     * frames, argument: frame count; null if the model has none, as the 
+     * TDS3000 and TDS2000 series
+     */
+    public String segmentedOnCommand = null;
+    /** command that turns segmented memory off */
+    public String segmentedOffCommand = null;
+    /** 
+   * command that selects the frames transferred by the curve query, 
+   * arguments: first and last frame
+   */
+    public String frameRangeCommand = null;
+    /** 
+     * query for the trigger time of a frame in s relative to the first frame,
+     * arguments: channel and frame; null if the model cannot report it
+     */
+    public String frameTimeQuery = null;
+    /** resolution of the digitizer in bits, used by EncodingPolicy.AUTO */
+    public int digitizerBits = 8;
+    /** creates the driver of the model */
+    public OscilloscopeFactory factory = DRIVER_FACTORY;
+
+
+    /**
+     * constructor
+     * @param name model name
+     * @param idPattern regular expression the response to "*IDN?" matches
+     */
+    public Builder(String name, String idPattern) {
+      this.name = name;
+      this.idPattern = idPattern;
+    }
+
+
+    /**
+     * constructor that starts from an existing table
+     * @param model table to start from
+     */
+    public Builder(ScopeModel model) {
+      this(model.name, model.idPattern.pattern());
+      channelCount = model.channelCount;
+      validAverageCounts = new int[model.validAverageCounts.size()];
+      for (int i = 0; i < validAverageCounts.length; i++) {
+        validAverageCounts[i] = model.validAverageCounts.get(i);
+      }
+      resetCommands = model.resetCommands.toArray(new String[0]);
+      acquireModeCommand = model.acquireModeCommand;
+      sampleModeCommand = model.sampleModeCommand;
+      armCommand = model.armCommand;
+      stopCommand = model.stopCommand;
+      busyQuery = model.busyQuery;
+      operationCompleteCommand = model.operationCompleteCommand;
+      rebootCommand = model.rebootCommand;
+      preambleQuery = model.preambleQuery;
+      headerOffCommand = model.headerOffCommand;
+      curveQuery = model.curveQuery;
+      dataRangeCommand = model.dataRangeCommand;
+      triggerDelayCommand = model.triggerDelayCommand;
+      highResolutionCommand = model.highResolutionCommand;
+      lowResolutionCommand = model.lowResolutionCommand;
+      highResolutionPointCount = model.highResolutionPointCount;
+      lowResolutionPointCount = model.lowResolutionPointCount;
+      channelSourceCommand = model.channelSourceCommand;
+      saveReferenceCommand = model.saveReferenceCommand;
+      releaseReferenceCommand = model.releaseReferenceCommand;
+      isLittleEndianSupported = model.isLittleEndianSupported;
+      isOperationCompleteSupported = model.isOperationCompleteSupported;
+      segmentedOnCommand = model.segmentedOnCommand;
+      segmentedOffCommand = model.segmentedOffCommand;
+      frameRangeCommand = model.frameRangeCommand;
+      frameTimeQuery = model.frameTimeQuery;
+      digitizerBits = model.digitizerBits;
+      factory = model.factory;
+    }
+
+
+    /**
+     * This method creates the table.
+     * @return table
+     */
+    public ScopeModel build() {
+      return new ScopeModel(this);
+    }
+  }
+
+
+  /**
+   * constructor
+   * @param builder entries of the table, copied
+   */
+  protected ScopeModel(Builder builder) {
+    if (builder.name == null || builder.idPattern == null) {
+      throw new IllegalArgumentException("A table needs a name and an id pattern.");
+    }
+    name = builder.name;
+    idPattern = Pattern.compile(builder.idPattern, Pattern.CASE_INSENSITIVE);
+    Integer[] counts = new Integer[builder.validAverageCounts.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = builder.validAverageCounts[i];
+    }
+    Arrays.sort(counts);
+    channelCount = builder.channelCount;
+    validAverageCounts = Collections.unmodifiableList(Arrays.asList(counts));
+    resetCommands = Collections.unmodifiableList(Arrays.asList(builder.resetCommands.clone()));
+    acquireModeCommand = builder.acquireModeCommand;
+    sampleModeCommand = builder.sampleModeCommand;
+    armCommand = builder.armCommand;
+    stopCommand = builder.stopCommand;
+    busyQuery = builder.busyQuery;
+    operationCompleteCommand = builder.operationCompleteCommand;
+    rebootCommand = builder.rebootCommand;
+    preambleQuery = builder.preambleQuery;
+    headerOffCommand = builder.headerOffCommand;
+    curveQuery = builder.curveQuery;
+    dataRangeCommand = builder.dataRangeCommand;
+    triggerDelayCommand = builder.triggerDelayCommand;
+    highResolutionCommand = builder.highResolutionCommand;
+    lowResolutionCommand = builder.lowResolutionCommand;
+    highResolutionPointCount = builder.highResolutionPointCount;
+    lowResolutionPointCount = builder.lowResolutionPointCount;
+    channelSourceCommand = builder.channelSourceCommand;
+    saveReferenceCommand = builder.saveReferenceCommand;
+    releaseReferenceCommand = builder.releaseReferenceCommand;
+    isLittleEndianSupported = builder.isLittleEndianSupported;
+    isOperationCompleteSupported = builder.isOperationCompleteSupported;
+    segmentedOnCommand = builder.segmentedOnCommand;
+    segmentedOffCommand = builder.segmentedOffCommand;
+    frameRangeCommand = builder.frameRangeCommand;
+    frameTimeQuery = builder.frameTimeQuery;
+    digitizerBits = builder.digitizerBits;
+    factory = builder.factory;
+  }
+
+
+  /**
+   * This method creates the table of the 4 channel models of the Tektronix 
+   * TDS3000 series, for example "TEKTRONIX,TDS 3014B,0,CF:91.1CT FV:v3.41 
+   * TDS3FFT:v1.00".
+   * @return table
+   */
+  public static ScopeModel createTds3000() {
+    return createTds3000("TDS3000", "TEKTRONIX,\\s*TDS\\s*3\\d{2}4.*", 4);
+  }
+
+
+  /**
+   * This method creates the table of the 2 channel models of the Tektronix 
+   * TDS3000 series, the TDS3012, TDS3032 and TDS3052.
+   * @return table
+   */
+  public static ScopeModel createTds3002() {
+    return createTds3000("TDS3002", "TEKTRONIX,\\s*TDS\\s*3\\d{2}2.*", 2);
+  }
+
+
+  /**
+   * This method creates a table of the Tektronix TDS3000 series.
+   * @param name model name
+   * @param idPattern regular expression the response to "*IDN?" matches
+   * @param channelCount number of channels
+   * @return table
+   */
+  protected static ScopeModel createTds3000(String name, String idPattern, int channelCount) {
+    Builder builder = new Builder(name, idPattern);
+    builder.channelCount = channelCount;
+    return builder.build();
+  }
+
+
+  /**
+   * This method creates the table of the 4 channel models of the Tektronix 
+   * TDS2000 and TDS1000 series, for example the TDS2024B.
+   * @return table
+   */
+  public static ScopeModel createTds2000() {
+    return createTds2000("TDS2000", "TEKTRONIX,\\s*TDS\\s*[12]\\d{2}4.*", 4);
+  }
+
+
+  /**
+   * This method creates the table of the 2 channel models of the Tektronix 
+   * TDS2000 and TDS1000 series, for example the TDS1002 or TDS2012B.
+   * @return table
+   */
+  public static ScopeModel createTds2002() {
+    return createTds2000("TDS2002", "TEKTRONIX,\\s*TDS\\s*[12]\\d{2}[0-35-9].*", 2);
+  }
+
+
+  /**
+   * This method creates a table of the Tektronix TDS2000 and TDS1000 
+   * series. They have one record length of 2500 points, no SRIBINARY and
+   * no horizontal delay; the trigger position is set with 
+   * HORIZONTAL:MAIN:POSITION.
+   * @param name model name
+   * @param idPattern regular expression the response to "*IDN?" matches
+   * @param channelCount number of channels
+   * @return table
+   */
+  protected static ScopeModel createTds2000(String name, String idPattern, int channelCount) {
+    Builder builder = new Builder(name, idPattern);
+    builder.channelCount = channelCount;
+    builder.validAverageCounts = new int[] {1, 4, 16, 64, 128};
+    builder.resetCommands = new String[] {"HORIZONTAL:MAIN:POSITION 0", "TRIGGER:MAIN SETLEVEL"};
+    builder.preambleQuery = "HEADER ON;VERBOSE ON;:WFMPRE?;:CH%d:SCALE?;:HEADER OFF";
+    builder.triggerDelayCommand = "HORIZONTAL:MAIN:POSITION %E";
+    builder.highResolutionCommand = null;
+    builder.lowResolutionCommand = null;
+    builder.highResolutionPointCount = 2500;
+    builder.lowResolutionPointCount = 2500;
+    builder.saveReferenceCommand = null;
+    builder.releaseReferenceCommand = null;
+    builder.isLittleEndianSupported = false;
+    return builder.build();
+  }
+
+
+  /**
+   * This method checks whether a response to "*IDN?" belongs to the model.
+   * @param id response to "*IDN?"
+   * @return true if the response matches the pattern of the model
+   */
+  public boolean matches(String id) {
+    return id != null && idPattern.matcher(id.trim()).matches();
+  }
+
+
+  /**
+   * This method checks whether an average count is valid for the model.
+   * @param count number of acquisitions to average
+   * @return true if the count is valid
+   */
+  public boolean isValidAverageCount(int count) {
+    return Collections.binarySearch(validAverageCounts, count) >= 0;
+  }
+
+
+  /**
+   * This method gets the record length.
+   * @param isHighResolution true for the high resolution record
+   * @return number of points
+   */
+  public int getPointCount(boolean isHighResolution) {
+    return isHighResolution ? highResolutionPointCount : lowResolutionPointCount;
+  }
+
+
+  /**
+   * This method gets the command that selects the record length.
+   * @param isHighResolution true for the high resolution record
+   * @return command, null if the model has only one record length
+   */
+  public String getResolutionCommand(boolean isHighResolution) {
+    return isHighResolution ? highResolutionCommand : lowResolutionCommand;
+  }
+
+
+  /**
+   * This method checks whether the model copies a channel into a reference
+   * waveform before it is transferred.
+   * @return true if saveReferenceCommand is set
+   */
+  public boolean isReferenceCopied() {
+    return saveReferenceCommand != null;
+  }
+
+
+  /**
+   * This method checks whether the model has segmented memory.
+   * @return true if segmentedOnCommand is set
+   */
+  public boolean isSegmentedSupported() {
+    return segmentedOnCommand != null;
+  }
+
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import jvisa.JVisaReturnString;
+
+/**
+ * This class selects the command table of an oscilloscope from its response
+ * to "*IDN?". Tables registered later take precedence, so an application can
+ * override a built-in table or add a model without changing the driver.
+ * @author agent (agent@local)
+ */
+public class ScopeModelRegistry {
+  /** registry with the built-in tables */
+  protected static final ScopeModelRegistry DEFAULT = new ScopeModelRegistry(true);
+  /** registered tables, most recently registered first */
+  protected final List<ScopeModel> models = new CopyOnWriteArrayList<>();
+
+
+  /**
+   * constructor
+   * @param isBuiltInRegistered if true, the built-in tables are registered
+   */
+  public ScopeModelRegistry(boolean isBuiltInRegistered) {
+    if (isBuiltInRegistered) {
+      register(ScopeModel.createTds2002());
+      register(ScopeModel.createTds2000());
+      register(ScopeModel.createTds3002());
+      register(ScopeModel.createTds3000());
+    }
+  }
+
+
+  /**
+   * This method gets the registry with the built-in tables.
+   * @return registry
+   */
+  public static ScopeModelRegistry getDefault() {
+    return DEFAULT;
+  }
+
+
+  /**
+   * This method registers a table. It takes precedence over all tables 
+   * registered before.
+   * @param model table
+   */
+  public void register(ScopeModel model) {
+    models.add(0, model);
+  }
+
+
+  /**
+   * This method gets the registered tables.
+   * @return unmodifiable list of the tables, most recently registered first
+   */
+  public List<ScopeModel> getModels() {
+    return Collections.unmodifiableList(models);
+  }
+
+
+  /**
+   * This method finds the table of an instrument.
+   * @param id response to "*IDN?"
+   * @return table, null if no table matches
+   */
+  public ScopeModel find(String id) {
+    for (ScopeModel model : models) {
+      if (model.matches(id)) {
+        return model;
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * This method reads the id of an open instrument and configures the 
+   * driver with the matching table. If no table matches, the driver keeps 
+   * its table.
+   * @param instrument driver with an open instrument session
+   * @return table, null if the id could not be read or no table matches
+   */
+  public ScopeModel identify(JInstrument_TDS3000 instrument) {
+    JVisaReturnString id = new JVisaReturnString();
+    if (instrument.readId(id) != instrument.SUCCESS) {
+      return null;
+    }
+    ScopeModel model = find(id.returnString);
+    if (model != null) {
+      instrument.setModel(model);
+    }
+    return model;
+  }
+
+
+  /**
+   * This method creates the driver of an instrument with the factory of its
+   * table. The caller opens the instrument session of a VISA driver.
+   * @param id response to "*IDN?"
+   * @return driver, null if no table matches
+   */
+  public OscilloscopeInterface createOscilloscope(String id) {
+    ScopeModel model = find(id);
+    return model == null ? null : model.factory.create(model);
+  }
+}
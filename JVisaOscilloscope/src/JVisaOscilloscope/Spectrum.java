@@ -0,0 +1,86 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class holds the one-sided spectrum of a waveform. The arrays are 
+ * reused by the next analysis if they are large enough, so only the first 
+ * binCount entries are valid.
+ * @author agent (agent@local)
+ */
+public class Spectrum {
+  /** number of valid bins, from 0 Hz to the Nyquist frequency */
+  public int binCount;
+  /** frequency between bins in Hz */
+  public double frequencyStep;
+  /** 
+   * amplitude of each bin in units of the waveform; a sinusoid centered on 
+   * a bin has its peak amplitude there 
+   */
+  public double[] magnitude;
+  /** phase of each bin in rad, null if not computed */
+  public double[] phase;
+  /** power spectral density of each bin in units^2 / Hz */
+  public double[] powerSpectralDensity;
+
+
+  /**
+   * This method prepares the arrays for a number of bins.
+   * @param count number of bins
+   * @param isPhaseComputed true to allocate the phase array, false to set 
+   *                        it to null
+   */
+  public void allocate(int count, boolean isPhaseComputed) {
+    if (magnitude == null || magnitude.length < count) {
+      magnitude = new double[count];
+      powerSpectralDensity = new double[count];
+    }
+    if (!isPhaseComputed) {
+      phase = null;
+    }
+    else if (phase == null || phase.length < count) {
+      phase = new double[count];
+    }
+    binCount = count;
+  }
+
+
+  /**
+   * This method gets the frequency of a bin.
+   * @param bin bin index
+   * @return frequency in Hz
+   */
+  public double getFrequency(int bin) {
+    return bin * frequencyStep;
+  }
+
+
+  /**
+   * This method finds the bin with the largest amplitude above 0 Hz.
+   * @return bin index, 0 if there is only the 0 Hz bin
+   */
+  public int getPeakBin() {
+    int peak = 0;
+    for (int i = 1; i < binCount; i++) {
+      if (peak == 0 || magnitude[i] > magnitude[peak]) {
+        peak = i;
+      }
+    }
+    return peak;
+  }
+}
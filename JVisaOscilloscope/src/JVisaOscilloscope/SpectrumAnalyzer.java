@@ -0,0 +1,140 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class computes the spectrum of waveforms. A waveform is multiplied by
+ * a window function, padded with zeros to the next power of 2 and 
+ * transformed by RealFft. Window, transform and work buffers are kept for 
+ * the next waveform of the same size, so analyzing a stream of captures 
+ * allocates nothing. An instance is not thread safe; SpectrumBatch gives 
+ * each worker thread its own.
+ * @author agent (agent@local)
+ */
+public class SpectrumAnalyzer {
+  /** window function */
+  public final WindowFunction windowFunction;
+  /** If false, the phase is not computed, which saves an atan2 per bin. */
+  public boolean isPhaseComputed = true;
+  /** window of the last waveform size */
+  protected double[] window = new double[0];
+  /** number of samples the window was computed for */
+  protected int windowSize = 0;
+  /** sum of the window coefficients */
+  protected double windowSum;
+  /** sum of the squared window coefficients */
+  protected double windowSquareSum;
+  /** transform of the last size */
+  protected RealFft fft;
+  /** windowed and padded samples */
+  protected double[] input = new double[0];
+  /** real parts of the transform */
+  protected double[] real = new double[0];
+  /** imaginary parts of the transform */
+  protected double[] imaginary = new double[0];
+
+
+  /**
+   * constructor
+   * @param windowFunction window function
+   */
+  public SpectrumAnalyzer(WindowFunction windowFunction) {
+    this.windowFunction = windowFunction;
+  }
+
+
+  /**
+   * This method prepares window, transform and buffers for a waveform size.
+   * @param count number of samples
+   */
+  protected void prepare(int count) {
+    if (count != windowSize) {
+      if (window.length < count) {
+        window = new double[count];
+      }
+      windowFunction.fill(window, count);
+      windowSum = 0.0;
+      windowSquareSum = 0.0;
+      for (int i = 0; i < count; i++) {
+        windowSum += window[i];
+        windowSquareSum += window[i] * window[i];
+      }
+      windowSize = count;
+    }
+    int size = RealFft.getSize(count);
+    if (fft == null || fft.size != size) {
+      fft = RealFft.getInstance(size);
+      input = new double[size];
+      real = new double[size / 2 + 1];
+      imaginary = new double[size / 2 + 1];
+    }
+  }
+
+
+  /**
+   * This method computes the spectrum of a waveform.
+   * @param waveForm waveform; rate is the time between samples
+   * @param spectrum spectrum to fill, or null to allocate a new one; its 
+   *                 phase is set to null if isPhaseComputed is false
+   * @return spectrum
+   * @throws IllegalArgumentException if the waveform has no samples or no 
+   * positive rate
+   */
+  public Spectrum analyze(JWaveForm waveForm, Spectrum spectrum) {
+    int count = waveForm.dataSize == null ? 0 : waveForm.dataSize;
+    if (count < 1) {
+      throw new IllegalArgumentException("The waveform has no samples.");
+    }
+    if (waveForm.rate == null || !(waveForm.rate > 0.0)) {
+      throw new IllegalArgumentException("The waveform has no sample rate.");
+    }
+    prepare(count);
+    double[] data = waveForm.data;
+    for (int i = 0; i < count; i++) {
+      input[i] = data[i] * window[i];
+    }
+    for (int i = count; i < fft.size; i++) {
+      input[i] = 0.0;
+    }
+    fft.transform(input, real, imaginary);
+
+    int binCount = fft.size / 2 + 1;
+    if (spectrum == null) {
+      spectrum = new Spectrum();
+    }
+    spectrum.allocate(binCount, isPhaseComputed);
+    double sampleRate = 1.0 / waveForm.rate;
+    spectrum.frequencyStep = sampleRate / fft.size;
+    // One-sided spectrum: every bin but 0 Hz and Nyquist also holds the 
+    // energy of its negative frequency.
+    double amplitudeScale = 1.0 / windowSum;
+    double densityScale = 1.0 / (sampleRate * windowSquareSum);
+    for (int k = 0; k < binCount; k++) {
+      double power = real[k] * real[k] + imaginary[k] * imaginary[k];
+      double factor = k == 0 || k == binCount - 1 ? 1.0 : 2.0;
+      spectrum.magnitude[k] = factor * amplitudeScale * Math.sqrt(power);
+      spectrum.powerSpectralDensity[k] = factor * densityScale * power;
+    }
+    if (isPhaseComputed) {
+      for (int k = 0; k < binCount; k++) {
+        spectrum.phase[k] = Math.atan2(imaginary[k], real[k]);
+      }
+    }
+    return spectrum;
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class computes the spectra of many waveforms, for example all 
+ * channels or all frames of a segmented acquisition, in parallel on a 
+ * fork-join pool. Each worker thread keeps its own SpectrumAnalyzer, so 
+ * windows, transforms and work buffers are reused across calls. The 
+ * analyzers live as long as the worker threads, so by default the batch 
+ * runs on a pool of its own, which shutdown releases, rather than leaving 
+ * analyzers on the threads of the common pool.
+ * @author agent (agent@local)
+ */
+public class SpectrumBatch {
+  /** pool running the analyses */
+  protected final ForkJoinPool pool;
+  /** true if the pool was created by this batch and is shut down with it */
+  protected final boolean isPoolOwned;
+  /** analyzer of each worker thread */
+  protected final ThreadLocal<SpectrumAnalyzer> analyzers;
+  /** If false, the phase is not computed. */
+  public volatile boolean isPhaseComputed = true;
+
+
+  /**
+   * constructor, analyzes on a pool of its own with one thread per processor
+   * @param windowFunction window function
+   */
+  public SpectrumBatch(WindowFunction windowFunction) {
+    this(windowFunction, new ForkJoinPool(), true);
+  }
+
+
+  /**
+   * constructor, analyzes on a given pool. Every worker thread of the pool 
+   * that runs an analysis keeps its analyzer until the thread ends.
+   * @param windowFunction window function
+   * @param pool pool running the analyses
+   */
+  public SpectrumBatch(WindowFunction windowFunction, ForkJoinPool pool) {
+    this(windowFunction, pool, false);
+  }
+
+
+  /**
+   * constructor
+   * @param windowFunction window function
+   * @param pool pool running the analyses
+   * @param isPoolOwned true to shut the pool down with the batch
+   */
+  protected SpectrumBatch(final WindowFunction windowFunction, ForkJoinPool pool, 
+          boolean isPoolOwned) {
+    this.pool = pool;
+    this.isPoolOwned = isPoolOwned;
+    analyzers = new ThreadLocal<SpectrumAnalyzer>() {
+      @Override
+      protected SpectrumAnalyzer initialValue() {
+        return new SpectrumAnalyzer(windowFunction);
+      }
+    };
+  }
+
+
+  /**
+   * This class analyzes a range of waveforms, splitting it in halves until
+   * one waveform is left.
+   */
+  protected class AnalyzeTask extends RecursiveAction {
+    /** serialization version */
+    private static final long serialVersionUID = 1L;
+    /** waveforms */
+    final JWaveForm[] waveForms;
+    /** spectra */
+    final Spectrum[] spectra;
+    /** first index */
+    final int start;
+    /** index after the last one */
+    final int end;
+
+
+    /**
+     * constructor
+     * @param waveForms waveforms
+     * @param spectra spectra
+     * @param start first index
+     * @param end index after the last one
+     */
+    AnalyzeTask(JWaveForm[] waveForms, Spectrum[] spectra, int start, int end) {
+      this.waveForms = waveForms;
+      this.spectra = spectra;
+      this.start = start;
+      this.end = end;
+    }
+
+
+    @Override
+    protected void compute() {
+      if (end - start == 1) {
+        if (waveForms[start] == null) {
+          return;
+        }
+        SpectrumAnalyzer analyzer = analyzers.get();
+        analyzer.isPhaseComputed = isPhaseComputed;
+        spectra[start] = analyzer.analyze(waveForms[start], spectra[start]);
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(new AnalyzeTask(waveForms, spectra, start, middle), 
+              new AnalyzeTask(waveForms, spectra, middle, end));
+    }
+  }
+
+
+  /**
+   * This method computes the spectra of waveforms and returns when all are
+   * done. Null entries of waveForms are skipped.
+   * @param waveForms waveforms
+   * @param spectra receive the spectra, same length as waveForms; null 
+   *                entries are allocated, others are reused
+   */
+  public void analyze(JWaveForm[] waveForms, Spectrum[] spectra) {
+    if (spectra.length != waveForms.length) {
+      throw new IllegalArgumentException("There has to be one spectrum per waveform.");
+    }
+    if (waveForms.length > 0) {
+      pool.invoke(new AnalyzeTask(waveForms, spectra, 0, waveForms.length));
+    }
+  }
+
+
+  /**
+   * This method shuts down the pool if the batch created it, which ends its
+   * threads and releases their analyzers. A given pool is left running.
+   */
+  public void shutdown() {
+    if (isPoolOwned) {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.logging.Level;
+import jvisa.JVisa;
+
+/**
+ * This class acquires waveforms continuously on a dedicated thread into a
+ * WaveformRing. Consumers read the frames through cursors of the ring.
+ * No JWaveForm is allocated per frame: the oscilloscope driver acquires
+ * directly into the preallocated slots.
+ * @author agent (agent@local)
+ */
+public class StreamingAcquisition implements Runnable {
+  /** time in ms to wait for the producer thread to stop */
+  public static final long STOP_TIMEOUT = 10000;
+  /** default number of consecutive failed acquisitions that stop the thread */
+  public static final int MAX_CONSECUTIVE_FAILURES = 20;
+  /** oscilloscope to acquire from */
+  protected final OscilloscopeInterface oscilloscope;
+  /** ring receiving the frames */
+  protected final WaveformRing ring;
+  /** number of acquisitions to average */
+  protected final int averageCount;
+  /** channels to acquire */
+  protected final int[] channels;
+  /** producer thread, null if not running */
+  protected Thread thread;
+  /** number of acquisitions that did not succeed */
+  protected volatile long failedAcquisitions = 0;
+  /** number of failed acquisitions since the last successful one */
+  protected int consecutiveFailures = 0;
+  /** status of the last acquisition */
+  protected volatile OscilloscopeInterface.StatusCode lastStatus;
+  /** trigger delay set before every acquisition, null to keep the current one */
+  public volatile Double triggerDelay;
+  /** delay before retrying after consecutive failed acquisitions */
+  public volatile PollStrategy retryStrategy = new BackoffPollStrategy(10, 2.0, 1000);
+  /** 
+   * number of consecutive failed acquisitions that stop the thread, 0 to 
+   * retry forever
+   */
+  public volatile int maxConsecutiveFailures = MAX_CONSECUTIVE_FAILURES;
+
+
+  /**
+   * constructor
+   * @param oscilloscope oscilloscope to acquire from
+   * @param averageCount number of acquisitions to average
+   * @param channels channels to acquire
+   * @param capacity number of frames in the ring
+   * @param policy what to do when the ring is full
+   */
+  public StreamingAcquisition(OscilloscopeInterface oscilloscope, int averageCount, 
+          int[] channels, int capacity, BackpressurePolicy policy) {
+    this.oscilloscope = oscilloscope;
+    this.averageCount = averageCount;
+    this.channels = channels.clone();
+    int channelMax = 1;
+    for (int channel : channels) {
+      channelMax = Math.max(channelMax, channel);
+    }
+    ring = new WaveformRing(capacity, channelMax, policy);
+  }
+
+
+  /**
+   * This method gets the ring receiving the frames.
+   * @return ring
+   */
+  public WaveformRing getRing() {
+    return ring;
+  }
+
+
+  /**
+   * This method gets the number of acquisitions that did not succeed.
+   * @return number of failed acquisitions
+   */
+  public long getFailedAcquisitions() {
+    return failedAcquisitions;
+  }
+
+
+  /**
+   * This method gets the status of the last acquisition.
+   * @return status, null if there has been no acquisition
+   */
+  public OscilloscopeInterface.StatusCode getLastStatus() {
+    return lastStatus;
+  }
+
+
+  /**
+   * This method starts the producer thread unless it is running.
+   */
+  public synchronized void start() {
+    if (thread != null) {
+      return;
+    }
+    thread = new Thread(this, "JVisa streaming acquisition");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+
+  /**
+   * This method stops the producer thread after the current acquisition.
+   * @return true if the thread has stopped within STOP_TIMEOUT
+   */
+  public synchronized boolean stop() {
+    if (thread == null) {
+      return true;
+    }
+    Thread stopping = thread;
+    thread = null;
+    stopping.interrupt();
+    try {
+      stopping.join(STOP_TIMEOUT);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+    }
+    return !stopping.isAlive();
+  }
+
+
+  /**
+   * This method checks whether the producer thread is running.
+   * @return true if running
+   */
+  public synchronized boolean isRunning() {
+    return thread != null;
+  }
+
+
+  /**
+   * This method acquires frames until the thread is interrupted or 
+   * maxConsecutiveFailures acquisitions in a row have failed. After a failed
+   * acquisition it waits as given by retryStrategy before the next one. 
+   * getLastStatus tells why the thread stopped.
+   */
+  @Override
+  public void run() {
+    consecutiveFailures = 0;
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WaveformFrame frame = ring.claim();
+        if (frame == null) {
+          return;
+        }
+        // The driver reads the trigger delay to set from the first waveform,
+        // which still holds the one measured for the previous frame of the slot.
+        frame.waveForms[0].triggerDelay = triggerDelay;
+        try {
+          lastStatus = oscilloscope.acquire(frame.waveForms, averageCount, channels);
+        }
+        catch (RuntimeException e) {
+          JVisa.LOGGER.log(Level.SEVERE, e.getMessage(), e);
+          lastStatus = OscilloscopeInterface.StatusCode.EXCEPTION;
+        }
+        if (lastStatus == OscilloscopeInterface.StatusCode.SUCCESS) {
+          ring.publish(frame);
+          consecutiveFailures = 0;
+        }
+        else {
+          ring.abort(frame);
+          failedAcquisitions++;
+          consecutiveFailures++;
+          if (maxConsecutiveFailures > 0 && consecutiveFailures >= maxConsecutiveFailures) {
+            JVisa.LOGGER.severe(String.format("Streaming stopped after %d failed acquisitions, last status %s.", 
+                    consecutiveFailures, lastStatus));
+            return;
+          }
+          long delay = retryStrategy.getDelay(consecutiveFailures, 0);
+          if (delay > 0) {
+            Thread.sleep(delay);
+          }
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      synchronized (this) {
+        if (thread == Thread.currentThread()) {
+          thread = null;
+        }
+      }
+    }
+  }
+}
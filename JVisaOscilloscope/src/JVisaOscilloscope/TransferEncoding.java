@@ -0,0 +1,102 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This enumeration describes the binary curve encodings of the TDS3000: 
+ * signed integer samples of 1 or 2 bytes, most significant byte first 
+ * (RIBINARY) or least significant byte first (SRIBINARY). The byte order 
+ * of 1 byte samples does not matter.
+ * @author agent (agent@local)
+ */
+public enum TransferEncoding {
+  /** 1 byte samples */
+  RIBINARY_1("RIBINARY", 1),
+  /** 2 byte samples, big endian */
+  RIBINARY_2("RIBINARY", 2),
+  /** 2 byte samples, little endian */
+  SRIBINARY_2("SRIBINARY", 2);
+
+  /** value of DATA:ENCDG */
+  public final String encoding;
+  /** value of DATA:WIDTH */
+  public final int width;
+
+
+  /**
+   * constructor
+   * @param encoding value of DATA:ENCDG
+   * @param width value of DATA:WIDTH
+   */
+  TransferEncoding(String encoding, int width) {
+    this.encoding = encoding;
+    this.width = width;
+  }
+
+
+  /**
+   * This method gets the command that selects this encoding.
+   * @return command
+   */
+  public String getCommand() {
+    return String.format("DATA:ENCDG %s;WIDTH %d", encoding, width);
+  }
+
+
+  /**
+   * This method chooses an encoding.
+   * @param policy precision and transfer time trade-off
+   * @param averageCount number of acquisitions averaged by the instrument
+   * @param digitizerBits resolution of the digitizer in bits
+   * @param requiredBits vertical precision the application needs in bits, 
+   *                     0 for all the acquisition delivers
+   * @param isLittleEndian true to transfer 2 byte samples least significant
+   *                       byte first
+   * @return encoding
+   */
+  public static TransferEncoding choose(EncodingPolicy policy, int averageCount, 
+          int digitizerBits, int requiredBits, boolean isLittleEndian) {
+    TransferEncoding wide = isLittleEndian ? SRIBINARY_2 : RIBINARY_2;
+    switch (policy) {
+      case THROUGHPUT:
+        return RIBINARY_1;
+      case AUTO:
+        int bits = getAcquiredBits(averageCount, digitizerBits);
+        if (requiredBits > 0) {
+          bits = Math.min(bits, requiredBits);
+        }
+        return bits <= 8 ? RIBINARY_1 : wide;
+      default:
+        return wide;
+    }
+  }
+
+
+  /**
+   * This method estimates the vertical resolution of an acquisition. 
+   * Averaging n acquisitions adds about log4(n) bits to the resolution of 
+   * the digitizer.
+   * @param averageCount number of acquisitions averaged
+   * @param digitizerBits resolution of the digitizer in bits
+   * @return resolution in bits
+   */
+  public static int getAcquiredBits(int averageCount, int digitizerBits) {
+    int log2 = 31 - Integer.numberOfLeadingZeros(Math.max(averageCount, 1));
+    return digitizerBits + (log2 + 1) / 2;
+  }
+}
@@ -0,0 +1,711 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * This class is an append-only archive of raw waveforms. Records (see 
+ * WaveformRecord) hold the samples as received from the instrument plus the 
+ * preamble values needed to scale them, so a 2 byte waveform takes a quarter 
+ * of the space of its amplitudes. If compression is on, the samples are 
+ * packed by SampleCodec, which shrinks typical traces by another factor of 
+ * 3 to 5; a waveform that does not get smaller is stored as is.
+ * <p>
+ * Records are appended to numbered segment files in a directory; a new 
+ * segment is started when the current one would exceed the segment size. 
+ * Segments are read through read-only memory mappings, and a record read 
+ * from the archive is a view into the mapping, so reading does not copy 
+ * samples.
+ * <p>
+ * The archive keeps a sparse index in memory: one entry per block of 
+ * INDEX_INTERVAL records, holding the time span, channels and instruments 
+ * of the block. Queries only scan the blocks that may match. The index is 
+ * rebuilt from the records when the archive is opened. Each record carries 
+ * a checksum of its header and samples; scanning stops at the first 
+ * incomplete or damaged record, and what follows it in the last segment, 
+ * left by a crash, is cut off.
+ * <p>
+ * Mappings cannot be released explicitly before Java 9; they are released 
+ * when the archive and all records read from it have been garbage collected.
+ * @author agent (agent@local)
+ */
+public class WaveformArchive implements Closeable {
+  /** default segment size in bytes */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+  /** number of records per index entry */
+  public static final int INDEX_INTERVAL = 64;
+  /** file name extension of segments */
+  public static final String SEGMENT_EXTENSION = ".jwa";
+  /** number of bits of a record reference holding the position in its segment */
+  protected static final int POSITION_BITS = 32;
+  /** directory holding the segments */
+  protected final File directory;
+  /** maximum segment size in bytes */
+  protected final int segmentSize;
+  /** segments in order */
+  protected final List<Segment> segments = new ArrayList<>();
+  /** index entries in order */
+  protected final List<IndexBlock> index = new ArrayList<>();
+  /** segment receiving appends, null if closed */
+  protected FileChannel writeChannel;
+  /** header buffer, reused */
+  protected ByteBuffer headerBuffer = ByteBuffer.allocate(WaveformRecord.FIXED_HEADER_SIZE + 256);
+  /** buffer for 2 byte or compressed samples, reused */
+  protected ByteBuffer sampleBuffer = ByteBuffer.allocate(0);
+  /** record checksum, reused */
+  protected final CRC32 checksum = new CRC32();
+  /** size of the blocks in which payloads are read to check them */
+  protected static final int CHECK_BLOCK_SIZE = 64 << 10;
+  /** true to compress appended samples */
+  protected final boolean isCompressed;
+  /** number of records */
+  protected long recordCount = 0;
+
+
+  /**
+   * This class holds a segment file and its mapping.
+   */
+  protected static class Segment {
+    /** segment number */
+    final int number;
+    /** segment file */
+    final File file;
+    /** length of the valid data */
+    volatile int length;
+    /** read-only mapping, remapped when it does not cover length */
+    MappedByteBuffer mapping;
+
+
+    /**
+     * constructor
+     * @param number segment number
+     * @param file segment file
+     */
+    Segment(int number, File file) {
+      this.number = number;
+      this.file = file;
+    }
+
+
+    /**
+     * This method gets a mapping that covers all records of the segment.
+     * @return read-only view; the caller owns position and limit
+     * @throws IOException if the file could not be mapped
+     */
+    synchronized ByteBuffer map() throws IOException {
+      if (mapping == null || mapping.capacity() < length) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+          mapping = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+      }
+      return mapping.duplicate();
+    }
+  }
+
+
+  /**
+   * This class is one entry of the sparse index, covering up to 
+   * INDEX_INTERVAL consecutive records of one segment.
+   */
+  protected static class IndexBlock {
+    /** segment holding the records */
+    final Segment segment;
+    /** position of the first record */
+    final int position;
+    /** number of records */
+    int count;
+    /** earliest timestamp */
+    long minTimestamp = Long.MAX_VALUE;
+    /** latest timestamp */
+    long maxTimestamp = Long.MIN_VALUE;
+    /** bit i is set if the block holds channel i, bit 63 for channels above 62 */
+    long channels;
+    /** instruments in the block */
+    final Set<String> instruments = new HashSet<>();
+
+
+    /**
+     * constructor
+     * @param segment segment holding the records
+     * @param position position of the first record
+     */
+    IndexBlock(Segment segment, int position) {
+      this.segment = segment;
+      this.position = position;
+    }
+
+
+    /**
+     * This method adds a record to the block.
+     * @param timestamp record timestamp
+     * @param channel record channel
+     * @param instrument record instrument
+     */
+    void add(long timestamp, int channel, String instrument) {
+      count++;
+      minTimestamp = Math.min(minTimestamp, timestamp);
+      maxTimestamp = Math.max(maxTimestamp, timestamp);
+      channels |= getChannelBit(channel);
+      instruments.add(instrument);
+    }
+
+
+    /**
+     * This method checks if the block may hold matching records.
+     * @param instrument instrument, null for any
+     * @param channel channel, 0 for any
+     * @param from earliest timestamp
+     * @param to latest timestamp
+     * @return false if no record of the block matches
+     */
+    boolean mayMatch(String instrument, int channel, long from, long to) {
+      return count > 0 && maxTimestamp >= from && minTimestamp <= to 
+              && (channel == 0 || (channels & getChannelBit(channel)) != 0)
+              && (instrument == null || instruments.contains(instrument));
+    }
+
+
+    /**
+     * This method gets the bit of a channel in the channel mask.
+     * @param channel channel
+     * @return bit
+     */
+    static long getChannelBit(int channel) {
+      return 1L << Math.min(Math.max(channel, 0), 63);
+    }
+  }
+
+
+  /**
+   * constructor, opens a compressing archive with the default segment size
+   * @param directory directory holding the segments, created if missing
+   * @throws IOException if the archive could not be opened
+   */
+  public WaveformArchive(File directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_SIZE, true);
+  }
+
+
+  /**
+   * constructor, opens or creates an archive and rebuilds its index
+   * @param directory directory holding the segments, created if missing
+   * @param segmentSize maximum segment size in bytes; a single record 
+   *                    larger than this gets a segment of its own
+   * @param isCompressed true to compress appended samples
+   * @throws IOException if the archive could not be opened
+   */
+  public WaveformArchive(File directory, int segmentSize, boolean isCompressed) throws IOException {
+    if (segmentSize < WaveformRecord.FIXED_HEADER_SIZE) {
+      throw new IllegalArgumentException("The segment size is too small.");
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create archive directory " + directory + ".");
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.isCompressed = isCompressed;
+    File[] files = directory.listFiles();
+    List<Integer> numbers = new ArrayList<>();
+    for (File file : files == null ? new File[0] : files) {
+      String name = file.getName();
+      if (name.endsWith(SEGMENT_EXTENSION)) {
+        try {
+          numbers.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_EXTENSION.length())));
+        }
+        catch (NumberFormatException e) {
+          // not a segment
+        }
+      }
+    }
+    Integer[] sorted = numbers.toArray(new Integer[numbers.size()]);
+    Arrays.sort(sorted);
+    for (int number : sorted) {
+      scanSegment(new Segment(number, getSegmentFile(number)));
+    }
+    if (segments.isEmpty()) {
+      startSegment(0);
+    }
+    else {
+      Segment last = segments.get(segments.size() - 1);
+      openWriteChannel(last);
+    }
+  }
+
+
+  /**
+   * This method gets the file of a segment.
+   * @param number segment number
+   * @return file
+   */
+  protected File getSegmentFile(int number) {
+    return new File(directory, String.format("%08d%s", number, SEGMENT_EXTENSION));
+  }
+
+
+  /**
+   * This method adds the records of an existing segment to the index.
+   * Scanning stops at the first incomplete record or the first record 
+   * whose checksum does not match. The records are read through a file 
+   * channel rather than a mapping, so the segment can be truncated 
+   * afterwards, which fails on Windows while it is mapped.
+   * @param segment segment to scan
+   * @throws IOException if the segment could not be read
+   */
+  protected void scanSegment(Segment segment) throws IOException {
+    long fileLength = segment.file.length();
+    if (fileLength > Integer.MAX_VALUE) {
+      throw new IOException("Segment " + segment.file + " is too large.");
+    }
+    segments.add(segment);
+    int position = 0;
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(segment.file, "r")) {
+      FileChannel channel = randomAccessFile.getChannel();
+      while (true) {
+        headerBuffer.clear();
+        headerBuffer.limit(WaveformRecord.FIXED_HEADER_SIZE);
+        if (!readFully(channel, headerBuffer, position)) {
+          break;
+        }
+        headerBuffer.flip();
+        int length = WaveformRecord.getRecordLength(headerBuffer, (int) fileLength - position);
+        if (length == 0) {
+          break;
+        }
+        int nameLength = headerBuffer.getShort(WaveformRecord.NAME_LENGTH_OFFSET) & 0xFFFF;
+        if (headerBuffer.capacity() < WaveformRecord.FIXED_HEADER_SIZE + nameLength) {
+          ByteBuffer header = ByteBuffer.allocate(WaveformRecord.FIXED_HEADER_SIZE + nameLength);
+          header.put(headerBuffer);
+          headerBuffer = header;
+        }
+        headerBuffer.limit(WaveformRecord.FIXED_HEADER_SIZE + nameLength);
+        headerBuffer.position(WaveformRecord.FIXED_HEADER_SIZE);
+        if (!readFully(channel, headerBuffer, position + WaveformRecord.FIXED_HEADER_SIZE)
+                || !isChecksumValid(channel, position, nameLength, length)) {
+          break;
+        }
+        String instrument = new String(headerBuffer.array(), WaveformRecord.FIXED_HEADER_SIZE, 
+                nameLength, StandardCharsets.UTF_8);
+        addToIndex(segment, position, headerBuffer.getLong(8), headerBuffer.getShort(16), instrument);
+        position += length;
+      }
+    }
+    segment.length = position;
+  }
+
+
+  /**
+   * This method checks the checksum of a record whose header is in the 
+   * header buffer. The payload is read in blocks through the sample buffer.
+   * @param channel channel to read
+   * @param position position of the record
+   * @param nameLength length of the instrument name
+   * @param length record length
+   * @return true if the checksum matches
+   * @throws IOException if the file could not be read
+   */
+  protected boolean isChecksumValid(FileChannel channel, int position, int nameLength, int length) 
+          throws IOException {
+    int headerLength = WaveformRecord.FIXED_HEADER_SIZE + nameLength;
+    checksum.reset();
+    WaveformRecord.updateChecksum(checksum, headerBuffer.array(), headerLength);
+    if (sampleBuffer.capacity() < CHECK_BLOCK_SIZE) {
+      sampleBuffer = ByteBuffer.allocate(CHECK_BLOCK_SIZE);
+    }
+    for (int offset = headerLength; offset < length; offset += CHECK_BLOCK_SIZE) {
+      sampleBuffer.clear();
+      sampleBuffer.limit(Math.min(CHECK_BLOCK_SIZE, length - offset));
+      if (!readFully(channel, sampleBuffer, position + offset)) {
+        return false;
+      }
+      checksum.update(sampleBuffer.array(), 0, sampleBuffer.limit());
+    }
+    return (int) checksum.getValue() == headerBuffer.getInt(WaveformRecord.CHECKSUM_OFFSET);
+  }
+
+
+  /**
+   * This method reads from a file channel until a buffer is full.
+   * @param channel channel to read
+   * @param buffer buffer to fill from position to limit
+   * @param position file position to read from
+   * @return false if the end of the file was reached first
+   * @throws IOException if the file could not be read
+   */
+  protected static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) 
+          throws IOException {
+    while (buffer.hasRemaining()) {
+      int count = channel.read(buffer, position);
+      if (count < 0) {
+        return false;
+      }
+      position += count;
+    }
+    return true;
+  }
+
+
+  /**
+   * This method opens a segment for appending and cuts off anything after 
+   * its last complete record.
+   * @param segment segment to open
+   * @throws IOException if the segment could not be opened
+   */
+  protected void openWriteChannel(Segment segment) throws IOException {
+    @SuppressWarnings("resource")
+    FileChannel channel = new RandomAccessFile(segment.file, "rw").getChannel();
+    if (channel.size() > segment.length) {
+      channel.truncate(segment.length);
+    }
+    channel.position(segment.length);
+    writeChannel = channel;
+  }
+
+
+  /**
+   * This method closes the current segment and starts a new one.
+   * @param number number of the new segment
+   * @throws IOException if the segment could not be created
+   */
+  protected void startSegment(int number) throws IOException {
+    if (writeChannel != null) {
+      writeChannel.close();
+    }
+    Segment segment = new Segment(number, getSegmentFile(number));
+    segments.add(segment);
+    openWriteChannel(segment);
+  }
+
+
+  /**
+   * This method gets the reference of a record.
+   * @param segment segment holding the record
+   * @param position position of the record in the segment
+   * @return reference
+   */
+  protected static long getReference(Segment segment, int position) {
+    return ((long) segment.number << POSITION_BITS) | position;
+  }
+
+
+  /**
+   * This method adds a record to the index.
+   * @param segment segment holding the record
+   * @param position position of the record
+   * @param timestamp record timestamp
+   * @param channel record channel
+   * @param instrument record instrument
+   */
+  protected void addToIndex(Segment segment, int position, long timestamp, int channel, 
+          String instrument) {
+    IndexBlock block = index.isEmpty() ? null : index.get(index.size() - 1);
+    if (block == null || block.segment != segment || block.count >= INDEX_INTERVAL) {
+      block = new IndexBlock(segment, position);
+      index.add(block);
+    }
+    block.add(timestamp, channel, instrument);
+    recordCount++;
+  }
+
+
+  /**
+   * This method appends a waveform with the current time as timestamp.
+   * @param instrument instrument name
+   * @param channel channel
+   * @param waveForm raw samples and scale parameters
+   * @return reference of the record
+   * @throws IOException if the record could not be written
+   */
+  public long append(String instrument, int channel, JCompactWaveForm waveForm) throws IOException {
+    return append(instrument, channel, System.currentTimeMillis(), waveForm);
+  }
+
+
+  /**
+   * This method appends a waveform. The samples are packed if compression 
+   * is on and that makes them smaller, otherwise they are written as 
+   * received from the instrument, 2 byte samples in big endian order.
+   * @param instrument instrument name
+   * @param channel channel
+   * @param timestamp time of capture in ms since the epoch
+   * @param waveForm raw samples and scale parameters
+   * @return reference of the record
+   * @throws IOException if the record could not be written
+   */
+  public synchronized long append(String instrument, int channel, long timestamp, 
+          JCompactWaveForm waveForm) throws IOException {
+    if (writeChannel == null) {
+      throw new IOException("The archive is closed.");
+    }
+    int width = waveForm.getSampleWidth();
+    if (width == 0 && waveForm.getDataSize() > 0) {
+      throw new IllegalArgumentException("The waveform has no samples.");
+    }
+    if (isCompressed && width != 0) {
+      int length = SampleCodec.getMaxEncodedLength(waveForm.getDataSize(), width);
+      if (sampleBuffer.capacity() < length) {
+        sampleBuffer = ByteBuffer.allocate(length);
+      }
+      sampleBuffer.clear();
+      int encodedLength = width == 1 
+              ? SampleCodec.encode(waveForm.getByteSamples(), 0, waveForm.getDataSize(), sampleBuffer)
+              : SampleCodec.encode(waveForm.getShortSamples(), 0, waveForm.getDataSize(), sampleBuffer);
+      if (encodedLength < width * waveForm.getDataSize()) {
+        sampleBuffer.flip();
+        return write(instrument, channel, timestamp, WaveformRecord.ENCODING_PACKED, 
+                sampleBuffer, waveForm);
+      }
+    }
+    ByteBuffer payload;
+    if (width == 1) {
+      payload = ByteBuffer.wrap(waveForm.getByteSamples(), 0, waveForm.getDataSize());
+    }
+    else {
+      int length = 2 * waveForm.getDataSize();
+      if (sampleBuffer.capacity() < length) {
+        sampleBuffer = ByteBuffer.allocate(length);
+      }
+      sampleBuffer.clear();
+      if (width == 2) {
+        sampleBuffer.asShortBuffer().put(waveForm.getShortSamples(), 0, waveForm.getDataSize());
+      }
+      sampleBuffer.limit(length);
+      payload = sampleBuffer;
+    }
+    return write(instrument, channel, timestamp, WaveformRecord.ENCODING_RAW, payload, waveForm);
+  }
+
+
+  /**
+   * This method writes a record to the current segment, starting a new 
+   * segment if the record does not fit.
+   * @param instrument instrument name
+   * @param channel channel
+   * @param timestamp time of capture in ms since the epoch
+   * @param encoding payload encoding
+   * @param payload encoded samples, from position to limit
+   * @param waveForm waveform supplying sample width, size and scale
+   * @return reference of the record
+   * @throws IOException if the record could not be written
+   */
+  protected long write(String instrument, int channel, long timestamp, int encoding, 
+          ByteBuffer payload, JCompactWaveForm waveForm) throws IOException {
+    byte[] name = instrument.getBytes(StandardCharsets.UTF_8);
+    if (name.length > 0xFFFF) {
+      throw new IllegalArgumentException("The instrument name is too long.");
+    }
+    long recordLength = (long) WaveformRecord.FIXED_HEADER_SIZE + name.length + payload.remaining();
+    if (recordLength > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The waveform is too large.");
+    }
+    Segment segment = segments.get(segments.size() - 1);
+    if (segment.length > 0 && segment.length + recordLength > segmentSize
+            || segment.length + recordLength > Integer.MAX_VALUE) {
+      startSegment(segment.number + 1);
+      segment = segments.get(segments.size() - 1);
+    }
+    int headerLength = WaveformRecord.FIXED_HEADER_SIZE + name.length;
+    if (headerBuffer.capacity() < headerLength) {
+      headerBuffer = ByteBuffer.allocate(headerLength);
+    }
+    headerBuffer.clear();
+    WaveformRecord.putHeader(headerBuffer, timestamp, name, channel, encoding, 
+            payload.remaining(), waveForm);
+    checksum.reset();
+    WaveformRecord.updateChecksum(checksum, headerBuffer.array(), headerLength);
+    checksum.update(payload.duplicate());
+    headerBuffer.putInt(WaveformRecord.CHECKSUM_OFFSET, (int) checksum.getValue());
+    headerBuffer.flip();
+    ByteBuffer[] buffers = {headerBuffer, payload};
+    try {
+      while (headerBuffer.hasRemaining() || payload.hasRemaining()) {
+        writeChannel.write(buffers);
+      }
+    }
+    catch (IOException e) {
+      // Drop the partial record so the next one is written over it. The 
+      // bytes left behind are cut off when the archive is opened again.
+      try {
+        writeChannel.position(segment.length);
+      }
+      catch (IOException positionException) {
+        e.addSuppressed(positionException);
+      }
+      throw e;
+    }
+    int position = segment.length;
+    segment.length += (int) recordLength;
+    addToIndex(segment, position, timestamp, channel, instrument);
+    return getReference(segment, position);
+  }
+
+
+  /**
+   * This method reads a record.
+   * @param reference record reference returned by append or find
+   * @return record, a view into the segment mapping
+   * @throws IOException if the segment could not be mapped or there is no 
+   * record at the reference
+   */
+  public WaveformRecord read(long reference) throws IOException {
+    int number = (int) (reference >>> POSITION_BITS);
+    int position = (int) reference;
+    Segment segment;
+    synchronized (this) {
+      segment = findSegment(number);
+    }
+    if (segment == null) {
+      throw new IOException("There is no segment " + number + ".");
+    }
+    return read(segment, position);
+  }
+
+
+  /**
+   * This method reads a record of a segment.
+   * @param segment segment holding the record
+   * @param position position of the record
+   * @return record
+   * @throws IOException if the segment could not be mapped or there is no 
+   * record at the position
+   */
+  protected WaveformRecord read(Segment segment, int position) throws IOException {
+    ByteBuffer buffer = segment.map();
+    if (position < 0 || position >= segment.length) {
+      throw new IOException("There is no record at " + position + " of segment " 
+              + segment.number + ".");
+    }
+    buffer.position(position);
+    if (WaveformRecord.getRecordLength(buffer, segment.length) == 0) {
+      throw new IOException("There is no record at " + position + " of segment " 
+              + segment.number + ".");
+    }
+    return new WaveformRecord(getReference(segment, position), buffer);
+  }
+
+
+  /**
+   * This method finds a segment by its number.
+   * @param number segment number
+   * @return segment, null if there is none
+   */
+  protected Segment findSegment(int number) {
+    for (Segment segment : segments) {
+      if (segment.number == number) {
+        return segment;
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * This method finds records in the order they were appended.
+   * @param instrument instrument name, null for any
+   * @param channel channel, 0 for any
+   * @param from earliest timestamp in ms since the epoch
+   * @param to latest timestamp in ms since the epoch
+   * @return records, views into the segment mappings
+   * @throws IOException if a segment could not be mapped
+   */
+  public List<WaveformRecord> find(String instrument, int channel, long from, long to) 
+          throws IOException {
+    List<IndexBlock> blocks = new ArrayList<>();
+    List<Integer> counts = new ArrayList<>();
+    synchronized (this) {
+      for (IndexBlock block : index) {
+        if (block.mayMatch(instrument, channel, from, to)) {
+          blocks.add(block);
+          // Records appended after this point are not part of the result.
+          counts.add(block.count);
+        }
+      }
+    }
+    List<WaveformRecord> records = new ArrayList<>();
+    for (int i = 0; i < blocks.size(); i++) {
+      IndexBlock block = blocks.get(i);
+      int position = block.position;
+      for (int j = 0; j < counts.get(i); j++) {
+        WaveformRecord record = read(block.segment, position);
+        position += record.length;
+        if (record.timestamp >= from && record.timestamp <= to 
+                && (channel == 0 || record.channel == channel)
+                && (instrument == null || instrument.equals(record.instrument))) {
+          records.add(record);
+        }
+      }
+    }
+    return records;
+  }
+
+
+  /**
+   * This method gets the number of records.
+   * @return number of records
+   */
+  public synchronized long getRecordCount() {
+    return recordCount;
+  }
+
+
+  /**
+   * This method gets the number of segments.
+   * @return number of segments
+   */
+  public synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+
+  /**
+   * This method forces the appended records to the storage device.
+   * @throws IOException if the records could not be written
+   */
+  public synchronized void flush() throws IOException {
+    if (writeChannel != null) {
+      writeChannel.force(false);
+    }
+  }
+
+
+  /**
+   * This method closes the archive for appending. Records already read stay 
+   * valid.
+   * @throws IOException if the current segment could not be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (writeChannel != null) {
+      writeChannel.close();
+      writeChannel = null;
+    }
+  }
+}
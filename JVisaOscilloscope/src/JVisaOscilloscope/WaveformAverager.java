@@ -0,0 +1,320 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class averages single-shot raw waveforms on the host. Unlike the
+ * instrument average (ACQUIRE:MODE AVERAGE), the average so far can be read
+ * after every frame, so that a caller can show converging results early and
+ * stop as soon as the average no longer changes noticeably.
+ * The averages are kept as integer sums of raw samples (fixed-point for the
+ * exponential mode), so there is no rounding error however many frames are
+ * added. Amplitudes are only computed when the average is read.
+ * All frames have to have the same number of samples and scale; a frame
+ * with a different one restarts the average.
+ * @author agent (agent@local)
+ */
+public class WaveformAverager {
+  /** enumeration for averaging modes */
+  public enum Mode {
+    /** average of all frames added */
+    CUMULATIVE,
+    /** average of the last windowSize frames */
+    WINDOWED,
+    /** exponential average with weight 2^-exponentShift for the new frame */
+    EXPONENTIAL;
+  }
+  /** number of fractional bits of the exponential average */
+  protected static final int FRACTION_BITS = 16;
+  /** averaging mode */
+  protected final Mode mode;
+  /** number of frames of the windowed average */
+  protected final int windowSize;
+  /** the exponential average weighs a new frame with 2^-exponentShift */
+  protected final int exponentShift;
+  /** sums of raw samples, or fixed-point averages for the exponential mode */
+  protected long[] sums;
+  /** raw samples of the frames in the window */
+  protected short[][] window;
+  /** index of the oldest frame in the window */
+  protected int windowIndex;
+  /** raw samples of the frame being added */
+  protected int[] frame;
+  /** number of frames in the average */
+  protected int count;
+  /** number of frames added since the last reset */
+  protected long frameCount;
+  /** number of samples per frame */
+  protected int dataSize;
+  /** largest change of a sample of the average by the last frame, in digitizing levels */
+  protected double lastChange = Double.POSITIVE_INFINITY;
+  /** scale of the frames (see JCompactWaveForm) */
+  protected double yMult = 1.0, yOff, yZero, xIncr = 1.0;
+  /** gain and trigger delay of the last frame, NaN if not set */
+  protected double gain = Double.NaN, triggerDelay = Double.NaN;
+
+
+  /**
+   * constructor for a cumulative average
+   */
+  public WaveformAverager() {
+    this(Mode.CUMULATIVE, 0, 0);
+  }
+
+
+  /**
+   * constructor
+   * @param mode averaging mode
+   * @param windowSize number of frames of a windowed average
+   * @param exponentShift the exponential average weighs a new frame with 
+   *                      2^-exponentShift (1 to 15)
+   */
+  public WaveformAverager(Mode mode, int windowSize, int exponentShift) {
+    if (mode == Mode.WINDOWED && windowSize < 1) {
+      throw new IllegalArgumentException("The window size has to be at least 1.");
+    }
+    if (mode == Mode.EXPONENTIAL && (exponentShift < 1 || exponentShift >= FRACTION_BITS)) {
+      throw new IllegalArgumentException("The exponent shift has to be between 1 and 15.");
+    }
+    this.mode = mode;
+    this.windowSize = windowSize;
+    this.exponentShift = exponentShift;
+  }
+
+
+  /**
+   * This method discards all frames.
+   */
+  public void reset() {
+    count = 0;
+    frameCount = 0;
+    windowIndex = 0;
+    lastChange = Double.POSITIVE_INFINITY;
+  }
+
+
+  /**
+   * This method gets the number of frames in the average. For a windowed 
+   * average this is at most the window size.
+   * @return number of frames
+   */
+  public int getCount() {
+    return count;
+  }
+
+
+  /**
+   * This method gets the number of frames added since the last reset.
+   * @return number of frames
+   */
+  public long getFrameCount() {
+    return frameCount;
+  }
+
+
+  /**
+   * This method gets how much the last frame changed the average.
+   * @return largest change of a sample in digitizing levels, infinity 
+   *         before the second frame
+   */
+  public double getLastChange() {
+    return lastChange;
+  }
+
+
+  /**
+   * This method gets how much the last frame changed the average.
+   * @return largest change of a sample in amplitude units
+   */
+  public double getLastAmplitudeChange() {
+    return lastChange * Math.abs(yMult);
+  }
+
+
+  /**
+   * This method prepares the arrays for frames of a given size.
+   * @param size number of samples per frame
+   */
+  protected void allocate(int size) {
+    if (sums == null || sums.length < size) {
+      sums = new long[size];
+      frame = new int[size];
+      window = null;
+    }
+    if (mode == Mode.WINDOWED && (window == null || window[0].length < size)) {
+      window = new short[windowSize][size];
+    }
+    dataSize = size;
+    reset();
+  }
+
+
+  /**
+   * This method adds a frame to the average.
+   * @param raw single-shot raw waveform
+   */
+  public void add(JCompactWaveForm raw) {
+    int size = raw.getDataSize();
+    if (size != dataSize || sums == null || raw.yMult != yMult || raw.yOff != yOff 
+            || raw.yZero != yZero || raw.xIncr != xIncr) {
+      allocate(size);
+      yMult = raw.yMult;
+      yOff = raw.yOff;
+      yZero = raw.yZero;
+      xIncr = raw.xIncr;
+    }
+    gain = raw.gain;
+    triggerDelay = raw.triggerDelay;
+    byte[] bytes = raw.getByteSamples();
+    short[] shorts = raw.getShortSamples();
+    for (int i = 0; i < size; i++) {
+      frame[i] = bytes != null ? bytes[i] : shorts[i];
+    }
+    switch (mode) {
+      case WINDOWED:
+        addWindowed();
+        break;
+      case EXPONENTIAL:
+        addExponential();
+        break;
+      default:
+        addCumulative();
+    }
+    frameCount++;
+  }
+
+
+  /**
+   * This method adds the frame to a cumulative average.
+   * The change of sample i is (x[i] - sum[i] / n) / (n + 1).
+   */
+  protected void addCumulative() {
+    long n = count, maxDifference = 0;
+    for (int i = 0; i < dataSize; i++) {
+      long x = frame[i];
+      maxDifference = Math.max(maxDifference, Math.abs(x * n - sums[i]));
+      sums[i] = (n == 0 ? 0 : sums[i]) + x;
+    }
+    lastChange = n == 0 ? Double.POSITIVE_INFINITY : (double) maxDifference / (n * (n + 1));
+    count++;
+  }
+
+
+  /**
+   * This method adds the frame to a windowed average, replacing the oldest
+   * frame once the window is full.
+   */
+  protected void addWindowed() {
+    short[] oldest = window[windowIndex];
+    if (count < windowSize) {
+      addCumulative();
+      count--;
+    }
+    else {
+      long maxDifference = 0;
+      for (int i = 0; i < dataSize; i++) {
+        int difference = frame[i] - oldest[i];
+        maxDifference = Math.max(maxDifference, Math.abs(difference));
+        sums[i] += difference;
+      }
+      lastChange = (double) maxDifference / windowSize;
+    }
+    for (int i = 0; i < dataSize; i++) {
+      oldest[i] = (short) frame[i];
+    }
+    windowIndex = (windowIndex + 1) % windowSize;
+    count = Math.min(count + 1, windowSize);
+  }
+
+
+  /**
+   * This method adds the frame to an exponential average:
+   * average += (x - average) * 2^-exponentShift, in fixed-point.
+   */
+  protected void addExponential() {
+    if (count == 0) {
+      for (int i = 0; i < dataSize; i++) {
+        sums[i] = (long) frame[i] << FRACTION_BITS;
+      }
+      lastChange = Double.POSITIVE_INFINITY;
+      count = 1;
+      return;
+    }
+    long maxDifference = 0;
+    for (int i = 0; i < dataSize; i++) {
+      long difference = (((long) frame[i] << FRACTION_BITS) - sums[i]) >> exponentShift;
+      maxDifference = Math.max(maxDifference, Math.abs(difference));
+      sums[i] += difference;
+    }
+    lastChange = (double) maxDifference / (1 << FRACTION_BITS);
+    count++;
+  }
+
+
+  /**
+   * This method gets the divisor that turns sums into raw averages.
+   * @return divisor
+   */
+  protected double getDivisor() {
+    return mode == Mode.EXPONENTIAL ? (1 << FRACTION_BITS) : count;
+  }
+
+
+  /**
+   * This method computes the average so far.
+   * @param destination array to fill, or null or too short to allocate a new one
+   * @return destination, amplitudes
+   */
+  public double[] getAverage(double[] destination) {
+    if (destination == null || destination.length < dataSize) {
+      destination = new double[dataSize];
+    }
+    if (count == 0) {
+      return destination;
+    }
+    double scale = yMult / getDivisor(), shift = SampleDecoder.getShift(yMult, yOff, yZero);
+    for (int i = 0; i < dataSize; i++) {
+      destination[i] = sums[i] * scale + shift;
+    }
+    return destination;
+  }
+
+
+  /**
+   * This method stores the average so far in a JWaveForm, including minimum
+   * and maximum amplitude and the statistics. The data array of the JWaveForm 
+   * is only reused if its isReused flag is set.
+   * @param waveForm waveform to fill
+   * @return waveForm
+   */
+  public JWaveForm toJWaveForm(JWaveForm waveForm) {
+    waveForm.allocate(dataSize);
+    getAverage(waveForm.data);
+    waveForm.dataSize = dataSize;
+    waveForm.rate = xIncr;
+    waveForm.gain = Double.isNaN(gain) ? null : gain;
+    waveForm.triggerDelay = Double.isNaN(triggerDelay) ? null : triggerDelay;
+    if (count == 0 || dataSize == 0) {
+      return waveForm;
+    }
+    waveForm.statistics.compute(waveForm.data, dataSize);
+    waveForm.min = waveForm.statistics.min;
+    waveForm.max = waveForm.statistics.max;
+    return waveForm;
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class is one preallocated slot of a WaveformRing. It holds the 
+ * waveforms of one acquisition, indexed by channel - 1. The JWaveForm objects
+ * and their data arrays are reused for every frame stored in the slot.
+ * @author agent (agent@local)
+ */
+public class WaveformFrame {
+  /** waveforms indexed by channel - 1 */
+  public final JWaveForm[] waveForms;
+  /** sequence number of the frame in the slot, -1 if the slot is invalid */
+  protected long sequence = -1;
+  /** time the frame was published (System.currentTimeMillis) */
+  protected long timestamp;
+  /** held by the producer while it writes the slot */
+  protected final StampedLock lock = new StampedLock();
+  /** stamp of the write lock held by the producer */
+  protected long writeStamp;
+
+
+  /**
+   * constructor
+   * @param channelCount number of channels (length of waveForms)
+   */
+  public WaveformFrame(int channelCount) {
+    waveForms = new JWaveForm[channelCount];
+    for (int i = 0; i < channelCount; i++) {
+      waveForms[i] = new JWaveForm();
+      waveForms[i].isReused = true;
+    }
+  }
+
+
+  /**
+   * This method copies a waveform. The data array of the destination is 
+   * reused if it is large enough.
+   * @param source waveform to copy
+   * @param destination waveform to fill
+   */
+  public static void copy(JWaveForm source, JWaveForm destination) {
+    int size = source.dataSize == null ? 0 : source.dataSize;
+    if (source.data == null) {
+      destination.data = null;
+    }
+    else {
+      if (destination.data == null || destination.data.length != source.data.length) {
+        destination.data = new double[source.data.length];
+      }
+      System.arraycopy(source.data, 0, destination.data, 0, Math.min(size, source.data.length));
+    }
+    destination.dataSize = source.dataSize;
+    destination.rate = source.rate;
+    destination.gain = source.gain;
+    destination.triggerDelay = source.triggerDelay;
+    destination.min = source.min;
+    destination.max = source.max;
+    if (source.statistics == null) {
+      destination.statistics = null;
+    }
+    else {
+      if (destination.statistics == null) {
+        destination.statistics = new WaveformStatistics();
+      }
+      destination.statistics.copyFrom(source.statistics);
+    }
+  }
+
+
+  /**
+   * This method copies all waveforms of the frame.
+   * @param destination waveforms to fill, indexed by channel - 1; null
+   *                    elements and elements beyond the frame are skipped
+   */
+  void copyTo(JWaveForm[] destination) {
+    int count = Math.min(destination.length, waveForms.length);
+    for (int i = 0; i < count; i++) {
+      if (destination[i] != null) {
+        copy(waveForms[i], destination[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This interface receives the waveform of each channel of an acquisition as
+ * soon as it has been decoded, before the remaining channels are transferred.
+ * @author agent (agent@local)
+ */
+public interface WaveformListener {
+
+  /**
+   * This method is called on the decoding thread when the waveform of a 
+   * channel is ready. It should return quickly, since the next channel 
+   * waits for it.
+   * @param channel channel of the waveform (1 to 4)
+   * @param waveForm decoded waveform
+   */
+  void waveformReady(int channel, JWaveForm waveForm);
+}
@@ -0,0 +1,234 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the waveform preamble of a channel as returned by one
+ * "WFMPRE?" query: sample format, number of points, horizontal and vertical
+ * scale. The query is sent with "HEADER ON" so that every field comes with
+ * its name and the parser does not depend on the order of the fields, which
+ * differs between firmware versions. A response looks like
+ * :WFMPRE:BYT_NR 2;BIT_NR 16;ENCDG BINARY;BN_FMT RI;BYT_OR MSB;
+ * WFID "Ch1, DC coupling, ...";NR_PT 10000;PT_FMT Y;XUNIT "s";
+ * XINCR 4.0E-9;XZERO -2.0E-5;PT_OFF 0;YUNIT "V";YMULT 3.125E-5;YOFF 0.0E0;
+ * YZERO 0.0E0;:CH1:SCALE 2.0E-1;:HORIZONTAL:DELAY:TIME 0.0E0
+ * Objects of this class are immutable.
+ * @author agent (agent@local)
+ */
+public final class WaveformPreamble {
+  /** number of bytes per sample (BYT_NR) */
+  public final int byteCount;
+  /** number of bits per sample (BIT_NR) */
+  public final int bitCount;
+  /** encoding, ASCII or BINARY (ENCDG) */
+  public final String encoding;
+  /** binary format, RI (signed) or RP (unsigned) (BN_FMT) */
+  public final String binaryFormat;
+  /** byte order, MSB or LSB (BYT_OR) */
+  public final String byteOrder;
+  /** waveform description (WFID) */
+  public final String waveformId;
+  /** number of points in the curve transfer (NR_PT) */
+  public final int pointCount;
+  /** horizontal unit (XUNIT) */
+  public final String xUnit;
+  /** delta t (XINCR) */
+  public final double xIncr;
+  /** time of the first point (XZERO) */
+  public final double xZero;
+  /** trigger point in points (PT_OFF) */
+  public final int pointOffset;
+  /** vertical unit (YUNIT) */
+  public final String yUnit;
+  /** vertical scale factor (YMULT) */
+  public final double yMult;
+  /** vertical offset in digitizing levels (YOFF) */
+  public final double yOff;
+  /** vertical offset in units (YZERO) */
+  public final double yZero;
+  /** vertical scale of the channel (CHx:SCALE), NaN if not queried */
+  public final double gain;
+  /** horizontal delay time (HORIZONTAL:DELAY:TIME), NaN if not queried */
+  public final double delayTime;
+
+
+  /**
+   * constructor
+   * @param fields field values by field name (see parse)
+   * @throws NumberFormatException if a mandatory field is missing or not a number
+   */
+  protected WaveformPreamble(Map<String, String> fields) {
+    byteCount = Integer.parseInt(getField(fields, "BYT_NR"));
+    bitCount = Integer.parseInt(getField(fields, "BIT_NR"));
+    encoding = getField(fields, "ENCDG");
+    binaryFormat = getOptionalField(fields, "BN_FMT", "RI");
+    byteOrder = getOptionalField(fields, "BYT_OR", "MSB");
+    waveformId = getOptionalField(fields, "WFID", "");
+    pointCount = Integer.parseInt(getField(fields, "NR_PT"));
+    xUnit = getOptionalField(fields, "XUNIT", "s");
+    xIncr = Double.parseDouble(getField(fields, "XINCR"));
+    xZero = Double.parseDouble(getOptionalField(fields, "XZERO", "0"));
+    pointOffset = Integer.parseInt(getOptionalField(fields, "PT_OFF", "0"));
+    yUnit = getOptionalField(fields, "YUNIT", "V");
+    yMult = Double.parseDouble(getField(fields, "YMULT"));
+    yOff = Double.parseDouble(getField(fields, "YOFF"));
+    yZero = Double.parseDouble(getField(fields, "YZERO"));
+    gain = Double.parseDouble(getOptionalField(fields, "SCALE", "NaN"));
+    delayTime = Double.parseDouble(getOptionalField(fields, "TIME", "NaN"));
+  }
+
+
+  /**
+   * This method gets a mandatory field.
+   * @param fields field values by field name
+   * @param name field name
+   * @return field value
+   * @throws NumberFormatException if the field is missing
+   */
+  private static String getField(Map<String, String> fields, String name) {
+    String value = fields.get(name);
+    if (value == null) {
+      throw new NumberFormatException(String.format("Preamble field %s is missing.", name));
+    }
+    return value;
+  }
+
+
+  /**
+   * This method gets an optional field.
+   * @param fields field values by field name
+   * @param name field name
+   * @param defaultValue value if the field is missing
+   * @return field value
+   */
+  private static String getOptionalField(Map<String, String> fields, String name, 
+          String defaultValue) {
+    String value = fields.get(name);
+    return value == null ? defaultValue : value;
+  }
+
+
+  /**
+   * This method splits a response at semicolons that are not inside quotes.
+   * @param response response string
+   * @return fields
+   */
+  static List<String> split(String response) {
+    List<String> fields = new ArrayList<>();
+    boolean isQuoted = false;
+    int start = 0;
+    for (int i = 0; i < response.length(); i++) {
+      char c = response.charAt(i);
+      if (c == '"') {
+        isQuoted = !isQuoted;
+      }
+      else if (c == ';' && !isQuoted) {
+        fields.add(response.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    fields.add(response.substring(start).trim());
+    return fields;
+  }
+
+
+  /**
+   * This method parses the response to a "WFMPRE?" query sent with
+   * "HEADER ON" and "VERBOSE ON", optionally followed by the responses to 
+   * "CHx:SCALE?" and "HORIZONTAL:DELAY:TIME?".
+   * Field names are the last part of the header (":CH1:SCALE" is SCALE).
+   * @param response response string
+   * @return preamble
+   * @throws NumberFormatException if a mandatory field is missing or not a number
+   */
+  public static WaveformPreamble parse(String response) {
+    Map<String, String> fields = new HashMap<>();
+    for (String field : split(response)) {
+      int separator = field.indexOf(' ');
+      if (separator < 0) {
+        continue;
+      }
+      String header = field.substring(0, separator);
+      String name = header.substring(header.lastIndexOf(':') + 1).toUpperCase();
+      String value = field.substring(separator + 1).trim();
+      if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+        value = value.substring(1, value.length() - 1);
+      }
+      fields.put(name, value);
+    }
+    return new WaveformPreamble(fields);
+  }
+
+
+  /**
+   * This method checks the encoding.
+   * @return true if the curve is transferred as comma separated ASCII values
+   */
+  public boolean isAscii() {
+    return encoding.toUpperCase().startsWith("ASC");
+  }
+
+
+  /**
+   * This method checks the byte order.
+   * @return true if the most significant byte is transferred first
+   */
+  public boolean isBigEndian() {
+    return !byteOrder.toUpperCase().startsWith("LSB");
+  }
+
+
+  /**
+   * This method computes the absolute trigger point in time.
+   * DELAY:TIME is the time the trigger is off the center of the screen
+   * which is on the time scale half the total time of the acquisition trace.
+   * @return trigger delay, NaN if the delay time has not been queried
+   */
+  public double getTriggerDelay() {
+    return getTriggerDelay(pointCount, 0);
+  }
+
+
+  /**
+   * This method computes the time of a sample relative to the trigger, for
+   * example the first sample of a partial transfer.
+   * @param recordLength number of samples of the whole record
+   * @param index index of the sample in the record, starting at 0
+   * @return time in s, NaN if the delay time has not been queried
+   */
+  public double getTriggerDelay(int recordLength, int index) {
+    return delayTime - recordLength * xIncr / 2.0 + index * xIncr;
+  }
+
+
+  /**
+   * This method sets scale, gain and trigger delay of a waveform.
+   * @param waveForm waveform to set
+   */
+  public void applyTo(JCompactWaveForm waveForm) {
+    waveForm.setScale(yMult, yOff, yZero, xIncr);
+    waveForm.gain = gain;
+    waveForm.triggerDelay = getTriggerDelay();
+    waveForm.firstIndex = 0;
+  }
+}
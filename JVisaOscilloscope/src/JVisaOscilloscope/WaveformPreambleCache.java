@@ -0,0 +1,148 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class caches the waveform preamble of each channel. A preamble stays
+ * valid until a command is written that changes a setting it depends on:
+ * vertical settings (CHx:...), horizontal settings (HORIZONTAL:...), data
+ * encoding, width and range, or a reset / recall of the instrument. 
+ * Commands that write the value a setting already has, like the ones 
+ * startAcquisition sends before every acquisition, do not invalidate the 
+ * cache. Settings changed at the front panel are not seen; call invalidate
+ * after handing the instrument to a user.
+ * @author agent (agent@local)
+ */
+public class WaveformPreambleCache {
+  /** headers of settings the preamble depends on */
+  protected static final String[] AFFECTING_HEADERS = {
+    "CH", "HOR", "DATA:ENC", "DATA:WID", "DATA:STAR", "DATA:STOP", "WFMP"
+  };
+  /** headers of commands that change all settings */
+  protected static final String[] RESETTING_HEADERS = {
+    "*RST", "*RCL", "RECALL", "FACTORY", "AUTOSET", "DATA"
+  };
+  /** preamble by channel, null if not cached */
+  protected final WaveformPreamble[] preambles;
+  /** last argument written for each affecting setting, by full header */
+  protected final Map<String, String> settings = new HashMap<>();
+
+
+  /**
+   * constructor
+   * @param channelMax highest channel number
+   */
+  public WaveformPreambleCache(int channelMax) {
+    preambles = new WaveformPreamble[channelMax + 1];
+  }
+
+
+  /**
+   * This method gets the cached preamble of a channel.
+   * @param channel channel number
+   * @return preamble, null if it is not cached
+   */
+  public synchronized WaveformPreamble get(int channel) {
+    return preambles[channel];
+  }
+
+
+  /**
+   * This method caches the preamble of a channel.
+   * @param channel channel number
+   * @param preamble preamble
+   */
+  public synchronized void put(int channel, WaveformPreamble preamble) {
+    preambles[channel] = preamble;
+  }
+
+
+  /**
+   * This method discards all cached preambles.
+   */
+  public synchronized void invalidate() {
+    for (int i = 0; i < preambles.length; i++) {
+      preambles[i] = null;
+    }
+  }
+
+
+  /**
+   * This method checks whether a header starts with one of a list of headers.
+   * @param header full header in upper case
+   * @param headers headers to compare with
+   * @return true if there is a match
+   */
+  private static boolean startsWith(String header, String[] headers) {
+    for (String prefix : headers) {
+      if (header.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * This method is called for every command written to the instrument. 
+   * It splits compound commands ("DATA:START 1;STOP 500") into their parts,
+   * resolves relative headers and discards the cached preambles if a setting
+   * they depend on changes.
+   * @param command command written
+   * @return true if the cached preambles have been discarded
+   */
+  public synchronized boolean commandWritten(String command) {
+    boolean isInvalidated = false;
+    String path = "";
+    for (String part : WaveformPreamble.split(command)) {
+      if (part.isEmpty()) {
+        continue;
+      }
+      int separator = part.indexOf(' ');
+      String header = (separator < 0 ? part : part.substring(0, separator)).toUpperCase();
+      String argument = separator < 0 ? "" : part.substring(separator + 1).trim();
+      if (header.startsWith(":")) {
+        header = header.substring(1);
+      }
+      else if (!header.startsWith("*")) {
+        header = path + header;
+      }
+      path = header.substring(0, header.lastIndexOf(':') + 1);
+      if (header.endsWith("?")) {
+        continue;
+      }
+      if (startsWith(header, RESETTING_HEADERS) && header.indexOf(':') < 0) {
+        settings.clear();
+        isInvalidated = true;
+      }
+      else if (startsWith(header, AFFECTING_HEADERS)) {
+        String previous = settings.put(header, argument);
+        if (!argument.equals(previous)) {
+          isInvalidated = true;
+        }
+      }
+    }
+    if (isInvalidated) {
+      invalidate();
+    }
+    return isInvalidated;
+  }
+}
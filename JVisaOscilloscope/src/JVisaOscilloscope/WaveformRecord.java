@@ -0,0 +1,323 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * This class is one waveform stored in a WaveformArchive. It is a view into 
+ * the memory mapped segment file: the header fields are parsed when the 
+ * record is read, the samples stay in the mapping until they are converted.
+ * <p>
+ * Record layout, big endian:
+ * <pre>
+ * int    magic
+ * int    record length in bytes, including this header
+ * long   timestamp in ms since the epoch
+ * short  channel
+ * byte   sample width (1 or 2)
+ * byte   sample encoding
+ * int    number of samples
+ * double yMult, yOff, yZero, xIncr, trigger delay, gain
+ * int    payload length in bytes
+ * int    CRC32 of the record without this field
+ * short  instrument name length, followed by the UTF-8 bytes of the name
+ * ...    payload
+ * </pre>
+ * The checksum covers the header, the instrument name and the payload, so 
+ * a record whose file space was allocated but not written, as after a 
+ * power failure, is recognized when the archive is opened.
+ * @author agent (agent@local)
+ */
+public class WaveformRecord {
+  /** marks the start of each record */
+  public static final int MAGIC = 0x4A574652;
+  /** header length without the instrument name */
+  public static final int FIXED_HEADER_SIZE = 4 + 4 + 8 + 2 + 1 + 1 + 4 + 6 * 8 + 4 + 4 + 2;
+  /** offset of the payload length in the header */
+  static final int PAYLOAD_LENGTH_OFFSET = 72;
+  /** offset of the checksum in the header */
+  static final int CHECKSUM_OFFSET = 76;
+  /** offset of the instrument name length in the header */
+  static final int NAME_LENGTH_OFFSET = 80;
+  /** payload encoding: samples as they came from the instrument, big endian */
+  public static final byte ENCODING_RAW = 0;
+  /** payload encoding: samples compressed by SampleCodec */
+  public static final byte ENCODING_PACKED = 1;
+  /** reference of this record in its archive */
+  public final long reference;
+  /** record length in bytes, including the header */
+  public final int length;
+  /** time of capture in ms since the epoch */
+  public final long timestamp;
+  /** instrument name */
+  public final String instrument;
+  /** channel */
+  public final int channel;
+  /** sample width, 1 or 2 bytes */
+  public final int sampleWidth;
+  /** payload encoding */
+  public final int encoding;
+  /** number of samples */
+  public final int dataSize;
+  /** vertical scale factor (WFMPRE:YMULT) */
+  public final double yMult;
+  /** vertical offset in digitizing levels (WFMPRE:YOFF) */
+  public final double yOff;
+  /** vertical offset in units (WFMPRE:YZERO) */
+  public final double yZero;
+  /** delta t (WFMPRE:XINCR) */
+  public final double xIncr;
+  /** trigger delay, NaN if not set */
+  public final double triggerDelay;
+  /** gain, NaN if not set */
+  public final double gain;
+  /** payload, a read-only view into the mapping */
+  protected final ByteBuffer payload;
+
+
+  /**
+   * constructor, parses the header at the current position of a buffer
+   * @param reference reference of this record in its archive
+   * @param buffer buffer positioned at the record, its position is not changed
+   */
+  protected WaveformRecord(long reference, ByteBuffer buffer) {
+    int start = buffer.position();
+    this.reference = reference;
+    length = buffer.getInt(start + 4);
+    timestamp = buffer.getLong(start + 8);
+    channel = buffer.getShort(start + 16);
+    sampleWidth = buffer.get(start + 18);
+    encoding = buffer.get(start + 19);
+    dataSize = buffer.getInt(start + 20);
+    yMult = buffer.getDouble(start + 24);
+    yOff = buffer.getDouble(start + 32);
+    yZero = buffer.getDouble(start + 40);
+    xIncr = buffer.getDouble(start + 48);
+    triggerDelay = buffer.getDouble(start + 56);
+    gain = buffer.getDouble(start + 64);
+    int payloadLength = buffer.getInt(start + PAYLOAD_LENGTH_OFFSET);
+    int nameLength = buffer.getShort(start + NAME_LENGTH_OFFSET) & 0xFFFF;
+    byte[] name = new byte[nameLength];
+    ByteBuffer view = buffer.duplicate();
+    view.position(start + FIXED_HEADER_SIZE);
+    view.get(name);
+    instrument = new String(name, StandardCharsets.UTF_8);
+    view.limit(view.position() + payloadLength);
+    payload = view.slice().asReadOnlyBuffer();
+  }
+
+
+  /**
+   * This method gets the length of the record at the current position of a 
+   * buffer, checking that a complete record is there.
+   * @param buffer buffer positioned at the record, its position is not changed
+   * @param limit end of the valid data in buffer
+   * @return record length in bytes, 0 if there is no complete record
+   */
+  static int getRecordLength(ByteBuffer buffer, int limit) {
+    int start = buffer.position();
+    if (limit - start < FIXED_HEADER_SIZE || buffer.getInt(start) != MAGIC) {
+      return 0;
+    }
+    int length = buffer.getInt(start + 4);
+    if (length < FIXED_HEADER_SIZE || length > limit - start) {
+      return 0;
+    }
+    int nameLength = buffer.getShort(start + NAME_LENGTH_OFFSET) & 0xFFFF;
+    long payloadLength = buffer.getInt(start + PAYLOAD_LENGTH_OFFSET) & 0xFFFFFFFFL;
+    if (FIXED_HEADER_SIZE + nameLength + payloadLength != length) {
+      return 0;
+    }
+    return length;
+  }
+
+
+  /**
+   * This method adds a header to a checksum, skipping the checksum field.
+   * @param checksum checksum to update
+   * @param header header bytes, starting at index 0
+   * @param headerLength header length including the instrument name
+   */
+  static void updateChecksum(CRC32 checksum, byte[] header, int headerLength) {
+    checksum.update(header, 0, CHECKSUM_OFFSET);
+    checksum.update(header, CHECKSUM_OFFSET + 4, headerLength - CHECKSUM_OFFSET - 4);
+  }
+
+
+  /**
+   * This method writes a record header. The checksum field is left 0.
+   * @param buffer buffer receiving the header
+   * @param timestamp time of capture in ms since the epoch
+   * @param instrument UTF-8 bytes of the instrument name
+   * @param channel channel
+   * @param encoding payload encoding
+   * @param payloadLength payload length in bytes
+   * @param waveForm waveform supplying sample width, size and scale
+   */
+  static void putHeader(ByteBuffer buffer, long timestamp, byte[] instrument, int channel, 
+          int encoding, int payloadLength, JCompactWaveForm waveForm) {
+    buffer.putInt(MAGIC);
+    buffer.putInt(FIXED_HEADER_SIZE + instrument.length + payloadLength);
+    buffer.putLong(timestamp);
+    buffer.putShort((short) channel);
+    buffer.put((byte) waveForm.getSampleWidth());
+    buffer.put((byte) encoding);
+    buffer.putInt(waveForm.getDataSize());
+    buffer.putDouble(waveForm.yMult);
+    buffer.putDouble(waveForm.yOff);
+    buffer.putDouble(waveForm.yZero);
+    buffer.putDouble(waveForm.xIncr);
+    buffer.putDouble(waveForm.triggerDelay);
+    buffer.putDouble(waveForm.gain);
+    buffer.putInt(payloadLength);
+    buffer.putInt(0);
+    buffer.putShort((short) instrument.length);
+    buffer.put(instrument);
+  }
+
+
+  /**
+   * This method gets the payload without copying it. Packed samples can be
+   * expanded with SampleCodec.decode.
+   * @return read-only view into the mapping, positioned at the first byte
+   */
+  public ByteBuffer getPayload() {
+    return payload.duplicate();
+  }
+
+
+  /**
+   * This method gets the raw samples into a JCompactWaveForm and sets its 
+   * scale parameters. The sample array of the waveform is reused.
+   * @param waveForm waveform to fill, or null to allocate a new one
+   * @return waveForm
+   */
+  public JCompactWaveForm toCompactWaveForm(JCompactWaveForm waveForm) {
+    if (waveForm == null) {
+      waveForm = new JCompactWaveForm();
+    }
+    waveForm.allocate(dataSize, sampleWidth);
+    ByteBuffer source = getPayload();
+    if (encoding == ENCODING_PACKED) {
+      if (sampleWidth == 1) {
+        SampleCodec.decode(source, dataSize, waveForm.getByteSamples());
+      }
+      else {
+        SampleCodec.decode(source, dataSize, waveForm.getShortSamples());
+      }
+    }
+    else if (encoding != ENCODING_RAW) {
+      throw new IllegalStateException("Unknown sample encoding " + encoding + ".");
+    }
+    else if (sampleWidth == 1) {
+      source.get(waveForm.getByteSamples(), 0, dataSize);
+    }
+    else {
+      source.asShortBuffer().get(waveForm.getShortSamples(), 0, dataSize);
+    }
+    waveForm.setScale(yMult, yOff, yZero, xIncr);
+    waveForm.triggerDelay = triggerDelay;
+    waveForm.gain = gain;
+    waveForm.firstIndex = 0;
+    return waveForm;
+  }
+
+
+  /**
+   * This method scales the samples into a JWaveForm and computes their 
+   * statistics. Packed samples are expanded into a new JCompactWaveForm; 
+   * use the overload with a scratch waveform to read many packed records.
+   * @param waveForm waveform to fill
+   * @return waveForm
+   */
+  public JWaveForm toJWaveForm(JWaveForm waveForm) {
+    return toJWaveForm(waveForm, null);
+  }
+
+
+  /**
+   * This method scales the samples into a JWaveForm and computes their 
+   * statistics. Raw samples are scaled straight from the mapping, packed 
+   * samples are expanded into the scratch waveform first. The data array 
+   * and the statistics object of the JWaveForm are reused; the data array 
+   * is only replaced if it is too short, dataSize tells the valid length.
+   * @param waveForm waveform to fill
+   * @param scratch waveform receiving expanded packed samples, reused 
+   *                between calls, or null to allocate one when needed
+   * @return waveForm
+   */
+  public JWaveForm toJWaveForm(JWaveForm waveForm, JCompactWaveForm scratch) {
+    if (encoding == ENCODING_PACKED) {
+      waveForm.data = getData(waveForm);
+      toCompactWaveForm(scratch).toArray(waveForm.data, waveForm.statistics);
+      return setParameters(waveForm);
+    }
+    if (encoding != ENCODING_RAW) {
+      throw new IllegalStateException("Unknown sample encoding " + encoding + ".");
+    }
+    waveForm.data = getData(waveForm);
+    double shift = SampleDecoder.getShift(yMult, yOff, yZero);
+    if (sampleWidth == 1) {
+      SampleDecoder.decodeInt8(payload, dataSize, yMult, shift, waveForm.data, waveForm.statistics);
+    }
+    else {
+      SampleDecoder.decodeInt16(payload, dataSize, yMult, shift, waveForm.data, waveForm.statistics);
+    }
+    return setParameters(waveForm);
+  }
+
+
+  /**
+   * This method gets a data array of a JWaveForm that holds the samples 
+   * and makes sure the waveform has a statistics object.
+   * @param waveForm waveform to fill
+   * @return data array of waveForm if it is long enough, otherwise a new one
+   */
+  protected double[] getData(JWaveForm waveForm) {
+    if (waveForm.statistics == null) {
+      waveForm.statistics = new WaveformStatistics();
+    }
+    if (waveForm.data == null || waveForm.data.length < dataSize) {
+      return new double[dataSize];
+    }
+    return waveForm.data;
+  }
+
+
+  /**
+   * This method sets the parameters of a JWaveForm after its samples have 
+   * been scaled.
+   * @param waveForm waveform to fill
+   * @return waveForm
+   */
+  protected JWaveForm setParameters(JWaveForm waveForm) {
+    waveForm.dataSize = dataSize;
+    waveForm.rate = xIncr;
+    waveForm.gain = Double.isNaN(gain) ? null : gain;
+    waveForm.triggerDelay = Double.isNaN(triggerDelay) ? null : triggerDelay;
+    if (dataSize == 0) {
+      return waveForm;
+    }
+    waveForm.min = waveForm.statistics.min;
+    waveForm.max = waveForm.statistics.max;
+    return waveForm;
+  }
+}
@@ -0,0 +1,212 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is a bounded ring of preallocated waveform frames, written by
+ * one producer (StreamingAcquisition) and read by any number of consumers
+ * through their own cursors. Consumers never lock: they copy a frame under
+ * an optimistic read and discard the copy if the producer has overwritten 
+ * the frame in the meantime. What happens when the ring is full is set by
+ * the backpressure policy.
+ * @author agent (agent@local)
+ */
+public class WaveformRing {
+  /** time in ns to park while waiting for the producer or a consumer */
+  protected static final long PARK_TIME = TimeUnit.MICROSECONDS.toNanos(200);
+  /** slots */
+  protected final WaveformFrame[] frames;
+  /** slot that receives frames discarded by DROP_NEWEST */
+  protected final WaveformFrame scratchFrame;
+  /** backpressure policy */
+  protected final BackpressurePolicy policy;
+  /** consumer cursors */
+  protected final CopyOnWriteArrayList<WaveformRingCursor> cursors = new CopyOnWriteArrayList<>();
+  /** sequence number of the next frame, only used by the producer */
+  protected long nextSequence = 0;
+  /** sequence number of the last published frame, -1 if there is none */
+  protected volatile long publishedSequence = -1;
+  /** number of frames discarded by DROP_NEWEST */
+  protected volatile long droppedFrames = 0;
+
+
+  /**
+   * constructor
+   * @param capacity number of slots
+   * @param channelCount number of waveforms per frame; frames are indexed 
+   *                     by channel - 1, so this is the highest channel acquired
+   * @param policy backpressure policy
+   */
+  public WaveformRing(int capacity, int channelCount, BackpressurePolicy policy) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity has to be at least 1.");
+    }
+    frames = new WaveformFrame[capacity];
+    for (int i = 0; i < capacity; i++) {
+      frames[i] = new WaveformFrame(channelCount);
+    }
+    scratchFrame = new WaveformFrame(channelCount);
+    this.policy = policy;
+  }
+
+
+  /**
+   * This method gets the number of slots.
+   * @return capacity
+   */
+  public int getCapacity() {
+    return frames.length;
+  }
+
+
+  /**
+   * This method gets the backpressure policy.
+   * @return policy
+   */
+  public BackpressurePolicy getPolicy() {
+    return policy;
+  }
+
+
+  /**
+   * This method gets the sequence number of the last published frame.
+   * @return sequence number, -1 if no frame has been published
+   */
+  public long getPublishedSequence() {
+    return publishedSequence;
+  }
+
+
+  /**
+   * This method gets the number of frames the producer discarded because
+   * the ring was full (DROP_NEWEST). Frames a cursor skipped (DROP_OLDEST)
+   * are counted by the cursor.
+   * @return number of discarded frames
+   */
+  public long getDroppedFrames() {
+    return droppedFrames;
+  }
+
+
+  /**
+   * This method gets the slot of a sequence number.
+   * @param sequence sequence number
+   * @return slot
+   */
+  protected WaveformFrame getFrame(long sequence) {
+    return frames[(int) (sequence % frames.length)];
+  }
+
+
+  /**
+   * This method creates a consumer cursor that starts with the next frame
+   * published.
+   * @return cursor
+   */
+  public WaveformRingCursor newCursor() {
+    WaveformRingCursor cursor = new WaveformRingCursor(this, publishedSequence + 1);
+    cursors.add(cursor);
+    return cursor;
+  }
+
+
+  /**
+   * This method removes a consumer cursor. The producer no longer waits for it.
+   * @param cursor cursor to remove
+   */
+  public void removeCursor(WaveformRingCursor cursor) {
+    cursors.remove(cursor);
+  }
+
+
+  /**
+   * This method gets the sequence number the slowest consumer reads next.
+   * @return sequence number, the next sequence number if there is no consumer
+   */
+  protected long getSlowestCursor() {
+    long slowest = nextSequence;
+    for (WaveformRingCursor cursor : cursors) {
+      slowest = Math.min(slowest, cursor.next);
+    }
+    return slowest;
+  }
+
+
+  /**
+   * This method is called by the producer to get the slot for the next frame.
+   * With BLOCK it waits until the slowest consumer has read the frame in 
+   * that slot. With DROP_NEWEST it returns a scratch slot whose frame will
+   * be discarded if the ring is full.
+   * The producer has to hand the slot to publish or abort.
+   * @return slot to write, null if the producer thread has been interrupted
+   */
+  public WaveformFrame claim() {
+    long sequence = nextSequence;
+    if (policy != BackpressurePolicy.DROP_OLDEST) {
+      while (sequence - getSlowestCursor() >= frames.length) {
+        if (policy == BackpressurePolicy.DROP_NEWEST) {
+          return scratchFrame;
+        }
+        LockSupport.parkNanos(PARK_TIME);
+        if (Thread.currentThread().isInterrupted()) {
+          return null;
+        }
+      }
+    }
+    WaveformFrame frame = getFrame(sequence);
+    frame.writeStamp = frame.lock.writeLock();
+    frame.sequence = -1;
+    return frame;
+  }
+
+
+  /**
+   * This method is called by the producer when a claimed slot holds a 
+   * complete frame.
+   * @param frame slot returned by claim
+   * @return sequence number of the frame, -1 if it was discarded
+   */
+  public long publish(WaveformFrame frame) {
+    if (frame == scratchFrame) {
+      droppedFrames++;
+      return -1;
+    }
+    long sequence = nextSequence++;
+    frame.sequence = sequence;
+    frame.timestamp = System.currentTimeMillis();
+    frame.lock.unlockWrite(frame.writeStamp);
+    publishedSequence = sequence;
+    return sequence;
+  }
+
+
+  /**
+   * This method is called by the producer when a claimed slot could not be
+   * filled. The slot stays invalid until it is written again.
+   * @param frame slot returned by claim
+   */
+  public void abort(WaveformFrame frame) {
+    if (frame != scratchFrame) {
+      frame.lock.unlockWrite(frame.writeStamp);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is the read position of one consumer of a WaveformRing. 
+ * A cursor is used by one thread.
+ * @author agent (agent@local)
+ */
+public class WaveformRingCursor {
+  /** ring the cursor reads */
+  protected final WaveformRing ring;
+  /** sequence number of the next frame to read */
+  protected volatile long next;
+  /** number of frames overwritten before this cursor could read them */
+  protected volatile long droppedFrames = 0;
+  /** time the last frame read was published */
+  protected long timestamp;
+
+
+  /**
+   * constructor
+   * @param ring ring the cursor reads
+   * @param next sequence number of the first frame to read
+   */
+  WaveformRingCursor(WaveformRing ring, long next) {
+    this.ring = ring;
+    this.next = next;
+  }
+
+
+  /**
+   * This method gets the number of frames this cursor skipped because they
+   * had been overwritten (DROP_OLDEST).
+   * @return number of skipped frames
+   */
+  public long getDroppedFrames() {
+    return droppedFrames;
+  }
+
+
+  /**
+   * This method gets the time the last frame read was published.
+   * @return time in ms (System.currentTimeMillis)
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+
+  /**
+   * This method gets the number of published frames this cursor has not read.
+   * @return number of frames
+   */
+  public long getBacklog() {
+    return Math.max(0, ring.publishedSequence + 1 - next);
+  }
+
+
+  /**
+   * This method skips a number of frames.
+   * @param count number of frames
+   */
+  private void skip(long count) {
+    droppedFrames += count;
+    next += count;
+  }
+
+
+  /**
+   * This method copies the next frame if there is one.
+   * @param destination waveforms to fill, indexed by channel - 1
+   * @return sequence number of the frame, -1 if there is no new frame
+   */
+  public long poll(JWaveForm[] destination) {
+    while (true) {
+      long published = ring.publishedSequence;
+      long sequence = next;
+      if (sequence > published) {
+        return -1;
+      }
+      long oldest = published - ring.frames.length + 1;
+      if (sequence < oldest) {
+        skip(oldest - sequence);
+        continue;
+      }
+      WaveformFrame frame = ring.getFrame(sequence);
+      long stamp = frame.lock.tryOptimisticRead();
+      if (stamp == 0 || frame.sequence != sequence) {
+        // The producer is overwriting or has overwritten the frame.
+        skip(1);
+        continue;
+      }
+      long frameTime = frame.timestamp;
+      try {
+        frame.copyTo(destination);
+      }
+      catch (RuntimeException e) {
+        // The copy can fail if the producer resizes a data array meanwhile.
+        if (frame.lock.validate(stamp)) {
+          throw e;
+        }
+      }
+      if (!frame.lock.validate(stamp)) {
+        skip(1);
+        continue;
+      }
+      timestamp = frameTime;
+      next = sequence + 1;
+      return sequence;
+    }
+  }
+
+
+  /**
+   * This method waits for the next frame and copies it.
+   * @param destination waveforms to fill, indexed by channel - 1
+   * @param timeout stop waiting after this many milliseconds
+   * @return sequence number of the frame, -1 if there was no new frame 
+   *         within the timeout or the thread has been interrupted
+   */
+  public long take(JWaveForm[] destination, long timeout) {
+    long end = System.nanoTime() + timeout * 1000000L;
+    while (true) {
+      long sequence = poll(destination);
+      if (sequence >= 0 || System.nanoTime() - end >= 0 || Thread.currentThread().isInterrupted()) {
+        return sequence;
+      }
+      LockSupport.parkNanos(WaveformRing.PARK_TIME);
+    }
+  }
+
+
+  /**
+   * This method removes the cursor from its ring.
+   */
+  public void close() {
+    ring.removeCursor(this);
+  }
+}
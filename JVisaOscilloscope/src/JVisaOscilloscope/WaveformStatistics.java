@@ -0,0 +1,147 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class holds statistics of a waveform: mean, RMS, standard deviation,
+ * peak-to-peak, and minimum and maximum with their sample indices.
+ * During decoding they are accumulated from the raw samples as integer sums,
+ * in the same pass that converts the samples (see SampleDecoder), and then
+ * scaled to amplitudes. An object is meant to be reused for every waveform.
+ * @author agent (agent@local)
+ */
+public class WaveformStatistics {
+  /** number of samples */
+  public int count;
+  /** mean amplitude */
+  public double mean;
+  /** root mean square of the amplitudes */
+  public double rms;
+  /** standard deviation of the amplitudes (population) */
+  public double standardDeviation;
+  /** maximum minus minimum amplitude */
+  public double peakToPeak;
+  /** minimum amplitude */
+  public double min;
+  /** maximum amplitude */
+  public double max;
+  /** index of the first sample with the minimum amplitude */
+  public int minIndex;
+  /** index of the first sample with the maximum amplitude */
+  public int maxIndex;
+
+
+  /**
+   * This method sets the statistics from sums of raw samples.
+   * Amplitude a = raw * scale + shift, so mean(a) = mean(raw) * scale + shift
+   * and mean(a^2) = scale^2 mean(raw^2) + 2 scale shift mean(raw) + shift^2.
+   * @param count number of samples
+   * @param sum sum of raw samples
+   * @param sumOfSquares sum of squared raw samples
+   * @param rawMin minimum raw sample
+   * @param rawMinIndex index of the first minimum raw sample
+   * @param rawMax maximum raw sample
+   * @param rawMaxIndex index of the first maximum raw sample
+   * @param scale scale factor
+   * @param shift shift
+   */
+  public void setRaw(int count, long sum, long sumOfSquares, int rawMin, int rawMinIndex, 
+          int rawMax, int rawMaxIndex, double scale, double shift) {
+    this.count = count;
+    if (count == 0) {
+      mean = rms = standardDeviation = peakToPeak = min = max = Double.NaN;
+      minIndex = maxIndex = -1;
+      return;
+    }
+    double rawMean = (double) sum / count;
+    double rawMeanSquare = (double) sumOfSquares / count;
+    mean = rawMean * scale + shift;
+    double meanSquare = scale * scale * rawMeanSquare + 2 * scale * shift * rawMean + shift * shift;
+    rms = Math.sqrt(Math.max(0.0, meanSquare));
+    standardDeviation = Math.abs(scale) * Math.sqrt(Math.max(0.0, rawMeanSquare - rawMean * rawMean));
+    // A negative scale swaps minimum and maximum.
+    if (scale >= 0) {
+      min = rawMin * scale + shift;
+      max = rawMax * scale + shift;
+      minIndex = rawMinIndex;
+      maxIndex = rawMaxIndex;
+    }
+    else {
+      min = rawMax * scale + shift;
+      max = rawMin * scale + shift;
+      minIndex = rawMaxIndex;
+      maxIndex = rawMinIndex;
+    }
+    peakToPeak = max - min;
+  }
+
+
+  /**
+   * This method computes the statistics of amplitudes that are already 
+   * decoded, for example of an average.
+   * @param data amplitudes
+   * @param count number of amplitudes
+   */
+  public void compute(double[] data, int count) {
+    this.count = count;
+    if (count == 0) {
+      setRaw(0, 0, 0, 0, -1, 0, -1, 1.0, 0.0);
+      return;
+    }
+    // Shift by the first value for a numerically stable variance.
+    double reference = data[0], sum = 0, sumOfSquares = 0;
+    min = max = data[0];
+    minIndex = maxIndex = 0;
+    for (int i = 0; i < count; i++) {
+      double value = data[i], difference = value - reference;
+      sum += difference;
+      sumOfSquares += difference * difference;
+      if (value < min) {
+        min = value;
+        minIndex = i;
+      }
+      if (value > max) {
+        max = value;
+        maxIndex = i;
+      }
+    }
+    double meanDifference = sum / count, meanSquareDifference = sumOfSquares / count;
+    mean = reference + meanDifference;
+    double variance = Math.max(0.0, meanSquareDifference - meanDifference * meanDifference);
+    standardDeviation = Math.sqrt(variance);
+    rms = Math.sqrt(variance + mean * mean);
+    peakToPeak = max - min;
+  }
+
+
+  /**
+   * This method copies the statistics of another waveform.
+   * @param source statistics to copy
+   */
+  public void copyFrom(WaveformStatistics source) {
+    count = source.count;
+    mean = source.mean;
+    rms = source.rms;
+    standardDeviation = source.standardDeviation;
+    peakToPeak = source.peakToPeak;
+    min = source.min;
+    max = source.max;
+    minIndex = source.minIndex;
+    maxIndex = source.maxIndex;
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This class describes a region of interest of a waveform record, either as 
+ * a range of sample indices or as a time span relative to the trigger. A 
+ * time span is resolved to indices once the time base of the record is 
+ * known.
+ * @author agent (agent@local)
+ */
+public class WaveformWindow {
+  /** fraction of a sample within which a time is taken to be on a sample */
+  protected static final double INDEX_TOLERANCE = 1e-6;
+  /** index of the first sample, starting at 0; -1 for a time window */
+  public final int start;
+  /** number of samples; 0 for a time window */
+  public final int count;
+  /** start of a time window in s relative to the trigger */
+  public final double startTime;
+  /** end of a time window in s relative to the trigger */
+  public final double endTime;
+
+
+  /**
+   * constructor, creates an index window
+   * @param start index of the first sample, starting at 0
+   * @param count number of samples
+   */
+  public WaveformWindow(int start, int count) {
+    if (start < 0 || count < 1) {
+      throw new IllegalArgumentException("Invalid window: start " + start + ", count " + count + ".");
+    }
+    this.start = start;
+    this.count = count;
+    startTime = Double.NaN;
+    endTime = Double.NaN;
+  }
+
+
+  /**
+   * constructor, creates a time window
+   * @param startTime start in s relative to the trigger
+   * @param endTime end in s relative to the trigger
+   */
+  public WaveformWindow(double startTime, double endTime) {
+    if (!(endTime >= startTime)) {
+      throw new IllegalArgumentException("Invalid window: " + startTime + " s to " + endTime + " s.");
+    }
+    start = -1;
+    count = 0;
+    this.startTime = startTime;
+    this.endTime = endTime;
+  }
+
+
+  /**
+   * This method checks if this is a time window.
+   * @return true if the window is given by time, false if by index
+   */
+  public boolean isTimeWindow() {
+    return start < 0;
+  }
+
+
+  /**
+   * This method gets the index after the last sample of an index window.
+   * @return end index, exclusive
+   */
+  public int getEnd() {
+    return start + count;
+  }
+
+
+  /**
+   * This method resolves the window to the samples of a record and clips it 
+   * to the record. A time window covers all samples from the last one at or
+   * before its start to the first one at or after its end.
+   * @param recordStartTime time of the first sample of the record in s 
+   *                        relative to the trigger (the trigger delay)
+   * @param xIncr time between samples in s
+   * @param recordLength number of samples in the record
+   * @return index window, null if the window lies outside the record
+   */
+  public WaveformWindow resolve(double recordStartTime, double xIncr, int recordLength) {
+    long first, last;
+    if (isTimeWindow()) {
+      // Rounding errors must not add a sample at either end.
+      first = (long) Math.floor((startTime - recordStartTime) / xIncr + INDEX_TOLERANCE);
+      last = (long) Math.ceil((endTime - recordStartTime) / xIncr - INDEX_TOLERANCE);
+    }
+    else {
+      first = start;
+      last = getEnd() - 1L;
+    }
+    first = Math.max(first, 0);
+    last = Math.min(last, recordLength - 1L);
+    if (first > last) {
+      return null;
+    }
+    if (!isTimeWindow() && first == start && last == getEnd() - 1L) {
+      return this;
+    }
+    return new WaveformWindow((int) first, (int) (last - first + 1));
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+/**
+ * This enumeration describes window functions applied to a waveform before 
+ * its spectrum is computed. The windows are periodic (DFT-even), which is 
+ * the right form for spectral analysis.
+ * @author agent (agent@local)
+ */
+public enum WindowFunction {
+  /** no window, best frequency resolution, most leakage */
+  RECTANGULAR(new double[] {1.0}),
+  /** Hann window, the usual choice */
+  HANN(new double[] {0.5, 0.5}),
+  /** Hamming window, lower first side lobe than Hann */
+  HAMMING(new double[] {0.54, 0.46}),
+  /** Blackman window, low leakage */
+  BLACKMAN(new double[] {0.42, 0.5, 0.08}),
+  /** flat top window, accurate amplitudes of sinusoids */
+  FLAT_TOP(new double[] {0.21557895, 0.41663158, 0.277263158, 0.083578947, 0.006947368});
+
+  /** 
+   * cosine series coefficients: w(i) = a0 - a1 cos(2 pi i / n) 
+   * + a2 cos(4 pi i / n) - ... 
+   */
+  protected final double[] coefficients;
+
+
+  /**
+   * constructor
+   * @param coefficients cosine series coefficients
+   */
+  WindowFunction(double[] coefficients) {
+    this.coefficients = coefficients;
+  }
+
+
+  /**
+   * This method computes the window.
+   * @param window receives the window, starting at index 0
+   * @param count window length
+   */
+  public void fill(double[] window, int count) {
+    for (int i = 0; i < count; i++) {
+      double value = coefficients[0], sign = -1.0;
+      for (int j = 1; j < coefficients.length; j++) {
+        value += sign * coefficients[j] * Math.cos(2.0 * Math.PI * j * i / count);
+        sign = -sign;
+      }
+      window[i] = value;
+    }
+  }
+}
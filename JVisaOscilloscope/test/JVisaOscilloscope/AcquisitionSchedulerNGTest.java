@@ -0,0 +1,280 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import JVisaOscilloscope.OscilloscopeInterface.StatusCode;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import jvisa.JVisaDeadline;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the AcquisitionScheduler
+ * class. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class AcquisitionSchedulerNGTest {
+
+  /**
+   * This class simulates an instrument that waits armTime ms for its 
+   * trigger and transfers for transferTime ms.
+   */
+  static class FakeScope implements OscilloscopeInterface, PhasedAcquisition {
+    /** name, recorded when a transfer finishes */
+    final String name;
+    /** trigger wait in ms */
+    final long armTime;
+    /** transfer time in ms */
+    final long transferTime;
+    /** transfers running on all fake scopes */
+    static final AtomicInteger transfers = new AtomicInteger();
+    /** largest number of concurrent transfers */
+    static final AtomicInteger maxTransfers = new AtomicInteger();
+    /** arms running on all fake scopes */
+    static final AtomicInteger arms = new AtomicInteger();
+    /** largest number of concurrent arms */
+    static final AtomicInteger maxArms = new AtomicInteger();
+    /** names of finished transfers in order */
+    final List<String> finished;
+
+
+    /**
+     * constructor
+     * @param name name
+     * @param armTime trigger wait in ms
+     * @param transferTime transfer time in ms
+     * @param finished receives the name when a transfer finishes
+     */
+    FakeScope(String name, long armTime, long transferTime, List<String> finished) {
+      this.name = name;
+      this.armTime = armTime;
+      this.transferTime = transferTime;
+      this.finished = finished;
+    }
+
+
+    /**
+     * This method sleeps while counting concurrent calls.
+     * @param time sleep time in ms
+     * @param count running calls
+     * @param max largest number of running calls
+     */
+    static void busy(long time, AtomicInteger count, AtomicInteger max) {
+      int running = count.incrementAndGet();
+      synchronized (max) {
+        max.set(Math.max(max.get(), running));
+      }
+      try {
+        Thread.sleep(time);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      count.decrementAndGet();
+    }
+
+
+    @Override
+    public StatusCode arm(JWaveForm[] waveForms, int averageCount, int[] channels, 
+            JVisaDeadline deadline) {
+      busy(armTime, arms, maxArms);
+      return StatusCode.SUCCESS;
+    }
+
+
+    @Override
+    public StatusCode transfer(JWaveForm[] waveForms, int[] channels, JVisaDeadline deadline) {
+      busy(transferTime, transfers, maxTransfers);
+      finished.add(name);
+      return StatusCode.SUCCESS;
+    }
+
+
+    @Override
+    public StatusCode acquire(JWaveForm waveForms[], int averageCount, int channels[]) {
+      arm(waveForms, averageCount, channels, null);
+      return transfer(waveForms, channels, null);
+    }
+
+
+    @Override
+    public StatusCode acquire(JWaveForm waveForm, int averageCount, int channel) {
+      return acquire(new JWaveForm[] {waveForm}, averageCount, new int[] {channel});
+    }
+
+
+    @Override
+    public StatusCode acquire(JWaveForm waveform, int averageCount) {
+      return acquire(waveform, averageCount, 1);
+    }
+
+
+    @Override
+    public StatusCode acquire(JWaveForm waveform) {
+      return acquire(waveform, 1, 1);
+    }
+
+
+    @Override
+    public StatusCode getBusyStatus() {
+      return StatusCode.SUCCESS;
+    }
+
+
+    @Override
+    public StatusCode reset(int averageCount, int timeout) {
+      return StatusCode.SUCCESS;
+    }
+
+
+    @Override
+    public StatusCode reset() {
+      return StatusCode.SUCCESS;
+    }
+
+
+    @Override
+    public StatusCode validateAverageCount(int count) {
+      return StatusCode.SUCCESS;
+    }
+
+
+    @Override
+    public StatusCode waitForReady(long timeout) {
+      return StatusCode.SUCCESS;
+    }
+  }
+
+
+  /**
+   * Test of overlapping waits with transfers under a bus limit, of class 
+   * AcquisitionScheduler.
+   * @throws InterruptedException if the test was interrupted
+   */
+  @Test
+  public void testBusLimit() throws InterruptedException {
+    System.out.println("bus limit");
+    FakeScope.maxTransfers.set(0);
+    FakeScope.maxArms.set(0);
+    List<String> finished = new CopyOnWriteArrayList<>();
+    AcquisitionScheduler scheduler = new AcquisitionScheduler(4);
+    scheduler.setBusLimit("GPIB0", 1);
+    AcquisitionRequest requests[] = new AcquisitionRequest[4];
+    long start = System.nanoTime();
+    for (int i = 0; i < requests.length; i++) {
+      FakeScope scope = new FakeScope("scope " + i, 100, 20, finished);
+      scheduler.setBus(scope, "GPIB0");
+      requests[i] = scheduler.submit(scope, new JWaveForm[1], 1, new int[] {1}, 0, 5000);
+    }
+    for (AcquisitionRequest request : requests) {
+      assertEquals(request.await(), StatusCode.SUCCESS);
+    }
+    long elapsed = (System.nanoTime() - start) / 1000000;
+    scheduler.shutdown();
+    assertEquals(FakeScope.maxTransfers.get(), 1);
+    assertTrue(FakeScope.maxArms.get() > 1);
+    // Serially this takes 4 * 120 ms.
+    assertTrue(elapsed < 400, "elapsed " + elapsed);
+    assertEquals(finished.size(), 4);
+  }
+
+
+  /**
+   * Test of priority and deadline ordering, of class AcquisitionScheduler.
+   * @throws InterruptedException if the test was interrupted
+   */
+  @Test
+  public void testPriority() throws InterruptedException {
+    System.out.println("priority");
+    List<String> finished = new CopyOnWriteArrayList<>();
+    AcquisitionScheduler scheduler = new AcquisitionScheduler(1);
+    scheduler.agingTime = 60000;
+    AcquisitionRequest blocker = scheduler.submit(new FakeScope("blocker", 50, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 0, 5000);
+    Thread.sleep(10);
+    AcquisitionRequest low = scheduler.submit(new FakeScope("low", 0, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 0, 5000);
+    AcquisitionRequest late = scheduler.submit(new FakeScope("late", 0, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 1, 5000);
+    AcquisitionRequest urgent = scheduler.submit(new FakeScope("urgent", 0, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 1, 1000);
+    AcquisitionRequest expired = scheduler.submit(new FakeScope("expired", 0, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 2, 0);
+    assertEquals(blocker.await(), StatusCode.SUCCESS);
+    assertEquals(low.await(), StatusCode.SUCCESS);
+    assertEquals(late.await(), StatusCode.SUCCESS);
+    assertEquals(urgent.await(), StatusCode.SUCCESS);
+    assertEquals(expired.await(), StatusCode.BUSY);
+    scheduler.shutdown();
+    assertEquals(finished.toString(), "[blocker, urgent, late, low]");
+  }
+
+
+  /**
+   * Test of running a request first whose deadline is closer than the 
+   * expected duration of its instrument, of class AcquisitionScheduler.
+   * @throws InterruptedException if the test was interrupted
+   */
+  @Test
+  public void testUrgent() throws InterruptedException {
+    System.out.println("urgent");
+    List<String> finished = new CopyOnWriteArrayList<>();
+    AcquisitionScheduler scheduler = new AcquisitionScheduler(1);
+    scheduler.agingTime = 60000;
+    FakeScope slow = new FakeScope("slow", 100, 0, finished);
+    // The first acquisition teaches the scheduler how long slow takes.
+    assertEquals(scheduler.submit(slow, new JWaveForm[1], 1, new int[] {1}, 0, 5000).await(), 
+            StatusCode.SUCCESS);
+    AcquisitionRequest blocker = scheduler.submit(new FakeScope("blocker", 50, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 0, 5000);
+    Thread.sleep(10);
+    AcquisitionRequest high = scheduler.submit(new FakeScope("high", 0, 0, finished), 
+            new JWaveForm[1], 1, new int[] {1}, 5, 5000);
+    AcquisitionRequest urgent = scheduler.submit(slow, new JWaveForm[1], 1, new int[] {1}, 0, 130);
+    assertEquals(blocker.await(), StatusCode.SUCCESS);
+    assertEquals(urgent.await(), StatusCode.SUCCESS);
+    assertEquals(high.await(), StatusCode.SUCCESS);
+    scheduler.shutdown();
+    assertEquals(finished.toString(), "[slow, blocker, slow, high]");
+  }
+
+
+  /**
+   * Test of changing the limit of a bus, of class AcquisitionScheduler.
+   * @throws InterruptedException if the test was interrupted
+   */
+  @Test
+  public void testSetBusLimit() throws InterruptedException {
+    System.out.println("setBusLimit");
+    AcquisitionScheduler scheduler = new AcquisitionScheduler(1);
+    scheduler.setBusLimit("GPIB0", 2);
+    AcquisitionScheduler.BusPermits permits = scheduler.busPermits.get("GPIB0");
+    permits.acquire();
+    // The running transfer counts against the new limit.
+    scheduler.setBusLimit("GPIB0", 1);
+    assertSame(scheduler.busPermits.get("GPIB0"), permits);
+    assertEquals(permits.availablePermits(), 0);
+    permits.release();
+    assertEquals(permits.availablePermits(), 1);
+    scheduler.setBusLimit("GPIB0", 3);
+    assertEquals(permits.availablePermits(), 3);
+    scheduler.shutdown();
+  }
+}
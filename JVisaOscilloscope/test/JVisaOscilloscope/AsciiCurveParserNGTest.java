@@ -0,0 +1,68 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.charset.StandardCharsets;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the AsciiCurveParser class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class AsciiCurveParserNGTest {
+
+  /**
+   * Test of parse method, of class AsciiCurveParser.
+   */
+  @Test
+  public void testParse() {
+    System.out.println("parse");
+    byte[] response = ":CURVE 12,-7,0,+3,32767,-32768\n".getBytes(StandardCharsets.US_ASCII);
+    short[] samples = new short[10];
+    int count = AsciiCurveParser.parse(response, 0, response.length, samples);
+    assertEquals(count, 6);
+    assertEquals(samples[0], 12);
+    assertEquals(samples[1], -7);
+    assertEquals(samples[3], 3);
+    assertEquals(samples[4], Short.MAX_VALUE);
+    assertEquals(samples[5], Short.MIN_VALUE);
+    // The destination limits the number of values.
+    assertEquals(AsciiCurveParser.parse(response, 0, response.length, new short[2]), 2);
+  }
+
+
+  /**
+   * Test of parse method with invalid input, of class AsciiCurveParser.
+   */
+  @Test
+  public void testParseInvalid() {
+    System.out.println("parse invalid");
+    for (String invalid : new String[] {"1,2x,3", "1,,-,2", "40000", "1.5"}) {
+      byte[] response = invalid.getBytes(StandardCharsets.US_ASCII);
+      try {
+        AsciiCurveParser.parse(response, 0, response.length, new short[10]);
+        fail(invalid);
+      }
+      catch (NumberFormatException e) {
+        // expected
+      }
+    }
+  }
+}
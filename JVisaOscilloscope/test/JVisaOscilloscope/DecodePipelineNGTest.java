@@ -0,0 +1,120 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the DecodePipeline class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class DecodePipelineNGTest {
+
+  /**
+   * Test of submit and await methods, of class DecodePipeline.
+   */
+  @Test
+  public void testSubmit() {
+    System.out.println("submit");
+    DecodePipeline pipeline = new DecodePipeline();
+    final List<Integer> published = Collections.synchronizedList(new ArrayList<Integer>());
+    WaveformListener listener = new WaveformListener() {
+      @Override
+      public void waveformReady(int channel, JWaveForm waveForm) {
+        published.add(channel);
+      }
+    };
+    JWaveForm[] waveForms = new JWaveForm[4];
+    for (int channel = 1; channel <= 4; channel++) {
+      JCompactWaveForm raw = new JCompactWaveForm();
+      raw.setSamples(JCompactWaveFormNGTest.BLOCK, 3, 3, 2, true);
+      raw.setScale(channel, 0.0, 0.0, 1e-6);
+      waveForms[channel - 1] = new JWaveForm();
+      pipeline.submit(channel, raw, waveForms[channel - 1], listener);
+    }
+    assertEquals(pipeline.await(), OscilloscopeInterface.StatusCode.SUCCESS);
+    assertEquals(published, Arrays.asList(1, 2, 3, 4));
+    for (int channel = 1; channel <= 4; channel++) {
+      assertEquals(waveForms[channel - 1].data[2], 300.0 * channel, 1e-12);
+    }
+    pipeline.shutdown();
+  }
+
+
+  /**
+   * Test of await method after a failing listener, of class DecodePipeline.
+   */
+  @Test
+  public void testAwaitFailure() {
+    System.out.println("await");
+    DecodePipeline pipeline = new DecodePipeline();
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.setSamples(JCompactWaveFormNGTest.BLOCK, 3, 3, 2, true);
+    pipeline.submit(1, raw, new JWaveForm(), new WaveformListener() {
+      @Override
+      public void waveformReady(int channel, JWaveForm waveForm) {
+        throw new IllegalStateException("listener failed");
+      }
+    });
+    assertEquals(pipeline.await(), OscilloscopeInterface.StatusCode.EXCEPTION);
+    pipeline.shutdown();
+  }
+
+
+  /**
+   * Test of await method when the waiting thread is interrupted, of class 
+   * DecodePipeline. A running decode has to finish before await returns.
+   * @throws InterruptedException if the test is interrupted
+   */
+  @Test
+  public void testAwaitInterrupted() throws InterruptedException {
+    System.out.println("await interrupted");
+    DecodePipeline pipeline = new DecodePipeline();
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.setSamples(JCompactWaveFormNGTest.BLOCK, 3, 3, 2, true);
+    final CountDownLatch started = new CountDownLatch(1);
+    final AtomicBoolean isFinished = new AtomicBoolean();
+    pipeline.submit(1, raw, new JWaveForm(), new WaveformListener() {
+      @Override
+      public void waveformReady(int channel, JWaveForm waveForm) {
+        started.countDown();
+        try {
+          Thread.sleep(200);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        isFinished.set(true);
+      }
+    });
+    started.await();
+    Thread.currentThread().interrupt();
+    assertEquals(pipeline.await(), OscilloscopeInterface.StatusCode.EXCEPTION);
+    assertTrue(Thread.interrupted());
+    assertTrue(isFinished.get());
+    pipeline.shutdown();
+  }
+}
@@ -17,9 +17,18 @@
 package JVisaOscilloscope;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.swing.*;
 
 /**
+ * This panel displays a waveform. By default, the waveform is rasterized on
+ * a background thread into an image; painting, including expose events, 
+ * only copies the image. When new data arrives, only the pixel columns 
+ * that changed are repainted.
  * @author Günter Fuchs (gfuchs@acousticmicroscopy.com)
  */
 public class GraphPanel extends JPanel {
@@ -47,6 +56,60 @@ public class GraphPanel extends JPanel {
   protected double yMin;
   /** maximum amplitude */
   protected double yMax;
+  /** 
+   * If true, render on a background thread into a cached image. Otherwise
+   * draw the waveform on the event dispatch thread in paintComponent.
+   */
+  public boolean isBackgroundRendering = true;
+  /** draws on the event dispatch thread */
+  protected final WaveformRenderer renderer = new WaveformRenderer();
+  /** draws on the rendering thread */
+  protected final WaveformRenderer backgroundRenderer = new WaveformRenderer();
+  /** rendering thread */
+  protected static final ExecutorService RENDER_EXECUTOR = 
+          Executors.newSingleThreadExecutor(new ThreadFactory() {
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "GraphPanel renderer");
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+  /** image shown, only used on the event dispatch thread */
+  protected BufferedImage image;
+  /** image no longer shown, to be reused by the next rendering */
+  protected final AtomicReference<BufferedImage> spareImage = new AtomicReference<>();
+  /** latest rendering request not yet started */
+  protected final AtomicReference<RenderRequest> pendingRequest = new AtomicReference<>();
+  /** renders the latest request */
+  protected final Runnable renderTask = new Runnable() {
+    @Override
+    public void run() {
+      render();
+    }
+  };
+
+
+  /**
+   * This class holds what the rendering thread needs to know about the 
+   * waveform and the panel, copied on the event dispatch thread.
+   */
+  protected static class RenderRequest {
+    /** amplitudes */
+    double[] data;
+    /** number of amplitudes */
+    int dataSize;
+    /** first and last sample to draw */
+    int start, end;
+    /** minimum and maximum amplitude, NaN to find them */
+    double min, max;
+    /** size of the panel */
+    int width, height;
+    /** colors */
+    Color background, foreground;
+    /** true if the amplitudes have changed since the last rendering */
+    boolean isNewData;
+  }
 
 
   /**
@@ -107,7 +170,8 @@ public class GraphPanel extends JPanel {
     dataSize = graphData.dataSize;
     dataStartIndex = 0;
     dataEndIndex = dataSize - 1;
-    repaint();
+    data = graphData.data;
+    dataChanged();
     return status;
   }
 
@@ -137,17 +201,22 @@ public class GraphPanel extends JPanel {
     dataSize = data.length / lengthDivisor;
     dataStartIndex = 0;
     dataEndIndex = dataSize - 1;
-    setMinMax();
     
     // Initialize graphData.
     graphData = new JWaveForm();
     graphData.dataSize = dataSize;
     graphData.data = data;
-    graphData.max = yMax;
     
     // Arrange for background to be automatically drawn in the background color.
     setOpaque(true);
-    repaint();
+    dataChanged();
+    
+    // With background rendering, minimum and maximum come with the rendered 
+    // image, so the event dispatch thread does not scan the data.
+    if (!isBackgroundRendering) {
+      setMinMax();
+      graphData.max = yMax;
+    }
     return status;
   }
   
@@ -167,42 +236,162 @@ public class GraphPanel extends JPanel {
    * This method obtains the minimum and maximum amplitude.
    */
   public void setMinMax() {
-    yMin = yMax = data[dataStartIndex];
-    for (int i = dataStartIndex + 1; i <= dataEndIndex; i++) {
-      if (data[i] >= yMax) {
-        yMax = data[i];
+    double[] range = new double[2];
+    renderer.setData(data, dataSize);
+    if (renderer.getRange(dataStartIndex, dataEndIndex, range)) {
+      yMin = range[0];
+      yMax = range[1];
+    }
+  }
+
+
+  /**
+   * This method is called when new data has been set. With background 
+   * rendering, the old image stays on screen until the new one is ready.
+   */
+  protected void dataChanged() {
+    if (isBackgroundRendering) {
+      requestRender(true);
+    }
+    else {
+      renderer.rebuild(data, dataSize);
+      repaint();
+    }
+  }
+
+
+  /**
+   * This method queues a rendering of the current waveform at the current
+   * size of the panel. Only the latest request is rendered if several 
+   * arrive while the rendering thread is busy. Call on the event dispatch 
+   * thread or before the panel is shown.
+   * @param isNewData true if the amplitudes have changed
+   */
+  protected void requestRender(boolean isNewData) {
+    if (graphData == null || getWidth() <= 0 || getHeight() <= 0) {
+      return;
+    }
+    RenderRequest request = new RenderRequest();
+    request.data = graphData.data;
+    request.dataSize = dataSize;
+    request.start = dataStartIndex;
+    request.end = dataEndIndex;
+    boolean isZoomed = dataStartIndex > 0 && dataEndIndex < graphData.dataSize - 1;
+    request.min = isZoomed || graphData.min == null ? Double.NaN : graphData.min;
+    request.max = isZoomed || graphData.max == null ? Double.NaN : graphData.max;
+    request.width = getWidth();
+    request.height = getHeight();
+    request.background = getBackground();
+    request.foreground = waveFormColor;
+    request.isNewData = isNewData;
+    RenderRequest previous = pendingRequest.getAndSet(request);
+    if (previous != null && previous.isNewData) {
+      // The rendering thread has not seen the new data of the skipped request.
+      request.isNewData = true;
+    }
+    RENDER_EXECUTOR.execute(renderTask);
+  }
+
+
+  /**
+   * This method renders the latest request on the rendering thread and 
+   * hands the image to the event dispatch thread.
+   */
+  protected void render() {
+    RenderRequest request = pendingRequest.getAndSet(null);
+    if (request == null) {
+      return;
+    }
+    try {
+      // The pyramid has to be rebuilt for new data even if the array is the same.
+      if (request.isNewData) {
+        backgroundRenderer.rebuild(request.data, request.dataSize);
       }
-      else if (data[i] < yMin) {
-        yMin = data[i];
+      else {
+        backgroundRenderer.setData(request.data, request.dataSize);
       }
+      BufferedImage target = spareImage.getAndSet(null);
+      if (target == null || target.getWidth() != request.width 
+              || target.getHeight() != request.height) {
+        target = new BufferedImage(request.width, request.height, BufferedImage.TYPE_INT_RGB);
+      }
+      Graphics2D g = target.createGraphics();
+      try {
+        g.setColor(request.background);
+        g.fillRect(0, 0, request.width, request.height);
+        g.setColor(request.foreground);
+        backgroundRenderer.render(g, request.start, request.end, request.width, 
+                request.height, request.min, request.max);
+      }
+      finally {
+        g.dispose();
+      }
+      final BufferedImage rendered = target;
+      final double min = backgroundRenderer.yMin, max = backgroundRenderer.yMax;
+      final double scale = backgroundRenderer.yScale, increment = backgroundRenderer.xIncrement;
+      final int dirtyStart = backgroundRenderer.dirtyStart, dirtyEnd = backgroundRenderer.dirtyEnd;
+      SwingUtilities.invokeLater(new Runnable() {
+        @Override
+        public void run() {
+          showImage(rendered, min, max, scale, increment, dirtyStart, dirtyEnd);
+        }
+      });
+    }
+    catch (Exception exception) {
+      System.err.println(exception.toString());
+    }
+  }
+
+
+  /**
+   * This method shows a rendered image and repaints the columns that changed.
+   * @param rendered rendered image
+   * @param min minimum amplitude
+   * @param max maximum amplitude
+   * @param scale vertical scale factor
+   * @param increment horizontal pixels per sample
+   * @param dirtyStart first column changed
+   * @param dirtyEnd column after the last column changed
+   */
+  protected void showImage(BufferedImage rendered, double min, double max, double scale, 
+          double increment, int dirtyStart, int dirtyEnd) {
+    BufferedImage previous = image;
+    image = rendered;
+    if (previous != null) {
+      spareImage.set(previous);
+    }
+    yMin = min;
+    yMax = max;
+    yScale = scale;
+    xIncrement = increment;
+    if (previous == null || previous.getWidth() != rendered.getWidth() 
+            || previous.getHeight() != rendered.getHeight()) {
+      repaint();
+    }
+    else if (dirtyEnd > dirtyStart) {
+      repaint(dirtyStart, 0, dirtyEnd - dirtyStart, rendered.getHeight());
     }
   }
 
   
   /** 
-   * This method paints the wave form.
+   * This method paints the wave form on the event dispatch thread.
    */
   protected void paintWaveform() {
     try {
       if (bounds == null) {
         return;
       }
-
-      int i, j = 0;
-      int[] x = new int[dataSize];
-      int[] y = new int[dataSize];
-      xIncrement = (double) bounds.width / (double) dataSize;
       data = graphData.data;
-      if (dataStartIndex > 0 && dataEndIndex < graphData.dataSize - 1) {
-        setMinMax();
-      }
-      yScale =  (double) bounds.height / (Math.abs(yMax) + Math.abs(yMin));
-
-      for (i = dataStartIndex; i <= dataEndIndex; i++, j++) {
-        x[j] = (int) (xIncrement * (double) j + .5);
-        y[j] = (int) ((yMax - data[i]) * yScale);
-      }
-      g2d.drawPolyline(x, y, dataSize);
+      renderer.setData(data, dataSize);
+      boolean isZoomed = dataStartIndex > 0 && dataEndIndex < graphData.dataSize - 1;
+      g2d.setColor(waveFormColor);
+      renderer.render(g2d, dataStartIndex, dataEndIndex, bounds.width, bounds.height,
+              isZoomed ? Double.NaN : yMin, isZoomed ? Double.NaN : yMax);
+      yMin = renderer.yMin;
+      yMax = renderer.yMax;
+      yScale = renderer.yScale;
+      xIncrement = renderer.xIncrement;
     }
     catch (Exception exception) {
       System.err.println(exception.toString());
@@ -225,12 +414,27 @@ public class GraphPanel extends JPanel {
 
 
   /**
-   * This method paints the graphics component.
+   * This method paints the graphics component. With background rendering,
+   * it copies the cached image and requests a new one if the size of the 
+   * panel has changed.
    * @param g graphics object
    */
   @Override public void paintComponent(Graphics g)
   {
-    prepareGraphics(g);
-    paintWaveform();
+    if (!isBackgroundRendering) {
+      prepareGraphics(g);
+      paintWaveform();
+      return;
+    }
+    super.paintComponent(g);
+    if (graphData == null) {
+      return;
+    }
+    if (image != null) {
+      g.drawImage(image, 0, 0, null);
+    }
+    if (image == null || image.getWidth() != getWidth() || image.getHeight() != getHeight()) {
+      requestRender(false);
+    }
   }
-}
\ No newline at end of file
+}
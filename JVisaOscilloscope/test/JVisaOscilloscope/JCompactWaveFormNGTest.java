@@ -0,0 +1,146 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the JCompactWaveForm class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class JCompactWaveFormNGTest {
+  /** curve block with 2 byte big endian samples 1, -2, 300 */
+  static final byte[] BLOCK = {'#', '1', '6', 0x00, 0x01, (byte) 0xFF, (byte) 0xFE, 0x01, 0x2C};
+
+
+  /**
+   * Test of setSamples method for 2 byte samples, of class JCompactWaveForm.
+   */
+  @Test
+  public void testSetSamples() {
+    System.out.println("setSamples");
+    JCompactWaveForm waveForm = new JCompactWaveForm();
+    waveForm.setSamples(BLOCK, 3, 3, 2, true);
+    assertEquals(waveForm.getDataSize(), 3);
+    assertEquals(waveForm.getSampleWidth(), 2);
+    assertEquals(waveForm.getRawValue(0), 1);
+    assertEquals(waveForm.getRawValue(1), -2);
+    assertEquals(waveForm.getRawValue(2), 300);
+    waveForm.setScale(0.5, 2.0, 1.0, 1e-6);
+    JCompactWaveForm frame = new JCompactWaveForm();
+    frame.setSamples(waveForm, 1, 2);
+    assertEquals(frame.getDataSize(), 2);
+    assertEquals(frame.getRawValue(1), 300);
+    assertEquals(frame.getValue(0), waveForm.getValue(1), 0.0);
+  }
+
+
+  /**
+   * Test of toJWaveForm method, of class JCompactWaveForm.
+   */
+  @Test
+  public void testToJWaveForm() {
+    System.out.println("toJWaveForm");
+    JCompactWaveForm waveForm = new JCompactWaveForm();
+    waveForm.setSamples(BLOCK, 3, 3, 2, true);
+    waveForm.setScale(0.5, 2.0, 1.0, 1e-6);
+    JWaveForm result = waveForm.toJWaveForm(new JWaveForm());
+    assertEquals(result.dataSize.intValue(), 3);
+    assertEquals(result.data[0], (1 - 2.0) * 0.5 + 1.0, 1e-12);
+    assertEquals(result.data[2], (300 - 2.0) * 0.5 + 1.0, 1e-12);
+    assertEquals(result.min, (-2 - 2.0) * 0.5 + 1.0, 1e-12);
+    assertEquals(result.max, result.data[2], 1e-12);
+    assertEquals(result.rate, 1e-6, 1e-18);
+    assertNull(result.triggerDelay);
+    float[] floats = waveForm.toArray((float[]) null);
+    assertEquals(floats[1], (float) result.data[1], 1e-6f);
+  }
+
+
+  /**
+   * Test of toJWaveForm method with and without reuse of the data array, of 
+   * class JCompactWaveForm.
+   */
+  @Test
+  public void testToJWaveFormReuse() {
+    System.out.println("toJWaveFormReuse");
+    JCompactWaveForm waveForm = new JCompactWaveForm();
+    waveForm.setSamples(BLOCK, 3, 3, 2, true);
+    waveForm.setScale(0.5, 2.0, 1.0, 1e-6);
+    JWaveForm result = waveForm.toJWaveForm(new JWaveForm());
+    double[] data = result.data;
+    waveForm.toJWaveForm(result);
+    assertNotSame(result.data, data);
+    assertEquals(data[2], result.data[2], 1e-12);
+    result.isReused = true;
+    data = result.data;
+    WaveformStatistics statistics = result.statistics;
+    waveForm.toJWaveForm(result);
+    assertSame(result.data, data);
+    assertSame(result.statistics, statistics);
+  }
+
+
+  /**
+   * Test of write and read methods, of class JCompactWaveForm.
+   * @throws IOException if the waveform could not be exported
+   */
+  @Test
+  public void testWriteRead() throws IOException {
+    System.out.println("write, read");
+    JCompactWaveForm waveForm = new JCompactWaveForm();
+    waveForm.allocate(1000, 2);
+    for (int i = 0; i < 1000; i++) {
+      waveForm.getShortSamples()[i] = (short) ((int) (100 * Math.sin(i * 0.02)) << 8);
+    }
+    waveForm.setScale(0.5, 2.0, 1.0, 1e-6);
+    waveForm.gain = 2.0;
+    waveForm.firstIndex = 10;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    waveForm.write(new DataOutputStream(bytes));
+    assertTrue(bytes.size() < 1000);
+    JCompactWaveForm result = new JCompactWaveForm();
+    result.allocate(2000, 2);
+    short[] samples = result.getShortSamples();
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertSame(JCompactWaveForm.read(input, result), result);
+    assertEquals(input.available(), 0);
+    assertSame(result.getShortSamples(), samples);
+    assertEquals(result.getDataSize(), 1000);
+    assertTrue(Arrays.equals(Arrays.copyOf(samples, 1000), waveForm.getShortSamples()));
+    assertEquals(result.getValue(999), waveForm.getValue(999), 0.0);
+    assertEquals(result.gain, 2.0, 0.0);
+    assertTrue(Double.isNaN(result.triggerDelay));
+    assertEquals(result.firstIndex, 10);
+
+    waveForm.setSamples(BLOCK, 3, 3, 1, true);
+    bytes.reset();
+    waveForm.write(new DataOutputStream(bytes));
+    result = JCompactWaveForm.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), null);
+    assertEquals(result.getSampleWidth(), 1);
+    assertEquals(result.getRawValue(2), (int) BLOCK[5]);
+  }
+}
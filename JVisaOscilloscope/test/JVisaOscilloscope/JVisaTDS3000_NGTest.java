@@ -226,7 +226,7 @@ public class JVisaTDS3000_NGTest {
       instance.write("DATA:SOURCE REF1");
       instance.write("SELECT:REF1 ON");
       instance.write("DATA:START 1; STOP 10000");
-      instance.write(instance.CURVE_ENCODING);
+      instance.write(TransferEncoding.RIBINARY_2.getCommand());
       instance.write("CURVE?");
       JVisaReturnBytes buffer = new JVisaReturnBytes();
       long expResult = 0L;
@@ -242,6 +242,44 @@ public class JVisaTDS3000_NGTest {
   }
 
   
+  /**
+   * Test of sendAndWaitForCompletion method, of class JInstrument_TDS3000.
+   */
+  @Test(dependsOnMethods = {"testRead_JVisaReturnString"}, groups = {"test-group-instrument"})
+  public void testSendAndWaitForCompletion() {
+    System.out.println("sendAndWaitForCompletion");
+    JVisaReturnNumber elapsedTime = new JVisaReturnNumber(0L);
+    long expResult = JVisaStatus.VISA_JAVA_SUCCESS;
+    long result = instance.sendAndWaitForCompletion("HEADER OFF", instance.TIMEOUT, elapsedTime);
+    assertEquals(result, expResult);
+    assertTrue(elapsedTime.returnNumber.longValue() < instance.TIMEOUT);
+  }
+
+  
+  /**
+   * Test of readStatusByte and waitForMessageAvailable methods, of class 
+   * JInstrument_TDS3000.
+   */
+  @Test(dependsOnMethods = {"testRead_JVisaReturnString"}, groups = {"test-group-instrument"})
+  public void testReadStatusByte() {
+    System.out.println("readStatusByte");
+    JVisaReturnNumber statusByte = new JVisaReturnNumber(0);
+    long expResult = JVisaStatus.VISA_JAVA_SUCCESS;
+    try {
+      instance.write("*IDN?");
+      assertEquals(instance.waitForMessageAvailable(instance.TIMEOUT), expResult);
+      assertEquals(instance.readStatusByte(statusByte), expResult);
+      assertTrue((statusByte.returnNumber.intValue() & JVisaInstrument.STATUS_BYTE_MAV) != 0);
+      JVisaReturnString response = new JVisaReturnString();
+      assertEquals(instance.read(response), expResult);
+    } 
+    catch (JVisaException ex) {
+      LOGGER.log(Level.SEVERE, null, ex);
+      fail(ex.getMessage());
+    }
+  }
+
+  
   /**
    * Test of acquire method, of class JInstrument_TDS3000.
    * @param channelString string that contains the channels to test in the form
@@ -0,0 +1,128 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the LatencyHistogram, 
+ * LatencyStatistics and PhaseTimer classes. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class LatencyStatisticsNGTest {
+
+  /**
+   * Test of getBucket and getBucketLimit, of class LatencyHistogram.
+   */
+  @Test
+  public void testBuckets() {
+    System.out.println("buckets");
+    int previous = -1;
+    for (long micros = 0; micros < 100000; micros++) {
+      int bucket = LatencyHistogram.getBucket(micros);
+      assertTrue(bucket == previous || bucket == previous + 1);
+      assertTrue(micros <= LatencyHistogram.getBucketLimit(bucket));
+      // A bucket is at most a quarter of its lower limit wide.
+      assertTrue(LatencyHistogram.getBucketLimit(bucket) - micros <= micros / 4);
+      previous = bucket;
+    }
+    int last = LatencyHistogram.getBucket(Long.MAX_VALUE);
+    assertEquals(last, LatencyHistogram.BUCKET_COUNT - 1);
+    assertEquals(LatencyHistogram.getBucketLimit(last), Long.MAX_VALUE);
+  }
+
+
+  /**
+   * Test of record and getPercentile, of class LatencyHistogram.
+   */
+  @Test
+  public void testPercentile() {
+    System.out.println("percentile");
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(histogram.getPercentile(50), 0.0);
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000000L);
+    }
+    assertEquals(histogram.getCount(), 100);
+    assertEquals(histogram.getMean(), 50.5, 1e-9);
+    assertEquals(histogram.getMax(), 100.0);
+    assertEquals(histogram.getPercentile(100), 100.0);
+    double median = histogram.getPercentile(50);
+    assertTrue(median >= 50.0 && median <= 50.0 * 1.25, Double.toString(median));
+    LatencyHistogram sum = new LatencyHistogram();
+    sum.record(-5);
+    sum.add(histogram);
+    assertEquals(sum.getCount(), 101);
+    assertEquals(sum.getMax(), 100.0);
+    assertEquals(sum.getPercentile(0), 0.0);
+    sum.reset();
+    assertEquals(sum.getCount(), 0);
+    assertEquals(sum.getMax(), 0.0);
+  }
+
+
+  /**
+   * Test of record, of class PhaseTimer.
+   */
+  @Test
+  public void testPhaseTimer() {
+    System.out.println("PhaseTimer");
+    LatencyStatistics statistics = new LatencyStatistics(4);
+    PhaseTimer timer = new PhaseTimer();
+    timer.start();
+    timer.lap(AcquisitionPhase.CONFIGURE);
+    timer.add(AcquisitionPhase.TRANSFER, 3000000);
+    timer.add(AcquisitionPhase.TRANSFER, 2000000);
+    timer.record(statistics, 2);
+    assertEquals(statistics.getHistogram(AcquisitionPhase.TRANSFER, 2).getMean(), 5.0, 1e-9);
+    assertEquals(statistics.getHistogram(AcquisitionPhase.CONFIGURE, 2).getCount(), 1);
+    // Phases that were not timed are not recorded.
+    assertEquals(statistics.getHistogram(AcquisitionPhase.ARM, 2).getCount(), 0);
+    // record starts a new cycle.
+    assertEquals(timer.getElapsed(AcquisitionPhase.TRANSFER), 0);
+    timer.add(AcquisitionPhase.TRANSFER, 1000000);
+    timer.record(statistics, 4);
+    timer.add(AcquisitionPhase.TRANSFER, 1000000);
+    timer.record(statistics, LatencyStatistics.RESET_CHANNEL_COUNT);
+    LatencyHistogram transfer = statistics.getHistogram(AcquisitionPhase.TRANSFER);
+    assertEquals(transfer.getCount(), 2);
+    assertEquals(transfer.getMean(), 3.0, 1e-9);
+    assertTrue(statistics.toString().contains("reset TRANSFER"));
+    statistics.reset();
+    assertEquals(statistics.getHistogram(AcquisitionPhase.TRANSFER).getCount(), 0);
+  }
+
+
+  /**
+   * Test of takeDecodeTime, of class DecodePipeline.
+   */
+  @Test
+  public void testDecodeTime() {
+    System.out.println("takeDecodeTime");
+    DecodePipeline pipeline = new DecodePipeline();
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.allocate(100000, 2);
+    raw.dataSize = 100000;
+    pipeline.submit(1, raw, new JWaveForm(), null);
+    assertEquals(pipeline.await(), OscilloscopeInterface.StatusCode.SUCCESS);
+    assertTrue(pipeline.takeDecodeTime() > 0);
+    assertEquals(pipeline.takeDecodeTime(), 0);
+    pipeline.shutdown();
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.Random;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the MinMaxPyramid class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class MinMaxPyramidNGTest {
+
+  /**
+   * Test of getRange method against a linear search, of class MinMaxPyramid.
+   */
+  @Test
+  public void testGetRange() {
+    System.out.println("getRange");
+    Random random = new Random(7);
+    double[] data = new double[1001];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = random.nextGaussian();
+    }
+    MinMaxPyramid pyramid = new MinMaxPyramid(data, data.length);
+    double[] range = new double[2];
+    for (int test = 0; test < 500; test++) {
+      int start = random.nextInt(data.length), end = start + 1 + random.nextInt(data.length - start);
+      assertTrue(pyramid.getRange(start, end, range));
+      double min = data[start], max = data[start];
+      for (int i = start; i < end; i++) {
+        min = Math.min(min, data[i]);
+        max = Math.max(max, data[i]);
+      }
+      assertEquals(range[0], min);
+      assertEquals(range[1], max);
+    }
+    assertFalse(pyramid.getRange(5, 5, range));
+  }
+
+
+  /**
+   * Test of getEnvelope method, of class MinMaxPyramid. A single spike has
+   * to show up in its column.
+   */
+  @Test
+  public void testGetEnvelope() {
+    System.out.println("getEnvelope");
+    double[] data = new double[10000];
+    data[7777] = 5.0;
+    data[1234] = -3.0;
+    MinMaxPyramid pyramid = new MinMaxPyramid(data, data.length);
+    double[] mins = new double[100], maxs = new double[100];
+    assertEquals(pyramid.getEnvelope(0, data.length, 100, mins, maxs), 100);
+    assertEquals(maxs[77], 5.0);
+    assertEquals(mins[12], -3.0);
+    assertEquals(maxs[76], 0.0);
+    // Rebuilding with fewer samples reuses the arrays.
+    pyramid.build(data, 3);
+    assertEquals(pyramid.getEnvelope(0, 3, 6, mins, maxs), 6);
+    assertEquals(maxs[5], 0.0);
+  }
+}
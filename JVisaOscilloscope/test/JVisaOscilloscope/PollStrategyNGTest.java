@@ -0,0 +1,126 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the poll strategies and
+ * the AcquisitionDurationPredictor class. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class PollStrategyNGTest {
+
+  /**
+   * Test of getDelay, of class FixedIntervalPollStrategy.
+   */
+  @Test
+  public void testFixedInterval() {
+    System.out.println("FixedIntervalPollStrategy");
+    PollStrategy strategy = new FixedIntervalPollStrategy(20);
+    strategy.start(1000);
+    assertEquals(strategy.getDelay(0, 0), 0);
+    assertEquals(strategy.getDelay(1, 0), 20);
+    assertEquals(strategy.getDelay(50, 980), 20);
+    assertEquals(new FixedIntervalPollStrategy(-5).getDelay(3, 0), 0);
+  }
+
+
+  /**
+   * Test of getDelay, of class BackoffPollStrategy.
+   */
+  @Test
+  public void testBackoff() {
+    System.out.println("BackoffPollStrategy");
+    PollStrategy strategy = new BackoffPollStrategy(5, 2.0, 100);
+    strategy.start(0);
+    assertEquals(strategy.getDelay(0, 0), 0);
+    assertEquals(strategy.getDelay(1, 0), 5);
+    assertEquals(strategy.getDelay(2, 5), 10);
+    assertEquals(strategy.getDelay(4, 35), 40);
+    assertEquals(strategy.getDelay(5, 75), 80);
+    assertEquals(strategy.getDelay(6, 155), 100);
+    // No overflow for a long wait.
+    assertEquals(strategy.getDelay(10000, 1000000), 100);
+    // Factors below 1 and a maximum below the initial interval are clamped.
+    PollStrategy clamped = new BackoffPollStrategy(10, 0.5, 1);
+    assertEquals(clamped.getDelay(1, 0), 10);
+    assertEquals(clamped.getDelay(5, 0), 10);
+  }
+
+
+  /**
+   * Test of getDelay, of class ExpectedDurationPollStrategy.
+   */
+  @Test
+  public void testExpectedDuration() {
+    System.out.println("ExpectedDurationPollStrategy");
+    PollStrategy strategy = new ExpectedDurationPollStrategy(0.9, 10);
+    strategy.start(1000);
+    assertEquals(strategy.getDelay(0, 0), 900);
+    // Time already spent, for example sending the command, is subtracted.
+    assertEquals(strategy.getDelay(0, 100), 800);
+    assertEquals(strategy.getDelay(0, 2000), 0);
+    assertEquals(strategy.getDelay(1, 900), 10);
+    // Unknown duration: poll right away.
+    strategy.start(0);
+    assertEquals(strategy.getDelay(0, 0), 0);
+    assertEquals(strategy.getDelay(1, 0), 10);
+    strategy.start(-50);
+    assertEquals(strategy.getDelay(0, 0), 0);
+    // The fraction is clamped to 0 to 1.
+    PollStrategy clamped = new ExpectedDurationPollStrategy(1.5, 10);
+    clamped.start(1000);
+    assertEquals(clamped.getDelay(0, 0), 1000);
+  }
+
+
+  /**
+   * Test of record and predict, of class AcquisitionDurationPredictor.
+   */
+  @Test
+  public void testDurationPredictor() {
+    System.out.println("AcquisitionDurationPredictor");
+    AcquisitionDurationPredictor predictor = new AcquisitionDurationPredictor(0.5);
+    assertEquals(predictor.predict(64, 2), 0);
+    predictor.record(64, 2, 1000);
+    assertEquals(predictor.predict(64, 2), 1000);
+    predictor.record(64, 2, 2000);
+    assertEquals(predictor.predict(64, 2), 1500);
+    predictor.record(64, 2, 500);
+    assertEquals(predictor.predict(64, 2), 1000);
+    // Average count and channel count are separate keys.
+    assertEquals(predictor.predict(64, 1), 0);
+    assertEquals(predictor.predict(2, 64), 0);
+    predictor.record(2, 64, 30);
+    assertEquals(predictor.predict(2, 64), 30);
+    assertEquals(predictor.predict(64, 2), 1000);
+    predictor.clear();
+    assertEquals(predictor.predict(64, 2), 0);
+    // Weight 0 keeps the first measurement, weight 1 the last.
+    AcquisitionDurationPredictor first = new AcquisitionDurationPredictor(0.0);
+    AcquisitionDurationPredictor last = new AcquisitionDurationPredictor(1.0);
+    for (long duration : new long[] {100, 300, 700}) {
+      first.record(1, 1, duration);
+      last.record(1, 1, duration);
+    }
+    assertEquals(first.predict(1, 1), 100);
+    assertEquals(last.predict(1, 1), 700);
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.Random;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the RealFft class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class RealFftNGTest {
+
+  /**
+   * Test of transform method against a direct DFT, of class RealFft.
+   */
+  @Test
+  public void testTransform() {
+    System.out.println("transform");
+    Random random = new Random(1);
+    for (int size = 4; size <= 256; size <<= 1) {
+      double[] input = new double[size];
+      for (int i = 0; i < size; i++) {
+        input[i] = random.nextGaussian();
+      }
+      double[] real = new double[size / 2 + 1], imaginary = new double[size / 2 + 1];
+      RealFft.getInstance(size).transform(input, real, imaginary);
+      for (int k = 0; k <= size / 2; k++) {
+        double expectedReal = 0.0, expectedImaginary = 0.0;
+        for (int j = 0; j < size; j++) {
+          expectedReal += input[j] * Math.cos(2.0 * Math.PI * j * k / size);
+          expectedImaginary -= input[j] * Math.sin(2.0 * Math.PI * j * k / size);
+        }
+        assertEquals(real[k], expectedReal, 1e-9, "size " + size + ", bin " + k);
+        assertEquals(imaginary[k], expectedImaginary, 1e-9, "size " + size + ", bin " + k);
+      }
+    }
+  }
+
+
+  /**
+   * Test of getInstance and getSize methods, of class RealFft.
+   */
+  @Test
+  public void testGetInstance() {
+    System.out.println("getInstance");
+    assertSame(RealFft.getInstance(1024), RealFft.getInstance(1024));
+    assertEquals(RealFft.getSize(10000), 16384);
+    assertEquals(RealFft.getSize(512), 512);
+    assertEquals(RealFft.getSize(1), 4);
+  }
+}
@@ -0,0 +1,218 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import JVisaOscilloscope.OscilloscopeInterface.StatusCode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the ReplayOscilloscope
+ * class. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class ReplayOscilloscopeNGTest {
+  /** archive directory */
+  File directory;
+  /** archive holding 3 acquisitions of channels 1 and 2, 100 ms apart */
+  WaveformArchive archive;
+
+
+  /**
+   * This method records the waveforms replayed by the tests.
+   * @throws IOException if the archive could not be written
+   */
+  @BeforeClass
+  public void setUpClass() throws IOException {
+    directory = Files.createTempDirectory("replay").toFile();
+    archive = new WaveformArchive(directory);
+    for (int i = 0; i < 3; i++) {
+      for (int channel = 1; channel <= 2; channel++) {
+        archive.append("scope", channel, 1000 + 100 * i, 
+                WaveformArchiveNGTest.createWaveForm(50, 10 * channel + i));
+      }
+    }
+    archive.append("other scope", 1, 1000, WaveformArchiveNGTest.createWaveForm(50, 99));
+  }
+
+
+  /**
+   * This method removes the archive.
+   * @throws IOException if the archive could not be closed
+   */
+  @AfterClass
+  public void tearDownClass() throws IOException {
+    archive.close();
+    WaveformArchiveNGTest.delete(directory);
+  }
+
+
+  /**
+   * Test of acquire in as-fast-as-possible mode, of class ReplayOscilloscope.
+   * @throws IOException if the archive could not be read
+   */
+  @Test
+  public void testAcquire() throws IOException {
+    System.out.println("acquire");
+    ReplayOscilloscope scope = new ReplayOscilloscope(archive, "scope");
+    assertEquals(scope.getRecordCount(1), 3);
+    JWaveForm waveForms[] = {new JWaveForm(), new JWaveForm()};
+    int channels[] = {1, 2};
+    for (int i = 0; i < 4; i++) {
+      assertEquals(scope.acquire(waveForms, 1, channels), StatusCode.SUCCESS);
+      assertEquals(waveForms[0].data[0], (10 + i % 3 - 2.0) * 0.5 + 1.0, 0.0);
+      assertEquals(waveForms[1].data[0], (20 + i % 3 - 2.0) * 0.5 + 1.0, 0.0);
+      assertEquals(waveForms[1].triggerDelay, 1e-3, 0.0);
+    }
+    assertEquals(scope.acquire(waveForms[0], 3), StatusCode.PARAMETER_INVALID);
+    assertEquals(scope.reset(), StatusCode.SUCCESS);
+    scope.isLooping = false;
+    JCompactWaveForm compact[] = new JCompactWaveForm[2];
+    for (int i = 0; i < 3; i++) {
+      assertEquals(scope.acquire(compact, 1, new int[] {2}), StatusCode.SUCCESS);
+      assertEquals(compact[1].getRawValue(0), 20 + i);
+    }
+    assertEquals(scope.acquire(waveForms[1], 1, 2), StatusCode.WAVEFORM_ERROR);
+    assertEquals(scope.acquire(waveForms[0], 1, 3), StatusCode.WAVEFORM_ERROR);
+  }
+
+
+  /**
+   * Test of real time pacing, of class ReplayOscilloscope.
+   * @throws IOException if the archive could not be read
+   */
+  @Test
+  public void testRealTime() throws IOException {
+    System.out.println("real time");
+    ReplayOscilloscope scope = new ReplayOscilloscope(archive, "scope");
+    scope.isRealTime = true;
+    scope.speed = 4.0;
+    JWaveForm waveForm = new JWaveForm();
+    long start = System.nanoTime();
+    for (int i = 0; i < 3; i++) {
+      assertEquals(scope.acquire(waveForm), StatusCode.SUCCESS);
+    }
+    long elapsed = (System.nanoTime() - start) / 1000000;
+    // 200 ms recorded at 4 times the speed
+    assertTrue(elapsed >= 45, "elapsed " + elapsed);
+  }
+
+
+  /**
+   * Test of acquireSegmented, of class ReplayOscilloscope.
+   * @throws IOException if the archive could not be read
+   */
+  @Test
+  public void testAcquireSegmented() throws IOException {
+    System.out.println("acquireSegmented");
+    ReplayOscilloscope scope = new ReplayOscilloscope(archive, "scope");
+    JWaveForm frames[][] = new JWaveForm[7][2];
+    for (JWaveForm frame[] : frames) {
+      frame[0] = new JWaveForm();
+      frame[1] = new JWaveForm();
+    }
+    double timestamps[] = new double[7];
+    assertEquals(scope.acquireSegmented(frames, timestamps, new int[] {1, 2}), StatusCode.SUCCESS);
+    assertEquals(timestamps[0], 0.0, 0.0);
+    assertEquals(timestamps[2], 0.2, 1e-12);
+    // The fourth frame is the first one again, one recording later, and 
+    // the seventh two recordings later.
+    assertEquals(timestamps[3], 0.201, 1e-12);
+    assertEquals(timestamps[5], 0.401, 1e-12);
+    assertEquals(timestamps[6], 0.402, 1e-12);
+    assertEquals(frames[1][1].data[0], (21 - 2.0) * 0.5 + 1.0, 0.0);
+    assertEquals(frames[3][0].data[0], frames[0][0].data[0], 0.0);
+    assertEquals(frames[6][1].data[0], frames[0][1].data[0], 0.0);
+  }
+
+
+  /**
+   * Test of grouping waveforms into captures, of class ReplayOscilloscope.
+   * @throws IOException if the archive could not be written
+   */
+  @Test
+  public void testCaptures() throws IOException {
+    System.out.println("captures");
+    File captureDirectory = Files.createTempDirectory("replay").toFile();
+    try (WaveformArchive captureArchive = new WaveformArchive(captureDirectory)) {
+      // channel 2 is missing from the second capture, the third one was 
+      // appended first
+      captureArchive.append("scope", 1, 1200, WaveformArchiveNGTest.createWaveForm(10, 12));
+      captureArchive.append("scope", 2, 1200, WaveformArchiveNGTest.createWaveForm(10, 22));
+      captureArchive.append("scope", 1, 1000, WaveformArchiveNGTest.createWaveForm(10, 10));
+      captureArchive.append("scope", 2, 1000, WaveformArchiveNGTest.createWaveForm(10, 20));
+      captureArchive.append("scope", 1, 1100, WaveformArchiveNGTest.createWaveForm(10, 11));
+      ReplayOscilloscope scope = new ReplayOscilloscope(captureArchive, "scope");
+      scope.isLooping = false;
+      assertEquals(scope.getRecordCount(2), 2);
+      JCompactWaveForm waveForms[] = new JCompactWaveForm[3];
+      // A missing channel does not advance the replay.
+      assertEquals(scope.acquire(waveForms, 1, new int[] {1, 3}), StatusCode.WAVEFORM_ERROR);
+      assertEquals(scope.acquire(waveForms, 1, new int[] {1, 2}), StatusCode.SUCCESS);
+      assertEquals(waveForms[0].getRawValue(0), 10);
+      assertEquals(waveForms[1].getRawValue(0), 20);
+      assertEquals(scope.acquire(waveForms, 1, new int[] {2, 1}), StatusCode.SUCCESS);
+      assertEquals(waveForms[0].getRawValue(0), 12);
+      assertEquals(waveForms[1].getRawValue(0), 22);
+      assertEquals(scope.acquire(waveForms, 1, new int[] {1}), StatusCode.WAVEFORM_ERROR);
+      scope.reset();
+      assertEquals(scope.acquire(waveForms, 1, new int[] {1}), StatusCode.SUCCESS);
+      assertEquals(scope.acquire(waveForms, 1, new int[] {1}), StatusCode.SUCCESS);
+      assertEquals(waveForms[0].getRawValue(0), 11);
+    }
+    finally {
+      WaveformArchiveNGTest.delete(captureDirectory);
+    }
+  }
+
+
+  /**
+   * Test of waiting for a paced acquisition outside the lock, of class 
+   * ReplayOscilloscope.
+   * @throws IOException if the archive could not be read
+   * @throws InterruptedException if the test was interrupted
+   */
+  @Test
+  public void testPaceUnlocked() throws IOException, InterruptedException {
+    System.out.println("pace unlocked");
+    final ReplayOscilloscope scope = new ReplayOscilloscope(archive, "scope");
+    scope.isRealTime = true;
+    scope.speed = 0.5;
+    final JWaveForm waveForm = new JWaveForm();
+    assertEquals(scope.acquire(waveForm), StatusCode.SUCCESS);
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        // due 200 ms after the first acquisition
+        scope.acquire(waveForm);
+      }
+    };
+    thread.start();
+    Thread.sleep(50);
+    long start = System.nanoTime();
+    assertEquals(scope.reset(), StatusCode.SUCCESS);
+    long elapsed = (System.nanoTime() - start) / 1000000;
+    thread.join();
+    assertTrue(elapsed < 100, "elapsed " + elapsed);
+  }
+}
@@ -0,0 +1,152 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the SampleCodec class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class SampleCodecNGTest {
+
+  /**
+   * Test of encode and decode for 2 byte samples, of class SampleCodec.
+   */
+  @Test
+  public void testInt16() {
+    System.out.println("encode, decode int16");
+    Random random = new Random(1);
+    int count = 1000;
+    short[] samples = new short[count];
+    for (int i = 0; i < count; i++) {
+      // slow sine plus a little noise, the typical scope trace
+      samples[i] = (short) (1000 * Math.sin(i * 0.01) + random.nextInt(16) - 8);
+    }
+    samples[500] = Short.MIN_VALUE;
+    samples[501] = Short.MAX_VALUE;
+    ByteBuffer buffer = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(count, 2));
+    int length = SampleCodec.encode(samples, 0, count, buffer);
+    assertEquals(buffer.position(), length);
+    assertTrue(length < count);
+    buffer.flip();
+    short[] result = new short[count];
+    SampleCodec.decode(buffer, count, result);
+    assertTrue(Arrays.equals(result, samples));
+    assertEquals(buffer.remaining(), 0);
+  }
+
+
+  /**
+   * Test of encode and decode for 1 byte samples and worst case length, of 
+   * class SampleCodec.
+   */
+  @Test
+  public void testInt8() {
+    System.out.println("encode, decode int8");
+    int count = 300;
+    byte[] samples = new byte[count];
+    for (int i = 0; i < count; i++) {
+      samples[i] = i % 2 == 0 ? Byte.MIN_VALUE : Byte.MAX_VALUE;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(count, 1));
+    SampleCodec.encode(samples, 0, count, buffer);
+    buffer.flip();
+    byte[] result = new byte[count];
+    SampleCodec.decode(buffer, count, result);
+    assertTrue(Arrays.equals(result, samples));
+
+    byte[] flat = new byte[count];
+    buffer.clear();
+    assertEquals(SampleCodec.encode(flat, 0, count, buffer), 3);
+  }
+
+
+  /**
+   * Test of encode and decode for 8 bit data in 2 byte samples and worst 
+   * case length, of class SampleCodec.
+   */
+  @Test
+  public void testInt16Shifted() {
+    System.out.println("encode, decode int16 shifted");
+    Random random = new Random(2);
+    int count = 1000;
+    short[] samples = new short[count];
+    byte[] bytes = new byte[count];
+    for (int i = 0; i < count; i++) {
+      bytes[i] = (byte) (100 * Math.sin(i * 0.01) + random.nextInt(8) - 4);
+      samples[i] = (short) (bytes[i] << 8);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(count, 2));
+    int length = SampleCodec.encode(samples, 0, count, buffer);
+    ByteBuffer byteBuffer = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(count, 1));
+    int byteLength = SampleCodec.encode(bytes, 0, count, byteBuffer);
+    // Only the shift byte of each block is added to the 1 byte encoding.
+    assertEquals(length, byteLength + (count + SampleCodec.BLOCK_SIZE - 1) / SampleCodec.BLOCK_SIZE);
+    buffer.flip();
+    short[] result = new short[count];
+    SampleCodec.decode(buffer, count, result);
+    assertTrue(Arrays.equals(result, samples));
+
+    for (int i = 0; i < count; i++) {
+      samples[i] = i % 2 == 0 ? Short.MIN_VALUE : Short.MAX_VALUE;
+    }
+    buffer.clear();
+    assertEquals(SampleCodec.encode(samples, 0, count, buffer), SampleCodec.getMaxEncodedLength(count, 2) 
+            - (count + SampleCodec.BLOCK_SIZE - 1) / SampleCodec.BLOCK_SIZE);
+    buffer.flip();
+    SampleCodec.decode(buffer, count, result);
+    assertTrue(Arrays.equals(result, samples));
+  }
+
+
+  /**
+   * Test of encodeBlock and decodeBlock across blocks with different shifts, 
+   * of class SampleCodec.
+   */
+  @Test
+  public void testBlocks() {
+    System.out.println("encodeBlock, decodeBlock");
+    short[] samples = new short[3 * SampleCodec.BLOCK_SIZE];
+    for (int i = 0; i < samples.length; i++) {
+      int step = i < SampleCodec.BLOCK_SIZE ? 1 : i < 2 * SampleCodec.BLOCK_SIZE ? 64 : 0;
+      samples[i] = (short) (-3 * step * (i % 7));
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(SampleCodec.getMaxEncodedLength(samples.length, 2));
+    int previous = 0;
+    for (int start = 0; start < samples.length; start += SampleCodec.BLOCK_SIZE) {
+      previous = SampleCodec.encodeBlock(samples, start, SampleCodec.BLOCK_SIZE, previous, buffer);
+      assertEquals(previous, samples[start + SampleCodec.BLOCK_SIZE - 1]);
+    }
+    // The second block is shifted by the 6 trailing zero bits of 3 * 64.
+    assertEquals((int) buffer.get(2 + SampleCodec.getBlockLength(SampleCodec.BLOCK_SIZE, buffer.get(0)) + 1), 6);
+    buffer.flip();
+    short[] result = new short[samples.length];
+    previous = 0;
+    for (int start = 0; start < samples.length; start += SampleCodec.BLOCK_SIZE) {
+      previous = SampleCodec.decodeBlock(buffer, SampleCodec.BLOCK_SIZE, previous, result, start);
+    }
+    assertTrue(Arrays.equals(result, samples));
+    assertEquals(buffer.remaining(), 0);
+  }
+}
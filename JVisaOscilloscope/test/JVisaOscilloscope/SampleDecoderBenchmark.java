@@ -0,0 +1,113 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.Random;
+
+/**
+ * This class compares the decoding of a 2 byte curve block the way
+ * transferWaveform used to do it (ShortBuffer, per sample formula, separate
+ * min/max search) with the path the driver runs now: a bulk copy into a 
+ * JCompactWaveForm and its conversion with statistics in one pass 
+ * (JCompactWaveForm.toJWaveForm). Run it with the full record length of
+ * the TDS3000 and with a long record:
+ * java -cp ... JVisaOscilloscope.SampleDecoderBenchmark [samples] [iterations]
+ * @author agent (agent@local)
+ */
+public class SampleDecoderBenchmark {
+  /** vertical scale factor */
+  static final double Y_MULT = 4e-5;
+  /** vertical offset in digitizing levels */
+  static final double Y_OFF = 12.0;
+  /** vertical offset in units */
+  static final double Y_ZERO = 0.0;
+  /** prevents the JIT compiler from removing the measured loops */
+  static double sink;
+
+
+  /**
+   * This method decodes a block the way transferWaveform used to do it.
+   * @param block curve block
+   * @param count number of samples
+   * @param data amplitudes
+   */
+  static void decodeReference(byte[] block, int count, double[] data) {
+    ShortBuffer samples = ByteBuffer.wrap(block, 0, 2 * count).asShortBuffer();
+    for (int i = 0; i < count; i++) {
+      data[i] = (samples.get(i) - Y_OFF) * Y_MULT + Y_ZERO;
+    }
+    double min = data[0], max = data[0];
+    for (int i = 1; i < count; i++) {
+      if (data[i] < min) {
+        min = data[i];
+      }
+      else if (data[i] > max) {
+        max = data[i];
+      }
+    }
+    sink += min + max;
+  }
+
+
+  /**
+   * This method decodes a block the way transferWaveform does it now.
+   * @param block curve block
+   * @param count number of samples
+   * @param raw raw samples, reused
+   * @param waveForm amplitudes and statistics, reused
+   */
+  static void decodeCompact(byte[] block, int count, JCompactWaveForm raw, JWaveForm waveForm) {
+    raw.setSamples(block, 0, count, 2, true);
+    raw.toJWaveForm(waveForm);
+    sink += waveForm.min + waveForm.max;
+  }
+
+
+  /**
+   * This method runs the benchmark.
+   * @param args number of samples (default 10000) and iterations (default 20000)
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+    byte[] block = new byte[2 * count];
+    new Random(1).nextBytes(block);
+    double[] data = new double[count];
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.setScale(Y_MULT, Y_OFF, Y_ZERO, 1e-9);
+    JWaveForm waveForm = new JWaveForm();
+    waveForm.isReused = true;
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        decodeReference(block, count, data);
+      }
+      long reference = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        decodeCompact(block, count, raw, waveForm);
+      }
+      long compact = System.nanoTime() - start;
+      System.out.println(String.format("round %d: reference %.2f ns/sample, toJWaveForm %.2f ns/sample",
+              round, (double) reference / iterations / count, (double) compact / iterations / count));
+    }
+    System.out.println(sink);
+  }
+}
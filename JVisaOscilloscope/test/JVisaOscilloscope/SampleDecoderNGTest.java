@@ -0,0 +1,131 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the SampleDecoder class
+ * against a straightforward ByteBuffer conversion. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class SampleDecoderNGTest {
+  /** number of samples per test */
+  static final int COUNT = 1003;
+  /** vertical scale factor */
+  static final double Y_MULT = 4e-5;
+  /** vertical offset in digitizing levels */
+  static final double Y_OFF = -120.0;
+  /** vertical offset in units */
+  static final double Y_ZERO = 0.25;
+
+
+  /**
+   * This method fills a block with random bytes behind a 3 byte header.
+   * @param length number of sample bytes
+   * @return block
+   */
+  static byte[] randomBlock(int length) {
+    byte[] block = new byte[length + 3];
+    new Random(length).nextBytes(block);
+    return block;
+  }
+
+
+  /**
+   * This method checks amplitudes and statistics against a straightforward 
+   * conversion.
+   * @param raws raw samples
+   * @param result decoded amplitudes
+   * @param statistics decoded statistics
+   */
+  static void check(int[] raws, double[] result, WaveformStatistics statistics) {
+    double[] expected = new double[raws.length];
+    for (int i = 0; i < raws.length; i++) {
+      expected[i] = (raws[i] - Y_OFF) * Y_MULT + Y_ZERO;
+      assertEquals(result[i], expected[i], 1e-12);
+    }
+    WaveformStatistics reference = new WaveformStatistics();
+    reference.compute(expected, expected.length);
+    assertEquals(statistics.count, raws.length);
+    assertEquals(statistics.min, reference.min, 1e-12);
+    assertEquals(statistics.max, reference.max, 1e-12);
+    assertEquals(statistics.minIndex, reference.minIndex);
+    assertEquals(statistics.maxIndex, reference.maxIndex);
+    assertEquals(statistics.mean, reference.mean, 1e-12);
+    assertEquals(statistics.rms, reference.rms, 1e-9);
+  }
+
+
+  /**
+   * Test of decodeInt8 method, of class SampleDecoder.
+   */
+  @Test
+  public void testDecodeInt8() {
+    System.out.println("decodeInt8");
+    byte[] block = randomBlock(COUNT);
+    double[] result = new double[COUNT];
+    float[] resultFloat = new float[COUNT];
+    WaveformStatistics statistics = new WaveformStatistics();
+    double shift = SampleDecoder.getShift(Y_MULT, Y_OFF, Y_ZERO);
+    int[] raws = new int[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      raws[i] = block[3 + i];
+    }
+    SampleDecoder.decodeInt8(block, 3, COUNT, Y_MULT, shift, result, statistics);
+    check(raws, result, statistics);
+    SampleDecoder.decodeInt8(block, 3, COUNT, Y_MULT, shift, resultFloat);
+    for (int i = 0; i < COUNT; i++) {
+      assertEquals(resultFloat[i], (float) result[i], 1e-6f);
+    }
+    SampleDecoder.decodeInt8(ByteBuffer.wrap(block, 3, COUNT).slice(), COUNT, Y_MULT, shift, 
+            result, statistics);
+    check(raws, result, statistics);
+  }
+
+
+  /**
+   * Test of decodeInt16 method for samples stored as shorts and for both 
+   * byte orders of a buffer, of class SampleDecoder.
+   */
+  @Test
+  public void testDecodeInt16() {
+    System.out.println("decodeInt16");
+    byte[] block = randomBlock(2 * COUNT);
+    double[] result = new double[COUNT];
+    WaveformStatistics statistics = new WaveformStatistics();
+    double shift = SampleDecoder.getShift(Y_MULT, Y_OFF, Y_ZERO);
+    for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      ByteBuffer buffer = ByteBuffer.wrap(block, 3, 2 * COUNT).slice().order(order);
+      short[] samples = new short[COUNT];
+      int[] raws = new int[COUNT];
+      for (int i = 0; i < COUNT; i++) {
+        samples[i] = buffer.getShort(2 * i);
+        raws[i] = samples[i];
+      }
+      SampleDecoder.decodeInt16(samples, COUNT, Y_MULT, shift, result, statistics);
+      check(raws, result, statistics);
+      SampleDecoder.decodeInt16(buffer, COUNT, Y_MULT, shift, result, statistics);
+      check(raws, result, statistics);
+    }
+  }
+}
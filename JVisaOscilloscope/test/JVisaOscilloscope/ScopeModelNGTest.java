@@ -0,0 +1,209 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the ScopeModel and 
+ * ScopeModelRegistry classes. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class ScopeModelNGTest {
+
+  /**
+   * Test of find, of class ScopeModelRegistry.
+   */
+  @Test
+  public void testFind() {
+    System.out.println("find");
+    ScopeModelRegistry registry = ScopeModelRegistry.getDefault();
+    assertEquals(registry.find("TEKTRONIX,TDS 3014B,0,CF:91.1CT FV:v3.41 TDS3FFT:v1.00").name, 
+            "TDS3000");
+    assertEquals(registry.find("TEKTRONIX,TDS 2024B,C010001,CF:91.1CT FV:v22.11").name, 
+            "TDS2000");
+    assertEquals(registry.find("TEKTRONIX,TDS 1002,0,CF:91.1CT FV:v4.12").name, "TDS2002");
+    assertEquals(registry.find("TEKTRONIX,TDS 2012B,C010001,CF:91.1CT FV:v22.11").channelCount, 2);
+    assertEquals(registry.find("TEKTRONIX,TDS 2024B,C010001,CF:91.1CT FV:v22.11").channelCount, 4);
+    assertEquals(registry.find("TEKTRONIX,TDS 3032,0,CF:91.1CT FV:v2.11").name, "TDS3002");
+    assertEquals(registry.find("TEKTRONIX,TDS 3052B,0,CF:91.1CT FV:v3.41").channelCount, 2);
+    assertEquals(registry.find("TEKTRONIX,TDS 3054C,0,CF:91.1CT FV:v4.05").channelCount, 4);
+    assertNull(registry.find("AGILENT TECHNOLOGIES,DSO-X 2024A,MY5,02.41"));
+    assertNull(registry.find(null));
+  }
+
+
+  /**
+   * Test of register, of class ScopeModelRegistry.
+   */
+  @Test
+  public void testRegister() {
+    System.out.println("register");
+    ScopeModelRegistry registry = new ScopeModelRegistry(true);
+    ScopeModel.Builder builder = new ScopeModel.Builder("TDS3054", "TEKTRONIX,TDS 3054.*");
+    builder.highResolutionPointCount = 10000;
+    ScopeModel model = builder.build();
+    registry.register(model);
+    assertSame(registry.find("TEKTRONIX,TDS 3054C,0,CF:91.1CT FV:v4.05"), model);
+    assertEquals(registry.find("TEKTRONIX,TDS 3012,0,CF:91.1CT FV:v2.11").name, "TDS3002");
+    assertSame(registry.getModels().get(0), model);
+    try {
+      registry.getModels().clear();
+      fail("The tables can be changed without register.");
+    }
+    catch (UnsupportedOperationException e) {
+      assertEquals(registry.getModels().size(), 5);
+    }
+    assertTrue(new ScopeModelRegistry(false).getModels().isEmpty());
+  }
+
+
+  /**
+   * Test of the TDS3000 table, of class ScopeModel.
+   */
+  @Test
+  public void testTds3000() {
+    System.out.println("TDS3000");
+    ScopeModel model = ScopeModel.createTds3000();
+    assertTrue(model.isValidAverageCount(512));
+    assertFalse(model.isValidAverageCount(3));
+    assertEquals(model.getPointCount(true), 10000);
+    assertEquals(model.getPointCount(false), 500);
+    assertEquals(model.getResolutionCommand(false), "HORIZONTAL:RESOLUTION LOW");
+    assertTrue(model.isReferenceCopied());
+    assertEquals(String.format(model.saveReferenceCommand, 2), 
+            "DATA:SOURCE CH2;:SAVE:WAVEFORM CH2,REF2;:SELECT:REF2 ON;:DATA:SOURCE REF2");
+    assertEquals(String.format(model.dataRangeCommand, 1, 500), "DATA:START 1;STOP 500");
+  }
+
+
+  /**
+   * Test of the TDS2000 table, of class ScopeModel.
+   */
+  @Test
+  public void testTds2000() {
+    System.out.println("TDS2000");
+    ScopeModel model = ScopeModel.createTds2000();
+    assertFalse(model.isValidAverageCount(2));
+    assertTrue(model.isValidAverageCount(128));
+    assertEquals(model.getPointCount(false), 2500);
+    assertNull(model.getResolutionCommand(true));
+    assertFalse(model.isReferenceCopied());
+    assertFalse(model.isLittleEndianSupported);
+    assertEquals(ScopeModel.createTds2002().getPointCount(true), 2500);
+  }
+
+
+  /**
+   * Test of setModel, of class JInstrument_TDS3000.
+   */
+  @Test
+  public void testSetModel() {
+    System.out.println("setModel");
+    JInstrument_TDS3000 instance = new JInstrument_TDS3000();
+    assertEquals(instance.validateAverageCount(2), OscilloscopeInterface.StatusCode.SUCCESS);
+    ScopeModel model = ScopeModel.createTds2000();
+    instance.setModel(model);
+    assertEquals(instance.getModel().name, "TDS2000");
+    // Tables are immutable, so the driver shares the table.
+    assertSame(instance.getModel(), model);
+    try {
+      model.validAverageCounts.set(1, 2);
+      fail("The average counts of a table can be changed.");
+    }
+    catch (UnsupportedOperationException e) {
+      assertEquals((int) instance.getModel().validAverageCounts.get(1), 4);
+    }
+    assertEquals(instance.getModel().rebootCommand, "REBOOT");
+    assertEquals(instance.validateAverageCount(2), 
+            OscilloscopeInterface.StatusCode.PARAMETER_INVALID);
+    // SRIBINARY is not requested from a model that does not support it.
+    instance.encodingPolicy = EncodingPolicy.PRECISION;
+    assertEquals(instance.selectTransferEncoding(128), TransferEncoding.RIBINARY_2.getCommand());
+  }
+
+
+  /**
+   * Test of acquireSegmented without segmented memory, of class 
+   * JInstrument_TDS3000.
+   */
+  @Test
+  public void testSegmentedUnsupported() {
+    System.out.println("acquireSegmented unsupported");
+    JInstrument_TDS3000 instance = new JInstrument_TDS3000();
+    // No command is sent, so no instrument is needed.
+    assertEquals(instance.acquireSegmented(new JWaveForm[2][4], new double[2], new int[] {1}), 
+            OscilloscopeInterface.StatusCode.UNSUPPORTED);
+  }
+
+
+  /**
+   * Test of Builder, of class ScopeModel.
+   */
+  @Test
+  public void testBuilder() {
+    System.out.println("Builder");
+    ScopeModel model = ScopeModel.createTds3000();
+    ScopeModel.Builder builder = new ScopeModel.Builder(model);
+    builder.name = "DPO4054";
+    builder.idPattern = "TEKTRONIX,\\s*DPO\\s*4\\d{3}.*";
+    builder.validAverageCounts = new int[] {16, 1, 4};
+    builder.segmentedOnCommand = "HORIZONTAL:FASTFRAME:COUNT %d;STATE ON";
+    builder.digitizerBits = 9;
+    ScopeModel derived = builder.build();
+    // The builder copies its arrays, so changing them later changes no table.
+    builder.validAverageCounts[0] = 2;
+    builder.resetCommands[0] = "*CLS";
+    assertEquals(derived.validAverageCounts.toString(), "[1, 4, 16]");
+    assertEquals(derived.resetCommands, model.resetCommands);
+    assertTrue(derived.matches("tektronix,DPO 4054,C0,CF:91.1CT FV:v2.0"));
+    assertTrue(derived.isSegmentedSupported());
+    assertFalse(model.isSegmentedSupported());
+    assertEquals(derived.digitizerBits, 9);
+    assertEquals(model.digitizerBits, 8);
+    assertEquals(derived.highResolutionPointCount, model.highResolutionPointCount);
+    assertEquals(model.name, "TDS3000");
+  }
+
+
+  /**
+   * Test of createOscilloscope, of class ScopeModelRegistry.
+   */
+  @Test
+  public void testCreateOscilloscope() {
+    System.out.println("createOscilloscope");
+    ScopeModelRegistry registry = new ScopeModelRegistry(true);
+    OscilloscopeInterface scope = 
+            registry.createOscilloscope("TEKTRONIX,TDS 3012,0,CF:91.1CT FV:v2.11");
+    assertTrue(scope instanceof JInstrument_TDS3000);
+    assertEquals(((JInstrument_TDS3000) scope).getModel().channelCount, 2);
+    assertNull(registry.createOscilloscope("AGILENT TECHNOLOGIES,DSO-X 2024A,MY5,02.41"));
+    // A model with its own driver registers its factory with its table.
+    final OscilloscopeInterface driver = new JInstrument_TDS3000();
+    ScopeModel.Builder builder = new ScopeModel.Builder("DSO-X", "AGILENT TECHNOLOGIES,DSO-X.*");
+    builder.factory = new OscilloscopeFactory() {
+      @Override
+      public OscilloscopeInterface create(ScopeModel model) {
+        return driver;
+      }
+    };
+    registry.register(builder.build());
+    assertSame(registry.createOscilloscope("AGILENT TECHNOLOGIES,DSO-X 2024A,MY5,02.41"), driver);
+  }
+}
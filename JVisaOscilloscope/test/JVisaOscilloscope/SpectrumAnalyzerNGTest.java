@@ -0,0 +1,121 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.concurrent.ForkJoinPool;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the SpectrumAnalyzer and
+ * SpectrumBatch classes. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class SpectrumAnalyzerNGTest {
+
+  /**
+   * This method creates a sine waveform.
+   * @param count number of samples
+   * @param rate time between samples in s
+   * @param frequency frequency in Hz
+   * @param amplitude peak amplitude
+   * @return waveform
+   */
+  static JWaveForm createSine(int count, double rate, double frequency, double amplitude) {
+    JWaveForm waveForm = new JWaveForm();
+    waveForm.data = new double[count];
+    waveForm.dataSize = count;
+    waveForm.rate = rate;
+    for (int i = 0; i < count; i++) {
+      waveForm.data[i] = amplitude * Math.sin(2.0 * Math.PI * frequency * i * rate);
+    }
+    return waveForm;
+  }
+
+
+  /**
+   * Test of analyze method, of class SpectrumAnalyzer.
+   */
+  @Test
+  public void testAnalyze() {
+    System.out.println("analyze");
+    // 1024 samples at 1 MHz, 125 kHz falls on bin 128.
+    JWaveForm waveForm = createSine(1024, 1e-6, 125e3, 0.5);
+    SpectrumAnalyzer analyzer = new SpectrumAnalyzer(WindowFunction.HANN);
+    Spectrum spectrum = analyzer.analyze(waveForm, null);
+    assertEquals(spectrum.binCount, 513);
+    assertEquals(spectrum.frequencyStep, 1e6 / 1024, 1e-9);
+    assertEquals(spectrum.getPeakBin(), 128);
+    assertEquals(spectrum.magnitude[128], 0.5, 1e-9);
+    assertEquals(spectrum.phase[128], -Math.PI / 2, 1e-9);
+    // The power spectral density integrates to the mean square of the sine,
+    // whatever the window.
+    double power = 0.0;
+    for (int k = 0; k < spectrum.binCount; k++) {
+      power += spectrum.powerSpectralDensity[k] * spectrum.frequencyStep;
+    }
+    assertEquals(power, 0.125, 1e-9);
+
+    // A flat top window measures the amplitude between bins.
+    analyzer = new SpectrumAnalyzer(WindowFunction.FLAT_TOP);
+    analyzer.isPhaseComputed = false;
+    Spectrum reused = analyzer.analyze(createSine(1000, 1e-6, 125.5e3 * 1024 / 1000, 0.5), spectrum);
+    assertSame(reused, spectrum);
+    assertEquals(spectrum.magnitude[spectrum.getPeakBin()], 0.5, 0.005);
+    // A phase left from the last analysis does not pass for a new one.
+    assertNull(spectrum.phase);
+
+    waveForm.rate = null;
+    try {
+      analyzer.analyze(waveForm, spectrum);
+      fail("A waveform without rate was analyzed.");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+
+  /**
+   * Test of analyze method, of class SpectrumBatch.
+   */
+  @Test
+  public void testBatch() {
+    System.out.println("batch");
+    int count = 9;
+    JWaveForm waveForms[] = new JWaveForm[count];
+    Spectrum spectra[] = new Spectrum[count];
+    for (int i = 0; i < count; i++) {
+      waveForms[i] = createSine(2048, 1e-6, (i + 1) * 1e6 / 64, 1.0);
+    }
+    SpectrumBatch batch = new SpectrumBatch(WindowFunction.HANN);
+    batch.analyze(waveForms, spectra);
+    batch.analyze(waveForms, spectra);
+    assertNotSame(batch.pool, ForkJoinPool.commonPool());
+    batch.shutdown();
+    assertTrue(batch.pool.isShutdown());
+    SpectrumAnalyzer analyzer = new SpectrumAnalyzer(WindowFunction.HANN);
+    for (int i = 0; i < count; i++) {
+      assertEquals(spectra[i].getPeakBin(), (i + 1) * 32);
+      Spectrum expected = analyzer.analyze(waveForms[i], null);
+      for (int k = 0; k < expected.binCount; k++) {
+        assertEquals(spectra[i].magnitude[k], expected.magnitude[k], 0.0);
+      }
+    }
+  }
+}
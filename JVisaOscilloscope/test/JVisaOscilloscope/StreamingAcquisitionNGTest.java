@@ -0,0 +1,81 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the StreamingAcquisition 
+ * class. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class StreamingAcquisitionNGTest {
+
+  /**
+   * This method creates an oscilloscope whose acquisitions all fail.
+   * @param acquisitions counter of the acquisitions
+   * @return oscilloscope
+   */
+  static OscilloscopeInterface createFailingOscilloscope(final AtomicInteger acquisitions) {
+    return (OscilloscopeInterface) Proxy.newProxyInstance(
+            OscilloscopeInterface.class.getClassLoader(), 
+            new Class<?>[] {OscilloscopeInterface.class}, 
+            new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("acquire")) {
+          acquisitions.incrementAndGet();
+          return OscilloscopeInterface.StatusCode.VISA_ERROR;
+        }
+        return null;
+      }
+    });
+  }
+
+
+  /**
+   * Test that the producer thread stops after maxConsecutiveFailures 
+   * failed acquisitions, waiting between them, of class StreamingAcquisition.
+   * @throws InterruptedException if interrupted
+   */
+  @Test
+  public void testStopAfterFailures() throws InterruptedException {
+    System.out.println("stopAfterFailures");
+    AtomicInteger acquisitions = new AtomicInteger();
+    StreamingAcquisition streaming = new StreamingAcquisition(createFailingOscilloscope(acquisitions), 
+            1, new int[] {1}, 2, BackpressurePolicy.DROP_OLDEST);
+    streaming.retryStrategy = new FixedIntervalPollStrategy(20);
+    streaming.maxConsecutiveFailures = 5;
+    long start = System.currentTimeMillis();
+    streaming.start();
+    for (int i = 0; i < 100 && streaming.isRunning(); i++) {
+      Thread.sleep(20);
+    }
+    assertFalse(streaming.isRunning());
+    assertEquals(acquisitions.get(), 5);
+    assertEquals(streaming.getFailedAcquisitions(), 5);
+    assertEquals(streaming.getLastStatus(), OscilloscopeInterface.StatusCode.VISA_ERROR);
+    assertTrue(System.currentTimeMillis() - start >= 4 * 20);
+    assertTrue(streaming.stop());
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.util.Random;
+
+/**
+ * This class compares the curve encodings of the TDS3000 by the time to 
+ * transfer and decode a record. The transfer time is computed from the 
+ * block length and the throughput of the link, because it needs an 
+ * instrument to measure; the decode time (setSamples and toJWaveForm) is 
+ * measured.
+ * java -cp ... JVisaOscilloscope.TransferEncodingBenchmark [samples] [iterations] [bytes/s]
+ * @author agent (agent@local)
+ */
+public class TransferEncodingBenchmark {
+  /** prevents the JIT compiler from removing the measured loops */
+  static double sink;
+
+
+  /**
+   * This method runs the benchmark.
+   * @param args number of samples (default 10000), iterations (default 
+   *             20000) and link throughput in bytes/s (default 1e6, about 
+   *             what a TDS3000 delivers over VXI-11)
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+    double throughput = args.length > 2 ? Double.parseDouble(args[2]) : 1e6;
+    byte[] block = new byte[2 * count];
+    new Random(1).nextBytes(block);
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.setScale(4e-5, 12.0, 0.0, 1e-6);
+    JWaveForm waveForm = new JWaveForm();
+    for (int round = 0; round < 3; round++) {
+      for (TransferEncoding encoding : TransferEncoding.values()) {
+        boolean isBigEndian = !encoding.encoding.startsWith("S");
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+          raw.setSamples(block, 0, count, encoding.width, isBigEndian);
+          raw.toJWaveForm(waveForm);
+          sink += waveForm.max;
+        }
+        double decode = (System.nanoTime() - start) * 1e-6 / iterations;
+        double transfer = JInstrument_TDS3000.getCurveBlockLength(count * encoding.width) 
+                / throughput * 1e3;
+        System.out.println(String.format(
+                "round %d: %-11s transfer %8.3f ms, decode %6.3f ms, total %8.3f ms", 
+                round, encoding, transfer, decode, transfer + decode));
+      }
+    }
+    System.out.println(sink);
+  }
+}
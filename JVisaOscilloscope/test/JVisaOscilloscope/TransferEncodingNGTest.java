@@ -0,0 +1,71 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the TransferEncoding 
+ * class. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class TransferEncodingNGTest {
+
+  /**
+   * Test of choose method, of class TransferEncoding.
+   */
+  @Test
+  public void testChoose() {
+    System.out.println("choose");
+    assertEquals(TransferEncoding.choose(EncodingPolicy.PRECISION, 1, 8, 0, true), 
+            TransferEncoding.SRIBINARY_2);
+    assertEquals(TransferEncoding.choose(EncodingPolicy.PRECISION, 1, 8, 0, false), 
+            TransferEncoding.RIBINARY_2);
+    assertEquals(TransferEncoding.choose(EncodingPolicy.THROUGHPUT, 64, 8, 0, true), 
+            TransferEncoding.RIBINARY_1);
+    // A single acquisition has the 8 bits of the digitizer.
+    assertEquals(TransferEncoding.choose(EncodingPolicy.AUTO, 1, 8, 0, true), 
+            TransferEncoding.RIBINARY_1);
+    // A 9 bit digitizer needs 2 byte samples even without averaging.
+    assertEquals(TransferEncoding.choose(EncodingPolicy.AUTO, 1, 9, 0, true), 
+            TransferEncoding.SRIBINARY_2);
+    assertEquals(TransferEncoding.choose(EncodingPolicy.AUTO, 64, 8, 0, true), 
+            TransferEncoding.SRIBINARY_2);
+    assertEquals(TransferEncoding.choose(EncodingPolicy.AUTO, 64, 8, 8, true), 
+            TransferEncoding.RIBINARY_1);
+    assertEquals(TransferEncoding.getAcquiredBits(2, 8), 9);
+    assertEquals(TransferEncoding.getAcquiredBits(64, 8), 11);
+    assertEquals(TransferEncoding.getAcquiredBits(64, 12), 15);
+    assertEquals(TransferEncoding.RIBINARY_1.getCommand(), "DATA:ENCDG RIBINARY;WIDTH 1");
+  }
+
+
+  /**
+   * Test of decoding little endian samples, of class JCompactWaveForm.
+   */
+  @Test
+  public void testLittleEndian() {
+    System.out.println("setSamples little endian");
+    byte[] block = {'#', '1', '4', 0x01, 0x00, (byte) 0xFE, (byte) 0xFF};
+    JCompactWaveForm waveForm = new JCompactWaveForm();
+    waveForm.setSamples(block, 3, 2, 2, false);
+    assertEquals(waveForm.getRawValue(0), 1);
+    assertEquals(waveForm.getRawValue(1), -2);
+  }
+}
@@ -0,0 +1,244 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the WaveformArchive and
+ * WaveformRecord classes. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class WaveformArchiveNGTest {
+
+  /**
+   * This method creates a 2 byte waveform.
+   * @param size number of samples
+   * @param first value of the first sample, incremented for each sample
+   * @return waveform
+   */
+  static JCompactWaveForm createWaveForm(int size, int first) {
+    JCompactWaveForm waveForm = new JCompactWaveForm();
+    waveForm.allocate(size, 2);
+    for (int i = 0; i < size; i++) {
+      waveForm.getShortSamples()[i] = (short) (first + i);
+    }
+    waveForm.setScale(0.5, 2.0, 1.0, 1e-6);
+    waveForm.triggerDelay = 1e-3;
+    return waveForm;
+  }
+
+
+  /**
+   * This method deletes an archive directory.
+   * @param directory directory to delete
+   */
+  static void delete(File directory) {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+
+  /**
+   * Test of append, read and find, of class WaveformArchive.
+   * @throws IOException if the archive could not be written
+   */
+  @Test
+  public void testAppendAndFind() throws IOException {
+    System.out.println("append, find");
+    File directory = Files.createTempDirectory("archive").toFile();
+    try (WaveformArchive archive = new WaveformArchive(directory, 4096, false)) {
+      long reference = 0;
+      for (int i = 0; i < 200; i++) {
+        reference = archive.append(i % 2 == 0 ? "scope A" : "scope B", 1 + i % 4, 1000 + i, 
+                createWaveForm(100, i));
+      }
+      assertEquals(archive.getRecordCount(), 200);
+      assertTrue(archive.getSegmentCount() > 1);
+      WaveformRecord record = archive.read(reference);
+      assertEquals(record.timestamp, 1199);
+      assertEquals(record.instrument, "scope B");
+      assertEquals(record.channel, 4);
+      JCompactWaveForm waveForm = record.toCompactWaveForm(null);
+      assertEquals(waveForm.getDataSize(), 100);
+      assertEquals(waveForm.getRawValue(99), 199 + 99);
+      assertEquals(waveForm.triggerDelay, 1e-3, 0.0);
+      JWaveForm expected = createWaveForm(100, 199).toJWaveForm(new JWaveForm());
+      JWaveForm result = record.toJWaveForm(new JWaveForm());
+      assertTrue(Arrays.equals(result.data, expected.data));
+      assertEquals(result.statistics.mean, expected.statistics.mean, 1e-12);
+      assertEquals(result.max, expected.max);
+
+      List<WaveformRecord> records = archive.find("scope A", 3, 1010, 1100);
+      assertEquals(records.size(), 23);
+      for (WaveformRecord found : records) {
+        assertEquals(found.instrument, "scope A");
+        assertEquals(found.channel, 3);
+        assertTrue(found.timestamp >= 1010 && found.timestamp <= 1100);
+        assertEquals(found.toCompactWaveForm(null).getRawValue(0), (int) (found.timestamp - 1000));
+      }
+      assertEquals(archive.find(null, 0, 0, Long.MAX_VALUE).size(), 200);
+      assertTrue(archive.find("scope C", 0, 0, Long.MAX_VALUE).isEmpty());
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+
+  /**
+   * Test of reopening an archive with an incomplete last record, of class 
+   * WaveformArchive.
+   * @throws IOException if the archive could not be written
+   */
+  @Test
+  public void testReopen() throws IOException {
+    System.out.println("reopen");
+    File directory = Files.createTempDirectory("archive").toFile();
+    try {
+      JCompactWaveForm byteWaveForm = new JCompactWaveForm();
+      byteWaveForm.setSamples(new byte[] {-1, 0, 1}, 0, 3, 1, true);
+      try (WaveformArchive archive = new WaveformArchive(directory)) {
+        archive.append("scope", 1, 1, createWaveForm(10, 0));
+        archive.append("scope", 2, 2, byteWaveForm);
+        archive.append("scope", 3, 3, createWaveForm(10, 0));
+      }
+      File segment = directory.listFiles()[0];
+      try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+        file.setLength(file.length() - 5);
+      }
+      try (WaveformArchive archive = new WaveformArchive(directory)) {
+        assertEquals(archive.getRecordCount(), 2);
+        // The scan does not map the segment, which would block truncating it on Windows.
+        assertNull(archive.segments.get(0).mapping);
+        assertEquals(segment.length(), archive.segments.get(0).length);
+        assertEquals(archive.find("scope", 2, 0, Long.MAX_VALUE).size(), 1);
+        archive.append("scope", 4, 4, createWaveForm(10, 0));
+        List<WaveformRecord> records = archive.find(null, 0, 0, Long.MAX_VALUE);
+        assertEquals(records.size(), 3);
+        assertEquals(records.get(1).sampleWidth, 1);
+        assertEquals(records.get(1).toCompactWaveForm(null).getRawValue(0), -1);
+        assertEquals(records.get(2).channel, 4);
+      }
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+
+  /**
+   * Test of reopening an archive whose last record was allocated but not 
+   * written, of class WaveformArchive.
+   * @throws IOException if the archive could not be written
+   */
+  @Test
+  public void testDamaged() throws IOException {
+    System.out.println("damaged");
+    File directory = Files.createTempDirectory("archive").toFile();
+    try {
+      long length;
+      try (WaveformArchive archive = new WaveformArchive(directory)) {
+        archive.append("scope", 1, 1, createWaveForm(10, 0));
+        length = archive.segments.get(0).length;
+        archive.append("scope", 2, 2, createWaveForm(10, 0));
+        archive.append("scope", 3, 3, createWaveForm(10, 0));
+      }
+      File segment = directory.listFiles()[0];
+      try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+        // A record with a valid header and lost samples, as after a power failure.
+        file.seek(file.length() - 4);
+        file.write(new byte[4]);
+      }
+      try (WaveformArchive archive = new WaveformArchive(directory)) {
+        assertEquals(archive.getRecordCount(), 2);
+        assertEquals(archive.find(null, 3, 0, Long.MAX_VALUE).size(), 0);
+      }
+      try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+        file.seek(length + 8);
+        file.write(0x7F);
+      }
+      try (WaveformArchive archive = new WaveformArchive(directory)) {
+        assertEquals(archive.getRecordCount(), 1);
+        assertEquals(segment.length(), length);
+      }
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+
+  /**
+   * Test of appending compressed waveforms, of class WaveformArchive.
+   * @throws IOException if the archive could not be written
+   */
+  @Test
+  public void testCompressed() throws IOException {
+    System.out.println("compressed");
+    File directory = Files.createTempDirectory("archive").toFile();
+    try (WaveformArchive archive = new WaveformArchive(directory)) {
+      JCompactWaveForm waveForm = createWaveForm(10000, -5000);
+      WaveformRecord record = archive.read(archive.append("scope", 1, 1, waveForm));
+      assertEquals(record.encoding, WaveformRecord.ENCODING_PACKED);
+      assertTrue(record.getPayload().remaining() < 10000 * 2 / 5);
+      assertTrue(Arrays.equals(record.toCompactWaveForm(null).getShortSamples(), 
+              waveForm.getShortSamples()));
+      JWaveForm result = record.toJWaveForm(new JWaveForm());
+      assertEquals(result.data[9999], waveForm.getValue(9999), 0.0);
+      JCompactWaveForm noise = new JCompactWaveForm();
+      noise.allocate(3, 2);
+      noise.getShortSamples()[0] = Short.MIN_VALUE;
+      noise.getShortSamples()[1] = Short.MAX_VALUE;
+      record = archive.read(archive.append("scope", 1, 2, noise));
+      assertEquals(record.encoding, WaveformRecord.ENCODING_RAW);
+      assertEquals(record.toCompactWaveForm(null).getRawValue(1), Short.MAX_VALUE);
+      // A longer data array and the scratch waveform are reused.
+      JCompactWaveForm scratch = new JCompactWaveForm();
+      double[] data = result.data;
+      record.toJWaveForm(result, scratch);
+      assertSame(result.data, data);
+      assertEquals((int) result.dataSize, 3);
+      assertEquals(result.data[1], noise.getValue(1), 0.0);
+      record = archive.read(archive.append("scope", 1, 3, waveForm));
+      record.toJWaveForm(result, scratch);
+      short[] samples = scratch.getShortSamples();
+      JCompactWaveForm ramp = createWaveForm(100, 0);
+      archive.read(archive.append("scope", 1, 4, ramp)).toJWaveForm(result, scratch);
+      assertSame(scratch.getShortSamples(), samples);
+      assertSame(result.data, data);
+      assertEquals((int) result.dataSize, 100);
+      assertEquals(result.data[99], ramp.getValue(99), 0.0);
+    }
+    finally {
+      delete(directory);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the WaveformAverager class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class WaveformAveragerNGTest {
+
+  /**
+   * This method creates a raw waveform with 2 samples.
+   * @param first first raw sample
+   * @param second second raw sample
+   * @return raw waveform with yMult 0.5 and yZero 1
+   */
+  static JCompactWaveForm frame(int first, int second) {
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.allocate(2, 2);
+    raw.getShortSamples()[0] = (short) first;
+    raw.getShortSamples()[1] = (short) second;
+    raw.setScale(0.5, 0.0, 1.0, 1e-6);
+    return raw;
+  }
+
+
+  /**
+   * Test of the cumulative mode, of class WaveformAverager.
+   */
+  @Test
+  public void testCumulative() {
+    System.out.println("cumulative");
+    WaveformAverager averager = new WaveformAverager();
+    averager.add(frame(10, -10));
+    assertEquals(averager.getLastChange(), Double.POSITIVE_INFINITY);
+    averager.add(frame(20, -20));
+    assertEquals(averager.getLastChange(), 5.0, 1e-12);
+    averager.add(frame(30, -30));
+    JWaveForm result = averager.toJWaveForm(new JWaveForm());
+    assertEquals(averager.getCount(), 3);
+    assertEquals(result.data[0], 20 * 0.5 + 1.0, 1e-12);
+    assertEquals(result.data[1], -20 * 0.5 + 1.0, 1e-12);
+    assertEquals(result.min, result.data[1], 1e-12);
+    assertEquals(averager.getLastChange(), 5.0, 1e-12);
+  }
+
+
+  /**
+   * Test of the windowed mode, of class WaveformAverager.
+   */
+  @Test
+  public void testWindowed() {
+    System.out.println("windowed");
+    WaveformAverager averager = new WaveformAverager(WaveformAverager.Mode.WINDOWED, 2, 0);
+    averager.add(frame(10, 0));
+    averager.add(frame(20, 0));
+    averager.add(frame(40, 0));
+    assertEquals(averager.getCount(), 2);
+    assertEquals(averager.getFrameCount(), 3);
+    assertEquals(averager.getAverage(null)[0], 30 * 0.5 + 1.0, 1e-12);
+    assertEquals(averager.getLastChange(), 15.0, 1e-12);
+  }
+
+
+  /**
+   * Test of the exponential mode, of class WaveformAverager.
+   */
+  @Test
+  public void testExponential() {
+    System.out.println("exponential");
+    WaveformAverager averager = new WaveformAverager(WaveformAverager.Mode.EXPONENTIAL, 0, 1);
+    averager.add(frame(0, 0));
+    averager.add(frame(100, 0));
+    assertEquals(averager.getAverage(null)[0], 50 * 0.5 + 1.0, 1e-12);
+    averager.add(frame(100, 0));
+    assertEquals(averager.getAverage(null)[0], 75 * 0.5 + 1.0, 1e-12);
+    assertEquals(averager.getLastChange(), 25.0, 1e-12);
+    // A new scale restarts the average.
+    JCompactWaveForm scaled = frame(8, 0);
+    scaled.yMult = 2.0;
+    averager.add(scaled);
+    assertEquals(averager.getCount(), 1);
+    assertEquals(averager.getAverage(null)[0], 8 * 2.0 + 1.0, 1e-12);
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the WaveformPreamble and
+ * WaveformPreambleCache classes. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class WaveformPreambleNGTest {
+  /** response to the preamble query of JInstrument_TDS3000 */
+  static final String RESPONSE = ":WFMPRE:BYT_NR 2;BIT_NR 16;ENCDG BINARY;BN_FMT RI;BYT_OR MSB;"
+          + "WFID \"Ch1, DC coupling; 2.0E-1 V/div, 4.0E-6 s/div, 10000 points, Average mode\";"
+          + "NR_PT 10000;PT_FMT Y;XUNIT \"s\";XINCR 4.0E-9;XZERO -2.0E-5;PT_OFF 0;YUNIT \"V\";"
+          + "YMULT 3.125E-5;YOFF -1.0E2;YZERO 0.0E0;:CH1:SCALE 2.0E-1;:HORIZONTAL:DELAY:TIME 1.0E-5";
+
+
+  /**
+   * Test of parse method, of class WaveformPreamble.
+   */
+  @Test
+  public void testParse() {
+    System.out.println("parse");
+    WaveformPreamble preamble = WaveformPreamble.parse(RESPONSE);
+    assertEquals(preamble.byteCount, 2);
+    assertEquals(preamble.pointCount, 10000);
+    assertFalse(preamble.isAscii());
+    assertTrue(preamble.isBigEndian());
+    assertTrue(preamble.waveformId.startsWith("Ch1, DC coupling; "));
+    assertEquals(preamble.xIncr, 4.0E-9, 1e-20);
+    assertEquals(preamble.yMult, 3.125E-5, 1e-20);
+    assertEquals(preamble.yOff, -100.0, 1e-12);
+    assertEquals(preamble.gain, 0.2, 1e-12);
+    assertEquals(preamble.getTriggerDelay(), 1.0E-5 - 10000 * 4.0E-9 / 2.0, 1e-18);
+  }
+
+
+  /**
+   * Test of commandWritten method, of class WaveformPreambleCache.
+   */
+  @Test
+  public void testCommandWritten() {
+    System.out.println("commandWritten");
+    WaveformPreambleCache cache = new WaveformPreambleCache(4);
+    WaveformPreamble preamble = WaveformPreamble.parse(RESPONSE);
+    assertTrue(cache.commandWritten("DATA:START 1;STOP 10000"));
+    cache.put(1, preamble);
+    // Writing the same values again keeps the preamble.
+    assertFalse(cache.commandWritten("DATA:START 1;STOP 10000"));
+    assertFalse(cache.commandWritten("DATA:SOURCE CH1;:SAVE:WAVEFORM CH1,REF1"));
+    assertFalse(cache.commandWritten("ACQUIRE:STATE RUN;*OPC?"));
+    assertSame(cache.get(1), preamble);
+    // STOP is relative to DATA: and changes.
+    assertTrue(cache.commandWritten("DATA:START 1;STOP 500"));
+    assertNull(cache.get(1));
+    cache.put(1, preamble);
+    assertTrue(cache.commandWritten("*RST"));
+    assertNull(cache.get(1));
+  }
+}
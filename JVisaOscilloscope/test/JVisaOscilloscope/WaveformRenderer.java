@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 agent (agent@local)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package JVisaOscilloscope;
+
+import java.awt.Graphics2D;
+
+/**
+ * This class draws a waveform into a graphics context. It keeps the 
+ * min/max pyramid of the waveform and reuses its coordinate buffers, so 
+ * drawing the same or a new waveform allocates nothing once the buffers
+ * are large enough. It remembers the pixel columns of the last drawing to
+ * report which columns a new drawing changed.
+ * An object is used by one thread at a time.
+ * @author agent (agent@local)
+ */
+public class WaveformRenderer {
+  /** min/max envelope of the waveform */
+  protected final MinMaxPyramid pyramid = new MinMaxPyramid();
+  /** minimum and maximum amplitude of the samples on each pixel column */
+  protected double[] columnMins = new double[0], columnMaxs = new double[0];
+  /** polyline coordinates */
+  protected int[] xPoints = new int[0], yPoints = new int[0];
+  /** top and bottom pixel of each column of the last envelope drawn */
+  protected int[] previousTops = new int[0], previousBottoms = new int[0];
+  /** width of the last envelope drawn, -1 if the last drawing was no envelope */
+  protected int previousWidth = -1;
+  /** minimum amplitude of the last drawing */
+  public double yMin;
+  /** maximum amplitude of the last drawing */
+  public double yMax;
+  /** vertical scale factor of the last drawing */
+  public double yScale;
+  /** horizontal pixels per sample of the last drawing */
+  public double xIncrement;
+  /** first column changed by the last drawing */
+  public int dirtyStart;
+  /** column after the last column changed by the last drawing */
+  public int dirtyEnd;
+
+
+  /**
+   * This method sets the waveform to draw. The pyramid is only rebuilt for
+   * a different array or size.
+   * @param data amplitudes
+   * @param count number of amplitudes
+   */
+  public void setData(double[] data, int count) {
+    if (pyramid.data != data || pyramid.getCount() != count) {
+      pyramid.build(data, count);
+    }
+  }
+
+
+  /**
+   * This method forces the pyramid to be rebuilt, for example after the
+   * amplitudes of the same array have changed.
+   * @param data amplitudes
+   * @param count number of amplitudes
+   */
+  public void rebuild(double[] data, int count) {
+    pyramid.build(data, count);
+  }
+
+
+  /**
+   * This method finds minimum and maximum of a sample range.
+   * @param start index of the first sample
+   * @param end index of the last sample
+   * @param range receives minimum and maximum
+   * @return false if the range is empty
+   */
+  public boolean getRange(int start, int end, double[] range) {
+    return pyramid.getRange(start, end + 1, range);
+  }
+
+
+  /**
+   * This method makes sure a buffer has a minimum length.
+   * @param buffer buffer
+   * @param length minimum length
+   * @return buffer or a new one
+   */
+  private static int[] ensure(int[] buffer, int length) {
+    return buffer.length < length ? new int[length] : buffer;
+  }
+
+
+  /**
+   * This method draws a sample range. If more than two samples fall on a 
+   * pixel column, it draws the min/max envelope of each column instead of
+   * every sample, which keeps every peak visible.
+   * @param g graphics context with the waveform color set
+   * @param start index of the first sample
+   * @param end index of the last sample
+   * @param width width in pixels
+   * @param height height in pixels
+   * @param min minimum amplitude, NaN to find it
+   * @param max maximum amplitude, NaN to find it
+   */
+  public void render(Graphics2D g, int start, int end, int width, int height, 
+          double min, double max) {
+    double[] data = pyramid.data;
+    yMin = min;
+    yMax = max;
+    if (Double.isNaN(min) || Double.isNaN(max)) {
+      double[] range = new double[2];
+      if (getRange(start, end, range)) {
+        yMin = range[0];
+        yMax = range[1];
+      }
+    }
+    yScale = (double) height / (Math.abs(yMax) + Math.abs(yMin));
+    int sampleCount = end - start + 1;
+    if (width > 0 && sampleCount > 2 * width) {
+      renderEnvelope(g, start, end, width);
+      return;
+    }
+    xPoints = ensure(xPoints, sampleCount);
+    yPoints = ensure(yPoints, sampleCount);
+    xIncrement = (double) width / (double) sampleCount;
+    for (int i = start, j = 0; i <= end; i++, j++) {
+      xPoints[j] = (int) (xIncrement * (double) j + .5);
+      yPoints[j] = (int) ((yMax - data[i]) * yScale);
+    }
+    g.drawPolyline(xPoints, yPoints, sampleCount);
+    previousWidth = -1;
+    dirtyStart = 0;
+    dirtyEnd = width;
+  }
+
+
+  /**
+   * This method draws the min/max envelope, one vertical stroke per pixel
+   * column. Consecutive strokes run in opposite directions so that the 
+   * polyline connects them without crossing lines.
+   * @param g graphics context
+   * @param start index of the first sample
+   * @param end index of the last sample
+   * @param columns number of pixel columns
+   */
+  protected void renderEnvelope(Graphics2D g, int start, int end, int columns) {
+    if (columnMins.length < columns) {
+      columnMins = new double[columns];
+      columnMaxs = new double[columns];
+    }
+    pyramid.getEnvelope(start, end + 1, columns, columnMins, columnMaxs);
+    xIncrement = (double) columns / (double) (end - start + 1);
+    xPoints = ensure(xPoints, 2 * columns);
+    yPoints = ensure(yPoints, 2 * columns);
+    boolean isComparable = previousWidth == columns;
+    previousTops = ensure(previousTops, columns);
+    previousBottoms = ensure(previousBottoms, columns);
+    dirtyStart = columns;
+    dirtyEnd = 0;
+    for (int column = 0; column < columns; column++) {
+      int top = (int) ((yMax - columnMaxs[column]) * yScale);
+      int bottom = (int) ((yMax - columnMins[column]) * yScale);
+      xPoints[2 * column] = xPoints[2 * column + 1] = column;
+      boolean isDownward = (column & 1) == 0;
+      yPoints[2 * column] = isDownward ? top : bottom;
+      yPoints[2 * column + 1] = isDownward ? bottom : top;
+      if (!isComparable || top != previousTops[column] || bottom != previousBottoms[column]) {
+        dirtyStart = Math.min(dirtyStart, column);
+        dirtyEnd = column + 1;
+      }
+      previousTops[column] = top;
+      previousBottoms[column] = bottom;
+    }
+    g.drawPolyline(xPoints, yPoints, 2 * columns);
+    previousWidth = columns;
+    // The strokes connecting a changed column reach into its neighbors.
+    dirtyStart = Math.max(0, dirtyStart - 1);
+    dirtyEnd = Math.min(columns, dirtyEnd + 1);
+  }
+}
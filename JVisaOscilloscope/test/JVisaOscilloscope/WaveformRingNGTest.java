@@ -0,0 +1,123 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the WaveformRing and 
+ * WaveformRingCursor classes. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class WaveformRingNGTest {
+
+  /**
+   * This method writes a frame as a producer would.
+   * @param ring ring to write
+   * @param value amplitude of the single sample of channel 1
+   * @return sequence number, -1 if the frame was discarded
+   */
+  static long produce(WaveformRing ring, double value) {
+    WaveformFrame frame = ring.claim();
+    JWaveForm waveForm = frame.waveForms[0];
+    if (waveForm.data == null) {
+      waveForm.data = new double[1];
+    }
+    waveForm.data[0] = value;
+    waveForm.dataSize = 1;
+    return ring.publish(frame);
+  }
+
+
+  /**
+   * Test of the DROP_OLDEST policy, of class WaveformRing.
+   */
+  @Test
+  public void testDropOldest() {
+    System.out.println("DROP_OLDEST");
+    WaveformRing ring = new WaveformRing(2, 1, BackpressurePolicy.DROP_OLDEST);
+    WaveformRingCursor cursor = ring.newCursor();
+    JWaveForm[] destination = {new JWaveForm()};
+    assertEquals(cursor.poll(destination), -1);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(produce(ring, i), i);
+    }
+    assertEquals(cursor.getBacklog(), 5);
+    assertEquals(cursor.poll(destination), 3);
+    assertEquals(destination[0].data[0], 3.0);
+    assertEquals(cursor.getDroppedFrames(), 3);
+    assertEquals(cursor.poll(destination), 4);
+    assertEquals(cursor.poll(destination), -1);
+  }
+
+
+  /**
+   * Test of the DROP_NEWEST policy, of class WaveformRing.
+   */
+  @Test
+  public void testDropNewest() {
+    System.out.println("DROP_NEWEST");
+    WaveformRing ring = new WaveformRing(2, 1, BackpressurePolicy.DROP_NEWEST);
+    WaveformRingCursor cursor = ring.newCursor();
+    JWaveForm[] destination = {new JWaveForm()};
+    assertEquals(produce(ring, 0), 0);
+    assertEquals(produce(ring, 1), 1);
+    assertEquals(produce(ring, 2), -1);
+    assertEquals(ring.getDroppedFrames(), 1);
+    assertEquals(cursor.poll(destination), 0);
+    assertEquals(destination[0].data[0], 0.0);
+    assertEquals(produce(ring, 3), 2);
+    assertEquals(cursor.poll(destination), 1);
+    assertEquals(cursor.poll(destination), 2);
+    assertEquals(destination[0].data[0], 3.0);
+    assertEquals(cursor.getDroppedFrames(), 0);
+  }
+
+
+  /**
+   * Test of the BLOCK policy, of class WaveformRing.
+   * @throws InterruptedException if the test is interrupted
+   */
+  @Test
+  public void testBlock() throws InterruptedException {
+    System.out.println("BLOCK");
+    final WaveformRing ring = new WaveformRing(1, 1, BackpressurePolicy.BLOCK);
+    WaveformRingCursor cursor = ring.newCursor();
+    JWaveForm[] destination = {new JWaveForm()};
+    assertEquals(produce(ring, 0), 0);
+    final long[] produced = {-2};
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        produced[0] = produce(ring, 1);
+      }
+    });
+    producer.start();
+    Thread.sleep(50);
+    // The producer waits until the cursor has read frame 0.
+    assertTrue(producer.isAlive());
+    assertEquals(cursor.poll(destination), 0);
+    producer.join(1000);
+    assertEquals(produced[0], 1);
+    assertEquals(cursor.take(destination, 100), 1);
+    assertEquals(destination[0].data[0], 1.0);
+    cursor.close();
+    assertEquals(produce(ring, 2), 2);
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the WaveformStatistics 
+ * class and the statistics computed while decoding. No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class WaveformStatisticsNGTest {
+
+  /**
+   * Test of statistics computed by toJWaveForm, compared with compute on 
+   * the decoded amplitudes.
+   */
+  @Test
+  public void testDecodeStatistics() {
+    System.out.println("decode statistics");
+    JCompactWaveForm raw = new JCompactWaveForm();
+    raw.allocate(5, 2);
+    short[] samples = raw.getShortSamples();
+    samples[0] = 3;
+    samples[1] = -7;
+    samples[2] = 12;
+    samples[3] = 12;
+    samples[4] = 0;
+    raw.setScale(-0.25, 2.0, 1.5, 1e-6);
+    JWaveForm waveForm = raw.toJWaveForm(new JWaveForm());
+    WaveformStatistics expected = new WaveformStatistics();
+    expected.compute(waveForm.data, 5);
+    WaveformStatistics statistics = waveForm.statistics;
+    assertEquals(statistics.count, 5);
+    assertEquals(statistics.mean, expected.mean, 1e-12);
+    assertEquals(statistics.rms, expected.rms, 1e-12);
+    assertEquals(statistics.standardDeviation, expected.standardDeviation, 1e-12);
+    assertEquals(statistics.peakToPeak, 19 * 0.25, 1e-12);
+    // The negative scale turns the raw maximum into the minimum amplitude.
+    assertEquals(statistics.minIndex, 2);
+    assertEquals(statistics.maxIndex, 1);
+    assertEquals(statistics.min, expected.min, 1e-12);
+    assertEquals(waveForm.max, expected.max, 1e-12);
+  }
+
+
+  /**
+   * Test of compute method, of class WaveformStatistics.
+   */
+  @Test
+  public void testCompute() {
+    System.out.println("compute");
+    WaveformStatistics statistics = new WaveformStatistics();
+    statistics.compute(new double[] {1.0, -1.0, 1.0, -1.0}, 4);
+    assertEquals(statistics.mean, 0.0, 1e-12);
+    assertEquals(statistics.rms, 1.0, 1e-12);
+    assertEquals(statistics.standardDeviation, 1.0, 1e-12);
+    assertEquals(statistics.peakToPeak, 2.0, 1e-12);
+    assertEquals(statistics.minIndex, 1);
+    assertEquals(statistics.maxIndex, 0);
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * @license
+
+Copyright 2026 agent (agent@local)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+package JVisaOscilloscope;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides TestNG functions for testing the WaveformWindow class.
+ * No instrument is needed.
+ * @author agent (agent@local)
+ */
+public class WaveformWindowNGTest {
+  /** time between samples: 10,000 samples over 10 ms */
+  static final double X_INCR = 1e-6;
+  /** time of the first sample with the trigger in the center of the record */
+  static final double RECORD_START = -5e-3;
+
+
+  /**
+   * Test of resolve for index windows, of class WaveformWindow.
+   */
+  @Test
+  public void testResolveIndex() {
+    System.out.println("resolve index");
+    WaveformWindow window = new WaveformWindow(100, 500);
+    assertSame(window.resolve(RECORD_START, X_INCR, 10000), window);
+    WaveformWindow clipped = new WaveformWindow(9800, 500).resolve(RECORD_START, X_INCR, 10000);
+    assertEquals(clipped.start, 9800);
+    assertEquals(clipped.count, 200);
+    assertNull(new WaveformWindow(10000, 1).resolve(RECORD_START, X_INCR, 10000));
+  }
+
+
+  /**
+   * Test of resolve for time windows, of class WaveformWindow.
+   */
+  @Test
+  public void testResolveTime() {
+    System.out.println("resolve time");
+    // 500 samples around the trigger
+    WaveformWindow window = new WaveformWindow(-250e-6, 249e-6).resolve(RECORD_START, X_INCR, 10000);
+    assertEquals(window.start, 4750);
+    assertEquals(window.count, 500);
+    assertFalse(window.isTimeWindow());
+    // The time of the first sample of the window is the trigger delay of the 
+    // transferred waveform.
+    assertEquals(RECORD_START + window.start * X_INCR, -250e-6, 1e-12);
+    // Partial samples at both ends are included.
+    window = new WaveformWindow(-250.5e-6, 249.5e-6).resolve(RECORD_START, X_INCR, 10000);
+    assertEquals(window.start, 4749);
+    assertEquals(window.count, 502);
+    window = new WaveformWindow(-1.0, 1.0).resolve(RECORD_START, X_INCR, 10000);
+    assertEquals(window.start, 0);
+    assertEquals(window.count, 10000);
+    assertNull(new WaveformWindow(6e-3, 7e-3).resolve(RECORD_START, X_INCR, 10000));
+  }
+}